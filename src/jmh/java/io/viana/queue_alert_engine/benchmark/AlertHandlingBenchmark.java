@@ -0,0 +1,64 @@
+package io.viana.queue_alert_engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.viana.queue_alert_engine.notifier.TelegramNotifier;
+import io.viana.queue_alert_engine.service.AlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Conversão dos alertas JSON recebidos do tópico (AlertService.handleAlert),
+ * uma mensagem por vez e em lote com repetições. O notificador do Telegram é
+ * um stub que não faz nada, então só a conversão e a redução do lote são medidas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AlertHandlingBenchmark {
+
+    private static final int BATCH = 500;
+
+    private AlertService alertService;
+    private String message;
+    private List<String> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        alertService = new AlertService(new ObjectMapper(), mock(TelegramNotifier.class, withSettings().stubOnly()));
+        message = json(0, 7, 2_500L);
+
+        // Lote com metade das partições repetidas (reduzidas ao alerta mais recente)
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(json(i % 10, i % (BATCH / 20), 1_000L + i));
+        }
+    }
+
+    private static String json(int group, int partition, long lag) {
+        return "{\"groupId\":\"consumer-group-" + group + "\",\"topic\":\"orders-topic\",\"partition\":"
+                + partition + ",\"lag\":" + lag + ",\"level\":\"WARNING\"}";
+    }
+
+    @Benchmark
+    public void handleAlert() {
+        alertService.handleAlert(message);
+    }
+
+    @Benchmark
+    public void handleAlertBatch() {
+        alertService.handleAlerts(batch);
+    }
+}
@@ -0,0 +1,59 @@
+package io.viana.queue_alert_engine.benchmark;
+
+import io.viana.queue_alert_engine.serialization.WireEncoding;
+import io.viana.queue_alert_engine.support.EvaluationFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ciclo completo de avaliação (offsets, status, deduplicação, filtro de estados,
+ * histórico e despacho) com 1k a 100k regras, contra o AdminClient em memória.
+ *
+ * O primeiro ciclo (no setup) publica o estado de todas as partições; os ciclos
+ * medidos são os de regime, em que quase tudo é suprimido por não ter mudado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EvaluationBenchmark {
+
+    // Partições por grupo (o número de grupos sai de rules / PARTITIONS)
+    private static final int PARTITIONS = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int rules;
+
+    private EvaluationFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new EvaluationFixture(Math.max(1, rules / PARTITIONS), PARTITIONS, 0, WireEncoding.BINARY);
+        fixture.cycle();
+        fixture.drainSent();
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() {
+        fixture.drainSent();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void fullCycle() {
+        fixture.cycle();
+    }
+}
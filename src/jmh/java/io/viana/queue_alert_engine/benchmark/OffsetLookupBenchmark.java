@@ -0,0 +1,73 @@
+package io.viana.queue_alert_engine.benchmark;
+
+import io.viana.queue_alert_engine.serialization.WireEncoding;
+import io.viana.queue_alert_engine.service.QueueOffsetTracker;
+import io.viana.queue_alert_engine.support.EvaluationFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta do último offset consumido por (grupo, tópico, partição) no
+ * QueueOffsetTracker, com 1k a 100k slots e chaves em ordem aleatória.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OffsetLookupBenchmark {
+
+    private static final int PARTITIONS = 100;
+    // Chaves pré-sorteadas (potência de 2 para a máscara)
+    private static final int KEYS = 1 << 14;
+
+    @Param({"1000", "10000", "100000"})
+    public int rules;
+
+    private EvaluationFixture fixture;
+    private QueueOffsetTracker tracker;
+    private String[] groups;
+    private String[] topics;
+    private int[] partitions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int groupCount = Math.max(1, rules / PARTITIONS);
+        fixture = new EvaluationFixture(groupCount, PARTITIONS, 0, WireEncoding.BINARY);
+        fixture.cycle();
+        fixture.drainSent();
+        tracker = fixture.offsetTracker();
+
+        SplittableRandom random = new SplittableRandom(42);
+        groups = new String[KEYS];
+        topics = new String[KEYS];
+        partitions = new int[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            int group = random.nextInt(groupCount);
+            groups[i] = "group-" + group;
+            topics[i] = "topic-" + group;
+            partitions[i] = random.nextInt(PARTITIONS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public long lastConsumedOffset() {
+        int i = next++ & (KEYS - 1);
+        return tracker.getLastConsumedOffset(groups[i], topics[i], partitions[i]);
+    }
+}
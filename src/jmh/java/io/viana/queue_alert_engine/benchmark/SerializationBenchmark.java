@@ -0,0 +1,126 @@
+package io.viana.queue_alert_engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.serialization.EventCodecs;
+import io.viana.queue_alert_engine.serialization.WireEncoding;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificação e decodificação de QueueStateEvent e QueueAlert nos dois
+ * formatos do fio (JSON e binário), pelos mesmos serializers do produtor.
+ *
+ * Os benchmarks de encode também registram o tamanho codificado: os contadores
+ * 'bytes' e 'events' saem no resultado JSON, e bytes / events é o tamanho por evento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private static final String STATE_TOPIC = "queue-monitor-states";
+    private static final String ALERT_TOPIC = "queue-monitor-alerts";
+
+    @Param({"JSON", "BINARY"})
+    public WireEncoding encoding;
+
+    private Serializer<QueueStateEvent> stateSerializer;
+    private Deserializer<QueueStateEvent> stateDeserializer;
+    private Serializer<QueueAlert> alertSerializer;
+    private Deserializer<QueueAlert> alertDeserializer;
+    private QueueStateEvent state;
+    private QueueAlert alert;
+    private byte[] stateBytes;
+    private byte[] alertBytes;
+
+    /**
+     * Contadores do tamanho codificado, somados ao longo da iteração.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        // Total de bytes produzidos pelo encode
+        public long bytes;
+        // Total de eventos codificados
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            events = 0;
+        }
+
+        byte[] record(byte[] encoded) {
+            bytes += encoded.length;
+            events++;
+            return encoded;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        KafkaProperties properties = new KafkaProperties();
+        properties.getProducer().setEncoding(encoding);
+        EventCodecs codecs = new EventCodecs(properties, new ObjectMapper());
+        stateSerializer = codecs.stateSerializer();
+        stateDeserializer = codecs.stateDeserializer();
+        alertSerializer = codecs.alertSerializer();
+        alertDeserializer = codecs.alertDeserializer();
+
+        state = QueueStateEvent.builder()
+                .consumerGroup("consumer-group-orders")
+                .topic("orders-topic")
+                .partition(7)
+                .lastProducedOffset(1_250_000L)
+                .lastConsumedOffset(1_247_500L)
+                .lag(2_500L)
+                .produceRate(120.5)
+                .consumeRate(118.0)
+                .timeToDrainSeconds(1_000L)
+                .status(QueueStatus.WARNING)
+                .timestamp(System.currentTimeMillis())
+                .build();
+        alert = new QueueAlert("consumer-group-orders", "orders-topic", 7, 2_500L, "WARNING");
+        stateBytes = stateSerializer.serialize(STATE_TOPIC, state);
+        alertBytes = alertSerializer.serialize(ALERT_TOPIC, alert);
+        System.out.printf("%n%s: estado %d bytes/evento, alerta %d bytes/evento%n",
+                encoding, stateBytes.length, alertBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeState(EncodedSize size) {
+        return size.record(stateSerializer.serialize(STATE_TOPIC, state));
+    }
+
+    @Benchmark
+    public QueueStateEvent decodeState() {
+        return stateDeserializer.deserialize(STATE_TOPIC, stateBytes);
+    }
+
+    @Benchmark
+    public byte[] encodeAlert(EncodedSize size) {
+        return size.record(alertSerializer.serialize(ALERT_TOPIC, alert));
+    }
+
+    @Benchmark
+    public QueueAlert decodeAlert() {
+        return alertDeserializer.deserialize(ALERT_TOPIC, alertBytes);
+    }
+}
@@ -0,0 +1,56 @@
+package io.viana.queue_alert_engine.benchmark;
+
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.notifier.TelegramMessageRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do texto das mensagens do Telegram: alerta individual e resumo
+ * (digest) com 50 a 5000 alertas espalhados por 20 grupos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TelegramRenderingBenchmark {
+
+    private static final String[] LEVELS = {"CRITICAL", "WARNING", "OK"};
+
+    @Param({"50", "500", "5000"})
+    public int alerts;
+
+    private final TelegramMessageRenderer renderer = new TelegramMessageRenderer();
+    private QueueAlert alert;
+    private List<QueueAlert> digest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        alert = new QueueAlert("consumer-group-orders", "orders-topic", 7, 2_500L, "WARNING");
+        digest = new ArrayList<>(alerts);
+        for (int i = 0; i < alerts; i++) {
+            digest.add(new QueueAlert("consumer-group-" + (i % 20), "topic-" + (i % 7), i,
+                    (i * 7_919L) % 100_000L, LEVELS[i % LEVELS.length]));
+        }
+    }
+
+    @Benchmark
+    public String render() {
+        return renderer.render(alert);
+    }
+
+    @Benchmark
+    public String renderDigest() {
+        return renderer.renderDigest(digest, 10);
+    }
+}
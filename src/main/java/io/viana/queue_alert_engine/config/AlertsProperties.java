@@ -23,6 +23,8 @@ public class AlertsProperties {
 
     // Lista de grupos de consumidores a serem monitorados, cada um com suas regras
     private List<AlertGroup> groups;
+    // Arquivo externo de regras (YAML ou properties com 'alerts.groups'), observado e recarregado sem restart
+    private String rulesFile;
 
     // --- Métodos Getters e Setters ---
 
@@ -49,4 +51,12 @@ public class AlertsProperties {
     public void setGroups(List<AlertGroup> groups) {
         this.groups = groups;
     }
+
+    public String getRulesFile() {
+        return rulesFile;
+    }
+
+    public void setRulesFile(String rulesFile) {
+        this.rulesFile = rulesFile;
+    }
 }
\ No newline at end of file
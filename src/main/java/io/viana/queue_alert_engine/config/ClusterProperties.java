@@ -0,0 +1,88 @@
+package io.viana.queue_alert_engine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classe de configuração que mapeia as propriedades do modo cluster definidas
+ * no arquivo de configuração sob o prefixo 'cluster'.
+ *
+ * No modo cluster as instâncias dividem as partições monitoradas em 'shards'
+ * fixos; cada shard é uma partição do tópico de coordenação, e o rebalance do
+ * consumer group de coordenação decide qual instância avalia cada shard.
+ *
+ * No modo 'leader' há um único shard: a instância que o recebe é a líder e faz
+ * todo o trabalho (AdminClient, alertas, estados); as demais ficam em standby
+ * mantendo apenas a visão do tópico de estado, prontas para assumir.
+ */
+@Component // Marca a classe como um componente Spring
+@ConfigurationProperties(prefix = "cluster") // Mapeia as propriedades que começam com 'cluster'
+public class ClusterProperties {
+
+    // Liga ou desliga a divisão do trabalho entre instâncias
+    private boolean enabled = false;
+    // sharded (shards divididos entre as instâncias) ou leader (uma líder ativa, as demais em standby)
+    private Mode mode = Mode.SHARDED;
+    // Identificador estável desta instância (ex: hostname); obrigatório no modo cluster.
+    // Compõe o grupo da visão de estado: um valor novo a cada início deixaria um grupo órfão no cluster
+    private String instanceId;
+    // Tópico de coordenação (uma partição por shard; nenhuma mensagem é gravada nele)
+    private String coordinationTopic = "queue-monitor-coordination";
+    // Consumer group usado apenas para distribuir os shards entre as instâncias
+    private String groupId = "queue-alert-engine-cluster";
+    // Quantidade de shards (fixa: mudar redistribui todas as partições)
+    private int shards = 64;
+    // Fator de replicação do tópico de coordenação
+    private short replicationFactor = 1;
+    // Tempo sem heartbeat até uma instância ser considerada morta (e perder seus shards)
+    private int sessionTimeoutMs = 10000;
+
+    // --------------------- Getters e Setters ---------------------
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public String getInstanceId() { return instanceId; }
+    public void setInstanceId(String instanceId) { this.instanceId = instanceId; }
+
+    public String getCoordinationTopic() { return coordinationTopic; }
+    public void setCoordinationTopic(String coordinationTopic) { this.coordinationTopic = coordinationTopic; }
+
+    public String getGroupId() { return groupId; }
+    public void setGroupId(String groupId) { this.groupId = groupId; }
+
+    public int getShards() { return shards; }
+    public void setShards(int shards) { this.shards = shards; }
+
+    public short getReplicationFactor() { return replicationFactor; }
+    public void setReplicationFactor(short replicationFactor) { this.replicationFactor = replicationFactor; }
+
+    public int getSessionTimeoutMs() { return sessionTimeoutMs; }
+    public void setSessionTimeoutMs(int sessionTimeoutMs) { this.sessionTimeoutMs = sessionTimeoutMs; }
+
+    /**
+     * Consumer group da visão do tópico de estado. No modo cluster cada instância
+     * usa o próprio grupo e recebe todas as partições do tópico (a visão fica
+     * completa em todas as instâncias, inclusive nas que estão em standby).
+     *
+     * @throws IllegalStateException se o modo cluster estiver ligado sem 'cluster.instance-id'.
+     */
+    public String stateViewGroupId(String baseGroupId) {
+        if (!enabled) return baseGroupId;
+        if (instanceId == null || instanceId.isBlank()) {
+            throw new IllegalStateException("cluster.instance-id é obrigatório com cluster.enabled (ex: ${HOSTNAME})");
+        }
+        return baseGroupId + "-" + instanceId;
+    }
+
+    /**
+     * Forma de dividir o trabalho entre as instâncias.
+     */
+    public enum Mode {
+        SHARDED,
+        LEADER
+    }
+}
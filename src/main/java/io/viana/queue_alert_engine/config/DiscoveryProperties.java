@@ -0,0 +1,70 @@
+package io.viana.queue_alert_engine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classe de configuração que mapeia as propriedades da descoberta automática de
+ * consumer groups definidas no arquivo de configuração sob o prefixo 'discovery'.
+ *
+ * Com a descoberta ligada, os grupos do cluster que passam pelos filtros de
+ * inclusão/exclusão são monitorados por inteiro com os limites padrão abaixo;
+ * grupos configurados em 'alerts.groups' continuam usando suas próprias regras.
+ */
+@Component // Marca a classe como um componente Spring
+@ConfigurationProperties(prefix = "discovery") // Mapeia as propriedades que começam com 'discovery'
+public class DiscoveryProperties {
+
+    // Liga ou desliga a descoberta automática de grupos
+    private boolean enabled = false;
+    // Intervalo entre as descobertas (em ms)
+    private long intervalMs = 300000;
+    // Expressões regulares de grupos incluídos (vazio = todos)
+    private List<String> include = new ArrayList<>();
+    // Expressões regulares de grupos excluídos (têm precedência sobre 'include')
+    private List<String> exclude = new ArrayList<>();
+    // Limites padrão aplicados aos grupos descobertos
+    private long defaultLagWarning = 1000;
+    private long defaultLagCritical = 10000;
+    private long defaultDrainWarningSeconds = 0;
+    private long defaultDrainCriticalSeconds = 0;
+    // Quantidade de grupos por requisição de offsets ao Kafka
+    private int pageSize = 50;
+    // Máximo de páginas por segundo (limita a carga no cluster)
+    private double pagesPerSecond = 2.0;
+
+    // --------------------- Getters e Setters ---------------------
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getIntervalMs() { return intervalMs; }
+    public void setIntervalMs(long intervalMs) { this.intervalMs = intervalMs; }
+
+    public List<String> getInclude() { return include; }
+    public void setInclude(List<String> include) { this.include = include; }
+
+    public List<String> getExclude() { return exclude; }
+    public void setExclude(List<String> exclude) { this.exclude = exclude; }
+
+    public long getDefaultLagWarning() { return defaultLagWarning; }
+    public void setDefaultLagWarning(long defaultLagWarning) { this.defaultLagWarning = defaultLagWarning; }
+
+    public long getDefaultLagCritical() { return defaultLagCritical; }
+    public void setDefaultLagCritical(long defaultLagCritical) { this.defaultLagCritical = defaultLagCritical; }
+
+    public long getDefaultDrainWarningSeconds() { return defaultDrainWarningSeconds; }
+    public void setDefaultDrainWarningSeconds(long defaultDrainWarningSeconds) { this.defaultDrainWarningSeconds = defaultDrainWarningSeconds; }
+
+    public long getDefaultDrainCriticalSeconds() { return defaultDrainCriticalSeconds; }
+    public void setDefaultDrainCriticalSeconds(long defaultDrainCriticalSeconds) { this.defaultDrainCriticalSeconds = defaultDrainCriticalSeconds; }
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = pageSize; }
+
+    public double getPagesPerSecond() { return pagesPerSecond; }
+    public void setPagesPerSecond(double pagesPerSecond) { this.pagesPerSecond = pagesPerSecond; }
+}
@@ -0,0 +1,59 @@
+package io.viana.queue_alert_engine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classe de configuração que mapeia as propriedades do histórico de lag
+ * definidas no arquivo de configuração sob o prefixo 'history'.
+ *
+ * O histórico guarda três resoluções por partição: pontos brutos (um por ciclo),
+ * buckets de 1 minuto e buckets de 10 minutos, cada uma com sua retenção.
+ */
+@Component // Marca a classe como um componente Spring
+@ConfigurationProperties(prefix = "history") // Mapeia as propriedades que começam com 'history'
+public class HistoryProperties {
+
+    // Liga ou desliga o histórico de lag
+    private boolean enabled = true;
+    // Diretório dos arquivos do histórico (vazio = apenas em memória)
+    private String directory = "";
+    // Retenção dos pontos brutos (em ms, padrão 1 hora)
+    private long rawRetentionMs = 3_600_000L;
+    // Retenção dos buckets de 1 minuto (em ms, padrão 24 horas)
+    private long minuteRetentionMs = 86_400_000L;
+    // Retenção dos buckets de 10 minutos (em ms, padrão 30 dias)
+    private long tenMinuteRetentionMs = 2_592_000_000L;
+    // Número máximo de séries (grupo/tópico/partição); limita a memória usada
+    private int maxSeries = 1000;
+    // Tamanho de cada segmento dos arquivos do histórico (em bytes)
+    private int segmentBytes = 8 * 1024 * 1024;
+    // Intervalo para descartar as séries de partições que saíram da monitoração (em ms)
+    private long syncMs = 10_000L;
+
+    // --------------------- Getters e Setters ---------------------
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getDirectory() { return directory; }
+    public void setDirectory(String directory) { this.directory = directory; }
+
+    public long getRawRetentionMs() { return rawRetentionMs; }
+    public void setRawRetentionMs(long rawRetentionMs) { this.rawRetentionMs = rawRetentionMs; }
+
+    public long getMinuteRetentionMs() { return minuteRetentionMs; }
+    public void setMinuteRetentionMs(long minuteRetentionMs) { this.minuteRetentionMs = minuteRetentionMs; }
+
+    public long getTenMinuteRetentionMs() { return tenMinuteRetentionMs; }
+    public void setTenMinuteRetentionMs(long tenMinuteRetentionMs) { this.tenMinuteRetentionMs = tenMinuteRetentionMs; }
+
+    public int getMaxSeries() { return maxSeries; }
+    public void setMaxSeries(int maxSeries) { this.maxSeries = maxSeries; }
+
+    public int getSegmentBytes() { return segmentBytes; }
+    public void setSegmentBytes(int segmentBytes) { this.segmentBytes = segmentBytes; }
+
+    public long getSyncMs() { return syncMs; }
+    public void setSyncMs(long syncMs) { this.syncMs = syncMs; }
+}
@@ -0,0 +1,121 @@
+package io.viana.queue_alert_engine.config;
+
+import io.viana.queue_alert_engine.serialization.EventCodecs;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.DelegatingByTopicDeserializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Classe de configuração do Spring responsável por configurar
+ * os consumidores Kafka e as fábricas de containers dos listeners.
+ */
+@Configuration // Marca a classe como uma fonte de definições de beans
+public class KafkaConsumerConfig {
+
+    // Nome da fábrica de containers em lote usada pelos listeners da aplicação
+    public static final String BATCH_FACTORY = "batchListenerContainerFactory";
+
+    // Propriedades de configuração do Kafka injetadas
+    private final KafkaProperties kafkaProperties;
+    // Codecs dos eventos (os deserializers aceitam JSON e binário)
+    private final EventCodecs eventCodecs;
+
+    /**
+     * Construtor para injetar as propriedades do Kafka.
+     */
+    public KafkaConsumerConfig(KafkaProperties kafkaProperties, EventCodecs eventCodecs) {
+        this.kafkaProperties = kafkaProperties;
+        this.eventCodecs = eventCodecs;
+    }
+
+    /**
+     * Define um bean que contém o mapa de configurações do Consumidor Kafka.
+     * As configurações são lidas da classe KafkaProperties.
+     *
+     * @return Um mapa de String para Object com as configurações do consumidor.
+     */
+    @Bean
+    public Map<String, Object> consumerConfigs() {
+        Map<String, Object> props = new HashMap<>();
+
+        // Obtém o sub-objeto de propriedades específicas do consumidor
+        KafkaProperties.Consumer consumer = kafkaProperties.getConsumer();
+
+        // 1. Configurações básicas de conexão e grupo
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
+        if (consumer.getGroupId() != null) {
+            props.put(ConsumerConfig.GROUP_ID_CONFIG, consumer.getGroupId());
+        }
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, consumer.getAutoOffsetReset());
+
+        // 2. Desserializadores (a fábrica abaixo recebe instâncias próprias, que têm precedência)
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        // 3. Lotes: quantos registros cada poll entrega ao listener
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, consumer.getMaxPollRecords());
+        // Com auto-commit desligado o container faz o commit (uma vez por lote no ack-mode batch)
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, consumer.isEnableAutoCommit());
+
+        return props;
+    }
+
+    /**
+     * Define um bean que cria a Fábrica de Consumidores (ConsumerFactory).
+     *
+     * O valor é desserializado conforme o tópico: estados viram QueueStateEvent,
+     * alertas viram QueueAlert (JSON ou binário, detectado por mensagem) e os
+     * demais tópicos continuam como String. Mensagens inválidas chegam ao listener
+     * com valor nulo (ErrorHandlingDeserializer) em vez de travar o consumo.
+     *
+     * @return Uma instância de ConsumerFactory.
+     */
+    @Bean
+    public ConsumerFactory<String, Object> consumerFactory() {
+        KafkaProperties.Producer producer = kafkaProperties.getProducer();
+
+        Map<Pattern, Deserializer<?>> byTopic = new LinkedHashMap<>();
+        byTopic.put(Pattern.compile(Pattern.quote(producer.getStateTopic())), eventCodecs.stateDeserializer());
+        byTopic.put(Pattern.compile(Pattern.quote(producer.getAlertTopic())), eventCodecs.alertDeserializer());
+
+        Deserializer<Object> valueDeserializer = new ErrorHandlingDeserializer<>(
+                new DelegatingByTopicDeserializer(byTopic, new StringDeserializer()));
+
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs(), new StringDeserializer(), valueDeserializer);
+    }
+
+    /**
+     * Define a fábrica de containers em lote: o listener recebe uma lista de
+     * registros por poll (até 'kafka.consumer.max-poll-records') e os offsets
+     * são confirmados de acordo com 'kafka.listener.ack-mode' (padrão: batch).
+     *
+     * @return A fábrica de containers em lote.
+     */
+    @Bean(name = BATCH_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true); // Entrega List<ConsumerRecord> ao listener
+        factory.setConcurrency(kafkaProperties.getConsumer().getConcurrency());
+
+        ContainerProperties containerProperties = factory.getContainerProperties();
+        containerProperties.setPollTimeout(kafkaProperties.getConsumer().getPollTimeout());
+        containerProperties.setAckMode(ContainerProperties.AckMode.valueOf(
+                kafkaProperties.getListener().getAckMode().toUpperCase(Locale.ROOT)));
+        return factory;
+    }
+}
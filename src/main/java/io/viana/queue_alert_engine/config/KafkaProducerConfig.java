@@ -1,14 +1,21 @@
 package io.viana.queue_alert_engine.config;
 
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.serialization.EventCodecs;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -20,12 +27,15 @@ public class KafkaProducerConfig {
 
     // Propriedades de configuração do Kafka injetadas
     private final KafkaProperties kafkaProperties;
+    // Codecs dos eventos (JSON ou binário, conforme 'kafka.producer.encoding')
+    private final EventCodecs eventCodecs;
 
     /**
      * Construtor para injetar as propriedades do Kafka.
      */
-    public KafkaProducerConfig(KafkaProperties kafkaProperties) {
+    public KafkaProducerConfig(KafkaProperties kafkaProperties, EventCodecs eventCodecs) {
         this.kafkaProperties = kafkaProperties;
+        this.eventCodecs = eventCodecs;
     }
 
     /**
@@ -46,6 +56,7 @@ public class KafkaProducerConfig {
 
         // 2. Configuração dos Serializadores (como converter a chave e o valor para bytes)
         // Usa StringSerializer como padrão se não estiver configurado
+        // (a fábrica abaixo recebe instâncias próprias, que têm precedência sobre estas classes)
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG,
                 producer.getKeySerializer() != null ? producer.getKeySerializer() : StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
@@ -68,23 +79,46 @@ public class KafkaProducerConfig {
 
     /**
      * Define um bean que cria a Fábrica de Produtores (ProducerFactory).
-     * Esta fábrica usa as configurações definidas acima.
+     *
+     * Um único produtor atende todos os tipos de valor: o serializer é escolhido
+     * pelo tipo do objeto enviado (String, byte[] ou os eventos de domínio, que
+     * são escritos direto em bytes no formato de 'kafka.producer.encoding').
      *
      * @return Uma instância de ProducerFactory.
      */
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfigs());
+    public ProducerFactory<String, Object> producerFactory() {
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(String.class, new StringSerializer());
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(QueueAlert.class, eventCodecs.alertSerializer());
+        serializers.put(QueueStateEvent.class, eventCodecs.stateSerializer());
+
+        return new DefaultKafkaProducerFactory<>(producerConfigs(),
+                new StringSerializer(), new DelegatingByTypeSerializer(serializers));
     }
 
     /**
-     * Define um bean do tipo KafkaTemplate.
-     * Este é o objeto principal que os serviços usam para enviar mensagens ao Kafka.
+     * Define um bean do tipo KafkaTemplate para payloads textuais.
+     * Este é o objeto que os serviços usam para enviar mensagens prontas (String) ao Kafka.
      *
      * @return Uma instância de KafkaTemplate.
      */
     @Bean
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public KafkaTemplate<String, String> kafkaTemplate() {
+        // Mesmo produtor do template de eventos: Strings são tratadas pelo StringSerializer
+        return new KafkaTemplate<>((ProducerFactory) producerFactory());
+    }
+
+    /**
+     * Define um bean do tipo KafkaTemplate para eventos de domínio
+     * (QueueAlert e QueueStateEvent), serializados direto em bytes.
+     *
+     * @return Uma instância de KafkaTemplate.
+     */
+    @Bean
+    public KafkaTemplate<String, Object> eventKafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
-}
\ No newline at end of file
+}
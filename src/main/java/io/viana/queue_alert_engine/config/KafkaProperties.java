@@ -1,4 +1,5 @@
 package io.viana.queue_alert_engine.config;
+import io.viana.queue_alert_engine.serialization.WireEncoding;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -58,6 +59,12 @@ public class KafkaProperties {
         private int batchSize = 16384; // Tamanho máximo do lote de mensagens em bytes
         private int lingerMs = 1; // Tempo máximo de espera antes de enviar um lote (em ms)
         private long bufferMemory = 33554432; // Tamanho total da memória disponível para o buffer do produtor
+        // Formato dos eventos de estado e alerta (json = legível, binary = compacto)
+        private WireEncoding encoding = WireEncoding.JSON;
+        // Tópico de estado: compactado, uma chave por grupo|tópico|partição
+        private int stateTopicPartitions = 6; // Número de partições do tópico de estado
+        private short stateTopicReplicationFactor = 1; // Fator de replicação do tópico de estado
+        private long stateBootstrapTimeoutMs = 10000; // Tempo máximo da leitura do tópico de estado na inicialização (0 = desligado)
 
         // --------------------- Getters e Setters ---------------------
 
@@ -87,6 +94,18 @@ public class KafkaProperties {
 
         public long getBufferMemory() { return bufferMemory; }
         public void setBufferMemory(long bufferMemory) { this.bufferMemory = bufferMemory; }
+
+        public WireEncoding getEncoding() { return encoding; }
+        public void setEncoding(WireEncoding encoding) { this.encoding = encoding; }
+
+        public int getStateTopicPartitions() { return stateTopicPartitions; }
+        public void setStateTopicPartitions(int stateTopicPartitions) { this.stateTopicPartitions = stateTopicPartitions; }
+
+        public short getStateTopicReplicationFactor() { return stateTopicReplicationFactor; }
+        public void setStateTopicReplicationFactor(short stateTopicReplicationFactor) { this.stateTopicReplicationFactor = stateTopicReplicationFactor; }
+
+        public long getStateBootstrapTimeoutMs() { return stateBootstrapTimeoutMs; }
+        public void setStateBootstrapTimeoutMs(long stateBootstrapTimeoutMs) { this.stateBootstrapTimeoutMs = stateBootstrapTimeoutMs; }
     }
 
     // =====================================================================
@@ -99,9 +118,10 @@ public class KafkaProperties {
 
         private String groupId; // O ID do grupo de consumidores ao qual esta instância pertence
         private String autoOffsetReset = "earliest"; // Onde começar a ler se não houver offset salvo (earliest/latest)
-        private boolean enableAutoCommit = true; // Se o offset deve ser salvo automaticamente
+        private boolean enableAutoCommit = false; // Se o offset deve ser salvo automaticamente (false = commit pelo container)
         private int concurrency = 3; // Número de threads/instâncias paralelas para processar mensagens
         private long pollTimeout = 3000; // Tempo máximo de espera por novas mensagens no tópico (em ms)
+        private int maxPollRecords = 500; // Máximo de registros entregues por lote (max.poll.records)
 
         // --------------------- Getters e Setters ---------------------
 
@@ -119,6 +139,9 @@ public class KafkaProperties {
 
         public long getPollTimeout() { return pollTimeout; }
         public void setPollTimeout(long pollTimeout) { this.pollTimeout = pollTimeout; }
+
+        public int getMaxPollRecords() { return maxPollRecords; }
+        public void setMaxPollRecords(int maxPollRecords) { this.maxPollRecords = maxPollRecords; }
     }
 
     // =====================================================================
@@ -128,7 +151,7 @@ public class KafkaProperties {
      * Propriedades específicas para o Listener do Spring Kafka.
      */
     public static class Listener {
-        private String ackMode = "record"; // Modo de confirmação de recebimento (pode ser record, batch, manual, etc.)
+        private String ackMode = "batch"; // Modo de confirmação de recebimento (pode ser record, batch, manual, etc.)
 
         public String getAckMode() { return ackMode; }
         public void setAckMode(String ackMode) { this.ackMode = ackMode; }
@@ -44,8 +44,9 @@ public class KafkaTopicConfig implements KafkaListenerConfigurer {
                 .filter(group -> group.getRules() != null)
                 // Transforma a lista de grupos em um stream de todas as regras
                 .flatMap(group -> group.getRules().stream())
-                // Mapeia cada regra para o nome do seu tópico
-                .map(AlertRule::topic)
+                // Mapeia cada regra para o nome (ou padrão) do seu tópico
+                .map(rule -> rule.topicPattern() != null ? rule.topicPattern()
+                        : rule.topic() != null ? rule.topic() : "*")
                 // Remove nomes de tópicos duplicados
                 .distinct()
                 .collect(Collectors.toList());
@@ -5,7 +5,11 @@ import io.viana.queue_alert_engine.domain.AlertRule;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterConfigOp;
+import org.apache.kafka.clients.admin.ConfigEntry;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
@@ -27,6 +31,8 @@ public class KafkaTopicInitializer {
     private final KafkaProperties kafkaProperties;
     // Propriedades dos alertas (para obter tópicos monitorados)
     private final AlertsProperties alertsProperties;
+    // Propriedades do modo cluster (tópico de coordenação)
+    private final ClusterProperties clusterProperties;
 
     /**
      * Garante que todos os tópicos do projeto existam ao iniciar a aplicação.
@@ -51,14 +57,20 @@ public class KafkaTopicInitializer {
             for (AlertGroup group : alertsProperties.getGroups()) {
                 if (group.getRules() != null) {
                     for (AlertRule rule : group.getRules()) {
-                        if (rule.topic() != null) {
-                            topics.add(rule.topic()); // Tópico que está sendo monitorado
+                        // Apenas tópicos literais (regras com curinga apontam para tópicos existentes)
+                        if (rule.literalTopic() != null) {
+                            topics.add(rule.literalTopic()); // Tópico que está sendo monitorado
                         }
                     }
                 }
             }
         }
 
+        // Tópico de coordenação do modo cluster (uma partição por shard)
+        if (clusterProperties.isEnabled()) {
+            topics.add(clusterProperties.getCoordinationTopic());
+        }
+
         // Se nenhum tópico foi encontrado nas configurações, apenas loga e sai
         if (topics.isEmpty()) {
             log.warn("⚠ Nenhum tópico encontrado para criação automática.");
@@ -66,10 +78,15 @@ public class KafkaTopicInitializer {
         }
 
         // 3️⃣ Itera e tenta criar cada tópico
+        String stateTopic = kafkaProperties.getProducer().getStateTopic();
         for (String topicName : topics) {
+            boolean isStateTopic = topicName.equals(stateTopic);
             try {
-                // Define um novo tópico com 1 partição e Fator de Replicação (RF) 1
-                NewTopic topic = new NewTopic(topicName, 1, (short) 1);
+                // O tópico de estado é compactado (guarda o último estado de cada chave);
+                // os demais são criados com 1 partição e Fator de Replicação (RF) 1
+                NewTopic topic = isStateTopic ? stateTopic()
+                        : isCoordinationTopic(topicName) ? coordinationTopic()
+                        : new NewTopic(topicName, 1, (short) 1);
                 // Tenta criar o tópico de forma assíncrona e espera pelo resultado
                 adminClient.createTopics(Collections.singletonList(topic)).all().get();
                 log.info("✅ Tópico '{}' criado ou já existente.", topicName);
@@ -78,6 +95,7 @@ public class KafkaTopicInitializer {
                 // Se a exceção for porque o tópico já existe, loga como aviso e continua
                 if (e.getCause() != null && e.getCause().getMessage().contains("already exists")) {
                     log.info("⚠ Tópico '{}' já existe.", topicName);
+                    if (isStateTopic) ensureCompacted(topicName);
                 } else {
                     // Se for qualquer outro erro, loga e lança exceção (falha na inicialização)
                     log.error("❌ Erro ao criar tópico '{}': {}", topicName, e.getMessage(), e);
@@ -90,4 +108,40 @@ public class KafkaTopicInitializer {
             }
         }
     }
-}
\ No newline at end of file
+
+    // Define o tópico de estado: compactado, com partições e RF configuráveis
+    private NewTopic stateTopic() {
+        KafkaProperties.Producer producer = kafkaProperties.getProducer();
+        return new NewTopic(producer.getStateTopic(),
+                producer.getStateTopicPartitions(), producer.getStateTopicReplicationFactor())
+                .configs(Map.of(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT));
+    }
+
+    // Define o tópico de coordenação: uma partição por shard, ou uma só no modo líder (nenhuma mensagem é gravada)
+    private NewTopic coordinationTopic() {
+        int partitions = clusterProperties.getMode() == ClusterProperties.Mode.LEADER ? 1 : clusterProperties.getShards();
+        return new NewTopic(clusterProperties.getCoordinationTopic(),
+                partitions, clusterProperties.getReplicationFactor());
+    }
+
+    private boolean isCoordinationTopic(String topicName) {
+        return clusterProperties.isEnabled() && topicName.equals(clusterProperties.getCoordinationTopic());
+    }
+
+    // Garante a compactação em um tópico de estado já existente (criado antes desta versão)
+    private void ensureCompacted(String topicName) {
+        ConfigResource resource = new ConfigResource(ConfigResource.Type.TOPIC, topicName);
+        AlterConfigOp compact = new AlterConfigOp(
+                new ConfigEntry(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT),
+                AlterConfigOp.OpType.SET);
+        try {
+            adminClient.incrementalAlterConfigs(Map.of(resource, List.of(compact))).all().get();
+            log.info("🗜 Tópico de estado '{}' configurado como compactado.", topicName);
+        } catch (ExecutionException e) {
+            // Sem permissão para alterar configs: segue, mas a reconstrução do estado fica mais lenta
+            log.warn("⚠ Não foi possível compactar o tópico '{}': {}", topicName, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
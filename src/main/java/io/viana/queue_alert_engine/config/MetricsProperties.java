@@ -0,0 +1,55 @@
+package io.viana.queue_alert_engine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classe de configuração que mapeia as propriedades das métricas (Micrometer)
+ * definidas no arquivo de configuração sob o prefixo 'metrics'.
+ *
+ * Controla principalmente a cardinalidade dos gauges de lag/offsets: com
+ * dezenas de milhares de partições, uma série por partição sobrecarrega o
+ * registry, então as séries podem ser agregadas por tópico, por grupo ou
+ * em um total único.
+ */
+@Component // Marca a classe como um componente Spring
+@ConfigurationProperties(prefix = "metrics") // Mapeia as propriedades que começam com 'metrics'
+public class MetricsProperties {
+
+    /**
+     * Granularidade dos gauges de lag/offsets (da mais fina para a mais grossa).
+     */
+    public enum Level {
+        // Uma série por grupo/tópico/partição
+        PARTITION,
+        // Soma das partições de cada tópico do grupo
+        TOPIC,
+        // Soma de todas as partições do grupo
+        GROUP,
+        // Um total único, sem tags
+        NONE
+    }
+
+    // Granularidade desejada dos gauges
+    private Level level = Level.PARTITION;
+    // Máximo de séries por gauge; acima disso usa o próximo nível mais grosso
+    private int maxSeries = 10_000;
+    // Intervalo de sincronização dos gauges com o layout de partições (em ms)
+    private long syncMs = 10_000L;
+    // Publica histogramas (buckets) dos timers, para percentis no Prometheus
+    private boolean histogram = true;
+
+    // --------------------- Getters e Setters ---------------------
+
+    public Level getLevel() { return level; }
+    public void setLevel(Level level) { this.level = level; }
+
+    public int getMaxSeries() { return maxSeries; }
+    public void setMaxSeries(int maxSeries) { this.maxSeries = maxSeries; }
+
+    public long getSyncMs() { return syncMs; }
+    public void setSyncMs(long syncMs) { this.syncMs = syncMs; }
+
+    public boolean isHistogram() { return histogram; }
+    public void setHistogram(boolean histogram) { this.histogram = histogram; }
+}
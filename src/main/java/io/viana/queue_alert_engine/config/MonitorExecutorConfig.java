@@ -0,0 +1,42 @@
+package io.viana.queue_alert_engine.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Classe de configuração do Spring responsável por criar o pool de threads
+ * usado na avaliação concorrente dos consumer groups.
+ */
+@Configuration // Marca a classe como uma fonte de definições de beans do Spring
+public class MonitorExecutorConfig {
+
+    // Propriedades do ciclo de monitoramento (quantidade de threads)
+    private final MonitorProperties monitorProperties;
+
+    /**
+     * Construtor para injetar as propriedades de monitoramento.
+     */
+    public MonitorExecutorConfig(MonitorProperties monitorProperties) {
+        this.monitorProperties = monitorProperties;
+    }
+
+    /**
+     * Define o executor limitado que processa a avaliação de cada grupo.
+     * As chamadas ao AdminClient não bloqueiam estas threads: elas só recebem
+     * o trabalho de CPU (cálculo de lag e despacho) quando as respostas chegam.
+     *
+     * @return O executor de avaliação de lag.
+     */
+    @Bean(name = "lagEvaluationExecutor")
+    public ThreadPoolTaskExecutor lagEvaluationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int threads = Math.max(1, monitorProperties.getEvaluationThreads());
+        executor.setCorePoolSize(threads); // Pool fixo: nunca cresce além do configurado
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("lag-eval-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,129 @@
+package io.viana.queue_alert_engine.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classe de configuração que mapeia as propriedades do ciclo de monitoramento
+ * definidas no arquivo de configuração sob o prefixo 'monitor'.
+ * Controla os intervalos do scheduler e a execução concorrente dos grupos.
+ */
+@Component // Marca a classe como um componente Spring
+@ConfigurationProperties(prefix = "monitor") // Mapeia as propriedades que começam com 'monitor'
+public class MonitorProperties {
+
+    // Intervalo padrão entre as verificações de cada grupo (em ms); 'interval-ms' do grupo prevalece
+    private long intervalMs = 60000;
+    // Tempo máximo de espera pelas respostas do Kafka para um grupo (em ms)
+    private long groupTimeoutMs = 30000;
+    // Número de threads usadas para avaliar os grupos em paralelo
+    private int evaluationThreads = 4;
+    // Janela de suavização (constante de tempo do EWMA) das taxas de produção/consumo (em ms)
+    private long rateWindowMs = 300000;
+    // Lag mínimo para um lag parado (que não cresce nem diminui) exceder os limites de tempo para zerar
+    private long drainMinLag = 1000;
+    // Filtro de mudanças aplicado antes de publicar no tópico de estado
+    private StatePublish statePublish = new StatePublish();
+    // Agendamento adaptativo por grupo
+    private Scheduler scheduler = new Scheduler();
+
+    // --------------------- Getters e Setters ---------------------
+
+    public long getIntervalMs() { return intervalMs; }
+    public void setIntervalMs(long intervalMs) { this.intervalMs = intervalMs; }
+
+    public long getGroupTimeoutMs() { return groupTimeoutMs; }
+    public void setGroupTimeoutMs(long groupTimeoutMs) { this.groupTimeoutMs = groupTimeoutMs; }
+
+    public int getEvaluationThreads() { return evaluationThreads; }
+    public void setEvaluationThreads(int evaluationThreads) { this.evaluationThreads = evaluationThreads; }
+
+    public long getRateWindowMs() { return rateWindowMs; }
+    public void setRateWindowMs(long rateWindowMs) { this.rateWindowMs = rateWindowMs; }
+
+    public long getDrainMinLag() { return drainMinLag; }
+    public void setDrainMinLag(long drainMinLag) { this.drainMinLag = drainMinLag; }
+
+    public StatePublish getStatePublish() { return statePublish; }
+    public void setStatePublish(StatePublish statePublish) { this.statePublish = statePublish; }
+
+    public Scheduler getScheduler() { return scheduler; }
+    public void setScheduler(Scheduler scheduler) { this.scheduler = scheduler; }
+
+    /**
+     * Propriedades da publicação de estados por mudança (delta).
+     *
+     * Um estado só é publicado quando o status muda, quando o lag varia além do
+     * delta absoluto ou relativo configurado, ou quando o heartbeat expira.
+     * Com os dois deltas em 0, qualquer variação do lag é publicada.
+     */
+    public static class StatePublish {
+        private boolean changesOnly = true; // false = publica todos os estados a cada ciclo (comportamento antigo)
+        private long lagDeltaAbsolute = 0; // Variação mínima do lag, em mensagens (0 = desligado)
+        private double lagDeltaRelative = 0.0; // Variação mínima do lag, em fração do último lag publicado (0 = desligado)
+        private long heartbeatMs = 300000; // Republica mesmo sem mudança após este intervalo (0 = nunca)
+
+        // --------------------- Getters e Setters ---------------------
+
+        public boolean isChangesOnly() { return changesOnly; }
+        public void setChangesOnly(boolean changesOnly) { this.changesOnly = changesOnly; }
+
+        public long getLagDeltaAbsolute() { return lagDeltaAbsolute; }
+        public void setLagDeltaAbsolute(long lagDeltaAbsolute) { this.lagDeltaAbsolute = lagDeltaAbsolute; }
+
+        public double getLagDeltaRelative() { return lagDeltaRelative; }
+        public void setLagDeltaRelative(double lagDeltaRelative) { this.lagDeltaRelative = lagDeltaRelative; }
+
+        public long getHeartbeatMs() { return heartbeatMs; }
+        public void setHeartbeatMs(long heartbeatMs) { this.heartbeatMs = heartbeatMs; }
+    }
+
+    /**
+     * Propriedades do agendamento adaptativo por grupo.
+     *
+     * Cada grupo tem o próprio intervalo: encurta quando o grupo está em WARNING,
+     * CRITICAL ou com o lag subindo, e volta a crescer (até 'max-interval-ms')
+     * enquanto está saudável. Os horários recebem uma variação aleatória para
+     * espalhar as requisições ao Kafka.
+     */
+    public static class Scheduler {
+        private long tickMs = 1000; // Frequência com que a fila de grupos vencidos é verificada
+        private boolean adaptive = true; // false = cada grupo sempre no intervalo base
+        private long minIntervalMs = 5000; // Menor intervalo permitido
+        private long maxIntervalMs = 0; // Maior intervalo de um grupo saudável (0 ou abaixo do base = não relaxa além do base)
+        private double criticalFactor = 0.25; // Fração do intervalo base com o grupo em CRITICAL
+        private double warningFactor = 0.5; // Fração do intervalo base com o grupo em WARNING
+        private double risingFactor = 0.5; // Fração do intervalo base com o lag total subindo
+        private double relaxFactor = 1.5; // Crescimento do intervalo a cada verificação saudável
+        private double jitter = 0.1; // Variação aleatória do intervalo (0.1 = ±10%)
+
+        // --------------------- Getters e Setters ---------------------
+
+        public long getTickMs() { return tickMs; }
+        public void setTickMs(long tickMs) { this.tickMs = tickMs; }
+
+        public boolean isAdaptive() { return adaptive; }
+        public void setAdaptive(boolean adaptive) { this.adaptive = adaptive; }
+
+        public long getMinIntervalMs() { return minIntervalMs; }
+        public void setMinIntervalMs(long minIntervalMs) { this.minIntervalMs = minIntervalMs; }
+
+        public long getMaxIntervalMs() { return maxIntervalMs; }
+        public void setMaxIntervalMs(long maxIntervalMs) { this.maxIntervalMs = maxIntervalMs; }
+
+        public double getCriticalFactor() { return criticalFactor; }
+        public void setCriticalFactor(double criticalFactor) { this.criticalFactor = criticalFactor; }
+
+        public double getWarningFactor() { return warningFactor; }
+        public void setWarningFactor(double warningFactor) { this.warningFactor = warningFactor; }
+
+        public double getRisingFactor() { return risingFactor; }
+        public void setRisingFactor(double risingFactor) { this.risingFactor = risingFactor; }
+
+        public double getRelaxFactor() { return relaxFactor; }
+        public void setRelaxFactor(double relaxFactor) { this.relaxFactor = relaxFactor; }
+
+        public double getJitter() { return jitter; }
+        public void setJitter(double jitter) { this.jitter = jitter; }
+    }
+}
@@ -0,0 +1,56 @@
+package io.viana.queue_alert_engine.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Classe de configuração do Spring responsável por criar o WebClient
+ * usado para falar com a API do Telegram.
+ */
+@Configuration // Marca a classe como uma fonte de definições de beans do Spring
+public class TelegramClientConfig {
+
+    // Propriedades do Telegram (tamanho do pool e timeouts)
+    private final TelegramProperties telegramProperties;
+
+    /**
+     * Construtor para injetar as propriedades do Telegram.
+     */
+    public TelegramClientConfig(TelegramProperties telegramProperties) {
+        this.telegramProperties = telegramProperties;
+    }
+
+    /**
+     * Define o WebClient do Telegram com um pool de conexões dedicado,
+     * reaproveitando conexões keep-alive entre os envios.
+     *
+     * @param builder Builder do WebClient configurado pelo Spring Boot (codecs Jackson).
+     * @return O WebClient usado pelo pipeline de entrega.
+     */
+    @Bean
+    public WebClient telegramWebClient(WebClient.Builder builder) {
+        TelegramProperties.Delivery delivery = telegramProperties.getDelivery();
+
+        // Pool de conexões limitado ao número de envios simultâneos
+        ConnectionProvider provider = ConnectionProvider.builder("telegram")
+                .maxConnections(Math.max(1, delivery.getMaxConnections()))
+                .pendingAcquireMaxCount(-1) // A fila do pipeline já limita o que está pendente
+                .maxIdleTime(Duration.ofSeconds(60))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .responseTimeout(Duration.ofMillis(delivery.getRequestTimeoutMs()));
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
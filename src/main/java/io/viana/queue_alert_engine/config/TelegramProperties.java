@@ -33,6 +33,21 @@ public class TelegramProperties {
      */
     private String apiUrl;
 
+    /**
+     * Modo de notificação: um envio por alerta (padrão) ou resumo (digest) periódico.
+     */
+    private Mode mode = Mode.PER_ALERT;
+
+    /**
+     * Configurações do pipeline assíncrono de entrega (fila, limites e retentativas).
+     */
+    private Delivery delivery = new Delivery();
+
+    /**
+     * Configurações do modo resumo (digest).
+     */
+    private Digest digest = new Digest();
+
     /**
      * Retorna a URL completa da API do Telegram para envio de mensagens.
      * Se 'apiUrl' foi definido nas configurações, usa ele; caso contrário,
@@ -47,4 +62,63 @@ public class TelegramProperties {
         // Monta a URL padrão: https://api.telegram.org/bot<TOKEN>/sendMessage
         return "https://api.telegram.org/bot" + botToken + "/sendMessage";
     }
-}
\ No newline at end of file
+
+    /**
+     * Propriedades do pipeline de entrega de mensagens ao Telegram.
+     */
+    @Getter
+    @Setter
+    public static class Delivery {
+
+        // Capacidade da fila em memória de mensagens aguardando envio
+        private int queueCapacity = 1000;
+        // Ocupação da fila (0 a 1) que pausa o consumo do tópico de alertas
+        private double pauseThreshold = 0.8;
+        // Ocupação da fila (0 a 1) abaixo da qual o consumo é retomado
+        private double resumeThreshold = 0.5;
+        // Espera máxima do listener por espaço com a fila cheia (em ms); depois a mensagem é descartada
+        private long submitTimeoutMs = 5000;
+        // Tempo para entregar as mensagens pendentes no desligamento (em ms)
+        private long shutdownTimeoutMs = 10000;
+
+        // Conexões HTTP mantidas no pool (e máximo de envios simultâneos)
+        private int maxConnections = 4;
+        // Tempo máximo de uma requisição à API do Telegram (em ms)
+        private long requestTimeoutMs = 10000;
+
+        // Mensagens por segundo permitidas por chat (o Telegram limita ~1/s por chat)
+        private double messagesPerSecondPerChat = 1.0;
+        // Rajada máxima permitida por chat antes de aplicar o limite
+        private int burstPerChat = 3;
+
+        // Número de retentativas em caso de erro 429/5xx ou falha de rede
+        private int maxRetries = 3;
+        // Espera inicial entre retentativas (cresce exponencialmente, em ms; um 429 com 'retry_after' pode aumentá-la)
+        private long retryBackoffMs = 1000;
+    }
+
+    /**
+     * Modos de notificação suportados.
+     */
+    public enum Mode {
+        // Uma mensagem por alerta recebido
+        PER_ALERT,
+        // Alertas acumulados e enviados em uma única mensagem de resumo
+        DIGEST
+    }
+
+    /**
+     * Propriedades do modo resumo (digest).
+     */
+    @Getter
+    @Setter
+    public static class Digest {
+
+        // Janela de acumulação antes de enviar o resumo (em ms)
+        private long windowMs = 30000;
+        // Quantidade de alertas que força o envio antes do fim da janela
+        private int maxAlerts = 500;
+        // Quantidade de partições listadas por grupo/nível no resumo
+        private int topN = 10;
+    }
+}
@@ -1,7 +1,8 @@
 package io.viana.queue_alert_engine.controller;
 
-import io.viana.queue_alert_engine.config.AlertsProperties;
 import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.service.RuleConfigService;
+import io.viana.queue_alert_engine.service.RuleRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,17 +13,20 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 /**
- * Controlador REST para consultar os grupos de consumidores e suas regras de alerta
- * configuradas na aplicação.
+ * Controlador REST para consultar e alterar os grupos de consumidores e suas regras
+ * de alerta. As alterações valem imediatamente (sem restart) e não são gravadas:
+ * um restart, ou uma alteração do arquivo de regras, volta à configuração.
  */
 @RestController // Define que esta classe é um controlador REST
 @RequestMapping("/api/groups") // Define o caminho base para todos os endpoints
 @RequiredArgsConstructor // Cria o construtor para injeção de dependência (final fields)
-@Tag(name = "Alert Groups", description = "Consulta os grupos de regras de alerta configurados") // Documentação Swagger/OpenAPI
+@Tag(name = "Alert Groups", description = "Consulta e altera os grupos de regras de alerta") // Documentação Swagger/OpenAPI
 public class GroupsController {
 
-    // Propriedades de configuração dos alertas, onde os grupos são armazenados
-    private final AlertsProperties alertsProperties;
+    // Registro com o conjunto de regras atual
+    private final RuleRegistry ruleRegistry;
+    // Aplica alterações de regras em tempo de execução
+    private final RuleConfigService ruleConfigService;
 
     /**
      * Endpoint para listar todos os grupos de alerta configurados.
@@ -31,16 +35,16 @@ public class GroupsController {
      */
     @Operation(
         summary = "Lista todos os grupos de alerta",
-        description = "Retorna todos os grupos configurados no AlertsProperties"
+        description = "Retorna todos os grupos configurados (application.yaml, arquivo de regras ou API)"
     )
     @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
     @GetMapping // Mapeia para requisições GET em /api/groups
     public ResponseEntity<List<AlertGroup>> listGroups() {
-        // Obtém a lista de grupos das propriedades
-        List<AlertGroup> groups = alertsProperties.getGroups();
+        // Obtém o conjunto de grupos atual
+        List<AlertGroup> groups = ruleRegistry.groups();
 
-        // Se a lista for nula ou vazia, retorna 204 No Content
-        if (groups == null || groups.isEmpty()) {
+        // Se a lista estiver vazia, retorna 204 No Content
+        if (groups.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
@@ -63,18 +67,74 @@ public class GroupsController {
     @GetMapping("/{groupId}") // Mapeia para requisições GET em /api/groups/{groupId}
     public ResponseEntity<AlertGroup> getGroup(@PathVariable String groupId) {
 
-        List<AlertGroup> groups = alertsProperties.getGroups();
-
-        // Se a lista de grupos estiver vazia, não há o que buscar (404)
-        if (groups == null || groups.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
         // Usa Stream para buscar o primeiro grupo cujo ID case com o ID da URL (ignorando case)
-        return groups.stream()
+        return ruleRegistry.groups().stream()
                 .filter(g -> g.getGroupId().equalsIgnoreCase(groupId))
                 .findFirst() // Tenta encontrar o primeiro resultado
                 .map(ResponseEntity::ok) // Se encontrar, retorna 200 OK com o objeto
                 .orElseGet(() -> ResponseEntity.notFound().build()); // Se não encontrar, retorna 404 Not Found
     }
-}
\ No newline at end of file
+
+    /**
+     * Substitui todos os grupos de alerta de uma vez.
+     *
+     * @param groups O novo conjunto completo de grupos.
+     */
+    @Operation(
+        summary = "Substitui todos os grupos",
+        description = "Troca atomicamente o conjunto de regras; só os grupos alterados são remontados"
+    )
+    @ApiResponse(responseCode = "200", description = "Regras aplicadas")
+    @ApiResponse(responseCode = "400", description = "Grupo ou regra inválido")
+    @PutMapping // PUT /api/groups
+    public ResponseEntity<String> replaceGroups(@RequestBody List<AlertGroup> groups) {
+        try {
+            boolean changed = ruleConfigService.replaceAll(groups);
+            return ResponseEntity.ok(changed ? "Rules applied" : "No changes");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Cria ou substitui as regras de um grupo.
+     *
+     * @param groupId O ID do grupo (vem da URL; prevalece sobre o do corpo).
+     * @param group   O grupo com as novas regras.
+     */
+    @Operation(
+        summary = "Cria ou substitui um grupo",
+        description = "Aplica as regras de um grupo sem restart"
+    )
+    @ApiResponse(responseCode = "200", description = "Regras aplicadas")
+    @ApiResponse(responseCode = "400", description = "Grupo ou regra inválido")
+    @PutMapping("/{groupId}") // PUT /api/groups/{groupId}
+    public ResponseEntity<String> putGroup(@PathVariable String groupId, @RequestBody AlertGroup group) {
+        group.setGroupId(groupId);
+        try {
+            boolean changed = ruleConfigService.put(group);
+            return ResponseEntity.ok(changed ? "Rules applied for group " + groupId : "No changes");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Remove um grupo de alerta.
+     *
+     * @param groupId O ID do grupo a remover.
+     */
+    @Operation(
+        summary = "Remove um grupo",
+        description = "Para de monitorar o grupo sem restart"
+    )
+    @ApiResponse(responseCode = "200", description = "Grupo removido")
+    @ApiResponse(responseCode = "404", description = "Grupo não encontrado")
+    @DeleteMapping("/{groupId}") // DELETE /api/groups/{groupId}
+    public ResponseEntity<String> deleteGroup(@PathVariable String groupId) {
+        if (!ruleConfigService.remove(groupId)) {
+            return ResponseEntity.status(404).body("Group not found: " + groupId);
+        }
+        return ResponseEntity.ok("Group removed: " + groupId);
+    }
+}
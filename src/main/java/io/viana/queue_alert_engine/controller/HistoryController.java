@@ -0,0 +1,99 @@
+package io.viana.queue_alert_engine.controller;
+
+import io.viana.queue_alert_engine.store.history.HistoryPoint;
+import io.viana.queue_alert_engine.store.history.HistoryTier;
+import io.viana.queue_alert_engine.store.history.LagHistoryStore;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Controlador REST para consultar o histórico de lag de cada partição monitorada.
+ */
+@RestController // Define que esta classe é um controlador REST
+@RequestMapping("/api/history") // Define o caminho base
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+@Tag(name = "Histórico", description = "Consulta o histórico de lag por partição") // Documentação Swagger
+public class HistoryController {
+
+    // Janela padrão quando 'from' não é informado (última hora)
+    private static final long DEFAULT_WINDOW_MS = 3_600_000L;
+
+    private final LagHistoryStore lagHistoryStore; // Histórico de lag em memória
+
+    // ------------------------------
+    // LISTA AS SÉRIES
+    // ------------------------------
+
+    /**
+     * Retorna as chaves (grupo|tópico|partição) que possuem histórico.
+     */
+    @Operation(
+        summary = "Lista as séries com histórico",
+        description = "Retorna as chaves grupo|tópico|partição com pontos registrados"
+    )
+    @ApiResponse(responseCode = "200", description = "Séries retornadas com sucesso")
+    @GetMapping // GET /api/history
+    public ResponseEntity<Set<String>> listSeries() {
+        return ResponseEntity.ok(lagHistoryStore.keys());
+    }
+
+    // ------------------------------
+    // CONSULTA POR INTERVALO
+    // ------------------------------
+
+    /**
+     * Retorna os pontos de uma partição no intervalo [from, to].
+     *
+     * @param from Início do intervalo (epoch em ms); padrão: uma hora atrás.
+     * @param to Fim do intervalo (epoch em ms); padrão: agora.
+     * @param resolution raw, 1m ou 10m; sem valor, usa a mais fina que cobre o intervalo.
+     */
+    @Operation(
+        summary = "Histórico de lag de uma partição",
+        description = "Retorna os pontos (timestamp, produzido, consumido, lag) no intervalo pedido"
+    )
+    @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso")
+    @ApiResponse(responseCode = "400", description = "Resolução ou intervalo inválido")
+    @ApiResponse(responseCode = "404", description = "Partição sem histórico")
+    @GetMapping("/{groupId}/{topic}/{partition}") // GET /api/history/{groupId}/{topic}/{partition}
+    public ResponseEntity<Map<String, Object>> query(@PathVariable String groupId,
+                                                     @PathVariable String topic,
+                                                     @PathVariable int partition,
+                                                     @RequestParam(required = false) Long from,
+                                                     @RequestParam(required = false) Long to,
+                                                     @RequestParam(required = false) String resolution) {
+        long end = to != null ? to : System.currentTimeMillis();
+        long start = from != null ? from : end - DEFAULT_WINDOW_MS;
+        if (start > end) {
+            return ResponseEntity.badRequest().body(Map.of("error", "'from' deve ser menor que 'to'"));
+        }
+
+        HistoryTier tier = resolution != null ? HistoryTier.fromLabel(resolution) : lagHistoryStore.tierFor(start);
+        if (tier == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Resolução inválida: " + resolution));
+        }
+
+        List<HistoryPoint> points = lagHistoryStore.query(groupId, topic, partition, start, end, tier);
+        if (points == null) {
+            return ResponseEntity.status(404).body(null);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("resolution", tier.label());
+        body.put("from", start);
+        body.put("to", end);
+        body.put("points", points);
+        return ResponseEntity.ok(body);
+    }
+}
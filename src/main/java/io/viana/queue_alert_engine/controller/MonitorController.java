@@ -1,9 +1,12 @@
 package io.viana.queue_alert_engine.controller;
 
-import io.viana.queue_alert_engine.config.AlertsProperties;
-import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.service.AlertDeduplicator;
 import io.viana.queue_alert_engine.service.LagCheckerService;
-import io.viana.queue_alert_engine.service.QueueOffsetTracker;
+import io.viana.queue_alert_engine.service.RuleRegistry;
+import io.viana.queue_alert_engine.service.StateChangeFilter;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.store.LagSnapshotStore;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,9 +17,9 @@ import org.apache.kafka.common.TopicPartition;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Controlador REST para monitoramento manual e consulta de estado.
@@ -29,8 +32,10 @@ import java.util.stream.Collectors;
 public class MonitorController {
 
     private final LagCheckerService lagCheckerService; // Serviço que executa a checagem de lag
-    private final QueueOffsetTracker offsetTracker; // Serviço que mantém os offsets em cache
-    private final AlertsProperties alertsProperties; // Propriedades de configuração dos grupos
+    private final LagSnapshotStore lagSnapshotStore; // Resultado publicado do último ciclo de cada grupo
+    private final RuleRegistry ruleRegistry; // Grupos monitorados (configurados e descobertos)
+    private final StateChangeFilter stateChangeFilter; // Filtro de mudanças da publicação de estados
+    private final AlertDeduplicator alertDeduplicator; // Máquina de estados de alertas
 
 
     // ------------------------------
@@ -38,27 +43,24 @@ public class MonitorController {
     // ------------------------------
 
     /**
-     * Retorna a lista dos IDs dos consumer groups configurados para monitoramento.
+     * Retorna a lista dos IDs dos consumer groups monitorados (configurados e descobertos).
      */
     @Operation(
-        summary = "Lista todos os consumer groups configurados",
-        description = "Retorna a lista de groupIds definidos no AlertsProperties"
+        summary = "Lista todos os consumer groups monitorados",
+        description = "Retorna os groupIds definidos no AlertsProperties e os encontrados pela descoberta automática"
     )
     @ApiResponse(responseCode = "200", description = "Groups listados com sucesso")
     @GetMapping("/groups") // GET /api/monitor/groups
     public ResponseEntity<List<String>> getConfiguredGroups() {
 
-        // Verifica se há grupos configurados. Se não, retorna 204 No Content
-        if (alertsProperties.getGroups() == null || alertsProperties.getGroups().isEmpty()) {
+        // IDs dos grupos com partições monitoradas após a expansão das regras
+        List<String> groups = ruleRegistry.groupIds();
+
+        // Verifica se há grupos monitorados. Se não, retorna 204 No Content
+        if (groups.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
 
-        // Mapeia a lista de AlertGroup para uma lista de Strings contendo apenas os IDs
-        List<String> groups = alertsProperties.getGroups()
-                .stream()
-                .map(AlertGroup::getGroupId)
-                .toList();
-
         return ResponseEntity.ok(groups);
     }
 
@@ -78,14 +80,13 @@ public class MonitorController {
     @PostMapping("/trigger-all") // POST /api/monitor/trigger-all
     public ResponseEntity<String> triggerAllGroups() {
 
-        // Validação: deve haver grupos configurados
-        if (alertsProperties.getGroups() == null || alertsProperties.getGroups().isEmpty()) {
+        // Validação: deve haver grupos monitorados
+        if (ruleRegistry.groupIds().isEmpty()) {
             return ResponseEntity.badRequest().body("Nenhum grupo configurado.");
         }
 
-        // Itera sobre todos os grupos e chama o serviço de checagem de lag para cada um
-        alertsProperties.getGroups()
-                .forEach(g -> lagCheckerService.checkLag(g.getGroupId(), g.getRules()));
+        // Executa a checagem de lag de todos os grupos em um único ciclo e aguarda o término
+        lagCheckerService.checkAllGroups().join();
 
         return ResponseEntity.ok("Lag check executed for all groups");
     }
@@ -109,10 +110,10 @@ public class MonitorController {
     @PostMapping("/trigger/{groupId}") // POST /api/monitor/trigger/{groupId}
     public ResponseEntity<String> triggerGroup(@PathVariable String groupId) {
 
-        // Busca o grupo específico na lista de configurações
-        AlertGroup group = alertsProperties.getGroups()
+        // Busca o grupo específico entre os monitorados (configurados e descobertos)
+        String group = ruleRegistry.groupIds()
                 .stream()
-                .filter(g -> g.getGroupId().equalsIgnoreCase(groupId))
+                .filter(g -> g.equalsIgnoreCase(groupId))
                 .findFirst()
                 .orElse(null);
 
@@ -122,7 +123,7 @@ public class MonitorController {
         }
 
         // Executa a checagem de lag apenas para o grupo encontrado
-        lagCheckerService.checkLag(group.getGroupId(), group.getRules());
+        lagCheckerService.checkLag(group).join();
         return ResponseEntity.ok("Lag check executed for group " + groupId);
     }
 
@@ -132,29 +133,87 @@ public class MonitorController {
     // ------------------------------
 
     /**
-     * Retorna os últimos offsets de mensagens que foram consumidas (em cache).
+     * Retorna os offsets consumidos na última avaliação do grupo (versão atual do snapshot).
      *
      * @param groupId O ID do grupo para o qual consultar os offsets.
      */
     @Operation(
         summary = "Retorna os offsets consumidos por um grupo",
-        description = "Mostra os offsets armazenados localmente no QueueOffsetTracker"
+        description = "Mostra os offsets da última avaliação publicada do grupo (snapshot do ciclo)"
     )
     @ApiResponse(responseCode = "200", description = "Offsets retornados com sucesso")
     @ApiResponse(responseCode = "404", description = "Grupo não encontrado ou sem offsets registrados")
     @GetMapping("/offsets/{groupId}") // GET /api/monitor/offsets/{groupId}
     public ResponseEntity<Map<TopicPartition, Long>> getOffsets(@PathVariable String groupId) {
 
-        // Busca os offsets consumidos para o groupId específico no cache
-        Map<TopicPartition, Long> offsets =
-                offsetTracker.getConsumedOffsets().get(groupId);
+        // Resultado do grupo na versão atual (imutável: não disputa com o ciclo em andamento)
+        LagSnapshot.GroupLag group = lagSnapshotStore.current().group(groupId);
 
-        // Se o mapa for nulo ou vazio (grupo sem offsets registrados), retorna 404
-        if (offsets == null || offsets.isEmpty()) {
+        // Grupo ainda não avaliado (ou não monitorado): retorna 404
+        if (group == null || group.size() == 0) {
             return ResponseEntity.status(404).body(null);
         }
 
+        Map<TopicPartition, Long> offsets = new LinkedHashMap<>(group.size() * 2);
+        for (int slot = 0; slot < group.size(); slot++) {
+            offsets.put(group.topicPartition(slot), group.consumed(slot));
+        }
+
         // Retorna o mapa de TopicPartition para Offset com status 200 OK
         return ResponseEntity.ok(offsets);
     }
-}
\ No newline at end of file
+
+
+    // ------------------------------
+    // RESUMO DO ÚLTIMO SNAPSHOT
+    // ------------------------------
+
+    /**
+     * Retorna o resumo da versão atual do snapshot de lag: versão, instante da
+     * publicação, partições por status e lag total. Os agregados são calculados
+     * na publicação, então a consulta não percorre as partições.
+     */
+    @Operation(
+        summary = "Resumo do último ciclo de avaliação",
+        description = "Versão e instante do snapshot publicado, partições por status e lag total"
+    )
+    @ApiResponse(responseCode = "200", description = "Resumo retornado com sucesso")
+    @GetMapping("/snapshot") // GET /api/monitor/snapshot
+    public ResponseEntity<Map<String, Object>> getSnapshot() {
+        LagSnapshot snapshot = lagSnapshotStore.current();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("version", snapshot.version());
+        summary.put("publishedAt", snapshot.publishedAt());
+        summary.put("groups", snapshot.groups().size());
+        summary.put("partitions", snapshot.partitions());
+        for (QueueStatus status : QueueStatus.values()) {
+            summary.put(status.name().toLowerCase(), snapshot.count(status));
+        }
+        summary.put("totalLag", snapshot.totalLag());
+        return ResponseEntity.ok(summary);
+    }
+
+
+    // ------------------------------
+    // ESTATÍSTICAS DE PUBLICAÇÃO
+    // ------------------------------
+
+    /**
+     * Retorna os contadores de estados publicados/suprimidos e de alertas emitidos/suprimidos
+     * desde o início da aplicação.
+     */
+    @Operation(
+        summary = "Retorna os contadores de publicação",
+        description = "Mostra quantos estados e alertas foram publicados ou suprimidos por falta de mudança"
+    )
+    @ApiResponse(responseCode = "200", description = "Contadores retornados com sucesso")
+    @GetMapping("/stats") // GET /api/monitor/stats
+    public ResponseEntity<Map<String, Long>> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("statesPublished", stateChangeFilter.getPublishedCount());
+        stats.put("statesSuppressed", stateChangeFilter.getSuppressedCount());
+        stats.put("alertsEmitted", alertDeduplicator.getEmittedCount());
+        stats.put("alertsSuppressed", alertDeduplicator.getSuppressedCount());
+        return ResponseEntity.ok(stats);
+    }
+}
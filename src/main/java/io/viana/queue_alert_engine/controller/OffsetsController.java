@@ -1,9 +1,8 @@
 package io.viana.queue_alert_engine.controller;
 
-import io.viana.queue_alert_engine.config.AlertsProperties;
-import io.viana.queue_alert_engine.domain.AlertGroup;
-import io.viana.queue_alert_engine.domain.AlertRule;
-import io.viana.queue_alert_engine.service.QueueOffsetTracker;
+import io.viana.queue_alert_engine.service.RuleRegistry;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.store.LagSnapshotStore;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Controlador REST para consultar os offsets consumidos (a posição de leitura)
@@ -26,36 +24,26 @@ import java.util.stream.Collectors;
 @Tag(name = "Offsets", description = "Consulta offsets consumidos de cada consumer group") // Documentação Swagger
 public class OffsetsController {
 
-    private final AlertsProperties alertsProperties; // Propriedades de configuração dos grupos
-    private final QueueOffsetTracker queueOffsetTracker; // Serviço que armazena os offsets consumidos
+    private final RuleRegistry ruleRegistry; // Grupos monitorados (configurados, alterados em execução e descobertos)
+    private final LagSnapshotStore lagSnapshotStore; // Resultado publicado do último ciclo de cada grupo
 
     // ------------------------------
     // LISTA OS GROUP IDS
     // ------------------------------
 
     /**
-     * Retorna a lista dos IDs de todos os consumer groups que possuem regras configuradas.
+     * Retorna a lista dos IDs de todos os consumer groups com partições monitoradas.
      */
     @Operation(
-        summary = "Lista todos os consumer groups configurados",
-        description = "Retorna apenas os groupIds disponíveis no AlertsProperties"
+        summary = "Lista todos os consumer groups monitorados",
+        description = "Retorna os groupIds com regras carregadas no índice de offsets"
     )
     @ApiResponse(responseCode = "200", description = "Groups retornados com sucesso")
     @GetMapping("/groups") // GET /api/offsets/groups
     public ResponseEntity<List<String>> listGroupIds() {
 
-        // Se não houver grupos configurados, retorna uma lista vazia (200 OK)
-        if (alertsProperties.getGroups() == null || alertsProperties.getGroups().isEmpty()) {
-            return ResponseEntity.ok(List.of());
-        }
-
-        // Mapeia a lista de AlertGroup para uma lista contendo apenas os IDs
-        List<String> ids = alertsProperties.getGroups()
-                .stream()
-                .map(AlertGroup::getGroupId)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(ids);
+        // IDs dos grupos após a expansão das regras (lista vazia se não houver nenhum)
+        return ResponseEntity.ok(ruleRegistry.groupIds());
     }
 
 
@@ -64,15 +52,16 @@ public class OffsetsController {
     // ------------------------------
 
     /**
-     * Retorna o último offset consumido registrado para cada tópico/partição
-     * que pertence ao groupId especificado.
+     * Retorna o offset consumido na última avaliação publicada de cada
+     * tópico/partição que pertence ao groupId especificado (vazio se o grupo
+     * ainda não foi avaliado).
      *
      * @param groupId O ID do grupo de consumidores a ser consultado.
      */
     @Operation(
         summary = "Retorna os offsets atuais consumidos para um groupId",
         description = """
-                Os offsets retornados são aqueles registrados internamente no QueueOffsetTracker, 
+                Os offsets retornados são os da última avaliação do grupo (snapshot do ciclo),
                 considerando apenas as regras configuradas para o grupo.
                 """
     )
@@ -81,15 +70,10 @@ public class OffsetsController {
     @GetMapping("/groups/{groupId}") // GET /api/offsets/groups/{groupId}
     public ResponseEntity<?> getOffsetsForGroup(@PathVariable String groupId) {
 
-        // Validação inicial para configurações vazias
-        if (alertsProperties.getGroups() == null) {
-            return ResponseEntity.status(404).body("Nenhum grupo configurado");
-        }
-
-        // Busca o grupo de alerta correspondente ao groupId fornecido
-        AlertGroup group = alertsProperties.getGroups()
+        // Busca o grupo monitorado correspondente ao groupId fornecido
+        String group = ruleRegistry.groupIds()
                 .stream()
-                .filter(g -> g.getGroupId().equalsIgnoreCase(groupId))
+                .filter(g -> g.equalsIgnoreCase(groupId))
                 .findFirst()
                 .orElse(null);
 
@@ -101,16 +85,11 @@ public class OffsetsController {
         // Mapa que armazenará o resultado: Chave="tópico-partição", Valor=offset
         Map<String, Long> result = new LinkedHashMap<>();
 
-        // Itera sobre as regras do grupo para buscar os offsets monitorados
-        for (AlertRule rule : group.getRules()) {
-            // Busca o último offset consumido no serviço QueueOffsetTracker
-            long offset = queueOffsetTracker.getLastConsumedOffset(
-                    groupId,
-                    rule.topic(),
-                    rule.partition()
-            );
+        // Itera sobre os slots do grupo na versão atual do snapshot (consistente entre si)
+        LagSnapshot.GroupLag lag = lagSnapshotStore.current().group(group);
+        for (int slot = 0; lag != null && slot < lag.size(); slot++) {
             // Formata a chave como "tópico-partição" e adiciona o offset
-            result.put(rule.topic() + "-" + rule.partition(), offset);
+            result.put(lag.topic(slot) + "-" + lag.partition(slot), lag.consumed(slot));
         }
 
         // Retorna o mapa de offsets com status 200 OK
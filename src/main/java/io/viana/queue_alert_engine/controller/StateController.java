@@ -0,0 +1,112 @@
+package io.viana.queue_alert_engine.controller;
+
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST que serve a visão materializada do último estado de cada
+ * (grupo, tópico, partição), mantida a partir do tópico de estado.
+ * As consultas são respondidas da memória, sem chamadas ao AdminClient do Kafka.
+ */
+@RestController // Define que esta classe é um controlador REST
+@RequestMapping("/api/state") // Define o caminho base
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+@Tag(name = "Estado", description = "Consulta o último estado conhecido das filas monitoradas") // Documentação Swagger
+public class StateController {
+
+    // Limite máximo de itens do ranking de lag
+    private static final int MAX_TOP = 1000;
+
+    private final QueueStateStore queueStateStore; // Visão materializada dos estados
+
+    // ------------------------------
+    // LISTA OS ESTADOS
+    // ------------------------------
+
+    /**
+     * Retorna o último estado de todas as partições, ou apenas as de um status.
+     *
+     * @param status Filtro opcional (OK, WARNING ou CRITICAL).
+     */
+    @Operation(
+        summary = "Lista o último estado das partições monitoradas",
+        description = "Aceita um filtro opcional por status (ex: ?status=CRITICAL)"
+    )
+    @ApiResponse(responseCode = "200", description = "Estados retornados com sucesso")
+    @GetMapping // GET /api/state
+    public ResponseEntity<List<QueueStateEvent>> listStates(@RequestParam(required = false) QueueStatus status) {
+        return ResponseEntity.ok(status != null ? queueStateStore.byStatus(status) : queueStateStore.snapshot());
+    }
+
+    // ------------------------------
+    // RANKING DE LAG
+    // ------------------------------
+
+    /**
+     * Retorna as N partições com maior lag entre todos os grupos.
+     *
+     * @param limit Quantidade de itens (padrão 10).
+     */
+    @Operation(
+        summary = "Ranking das partições com maior lag",
+        description = "Retorna as N partições com maior lag entre todos os consumer groups"
+    )
+    @ApiResponse(responseCode = "200", description = "Ranking retornado com sucesso")
+    @GetMapping("/top") // GET /api/state/top?limit=10
+    public ResponseEntity<List<QueueStateEvent>> topLag(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(queueStateStore.topLag(Math.max(0, Math.min(limit, MAX_TOP))));
+    }
+
+    // ------------------------------
+    // RESUMO POR STATUS
+    // ------------------------------
+
+    /**
+     * Retorna quantas partições estão em cada status.
+     */
+    @Operation(
+        summary = "Quantidade de partições por status",
+        description = "Resumo do último estado conhecido (OK, WARNING, CRITICAL)"
+    )
+    @ApiResponse(responseCode = "200", description = "Resumo retornado com sucesso")
+    @GetMapping("/summary") // GET /api/state/summary
+    public ResponseEntity<Map<QueueStatus, Integer>> summary() {
+        return ResponseEntity.ok(queueStateStore.countByStatus());
+    }
+
+    // ------------------------------
+    // ESTADOS DE UM GRUPO
+    // ------------------------------
+
+    /**
+     * Retorna o último estado das partições de um consumer group.
+     *
+     * @param groupId O ID do grupo.
+     */
+    @Operation(
+        summary = "Lista o último estado das partições de um grupo",
+        description = "Retorna os estados conhecidos do groupId informado"
+    )
+    @ApiResponse(responseCode = "200", description = "Estados retornados com sucesso")
+    @ApiResponse(responseCode = "404", description = "Nenhum estado conhecido para o grupo")
+    @GetMapping("/groups/{groupId}") // GET /api/state/groups/{groupId}
+    public ResponseEntity<List<QueueStateEvent>> groupStates(@PathVariable String groupId) {
+        List<QueueStateEvent> states = queueStateStore.byGroup(groupId);
+        if (states.isEmpty()) {
+            return ResponseEntity.status(404).body(null);
+        }
+        return ResponseEntity.ok(states);
+    }
+}
@@ -13,6 +13,8 @@ public class AlertGroup {
     private String groupId;
     // A lista de regras específicas que devem ser aplicadas a este grupo
     private List<AlertRule> rules;
+    // Intervalo base de verificação do grupo em ms (vazio = 'monitor.interval-ms')
+    private Long intervalMs;
 
     // --- Métodos Getters e Setters ---
 
@@ -43,4 +45,18 @@ public class AlertGroup {
     public void setRules(List<AlertRule> rules) {
         this.rules = rules;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna o intervalo base de verificação do grupo (null = padrão).
+     */
+    public Long getIntervalMs() {
+        return intervalMs;
+    }
+
+    /**
+     * Define o intervalo base de verificação do grupo.
+     */
+    public void setIntervalMs(Long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+}
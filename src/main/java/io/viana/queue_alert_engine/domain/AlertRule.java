@@ -1,19 +1,91 @@
 package io.viana.queue_alert_engine.domain;
 
+import java.util.regex.Pattern;
+
 /**
  * Record (Registro) que representa uma regra específica de alerta
  * para uma única partição de um tópico Kafka.
  *
  * Records no Java são classes concisas para classes de dados imutáveis
  * (final fields, construtor, getters, equals(), hashCode() e toString() automáticos).
+ *
+ * Uma regra também pode valer para várias partições: 'topic' aceita curingas
+ * (* e ?), 'topicPattern' aceita uma expressão regular, 'partition' vazio (ou -1)
+ * vale para todas as partições, e uma regra sem tópico vale para todas as
+ * partições em que o grupo tem offsets. Essas regras são expandidas pelo
+ * RuleRegistry em regras concretas (um tópico, uma partição).
  */
 public record AlertRule(
-        // Nome do tópico Kafka que será monitorado
+        // Nome do tópico Kafka que será monitorado (aceita os curingas * e ?)
         String topic,
-        // Número da partição dentro do tópico (ex: 0, 1, 2)
-        int partition,
+        // Número da partição dentro do tópico (ex: 0, 1, 2); vazio ou -1 = todas
+        Integer partition,
         // Limite de lag (atraso) a partir do qual o status passa a ser WARNING (Aviso)
         long lagWarning,
         // Limite de lag (atraso) a partir do qual o status passa a ser CRITICAL (Crítico)
-        long lagCritical
-) {}
\ No newline at end of file
+        long lagCritical,
+        // Tempo estimado para zerar o lag (em segundos) a partir do qual o status passa a ser WARNING (0 = desligado)
+        long drainWarningSeconds,
+        // Tempo estimado para zerar o lag (em segundos) a partir do qual o status passa a ser CRITICAL (0 = desligado)
+        long drainCriticalSeconds,
+        // Expressão regular de tópicos (alternativa a 'topic')
+        String topicPattern
+) {
+
+    // Valor de 'partition' que representa todas as partições
+    public static final int ALL_PARTITIONS = -1;
+
+    /**
+     * Indica se a regra aponta para um único tópico e uma única partição.
+     */
+    public boolean concrete() {
+        return literalTopic() != null && partition != null && partition >= 0;
+    }
+
+    /**
+     * O nome do tópico, se for literal (sem curingas nem expressão regular).
+     */
+    public String literalTopic() {
+        return topicPattern == null && topic != null && topic.indexOf('*') < 0 && topic.indexOf('?') < 0
+                ? topic : null;
+    }
+
+    /**
+     * Indica se a regra vale para todas as partições do(s) tópico(s).
+     */
+    public boolean allPartitions() {
+        return partition == null || partition == ALL_PARTITIONS;
+    }
+
+    /**
+     * Indica se a regra vale para o grupo inteiro (sem tópico definido).
+     */
+    public boolean wholeGroup() {
+        return topic == null && topicPattern == null;
+    }
+
+    /**
+     * Monta o filtro de nomes de tópico da regra (literal, curinga ou expressão regular).
+     */
+    public Pattern topicMatcher() {
+        if (topicPattern != null) return Pattern.compile(topicPattern);
+        if (topic == null) return Pattern.compile(".*");
+        StringBuilder regex = new StringBuilder();
+        for (String part : topic.split("(?=[*?])|(?<=[*?])")) {
+            regex.append(switch (part) {
+                case "*" -> ".*";
+                case "?" -> ".";
+                default -> Pattern.quote(part);
+            });
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Cria a regra concreta desta regra para um tópico/partição específico.
+     */
+    public AlertRule forPartition(String concreteTopic, int concretePartition) {
+        return new AlertRule(concreteTopic, concretePartition, lagWarning, lagCritical,
+                drainWarningSeconds, drainCriticalSeconds, null);
+    }
+}
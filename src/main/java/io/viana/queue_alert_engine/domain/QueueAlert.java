@@ -21,6 +21,6 @@ public class QueueAlert {
     private int partition;
     // O valor do atraso (lag) no momento da geração do alerta
     private long lag;
-    // O nível de severidade do alerta (WARNING ou CRITICAL)
-    private String level; // WARNING, CRITICAL
+    // O nível de severidade do alerta (WARNING ou CRITICAL; OK indica recuperação)
+    private String level; // WARNING, CRITICAL, OK
 }
\ No newline at end of file
@@ -31,7 +31,13 @@ public class QueueStateEvent {
     // O ID do grupo de consumidores que gerou este estado
     private String consumerGroup;
 
-    // O status determinado com base no lag (OK, WARNING ou CRITICAL)
+    // Taxas suavizadas (EWMA) de produção e de consumo, em mensagens por segundo
+    private double produceRate;
+    private double consumeRate;
+    // Tempo estimado para zerar o lag, em segundos (0 = sem lag, -1 = o lag não está diminuindo, -2 = ainda sem taxas)
+    private long timeToDrainSeconds;
+
+    // O status determinado com base no lag e no tempo para zerá-lo (OK, WARNING ou CRITICAL)
     private QueueStatus status;
 
     // Timestamp (data/hora em milissegundos) em que o estado foi verificado
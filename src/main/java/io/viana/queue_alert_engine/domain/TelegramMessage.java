@@ -24,4 +24,15 @@ public class TelegramMessage {
 
     // O conteúdo textual da mensagem a ser enviada.
     private String text;
+
+    // Formatação do texto ("Markdown": negrito com *...*; os nomes vêm escapados pelo renderer)
+    @JsonProperty("parse_mode")
+    private String parseMode;
+
+    /**
+     * Mensagem em Markdown para o chat informado.
+     */
+    public TelegramMessage(String chatId, String text) {
+        this(chatId, text, "Markdown");
+    }
 }
\ No newline at end of file
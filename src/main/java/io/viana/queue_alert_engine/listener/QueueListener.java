@@ -1,14 +1,21 @@
 package io.viana.queue_alert_engine.listener;
 
+import io.viana.queue_alert_engine.config.KafkaConsumerConfig;
 import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.store.QueueStateStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Componente que escuta e consome mensagens de um tópico Kafka específico.
- * Neste caso, escuta o tópico onde o estado da fila é publicado.
+ * Neste caso, escuta o tópico onde o estado da fila é publicado e mantém a
+ * visão materializada do último estado ({@link QueueStateStore}).
  */
 @Slf4j // Para registrar mensagens (logs)
 @Component // Marca a classe como um componente Spring
@@ -17,28 +24,43 @@ public class QueueListener {
 
     // Configurações do Kafka (necessário para logs e referenciar o nome do tópico/grupo)
     private final KafkaProperties kafkaProperties;
+    // Visão materializada com o último estado de cada grupo/tópico/partição
+    private final QueueStateStore queueStateStore;
 
     /**
-     * Consumidor do tópico de estado gerado pelo LagCheckerService.
+     * Consumidor do tópico de estado gerado pelo LagCheckerService (em lote).
      *
      * Usa a anotação @KafkaListener para definir:
      * 1. topics: O nome do tópico (obtido dinamicamente das propriedades).
      * 2. groupId: O ID do grupo de consumidores (obtido dinamicamente das propriedades).
+     * 3. containerFactory: A fábrica em lote (um poll inteiro por chamada, commit por lote).
      *
-     * @param message O payload (conteúdo) da mensagem recebida do Kafka (em formato String/JSON).
+     * @param records Os registros recebidos do Kafka neste poll (já desserializados, JSON ou binário).
      */
     @KafkaListener(
             // Define o tópico a ser escutado, lendo o valor da configuração (ex: "queue.state")
             topics = "#{@kafkaProperties.producer.stateTopic}",
-            // Define o ID do grupo de consumidores (ex: "queue-alert-engine-consumer")
-            groupId = "#{@kafkaProperties.consumer.groupId}"
+            // Define o ID do grupo de consumidores (ex: "queue-alert-engine-consumer");
+            // no modo cluster cada instância usa o próprio grupo e recebe o tópico inteiro
+            groupId = "#{@clusterProperties.stateViewGroupId(@kafkaProperties.consumer.groupId)}",
+            // Entrega em lote (List<ConsumerRecord>)
+            containerFactory = KafkaConsumerConfig.BATCH_FACTORY
     )
-    public void consume(String message) {
-        // Registra a mensagem de estado recebida
-        log.info("📥 Estado recebido do tópico '{}': {}",
-                kafkaProperties.getProducer().getStateTopic(),
-                message
+    public void consume(List<ConsumerRecord<String, QueueStateEvent>> records) {
+        // Registra o lote de estados recebido
+        log.info("📥 {} estados recebidos do tópico '{}'",
+                records.size(),
+                kafkaProperties.getProducer().getStateTopic()
         );
-        // Nota: A lógica de processamento da mensagem (ex: desserialização/ação) seria adicionada aqui.
+        for (ConsumerRecord<String, QueueStateEvent> record : records) {
+            // Valor nulo indica uma mensagem que não pôde ser desserializada
+            if (record.value() == null) {
+                log.warn("⚠️ Estado inválido ignorado (partição {}, offset {})", record.partition(), record.offset());
+                continue;
+            }
+            log.debug("📥 Estado recebido: {}", record.value());
+            // Atualiza a visão materializada (estados mais antigos que o atual são ignorados)
+            queueStateStore.put(record.value());
+        }
     }
-}
\ No newline at end of file
+}
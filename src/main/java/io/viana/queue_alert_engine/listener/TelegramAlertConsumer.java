@@ -1,11 +1,18 @@
 package io.viana.queue_alert_engine.listener;
 
+import io.viana.queue_alert_engine.config.KafkaConsumerConfig;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.notifier.TelegramDeliveryPipeline;
 import io.viana.queue_alert_engine.service.AlertService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Componente que atua como um consumidor Kafka, escutando mensagens
  * do tópico de alertas para processamento e envio ao Telegram.
@@ -19,23 +26,38 @@ public class TelegramAlertConsumer {
     private final AlertService alertService;
 
     /**
-     * Método consumidor Kafka.
+     * Método consumidor Kafka (em lote).
      *
      * @KafkaListener define:
      * 1. topics: O tópico a ser escutado (obtido via ${...} das configurações).
      * 2. groupId: O ID exclusivo do grupo de consumidores ("telegram-alert-consumer").
+     * 3. containerFactory: A fábrica em lote (um poll inteiro por chamada, commit por lote).
      *
-     * @param rawMessage A mensagem de alerta recebida do Kafka (string JSON).
+     * @param records Os registros de alerta recebidos do Kafka neste poll (já desserializados, JSON ou binário).
      */
     @KafkaListener(
+            // ID do container (usado pelo pipeline do Telegram para pausar o consumo)
+            id = TelegramDeliveryPipeline.ALERT_LISTENER_ID,
             // Tópico onde os alertas de lag (WARNING/CRITICAL) são publicados
             topics = "${kafka.producer.alert-topic}",
             // Identificador do grupo consumidor
-            groupId = "telegram-alert-consumer"
+            groupId = "telegram-alert-consumer",
+            // Entrega em lote (List<ConsumerRecord>)
+            containerFactory = KafkaConsumerConfig.BATCH_FACTORY
     )
-    public void onAlertReceived(String rawMessage) {
-        log.info("📥 Alerta recebido no tópico de alertas: {}", rawMessage);
-        // Chama o serviço para desserializar (converter) e processar o alerta
-        alertService.handleAlert(rawMessage);
+    public void onAlertsReceived(List<ConsumerRecord<String, QueueAlert>> records) {
+        log.info("📥 {} alertas recebidos no tópico de alertas", records.size());
+
+        // Extrai os alertas e processa o lote inteiro de uma vez
+        List<QueueAlert> alerts = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, QueueAlert> record : records) {
+            // Valor nulo indica uma mensagem que não pôde ser desserializada
+            if (record.value() == null) {
+                log.error("❌ Alerta inválido ignorado (partição {}, offset {})", record.partition(), record.offset());
+                continue;
+            }
+            alerts.add(record.value());
+        }
+        alertService.notifyAlerts(alerts);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,260 @@
+package io.viana.queue_alert_engine.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.store.LagSnapshotStore;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gauges de lag e offsets lidos da versão atual do {@link LagSnapshot}.
+ *
+ * Cada série guarda os grupos (e os slots) que ela soma; uma coleta pega a
+ * versão publicada e percorre as colunas de cada grupo, então os valores de
+ * uma série vêm sempre de um ciclo completo e nada é alocado por scrape.
+ * Grupos ainda não avaliados (ou avaliados com outro layout) ficam fora da
+ * soma até o próximo ciclo. As séries acompanham o layout do
+ * {@link OffsetIndex}: a cada 'metrics.sync-ms' os gauges de partições novas
+ * são registrados e os das que saíram são removidos.
+ *
+ * A granularidade vem de 'metrics.level'; se o nível pedido passar de
+ * 'metrics.max-series' séries, usa o próximo mais grosso (tópico, grupo, total).
+ *
+ * Métricas: queue.monitor.lag, queue.monitor.offset.produced,
+ * queue.monitor.offset.consumed (tags 'group', 'topic', 'partition' conforme o nível)
+ * e queue.monitor.partitions (total de partições monitoradas).
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+public class LagGauges {
+
+    // Índice com os slots monitorados (define as séries)
+    private final OffsetIndex offsetIndex;
+    // Resultado publicado dos ciclos (fonte dos valores)
+    private final LagSnapshotStore lagSnapshotStore;
+    // Registry do Micrometer
+    private final MeterRegistry registry;
+    // Nível e limite de séries
+    private final MetricsProperties metricsProperties;
+
+    // Séries registradas (protegidas por 'this')
+    private final Map<Tags, Series> series = new HashMap<>();
+    // Layout e nível usados na última sincronização
+    private OffsetIndex.Layout syncedLayout;
+    private MetricsProperties.Level syncedLevel;
+
+    public LagGauges(OffsetIndex offsetIndex, LagSnapshotStore lagSnapshotStore, MeterRegistry registry,
+                     MetricsProperties metricsProperties) {
+        this.offsetIndex = offsetIndex;
+        this.lagSnapshotStore = lagSnapshotStore;
+        this.registry = registry;
+        this.metricsProperties = metricsProperties;
+    }
+
+    /**
+     * Registra o gauge com o total de partições monitoradas e faz a primeira sincronização.
+     */
+    @PostConstruct
+    public void start() {
+        Gauge.builder("queue.monitor.partitions", offsetIndex, index -> index.current().totalSlots())
+                .description("Partições monitoradas (slots grupo/tópico/partição)")
+                .register(registry);
+        sync();
+    }
+
+    /**
+     * Acompanha o layout atual: registra as séries novas e remove as que saíram.
+     */
+    @Scheduled(fixedDelayString = "${metrics.sync-ms:10000}")
+    public synchronized void sync() {
+        OffsetIndex.Layout layout = offsetIndex.current();
+        MetricsProperties.Level level = effectiveLevel(layout);
+        if (layout == syncedLayout && level == syncedLevel) return;
+
+        if (level != syncedLevel && level != metricsProperties.getLevel()) {
+            log.warn("📉 Gauges de lag agregados por {} (nível pedido {}, limite de {} séries)",
+                    level, metricsProperties.getLevel(), metricsProperties.getMaxSeries());
+        }
+        if (level != syncedLevel) clear();
+        syncedLayout = layout;
+        syncedLevel = level;
+
+        // Agrupa os slots de cada série do nível
+        Map<Tags, Map<GroupSlots, List<Integer>>> targets = new LinkedHashMap<>();
+        for (GroupSlots slots : layout.groups()) {
+            for (int slot = 0; slot < slots.size(); slot++) {
+                targets.computeIfAbsent(tagsOf(level, slots, slot), ignored -> new LinkedHashMap<>())
+                        .computeIfAbsent(slots, ignored -> new ArrayList<>())
+                        .add(slot);
+            }
+        }
+
+        // Remove as séries que saíram do layout
+        series.entrySet().removeIf(entry -> {
+            if (targets.containsKey(entry.getKey())) return false;
+            entry.getValue().remove(registry);
+            return true;
+        });
+
+        // Atualiza os alvos das existentes e registra as novas
+        targets.forEach((tags, byGroup) -> {
+            Series current = series.computeIfAbsent(tags, this::register);
+            current.target = Target.of(byGroup);
+        });
+    }
+
+    // Nível pedido, ou o primeiro mais grosso que caiba no limite de séries
+    private MetricsProperties.Level effectiveLevel(OffsetIndex.Layout layout) {
+        MetricsProperties.Level[] levels = MetricsProperties.Level.values();
+        for (int i = metricsProperties.getLevel().ordinal(); i < levels.length - 1; i++) {
+            if (seriesCount(levels[i], layout) <= metricsProperties.getMaxSeries()) return levels[i];
+        }
+        return MetricsProperties.Level.NONE;
+    }
+
+    private static int seriesCount(MetricsProperties.Level level, OffsetIndex.Layout layout) {
+        return switch (level) {
+            case PARTITION -> layout.totalSlots();
+            case TOPIC -> {
+                int count = 0;
+                for (GroupSlots slots : layout.groups()) {
+                    count += slots.partitions().stream().map(tp -> tp.topic()).distinct().count();
+                }
+                yield count;
+            }
+            case GROUP -> layout.groups().size();
+            case NONE -> 1;
+        };
+    }
+
+    private static Tags tagsOf(MetricsProperties.Level level, GroupSlots slots, int slot) {
+        return switch (level) {
+            case PARTITION -> Tags.of("group", slots.getGroupId(), "topic", slots.topic(slot),
+                    "partition", Integer.toString(slots.partition(slot)));
+            case TOPIC -> Tags.of("group", slots.getGroupId(), "topic", slots.topic(slot));
+            case GROUP -> Tags.of("group", slots.getGroupId());
+            case NONE -> Tags.empty();
+        };
+    }
+
+    // Registra os três gauges de uma série
+    private Series register(Tags tags) {
+        Series created = new Series(lagSnapshotStore);
+        created.gauges = new Gauge[]{
+                Gauge.builder("queue.monitor.lag", created, Series::lag)
+                        .description("Lag (mensagens) do consumer group")
+                        .tags(tags).strongReference(true).register(registry),
+                Gauge.builder("queue.monitor.offset.produced", created, Series::produced)
+                        .description("Último offset produzido")
+                        .tags(tags).strongReference(true).register(registry),
+                Gauge.builder("queue.monitor.offset.consumed", created, Series::consumed)
+                        .description("Último offset consumido pelo grupo")
+                        .tags(tags).strongReference(true).register(registry)
+        };
+        return created;
+    }
+
+    private void clear() {
+        series.values().forEach(s -> s.remove(registry));
+        series.clear();
+    }
+
+    /**
+     * Quantidade de séries registradas por gauge (para diagnóstico e testes).
+     */
+    public synchronized int seriesCount() {
+        return series.size();
+    }
+
+    // Blocos e slots somados por uma série (imutável; trocado por inteiro a cada sincronização)
+    private record Target(GroupSlots[] groups, int[][] slots) {
+
+        static final Target EMPTY = new Target(new GroupSlots[0], new int[0][]);
+
+        static Target of(Map<GroupSlots, List<Integer>> byGroup) {
+            GroupSlots[] groups = byGroup.keySet().toArray(new GroupSlots[0]);
+            int[][] slots = new int[groups.length][];
+            for (int i = 0; i < groups.length; i++) {
+                slots[i] = byGroup.get(groups[i]).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return new Target(groups, slots);
+        }
+    }
+
+    // Uma série: os gauges registrados e o alvo atual
+    private static final class Series {
+        final LagSnapshotStore snapshots;
+        volatile Target target = Target.EMPTY;
+        Gauge[] gauges;
+
+        Series(LagSnapshotStore snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        // Resultado do grupo na versão lida, ou null se ainda não há um com o layout da série
+        private static LagSnapshot.GroupLag lagOf(LagSnapshot snapshot, GroupSlots slots) {
+            LagSnapshot.GroupLag group = snapshot.group(slots.getGroupId());
+            return group != null && group.sameLayout(slots) ? group : null;
+        }
+
+        double lag() {
+            Target t = target;
+            LagSnapshot snapshot = snapshots.current();
+            long total = 0;
+            for (int g = 0; g < t.groups.length; g++) {
+                LagSnapshot.GroupLag group = lagOf(snapshot, t.groups[g]);
+                if (group == null) continue;
+                for (int slot : t.slots[g]) total += group.lag(slot);
+            }
+            return total;
+        }
+
+        // Soma dos offsets produzidos conhecidos (NaN enquanto nenhum foi obtido)
+        double produced() {
+            Target t = target;
+            LagSnapshot snapshot = snapshots.current();
+            long total = 0;
+            boolean known = false;
+            for (int g = 0; g < t.groups.length; g++) {
+                LagSnapshot.GroupLag group = lagOf(snapshot, t.groups[g]);
+                if (group == null) continue;
+                for (int slot : t.slots[g]) {
+                    long value = group.produced(slot);
+                    if (value < 0) continue;
+                    total += value;
+                    known = true;
+                }
+            }
+            return known ? total : Double.NaN;
+        }
+
+        double consumed() {
+            Target t = target;
+            LagSnapshot snapshot = snapshots.current();
+            long total = 0;
+            for (int g = 0; g < t.groups.length; g++) {
+                LagSnapshot.GroupLag group = lagOf(snapshot, t.groups[g]);
+                if (group == null) continue;
+                for (int slot : t.slots[g]) total += group.consumed(slot);
+            }
+            return total;
+        }
+
+        void remove(MeterRegistry registry) {
+            for (Gauge gauge : gauges) registry.remove(gauge);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.viana.queue_alert_engine.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import org.apache.kafka.common.KafkaFuture;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers e contadores do caminho de avaliação de lag.
+ *
+ * Cada medidor é criado uma única vez (por operação/tópico e resultado) e
+ * guardado em cache: registrar uma medição não monta builders nem tags.
+ *
+ * Métricas:
+ * - queue.monitor.admin.requests (timer): chamadas ao AdminClient, tags 'operation' e 'outcome'
+ * - queue.monitor.cycle (timer): duração de um ciclo/lote de avaliação, tag 'type'
+ * - queue.monitor.kafka.send (timer): latência de envio ao Kafka, tags 'topic' e 'outcome'
+ * - queue.monitor.telegram.delivery (timer): latência de entrega ao Telegram (com retentativas), tag 'outcome'
+ * - queue.monitor.alerts{result=failed} (contador): alertas cujo envio ao Kafka falhou
+ */
+@Component // Marca a classe como um componente Spring
+public class MonitorMetrics {
+
+    // Registry do Micrometer (Prometheus via Actuator)
+    private final MeterRegistry registry;
+    // Histogramas ligados ou não
+    private final MetricsProperties metricsProperties;
+
+    // Timers já registrados: nome → valor da tag → {sucesso, erro}
+    private final Map<String, Map<String, Timer[]>> timers = new ConcurrentHashMap<>();
+    // Alertas que não chegaram ao tópico de alertas
+    private final Counter alertsFailed;
+
+    public MonitorMetrics(MeterRegistry registry, MetricsProperties metricsProperties) {
+        this.registry = registry;
+        this.metricsProperties = metricsProperties;
+        this.alertsFailed = Counter.builder("queue.monitor.alerts")
+                .description("Alertas por resultado")
+                .tag("result", "failed")
+                .register(registry);
+    }
+
+    /**
+     * Mede uma chamada ao AdminClient, do disparo até a conclusão do futuro.
+     *
+     * @param operation O nome da operação (ex: listOffsets).
+     * @param future O futuro devolvido pelo AdminClient.
+     */
+    public void timeAdmin(String operation, KafkaFuture<?> future) {
+        long start = System.nanoTime();
+        future.whenComplete((ignored, ex) ->
+                timer("queue.monitor.admin.requests", "operation", operation, ex == null)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Mede um ciclo (ou lote) de avaliação, do disparo até a conclusão do futuro.
+     *
+     * @param type O tipo do ciclo: full, batch ou group.
+     * @param future O futuro concluído quando todos os grupos forem avaliados.
+     */
+    public void timeCycle(String type, CompletableFuture<?> future) {
+        long start = System.nanoTime();
+        future.whenComplete((ignored, ex) ->
+                timer("queue.monitor.cycle", "type", type, ex == null)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Registra a latência de um envio ao Kafka.
+     *
+     * @param topic O tópico de destino.
+     * @param nanos O tempo entre o envio e a confirmação.
+     * @param success Se o envio foi confirmado.
+     */
+    public void recordKafkaSend(String topic, long nanos, boolean success) {
+        timer("queue.monitor.kafka.send", "topic", topic, success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registra a latência de uma entrega ao Telegram (incluindo retentativas).
+     *
+     * @param nanos O tempo entre o envio e a resposta final.
+     * @param success Se a mensagem foi entregue.
+     */
+    public void recordTelegramDelivery(long nanos, boolean success) {
+        timer("queue.monitor.telegram.delivery", null, "", success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Conta um alerta cujo envio ao tópico de alertas falhou.
+     */
+    public void alertFailed() {
+        alertsFailed.increment();
+    }
+
+    // Timer em cache por nome, tag e resultado (a busca não aloca; só a primeira medição registra)
+    private Timer timer(String name, String tagKey, String tagValue, boolean success) {
+        Map<String, Timer[]> byTag = timers.get(name);
+        if (byTag == null) byTag = timers.computeIfAbsent(name, ignored -> new ConcurrentHashMap<>());
+        Timer[] pair = byTag.get(tagValue);
+        if (pair == null) {
+            pair = byTag.computeIfAbsent(tagValue, value -> new Timer[]{
+                    register(name, tagKey, value, "success"), register(name, tagKey, value, "error")});
+        }
+        return pair[success ? 0 : 1];
+    }
+
+    private Timer register(String name, String tagKey, String tagValue, String outcome) {
+        Timer.Builder builder = Timer.builder(name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(metricsProperties.isHistogram());
+        if (tagKey != null) builder.tag(tagKey, tagValue);
+        return builder.register(registry);
+    }
+}
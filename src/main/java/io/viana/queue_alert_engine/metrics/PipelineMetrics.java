@@ -0,0 +1,55 @@
+package io.viana.queue_alert_engine.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.viana.queue_alert_engine.notifier.TelegramDeliveryPipeline;
+import io.viana.queue_alert_engine.service.AlertDeduplicator;
+import io.viana.queue_alert_engine.service.StateChangeFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expõe no Micrometer os contadores que os componentes do pipeline já mantêm
+ * (LongAdder): o registry lê os valores na coleta, sem nenhum custo extra no
+ * caminho quente.
+ *
+ * Métricas:
+ * - queue.monitor.alerts (result=emitted|suppressed): decisões do deduplicador
+ * - queue.monitor.states (result=published|suppressed): decisões do filtro de estados
+ * - queue.monitor.telegram.messages (result=delivered|failed) e queue.monitor.telegram.queue
+ */
+@Component // Marca a classe como um componente Spring (ligado ao registry pelo Actuator)
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class PipelineMetrics implements MeterBinder {
+
+    // Decide quais alertas são enviados
+    private final AlertDeduplicator alertDeduplicator;
+    // Decide quais estados são publicados
+    private final StateChangeFilter stateChangeFilter;
+    // Entrega das mensagens ao Telegram
+    private final TelegramDeliveryPipeline telegramDeliveryPipeline;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("queue.monitor.alerts", alertDeduplicator, AlertDeduplicator::getEmittedCount)
+                .description("Alertas por resultado").tag("result", "emitted").register(registry);
+        FunctionCounter.builder("queue.monitor.alerts", alertDeduplicator, AlertDeduplicator::getSuppressedCount)
+                .description("Alertas por resultado").tag("result", "suppressed").register(registry);
+
+        FunctionCounter.builder("queue.monitor.states", stateChangeFilter, StateChangeFilter::getPublishedCount)
+                .description("Estados por resultado").tag("result", "published").register(registry);
+        FunctionCounter.builder("queue.monitor.states", stateChangeFilter, StateChangeFilter::getSuppressedCount)
+                .description("Estados por resultado").tag("result", "suppressed").register(registry);
+
+        FunctionCounter.builder("queue.monitor.telegram.messages", telegramDeliveryPipeline,
+                        TelegramDeliveryPipeline::getDeliveredCount)
+                .description("Mensagens do Telegram por resultado").tag("result", "delivered").register(registry);
+        FunctionCounter.builder("queue.monitor.telegram.messages", telegramDeliveryPipeline,
+                        TelegramDeliveryPipeline::getFailedCount)
+                .description("Mensagens do Telegram por resultado").tag("result", "failed").register(registry);
+        Gauge.builder("queue.monitor.telegram.queue", telegramDeliveryPipeline, TelegramDeliveryPipeline::getQueueSize)
+                .description("Mensagens aguardando envio ao Telegram").register(registry);
+    }
+}
@@ -0,0 +1,423 @@
+package io.viana.queue_alert_engine.notifier;
+
+import io.viana.queue_alert_engine.config.TelegramProperties;
+import io.viana.queue_alert_engine.domain.TelegramMessage;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pipeline assíncrono de entrega de mensagens ao Telegram.
+ *
+ * As mensagens entram em uma fila limitada em memória, separada por chat: cada
+ * chat tem a própria fila e o próprio token bucket, e só é agendado quando tem
+ * um token disponível. Assim um chat limitado (ou em retentativa) não segura
+ * os demais. Os envios ocupam no máximo 'max-connections' conexões (WebClient
+ * com pool) e cada chat envia uma mensagem por vez, na ordem de chegada.
+ *
+ * Retentativas (429, 5xx, falhas de rede) esperam o backoff exponencial, o
+ * 'retry_after' informado pelo Telegram no 429 e um novo token do chat.
+ *
+ * Quando a fila passa de 'pause-threshold', o container do consumidor de alertas
+ * é pausado; ele volta a consumir quando a fila fica abaixo de 'resume-threshold'.
+ * Com a fila cheia, o listener espera no máximo 'submit-timeout-ms' por espaço.
+ * No desligamento, as mensagens pendentes são entregues por até 'shutdown-timeout-ms'.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+public class TelegramDeliveryPipeline {
+
+    // ID do container do listener de alertas (pausado quando a fila enche)
+    public static final String ALERT_LISTENER_ID = "telegram-alert-consumer";
+
+    // 'retry_after' no corpo de um 429 do Telegram ({"parameters":{"retry_after":5}})
+    private static final Pattern RETRY_AFTER = Pattern.compile("\"retry_after\"\\s*:\\s*(\\d+)");
+
+    // Propriedades do Telegram (URL, chat e configurações de entrega)
+    private final TelegramProperties telegramProperties;
+    // Cliente HTTP não bloqueante com pool de conexões
+    private final WebClient webClient;
+    // Registro dos listeners Kafka (para pausar/retomar o consumo); pode estar ausente
+    private final ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry;
+    // Latência das entregas
+    private final MonitorMetrics monitorMetrics;
+
+    // Capacidade total da fila (mensagens aguardando envio, somando todos os chats)
+    private final int capacity;
+    // Vagas livres na fila
+    private final Semaphore freeSlots;
+    // Limita o número de requisições em andamento
+    private final Semaphore inFlight;
+    // Fila e token bucket de cada chat
+    private final Map<String, ChatLane> lanes = new ConcurrentHashMap<>();
+    // Chats com token disponível aguardando uma conexão livre
+    private final Queue<ChatLane> ready = new ConcurrentLinkedQueue<>();
+    // Mensagens aceitas e ainda não concluídas (na fila, em envio ou aguardando retentativa)
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    // Indica se o listener foi pausado por backpressure
+    private final AtomicBoolean listenerPaused = new AtomicBoolean(false);
+    // Indica se novas mensagens são aceitas
+    private volatile boolean accepting;
+    // Agenda os chats à espera de token e as retentativas
+    private ScheduledExecutorService scheduler;
+
+    // Contadores de entrega (para diagnóstico)
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public TelegramDeliveryPipeline(TelegramProperties telegramProperties,
+                                    WebClient telegramWebClient,
+                                    ObjectProvider<KafkaListenerEndpointRegistry> listenerRegistry,
+                                    MonitorMetrics monitorMetrics) {
+        this.telegramProperties = telegramProperties;
+        this.webClient = telegramWebClient;
+        this.listenerRegistry = listenerRegistry;
+        this.monitorMetrics = monitorMetrics;
+
+        TelegramProperties.Delivery delivery = telegramProperties.getDelivery();
+        this.capacity = Math.max(1, delivery.getQueueCapacity());
+        this.freeSlots = new Semaphore(capacity);
+        this.inFlight = new Semaphore(Math.max(1, delivery.getMaxConnections()));
+    }
+
+    /**
+     * Inicia o agendador de envios após a construção do componente.
+     */
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telegram-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        accepting = true;
+    }
+
+    /**
+     * No desligamento, para de aceitar mensagens e entrega as pendentes
+     * (respeitando os limites por chat) por até 'shutdown-timeout-ms'.
+     */
+    @PreDestroy
+    public void stop() {
+        accepting = false;
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(telegramProperties.getDelivery().getShutdownTimeoutMs());
+        if (outstanding.get() > 0) {
+            log.info("⏳ Entregando {} mensagens pendentes do Telegram antes de desligar", outstanding.get());
+        }
+        try {
+            while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int lost = outstanding.get();
+        if (lost > 0) {
+            failed.add(lost);
+            log.warn("⚠ {} mensagens do Telegram não foram entregues antes do desligamento", lost);
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Enfileira uma mensagem para envio.
+     *
+     * Se a fila estiver cheia, o consumo de alertas é pausado e a thread chamadora
+     * espera por espaço no máximo 'submit-timeout-ms'; depois disso a mensagem é
+     * descartada (e contada como falha), sem travar o listener Kafka.
+     *
+     * @param message A mensagem a ser enviada.
+     */
+    public void submit(TelegramMessage message) {
+        if (!accepting) {
+            failed.increment();
+            log.warn("⚠ Pipeline do Telegram parado; mensagem descartada");
+            return;
+        }
+
+        if (!freeSlots.tryAcquire()) {
+            pauseListener();
+            try {
+                long timeoutMs = telegramProperties.getDelivery().getSubmitTimeoutMs();
+                if (!freeSlots.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    failed.increment();
+                    log.error("❌ Fila do Telegram cheia por {} ms; mensagem descartada", timeoutMs);
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("⚠ Enfileiramento de mensagem do Telegram interrompido");
+                return;
+            }
+        }
+        enqueue(message);
+    }
+
+    /**
+     * Enfileira uma mensagem apenas se houver espaço na fila, sem esperar.
+     *
+     * Usado por quem roda no agendador do Spring (como o resumo), que não pode
+     * ficar parado por 'submit-timeout-ms' com a fila cheia.
+     *
+     * @param message A mensagem a ser enviada.
+     * @return true se a mensagem foi enfileirada; false se o pipeline está parado ou a fila cheia.
+     */
+    public boolean trySubmit(TelegramMessage message) {
+        if (!accepting || !freeSlots.tryAcquire()) {
+            return false;
+        }
+        enqueue(message);
+        return true;
+    }
+
+    // Coloca a mensagem (com a vaga já reservada) na fila do chat
+    private void enqueue(TelegramMessage message) {
+        outstanding.incrementAndGet();
+
+        ChatLane lane = laneFor(message.getChatId());
+        boolean activate;
+        synchronized (lane) {
+            lane.pending.add(message);
+            activate = !lane.active;
+            lane.active = true;
+        }
+        if (activate) {
+            scheduleNext(lane, 0);
+        }
+
+        // Backpressure: pausa o consumo de alertas quando a fila está quase cheia
+        if (getQueueSize() >= threshold(telegramProperties.getDelivery().getPauseThreshold())) {
+            pauseListener();
+        }
+    }
+
+    // Agenda o próximo envio do chat para quando houver token (e passado o atraso mínimo)
+    private void scheduleNext(ChatLane lane, long minDelayNanos) {
+        long waitNanos = Math.max(minDelayNanos, lane.bucket.reserve());
+        if (waitNanos <= 0) {
+            markReady(lane);
+        } else {
+            scheduler.schedule(() -> markReady(lane), waitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // O chat já tem token: entra na fila de prontos e aguarda uma conexão
+    private void markReady(ChatLane lane) {
+        ready.add(lane);
+        pump();
+    }
+
+    // Dispara envios enquanto houver chats prontos e conexões livres
+    private void pump() {
+        while (!ready.isEmpty() && inFlight.tryAcquire()) {
+            ChatLane lane = ready.poll();
+            if (lane == null) {
+                inFlight.release();
+                continue;
+            }
+            if (lane.current == null) {
+                synchronized (lane) {
+                    lane.current = lane.pending.poll();
+                }
+                lane.attempts = 0;
+                freeSlots.release();
+                maybeResumeListener();
+            }
+            send(lane, lane.current);
+        }
+    }
+
+    // Envia a mensagem atual do chat e trata o resultado
+    private void send(ChatLane lane, TelegramMessage message) {
+        long start = System.nanoTime();
+        request(message).subscribe(
+                ignored -> {
+                    inFlight.release();
+                    delivered.increment();
+                    monitorMetrics.recordTelegramDelivery(System.nanoTime() - start, true);
+                    log.info("📤 Mensagem enviada ao Telegram em {} ms", (System.nanoTime() - start) / 1_000_000);
+                    finish(lane);
+                },
+                ex -> {
+                    inFlight.release();
+                    retryOrFail(lane, ex, start);
+                });
+    }
+
+    // Reagenda a mensagem (backoff, retry_after e um novo token do chat) ou a descarta
+    private void retryOrFail(ChatLane lane, Throwable ex, long start) {
+        TelegramProperties.Delivery delivery = telegramProperties.getDelivery();
+        if (isRetryable(ex) && lane.attempts < delivery.getMaxRetries()) {
+            lane.attempts++;
+            long backoffMs = delivery.getRetryBackoffMs() << Math.min(lane.attempts - 1, 20);
+            long delayMs = Math.max(backoffMs, retryAfterMillis(ex));
+            log.warn("🔁 Falha ao enviar ao Telegram ({}); tentativa {} de {} em {} ms",
+                    ex.getMessage(), lane.attempts, delivery.getMaxRetries(), delayMs);
+            scheduleNext(lane, TimeUnit.MILLISECONDS.toNanos(delayMs));
+            pump();
+            return;
+        }
+
+        failed.increment();
+        monitorMetrics.recordTelegramDelivery(System.nanoTime() - start, false);
+        log.error("❌ Erro ao enviar alerta para Telegram: {}", ex.getMessage(), ex);
+        finish(lane);
+    }
+
+    // Mensagem concluída: agenda a próxima do chat (se houver) e libera outra conexão
+    private void finish(ChatLane lane) {
+        lane.current = null;
+        outstanding.decrementAndGet();
+        boolean more;
+        synchronized (lane) {
+            more = !lane.pending.isEmpty();
+            lane.active = more;
+        }
+        if (more) {
+            scheduleNext(lane, 0);
+        }
+        pump();
+    }
+
+    // Monta a requisição HTTP (as retentativas são agendadas pelo pipeline)
+    private Mono<String> request(TelegramMessage message) {
+        return webClient.post()
+                .uri(telegramProperties.getBotUrl())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(message)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMillis(telegramProperties.getDelivery().getRequestTimeoutMs()));
+    }
+
+    // Erros 429 (rate limit), 5xx e falhas de rede valem nova tentativa
+    private static boolean isRetryable(Throwable ex) {
+        if (ex instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || response.getStatusCode().is5xxServerError();
+        }
+        return ex instanceof WebClientRequestException || ex instanceof TimeoutException;
+    }
+
+    // Espera pedida pelo Telegram em um 429 (corpo 'retry_after' ou cabeçalho Retry-After), em ms
+    private static long retryAfterMillis(Throwable ex) {
+        if (!(ex instanceof WebClientResponseException response) || response.getStatusCode().value() != 429) {
+            return 0;
+        }
+        Matcher matcher = RETRY_AFTER.matcher(response.getResponseBodyAsString());
+        String seconds = matcher.find() ? matcher.group(1) : response.getHeaders().getFirst("Retry-After");
+        try {
+            return seconds != null ? TimeUnit.SECONDS.toMillis(Long.parseLong(seconds.trim())) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // Pausa o consumo de alertas (uma vez, até a fila esvaziar)
+    private void pauseListener() {
+        if (listenerPaused.compareAndSet(false, true)) {
+            log.warn("⏸ Fila do Telegram com {} mensagens; pausando consumo de alertas", getQueueSize());
+            withListener(MessageListenerContainer::pause);
+        }
+    }
+
+    // Retoma o consumo quando a fila esvazia o suficiente
+    private void maybeResumeListener() {
+        if (listenerPaused.get()
+                && getQueueSize() <= threshold(telegramProperties.getDelivery().getResumeThreshold())
+                && listenerPaused.compareAndSet(true, false)) {
+            log.info("▶ Fila do Telegram com {} mensagens; retomando consumo de alertas", getQueueSize());
+            withListener(MessageListenerContainer::resume);
+        }
+    }
+
+    // Converte uma fração da capacidade em quantidade de mensagens
+    private int threshold(double fraction) {
+        return (int) Math.ceil(capacity * fraction);
+    }
+
+    // Executa uma ação sobre o container do listener de alertas, se existir
+    private void withListener(Consumer<MessageListenerContainer> action) {
+        KafkaListenerEndpointRegistry registry = listenerRegistry.getIfAvailable();
+        MessageListenerContainer container = registry != null ? registry.getListenerContainer(ALERT_LISTENER_ID) : null;
+        if (container != null) {
+            action.accept(container);
+        }
+    }
+
+    // Fila e token bucket do chat (criados sob demanda)
+    private ChatLane laneFor(String chatId) {
+        TelegramProperties.Delivery delivery = telegramProperties.getDelivery();
+        return lanes.computeIfAbsent(chatId != null ? chatId : "",
+                id -> new ChatLane(new TokenBucket(delivery.getMessagesPerSecondPerChat(), delivery.getBurstPerChat())));
+    }
+
+    /**
+     * Quantidade de mensagens aguardando envio.
+     */
+    public int getQueueSize() {
+        return capacity - freeSlots.availablePermits();
+    }
+
+    /**
+     * Quantidade de mensagens entregues com sucesso.
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * Quantidade de mensagens descartadas (retentativas esgotadas, fila cheia ou desligamento).
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Fila de um chat. Só um envio por chat fica ativo por vez: 'current' e
+     * 'attempts' são usados apenas pelo fluxo ativo; 'pending' e 'active' são
+     * protegidos pelo próprio objeto.
+     */
+    private static final class ChatLane {
+        private final TokenBucket bucket;
+        private final ArrayDeque<TelegramMessage> pending = new ArrayDeque<>();
+        private boolean active; // Há um envio agendado, em andamento ou aguardando retentativa
+        private volatile TelegramMessage current; // Mensagem em envio (mantida entre as retentativas)
+        private volatile int attempts;
+
+        private ChatLane(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
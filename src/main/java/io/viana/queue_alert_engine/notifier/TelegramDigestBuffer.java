@@ -0,0 +1,97 @@
+package io.viana.queue_alert_engine.notifier;
+
+import io.viana.queue_alert_engine.config.TelegramProperties;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.TelegramMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acumula alertas no modo resumo (telegram.mode=digest) e os envia em uma
+ * única mensagem ao fim da janela ou quando o limite de alertas é atingido.
+ *
+ * Durante incidentes em todo o cluster, isso troca centenas de requisições
+ * (uma por partição) por uma mensagem por janela.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class TelegramDigestBuffer {
+
+    // Propriedades do Telegram (chat, janela e tamanho do resumo)
+    private final TelegramProperties telegramProperties;
+    // Monta o texto do resumo
+    private final TelegramMessageRenderer renderer;
+    // Pipeline assíncrono que faz a entrega
+    private final TelegramDeliveryPipeline deliveryPipeline;
+
+    // Alertas da janela atual; a chave (grupo|tópico|partição) mantém só o mais recente
+    private Map<String, QueueAlert> pending = new LinkedHashMap<>();
+
+    /**
+     * Adiciona um alerta ao resumo da janela atual.
+     * Se o limite de alertas for atingido, o resumo é enviado imediatamente.
+     */
+    public void add(QueueAlert alert) {
+        Map<String, QueueAlert> full = null;
+        synchronized (this) {
+            pending.put(alert.getGroupId() + "|" + alert.getTopic() + "|" + alert.getPartition(), alert);
+            if (pending.size() >= telegramProperties.getDigest().getMaxAlerts()) {
+                full = swap();
+            }
+        }
+        if (full != null) {
+            String text = render(full);
+            deliveryPipeline.submit(new TelegramMessage(telegramProperties.getChatId(), text));
+        }
+    }
+
+    /**
+     * Envia o resumo da janela atual, se houver alertas acumulados.
+     * Executado periodicamente a cada 'telegram.digest.window-ms'.
+     *
+     * Roda na thread do agendador do Spring, compartilhada com o ciclo de
+     * monitoramento: por isso nunca espera por espaço na fila do Telegram.
+     * Com a fila cheia, os alertas voltam ao buffer e saem no próximo resumo.
+     */
+    @Scheduled(fixedDelayString = "${telegram.digest.window-ms:30000}")
+    public void flush() {
+        Map<String, QueueAlert> window;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            window = swap();
+        }
+        String text = render(window);
+        if (!deliveryPipeline.trySubmit(new TelegramMessage(telegramProperties.getChatId(), text))) {
+            requeue(window);
+            log.warn("⚠ Fila do Telegram cheia; {} alertas ficam para o próximo resumo", window.size());
+        }
+    }
+
+    // Troca o buffer atual por um novo e devolve o anterior
+    private Map<String, QueueAlert> swap() {
+        Map<String, QueueAlert> window = pending;
+        pending = new LinkedHashMap<>();
+        return window;
+    }
+
+    // Devolve a janela ao buffer; alertas que chegaram depois prevalecem sobre os antigos
+    private synchronized void requeue(Map<String, QueueAlert> window) {
+        window.putAll(pending);
+        pending = window;
+    }
+
+    // Monta o texto do resumo
+    private String render(Map<String, QueueAlert> window) {
+        List<QueueAlert> alerts = new ArrayList<>(window.values());
+        log.info("🗞 Enviando resumo com {} alertas ao Telegram", alerts.size());
+        return renderer.renderDigest(alerts, telegramProperties.getDigest().getTopN());
+    }
+}
@@ -0,0 +1,134 @@
+package io.viana.queue_alert_engine.notifier;
+
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Responsável por montar o texto das mensagens enviadas ao Telegram,
+ * tanto para um alerta individual quanto para o resumo (digest).
+ *
+ * As mensagens usam o Markdown do Telegram; nomes de grupos e tópicos são
+ * escapados, já que '_' e '*' são comuns neles e quebrariam a formatação
+ * (o Telegram recusa a mensagem inteira).
+ */
+@Component // Marca a classe como um componente Spring
+public class TelegramMessageRenderer {
+
+    // Limite de caracteres de uma mensagem de texto na API do Telegram
+    public static final int TELEGRAM_MAX_LENGTH = 4096;
+
+    // Espaço reservado no fim do resumo para o aviso de truncamento
+    private static final String TRUNCATED = "\n… (resumo truncado)";
+
+    // Caracteres com significado no Markdown do Telegram
+    private static final String MARKDOWN_SPECIALS = "_*`[";
+
+    // Ordem de exibição dos níveis no resumo (mais grave primeiro)
+    private static final List<String> LEVEL_ORDER = List.of("CRITICAL", "WARNING", "OK");
+
+    /**
+     * Formata um único alerta, usando Markdown para negrito
+     * (nível OK indica que a fila se recuperou).
+     */
+    public String render(QueueAlert alert) {
+        String title = "OK".equals(alert.getLevel()) ? "✅ *LAG NORMALIZADO*" : "🚨 *ALERTA DE LAG*";
+        return title + "\n\n"
+                + "📌 *Group:* " + escape(alert.getGroupId()) + "\n"
+                + "📄 *Topic:* " + escape(alert.getTopic()) + "\n"
+                + "📦 *Partition:* " + alert.getPartition() + "\n"
+                + "⏳ *Lag:* " + alert.getLag() + "\n"
+                + "⚠️ *Level:* " + escape(alert.getLevel());
+    }
+
+    /**
+     * Formata um resumo de vários alertas em uma única mensagem.
+     *
+     * Os alertas são agrupados por nível e consumer group; cada seção mostra a
+     * contagem de partições e as top-N com maior lag. O texto nunca passa do
+     * limite de 4096 caracteres do Telegram: o que não couber é omitido.
+     *
+     * @param alerts Os alertas acumulados na janela (já sem duplicatas por partição).
+     * @param topN Quantidade máxima de partições listadas por seção.
+     * @return O texto da mensagem de resumo.
+     */
+    public String renderDigest(List<QueueAlert> alerts, int topN) {
+        // Agrupa por nível e depois por grupo, mantendo a ordem de gravidade
+        Map<String, Map<String, List<QueueAlert>>> sections = new LinkedHashMap<>();
+        LEVEL_ORDER.forEach(level -> sections.put(level, new LinkedHashMap<>()));
+        for (QueueAlert alert : alerts) {
+            sections.computeIfAbsent(alert.getLevel(), level -> new LinkedHashMap<>())
+                    .computeIfAbsent(alert.getGroupId(), group -> new ArrayList<>())
+                    .add(alert);
+        }
+
+        StringBuilder text = new StringBuilder(Math.min(TELEGRAM_MAX_LENGTH, 256 + alerts.size() * 48));
+        text.append("📋 *RESUMO DE ALERTAS DE LAG*\n")
+                .append(alerts.size()).append(" alertas\n");
+
+        int limit = TELEGRAM_MAX_LENGTH - TRUNCATED.length();
+        for (Map.Entry<String, Map<String, List<QueueAlert>>> section : sections.entrySet()) {
+            for (Map.Entry<String, List<QueueAlert>> group : section.getValue().entrySet()) {
+                List<QueueAlert> groupAlerts = group.getValue();
+                // Maiores lags primeiro
+                groupAlerts.sort(Comparator.comparingLong(QueueAlert::getLag).reversed());
+
+                String header = "\n" + icon(section.getKey()) + " *" + escape(section.getKey()) + "* — "
+                        + escape(group.getKey()) + " (" + groupAlerts.size() + " partições)\n";
+                if (!append(text, header, limit)) return text.append(TRUNCATED).toString();
+
+                int shown = Math.min(topN, groupAlerts.size());
+                for (int i = 0; i < shown; i++) {
+                    QueueAlert alert = groupAlerts.get(i);
+                    String line = "  • " + escape(alert.getTopic()) + "-" + alert.getPartition()
+                            + " → lag " + alert.getLag() + "\n";
+                    if (!append(text, line, limit)) return text.append(TRUNCATED).toString();
+                }
+                if (groupAlerts.size() > shown) {
+                    String more = "  … e mais " + (groupAlerts.size() - shown) + "\n";
+                    if (!append(text, more, limit)) return text.append(TRUNCATED).toString();
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Escapa os caracteres especiais do Markdown do Telegram em um texto livre.
+     */
+    static String escape(String value) {
+        if (value == null) return "null";
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (MARKDOWN_SPECIALS.indexOf(c) >= 0) {
+                if (escaped == null) escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+                escaped.append('\\');
+            }
+            if (escaped != null) escaped.append(c);
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    // Acrescenta o trecho se ainda couber no limite
+    private static boolean append(StringBuilder text, String piece, int limit) {
+        if (text.length() + piece.length() > limit) return false;
+        text.append(piece);
+        return true;
+    }
+
+    // Ícone de cada nível
+    private static String icon(String level) {
+        return switch (level) {
+            case "CRITICAL" -> "🔴";
+            case "WARNING" -> "⚠️";
+            case "OK" -> "✅";
+            default -> "•";
+        };
+    }
+}
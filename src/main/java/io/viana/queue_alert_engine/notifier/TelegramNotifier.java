@@ -5,15 +5,15 @@ import io.viana.queue_alert_engine.domain.QueueAlert;
 import io.viana.queue_alert_engine.domain.TelegramMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Serviço responsável por formatar e enviar alertas para um chat do Telegram
  * usando a API do Bot.
+ *
+ * O envio HTTP não acontece aqui: a mensagem formatada é entregue ao
+ * {@link TelegramDeliveryPipeline}, que faz o envio de forma assíncrona.
+ * No modo resumo (telegram.mode=digest) os alertas vão para o {@link TelegramDigestBuffer}.
  */
 @Slf4j // Para registrar mensagens (logs)
 @Service // Marca a classe como um serviço Spring
@@ -22,8 +22,12 @@ public class TelegramNotifier {
 
     // Propriedades de configuração do Telegram (Token do Bot e ID do Chat)
     private final TelegramProperties telegramProperties;
-    // Cliente para fazer requisições HTTP (para a API do Telegram)
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Pipeline assíncrono que faz a entrega das mensagens
+    private final TelegramDeliveryPipeline deliveryPipeline;
+    // Monta o texto das mensagens
+    private final TelegramMessageRenderer renderer;
+    // Acumula os alertas no modo resumo (digest)
+    private final TelegramDigestBuffer digestBuffer;
 
     /**
      * Envia o alerta formatado para o chat configurado no Telegram.
@@ -34,39 +38,21 @@ public class TelegramNotifier {
 
         // Pega as configurações necessárias
         String chatId = telegramProperties.getChatId();
-        String token = telegramProperties.getBotToken();
-
-        log.info("🔧 Telegram chatId: {}", chatId != null ? "OK" : "NULL");
-        log.info("🔧 Telegram botToken: {}", token != null ? "OK" : "NULL");
-
-        // Monta a URL da API do Telegram para envio de mensagens
-        String url = "https://api.telegram.org/bot" + token + "/sendMessage";
-
-        // Formata o texto da mensagem com os detalhes do alerta, usando Markdown para negrito
-        String text = "🚨 *ALERTA DE LAG*\n\n"
-                + "📌 *Group:* " + alert.getGroupId() + "\n"
-                + "📄 *Topic:* " + alert.getTopic() + "\n"
-                + "📦 *Partition:* " + alert.getPartition() + "\n"
-                + "⏳ *Lag:* " + alert.getLag() + "\n"
-                + "⚠️ *Level:* " + alert.getLevel();
-
-        // Cria o objeto de payload (corpo da requisição)
-        TelegramMessage payload = new TelegramMessage(chatId, text);
+        if (chatId == null) {
+            log.warn("⚠ telegram.chat-id não configurado; alerta não enviado: {}", alert);
+            return;
+        }
 
-        // Define os cabeçalhos HTTP (indicando que o corpo é JSON)
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        // No modo resumo, o alerta é acumulado e enviado junto com os demais da janela
+        if (telegramProperties.getMode() == TelegramProperties.Mode.DIGEST) {
+            digestBuffer.add(alert);
+            return;
+        }
 
-        // Combina o payload e os cabeçalhos na requisição HTTP
-        HttpEntity<TelegramMessage> request = new HttpEntity<>(payload, headers);
+        // Formata o texto da mensagem com os detalhes do alerta
+        String text = renderer.render(alert);
 
-        try {
-            // Envia a requisição POST para a API do Telegram
-            restTemplate.postForEntity(url, request, String.class);
-            log.info("📤 Mensagem enviada ao Telegram!");
-        } catch (Exception e) {
-            // Se houver um erro na comunicação, registra
-            log.error("❌ Erro ao enviar alerta para Telegram: {}", e.getMessage(), e);
-        }
+        // Entrega a mensagem ao pipeline assíncrono (não bloqueia com HTTP)
+        deliveryPipeline.submit(new TelegramMessage(chatId, text));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package io.viana.queue_alert_engine.notifier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket simples usado para respeitar os limites de envio por chat do Telegram
+ * (e para espaçar as páginas de consultas de grupos ao Kafka).
+ *
+ * O balde começa cheio (permite uma rajada de até 'capacity' mensagens) e é
+ * reabastecido continuamente a 'ratePerSecond' tokens por segundo.
+ */
+public class TokenBucket {
+
+    // Quantidade máxima de tokens acumulados (tamanho da rajada)
+    private final double capacity;
+    // Tokens adicionados por nanossegundo
+    private final double tokensPerNano;
+
+    // Tokens disponíveis no momento (pode ficar negativo quando há reservas futuras)
+    private double tokens;
+    // Último instante (System.nanoTime) em que o balde foi reabastecido
+    private long lastRefill;
+
+    public TokenBucket(double ratePerSecond, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Reserva um token e retorna quanto tempo o chamador deve esperar para usá-lo.
+     *
+     * @return Tempo de espera em nanossegundos (0 se o token já estiver disponível).
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        tokens -= 1;
+        if (tokens >= 0) return 0;
+        // Saldo negativo: espera o tempo necessário para o balde voltar a zero
+        return (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    /**
+     * Reserva um token e bloqueia a thread atual até que ele esteja disponível.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
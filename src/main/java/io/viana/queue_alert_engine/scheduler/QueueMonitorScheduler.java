@@ -1,16 +1,35 @@
 package io.viana.queue_alert_engine.scheduler;
 
-import io.viana.queue_alert_engine.config.AlertsProperties;
-import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.QueueStatus;
 import io.viana.queue_alert_engine.service.LagCheckerService;
+import io.viana.queue_alert_engine.service.RuleRegistry;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.ShardAssignment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
- * Componente que executa a verificação de lag (atraso) nas filas do Kafka
- * em intervalos de tempo fixos, usando o agendamento do Spring.
+ * Componente que agenda a verificação de lag (atraso) de cada consumer group
+ * no próprio intervalo, usando uma fila de prioridade ordenada pelo próximo horário.
+ *
+ * A cada tick ('monitor.scheduler.tick-ms') os grupos vencidos são verificados
+ * juntos em um único lote (uma requisição de offsets para o lote). Depois de
+ * cada verificação o intervalo do grupo é recalculado: encurta com o grupo em
+ * WARNING/CRITICAL ou com o lag subindo e cresce enquanto ele está saudável.
+ * Os horários recebem uma variação aleatória para que os grupos não acordem
+ * todos no mesmo instante.
  */
 @Slf4j // Para registrar mensagens (logs)
 @Component // Marca a classe como um componente Spring
@@ -19,30 +38,168 @@ public class QueueMonitorScheduler {
 
     // Serviço que contém a lógica para calcular o lag e disparar alertas
     private final LagCheckerService lagCheckerService;
-    // Configurações dos grupos e regras de alerta a serem monitorados
-    private final AlertsProperties alertsProperties;
+    // Intervalo base de cada grupo ('interval-ms' do grupo)
+    private final RuleRegistry ruleRegistry;
+    // Grupos monitorados por esta instância (layout atual)
+    private final OffsetIndex offsetIndex;
+    // No modo líder, só a líder executa as verificações
+    private final ShardAssignment shardAssignment;
+    // Intervalo padrão e parâmetros do agendamento adaptativo
+    private final MonitorProperties monitorProperties;
+
+    // Fila de grupos por próximo horário de verificação (protegida por 'this')
+    private final PriorityQueue<Due> queue = new PriorityQueue<>();
+    // Agenda de cada grupo (protegida por 'this')
+    private final Map<String, GroupSchedule> schedules = new HashMap<>();
+    // Layout usado na última sincronização da agenda
+    private OffsetIndex.Layout syncedLayout;
 
     /**
-     * Método agendado que é executado a cada 60.000 milissegundos (1 minuto).
-     * Ele inicia o processo de verificação de lag para todos os grupos configurados.
+     * Método agendado que é executado a cada 'monitor.scheduler.tick-ms' milissegundos.
+     * Verifica em um único lote todos os grupos cujo horário já chegou. A chamada é
+     * assíncrona: a thread do scheduler não fica esperando o Kafka, e um grupo só
+     * volta para a fila quando a sua verificação termina.
      */
-    @Scheduled(fixedRate = 60000)
+    @Scheduled(fixedDelayString = "${monitor.scheduler.tick-ms:1000}")
     public void monitorQueues() {
-        log.info("🚀 Iniciando monitoramento de lag das filas...");
-
-        // Verifica se há grupos configurados para monitoramento
-        if (alertsProperties.getGroups() == null || alertsProperties.getGroups().isEmpty()) {
-            log.warn("⚠ Nenhum consumer group configurado em alerts.groups");
+        if (shardAssignment.isStandby()) {
+            log.debug("💤 Instância em standby; verificações executadas pela líder");
             return;
         }
 
-        // Itera sobre cada grupo de alerta configurado
-        for (AlertGroup group : alertsProperties.getGroups()) {
-            log.info("📡 Monitorando consumer group '{}'", group.getGroupId());
-            // Chama o serviço para verificar o lag para este grupo e suas regras
-            lagCheckerService.checkLag(group.getGroupId(), group.getRules());
+        long now = System.currentTimeMillis();
+        List<String> due = pollDue(now);
+        if (due.isEmpty()) return;
+
+        log.info("🚀 Verificando lag de {} consumer groups {}", due.size(), due);
+        long start = System.nanoTime();
+        lagCheckerService.checkGroups(due)
+                .whenComplete((ignored, ex) -> {
+                    reschedule(due, System.currentTimeMillis());
+                    log.info("✅ Verificação de {} grupos concluída em {} ms.",
+                            due.size(), (System.nanoTime() - start) / 1_000_000);
+                });
+    }
+
+    // Retira da fila os grupos vencidos (marcando-os como em andamento)
+    private synchronized List<String> pollDue(long now) {
+        sync(now);
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().at <= now) {
+            Due next = queue.poll();
+            GroupSchedule schedule = schedules.get(next.groupId);
+            // Entrada antiga (grupo removido ou reagendado)
+            if (schedule == null || schedule.dueAt != next.at || schedule.running) continue;
+            schedule.running = true;
+            due.add(next.groupId);
+        }
+        return due;
+    }
+
+    // Acompanha grupos novos e removidos sempre que o layout muda
+    private void sync(long now) {
+        OffsetIndex.Layout layout = offsetIndex.current();
+        if (layout == syncedLayout) return;
+        syncedLayout = layout;
+
+        schedules.keySet().removeIf(groupId -> layout.group(groupId) == null);
+        for (GroupSlots slots : layout.groups()) {
+            if (schedules.containsKey(slots.getGroupId())) continue;
+            // Primeira verificação espalhada ao longo do primeiro intervalo
+            long interval = baseInterval(slots.getGroupId());
+            GroupSchedule schedule = new GroupSchedule(interval);
+            schedules.put(slots.getGroupId(), schedule);
+            enqueue(slots.getGroupId(), schedule, now + ThreadLocalRandom.current().nextLong(interval));
         }
+    }
+
+    // Recalcula o intervalo dos grupos verificados e os devolve à fila
+    private synchronized void reschedule(List<String> groupIds, long now) {
+        OffsetIndex.Layout layout = offsetIndex.current();
+        for (String groupId : groupIds) {
+            GroupSchedule schedule = schedules.get(groupId);
+            GroupSlots slots = layout.group(groupId);
+            if (schedule == null || slots == null) continue;
+            schedule.running = false;
+
+            long totalLag = totalLag(slots);
+            boolean rising = schedule.lastTotalLag >= 0 && totalLag > schedule.lastTotalLag;
+            schedule.lastTotalLag = totalLag;
+            schedule.intervalMs = nextInterval(baseInterval(groupId), schedule.intervalMs, worstStatus(slots), rising);
+            enqueue(groupId, schedule, now + jittered(schedule.intervalMs));
+        }
+    }
+
+    /**
+     * Próximo intervalo de um grupo: fração do intervalo base quando há problema,
+     * crescimento gradual (do base até o máximo configurado, se houver) enquanto o grupo está saudável.
+     */
+    long nextInterval(long base, long current, QueueStatus status, boolean rising) {
+        MonitorProperties.Scheduler config = monitorProperties.getScheduler();
+        if (!config.isAdaptive()) return base;
+
+        double factor = 1;
+        if (status == QueueStatus.CRITICAL) factor = Math.min(factor, config.getCriticalFactor());
+        if (status == QueueStatus.WARNING) factor = Math.min(factor, config.getWarningFactor());
+        if (rising) factor = Math.min(factor, config.getRisingFactor());
 
-        log.info("✅ Monitoramento concluído.");
+        long next = factor < 1
+                ? (long) (base * factor)
+                : (long) (Math.max(current, base) * config.getRelaxFactor());
+        long max = Math.max(base, config.getMaxIntervalMs());
+        return Math.max(config.getMinIntervalMs(), Math.min(max, next));
+    }
+
+    private void enqueue(String groupId, GroupSchedule schedule, long at) {
+        schedule.dueAt = at;
+        queue.add(new Due(at, groupId));
+    }
+
+    private long baseInterval(String groupId) {
+        return Math.max(1, ruleRegistry.intervalMs(groupId, monitorProperties.getIntervalMs()));
+    }
+
+    // Intervalo com a variação aleatória configurada (ex: ±10%)
+    private long jittered(long interval) {
+        double jitter = monitorProperties.getScheduler().getJitter();
+        if (jitter <= 0) return interval;
+        double offset = ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.max(1, (long) (interval * (1 + offset)));
+    }
+
+    // Status mais grave entre os slots (o deduplicador guarda o status atual nos 2 bits baixos)
+    private static QueueStatus worstStatus(GroupSlots slots) {
+        AtomicLongArray state = slots.alertState();
+        int worst = 0;
+        for (int slot = 0; slot < slots.size(); slot++) {
+            worst = Math.max(worst, (int) (state.get(slot) & 0b11));
+        }
+        return QueueStatus.values()[Math.min(worst, QueueStatus.values().length - 1)];
+    }
+
+    private static long totalLag(GroupSlots slots) {
+        long total = 0;
+        for (int slot = 0; slot < slots.size(); slot++) total += slots.lag(slot);
+        return total;
+    }
+
+    // Entrada da fila: horário e grupo
+    private record Due(long at, String groupId) implements Comparable<Due> {
+        @Override
+        public int compareTo(Due other) {
+            return Long.compare(at, other.at);
+        }
+    }
+
+    // Agenda mutável de um grupo
+    private static final class GroupSchedule {
+        long intervalMs; // Intervalo atual (adaptado)
+        long dueAt; // Próxima verificação (epoch em ms)
+        long lastTotalLag = -1; // Lag total na última verificação (-1 = nenhuma)
+        boolean running; // Verificação em andamento (o grupo não está na fila)
+
+        GroupSchedule(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
     }
-}
\ No newline at end of file
+}
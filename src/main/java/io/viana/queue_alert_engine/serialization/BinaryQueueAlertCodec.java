@@ -0,0 +1,39 @@
+package io.viana.queue_alert_engine.serialization;
+
+import io.viana.queue_alert_engine.domain.QueueAlert;
+
+/**
+ * Codec binário compacto de {@link QueueAlert}.
+ *
+ * Layout (versão 1), após o cabeçalho MAGIC/versão/TYPE_ALERT:
+ * groupId (string), topic (string), partition (varint), lag (varint zigzag) e level (string).
+ */
+public class BinaryQueueAlertCodec implements EventCodec<QueueAlert> {
+
+    // Buffer de escrita reaproveitado por thread
+    private static final ThreadLocal<BinaryWire.Writer> WRITER = ThreadLocal.withInitial(BinaryWire.Writer::new);
+
+    @Override
+    public byte[] encode(QueueAlert alert) {
+        BinaryWire.Writer writer = WRITER.get().reset();
+        writer.header(BinaryWire.TYPE_ALERT, BinaryWire.ALERT_VERSION);
+        writer.writeString(alert.getGroupId());
+        writer.writeString(alert.getTopic());
+        writer.writeVarLong(alert.getPartition());
+        writer.writeZigZag(alert.getLag());
+        writer.writeString(alert.getLevel());
+        return writer.toByteArray();
+    }
+
+    @Override
+    public QueueAlert decode(byte[] data) {
+        BinaryWire.Reader reader = new BinaryWire.Reader(data);
+        reader.header(BinaryWire.TYPE_ALERT, BinaryWire.ALERT_VERSION);
+        return new QueueAlert(
+                reader.readString(),
+                reader.readString(),
+                (int) reader.readVarLong(),
+                reader.readZigZag(),
+                reader.readString());
+    }
+}
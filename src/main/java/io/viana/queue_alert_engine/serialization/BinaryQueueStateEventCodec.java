@@ -0,0 +1,86 @@
+package io.viana.queue_alert_engine.serialization;
+
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+
+/**
+ * Codec binário compacto de {@link QueueStateEvent}.
+ *
+ * Layout (versão 1), após o cabeçalho MAGIC/versão/TYPE_STATE:
+ * consumerGroup (string), topic (string), partition (varint), lastProducedOffset,
+ * lastConsumedOffset e lag (varints zigzag), status (1 byte) e timestamp (varint zigzag).
+ * O status é gravado com um código fixo (0 = OK, 1 = WARNING, 2 = CRITICAL, -1 =
+ * ausente), e não pela posição no enum: o tópico de estado é compactado e guarda
+ * mensagens antigas indefinidamente.
+ *
+ * A versão 2 acrescenta ao fim produceRate e consumeRate (em milésimos de
+ * mensagem por segundo) e timeToDrainSeconds, todos em varints zigzag.
+ * Mensagens da versão 1 continuam legíveis (campos novos ficam zerados).
+ */
+public class BinaryQueueStateEventCodec implements EventCodec<QueueStateEvent> {
+
+    // Buffer de escrita reaproveitado por thread
+    private static final ThreadLocal<BinaryWire.Writer> WRITER = ThreadLocal.withInitial(BinaryWire.Writer::new);
+    // Escala das taxas (milésimos de mensagem por segundo)
+    private static final double RATE_SCALE = 1000.0;
+
+    @Override
+    public byte[] encode(QueueStateEvent event) {
+        BinaryWire.Writer writer = WRITER.get().reset();
+        writer.header(BinaryWire.TYPE_STATE, BinaryWire.STATE_VERSION);
+        writer.writeString(event.getConsumerGroup());
+        writer.writeString(event.getTopic());
+        writer.writeVarLong(event.getPartition());
+        writer.writeZigZag(event.getLastProducedOffset());
+        writer.writeZigZag(event.getLastConsumedOffset());
+        writer.writeZigZag(event.getLag());
+        writer.writeByte(statusCode(event.getStatus()));
+        writer.writeZigZag(event.getTimestamp());
+        writer.writeZigZag(Math.round(event.getProduceRate() * RATE_SCALE));
+        writer.writeZigZag(Math.round(event.getConsumeRate() * RATE_SCALE));
+        writer.writeZigZag(event.getTimeToDrainSeconds());
+        return writer.toByteArray();
+    }
+
+    @Override
+    public QueueStateEvent decode(byte[] data) {
+        BinaryWire.Reader reader = new BinaryWire.Reader(data);
+        int version = reader.header(BinaryWire.TYPE_STATE, BinaryWire.STATE_VERSION);
+
+        QueueStateEvent event = new QueueStateEvent();
+        event.setConsumerGroup(reader.readString());
+        event.setTopic(reader.readString());
+        event.setPartition((int) reader.readVarLong());
+        event.setLastProducedOffset(reader.readZigZag());
+        event.setLastConsumedOffset(reader.readZigZag());
+        event.setLag(reader.readZigZag());
+        event.setStatus(status(reader.readByte()));
+        event.setTimestamp(reader.readZigZag());
+        if (version >= 2) {
+            event.setProduceRate(reader.readZigZag() / RATE_SCALE);
+            event.setConsumeRate(reader.readZigZag() / RATE_SCALE);
+            event.setTimeToDrainSeconds(reader.readZigZag());
+        }
+        return event;
+    }
+
+    // Código do status no fio (não depende da ordem do enum)
+    private static int statusCode(QueueStatus status) {
+        if (status == null) return -1;
+        return switch (status) {
+            case OK -> 0;
+            case WARNING -> 1;
+            case CRITICAL -> 2;
+        };
+    }
+
+    // Status de um código do fio; códigos desconhecidos viram null
+    private static QueueStatus status(int code) {
+        return switch (code) {
+            case 0 -> QueueStatus.OK;
+            case 1 -> QueueStatus.WARNING;
+            case 2 -> QueueStatus.CRITICAL;
+            default -> null;
+        };
+    }
+}
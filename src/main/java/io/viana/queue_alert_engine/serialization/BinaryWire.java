@@ -0,0 +1,165 @@
+package io.viana.queue_alert_engine.serialization;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.util.Arrays;
+
+/**
+ * Utilitários do formato binário compacto.
+ *
+ * Toda mensagem começa com um cabeçalho de 3 bytes: MAGIC, a versão e o tipo do
+ * evento. Cada tipo tem sua própria versão, então mudar o layout de um tipo não
+ * faz leitores antigos rejeitarem os demais. O byte MAGIC nunca aparece no início de um JSON, o que permite aos
+ * desserializadores detectarem o formato de cada mensagem (útil durante a troca
+ * de JSON para binário com produtores e consumidores em versões diferentes).
+ *
+ * Inteiros são escritos como varints zigzag (offsets pequenos ocupam poucos bytes)
+ * e strings como tamanho (varint) + bytes UTF-8.
+ */
+final class BinaryWire {
+
+    // Primeiro byte de toda mensagem binária (não é um caractere válido de início de JSON)
+    static final byte MAGIC = (byte) 0xA7;
+    // Tipos de evento
+    static final byte TYPE_STATE = 1;
+    static final byte TYPE_ALERT = 2;
+    // Versão atual de cada tipo (estados: 2 = com taxas e tempo para zerar o lag)
+    static final byte STATE_VERSION = 2;
+    static final byte ALERT_VERSION = 1;
+
+    // Cache compartilhado de nomes de tópicos e grupos
+    static final StringTable STRINGS = new StringTable(4096);
+
+    private BinaryWire() {
+    }
+
+    /**
+     * Indica se os bytes estão no formato binário (e não em JSON).
+     */
+    static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * Buffer de escrita reaproveitável (um por thread).
+     */
+    static final class Writer {
+
+        private byte[] buffer = new byte[128];
+        private int position;
+
+        Writer reset() {
+            position = 0;
+            return this;
+        }
+
+        void header(byte type, byte version) {
+            writeByte(MAGIC);
+            writeByte(version);
+            writeByte(type);
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        // Varint sem sinal (7 bits por byte)
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        // Varint zigzag (valores negativos pequenos também ocupam poucos bytes)
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = STRINGS.utf8(value != null ? value : "");
+            writeVarLong(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buffer, position, utf8.length);
+            position += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+
+    /**
+     * Leitor sequencial de uma mensagem binária.
+     */
+    static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int header(byte expectedType, byte supportedVersion) {
+            if (buffer.length < 3 || buffer[0] != MAGIC) {
+                throw new SerializationException("Mensagem não está no formato binário");
+            }
+            if (buffer[1] > supportedVersion) {
+                throw new SerializationException("Versão do formato binário não suportada: " + buffer[1]);
+            }
+            if (buffer[2] != expectedType) {
+                throw new SerializationException("Tipo de evento inesperado: " + buffer[2]);
+            }
+            position = 3;
+            return buffer[1];
+        }
+
+        int readByte() {
+            check(1);
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                check(1);
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new SerializationException("Varint malformado");
+        }
+
+        long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            long length = readVarLong();
+            // Tamanho negativo (varint de 64 bits) ou maior que o restante: mensagem corrompida
+            if (length < 0 || length > buffer.length - position) {
+                throw new SerializationException("Tamanho de string inválido: " + length);
+            }
+            String value = STRINGS.intern(buffer, position, (int) length);
+            position += (int) length;
+            return value;
+        }
+
+        private void check(int needed) {
+            if (needed > buffer.length - position) {
+                throw new SerializationException("Mensagem binária truncada");
+            }
+        }
+    }
+}
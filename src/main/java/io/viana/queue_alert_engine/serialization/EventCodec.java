@@ -0,0 +1,22 @@
+package io.viana.queue_alert_engine.serialization;
+
+/**
+ * Contrato de um codec de eventos: converte um evento de domínio em bytes e vice-versa.
+ *
+ * Implementações devem ser thread-safe, pois uma única instância é compartilhada
+ * pelo produtor e pelos consumidores Kafka.
+ *
+ * @param <T> O tipo do evento (ex: QueueAlert, QueueStateEvent).
+ */
+public interface EventCodec<T> {
+
+    /**
+     * Codifica o evento em bytes.
+     */
+    byte[] encode(T event);
+
+    /**
+     * Decodifica o evento a partir dos bytes recebidos.
+     */
+    T decode(byte[] data);
+}
@@ -0,0 +1,74 @@
+package io.viana.queue_alert_engine.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro dos codecs dos eventos publicados pela aplicação.
+ *
+ * Os serializers usam o formato escolhido em 'kafka.producer.encoding' (json ou binary);
+ * os deserializers aceitam os dois formatos, detectando cada mensagem pelo primeiro byte.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+public class EventCodecs {
+
+    // Formato usado na escrita
+    private final WireEncoding encoding;
+
+    // Codecs de QueueStateEvent
+    private final EventCodec<QueueStateEvent> stateJson;
+    private final EventCodec<QueueStateEvent> stateBinary;
+    // Codecs de QueueAlert
+    private final EventCodec<QueueAlert> alertJson;
+    private final EventCodec<QueueAlert> alertBinary;
+
+    public EventCodecs(KafkaProperties kafkaProperties, ObjectMapper objectMapper) {
+        this.encoding = kafkaProperties.getProducer().getEncoding();
+        this.stateJson = new JsonEventCodec<>(objectMapper, QueueStateEvent.class);
+        this.stateBinary = new BinaryQueueStateEventCodec();
+        this.alertJson = new JsonEventCodec<>(objectMapper, QueueAlert.class);
+        this.alertBinary = new BinaryQueueAlertCodec();
+        log.info("🧬 Eventos de estado e alerta serializados em {}", encoding);
+    }
+
+    public WireEncoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Codec de escrita de QueueStateEvent (conforme o encoding configurado).
+     */
+    public EventCodec<QueueStateEvent> stateCodec() {
+        return encoding == WireEncoding.BINARY ? stateBinary : stateJson;
+    }
+
+    /**
+     * Codec de escrita de QueueAlert (conforme o encoding configurado).
+     */
+    public EventCodec<QueueAlert> alertCodec() {
+        return encoding == WireEncoding.BINARY ? alertBinary : alertJson;
+    }
+
+    public Serializer<QueueStateEvent> stateSerializer() {
+        return new EventSerializer<>(stateCodec());
+    }
+
+    public Serializer<QueueAlert> alertSerializer() {
+        return new EventSerializer<>(alertCodec());
+    }
+
+    public Deserializer<QueueStateEvent> stateDeserializer() {
+        return new EventDeserializer<>(stateJson, stateBinary);
+    }
+
+    public Deserializer<QueueAlert> alertDeserializer() {
+        return new EventDeserializer<>(alertJson, alertBinary);
+    }
+}
@@ -0,0 +1,29 @@
+package io.viana.queue_alert_engine.serialization;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Deserializer Kafka de eventos de domínio.
+ *
+ * Detecta o formato de cada mensagem pelo primeiro byte (cabeçalho binário ou
+ * JSON), então consumidores leem os dois formatos durante uma migração de encoding.
+ *
+ * @param <T> O tipo do evento (ex: QueueAlert, QueueStateEvent).
+ */
+public class EventDeserializer<T> implements Deserializer<T> {
+
+    // Codecs de cada formato
+    private final EventCodec<T> jsonCodec;
+    private final EventCodec<T> binaryCodec;
+
+    public EventDeserializer(EventCodec<T> jsonCodec, EventCodec<T> binaryCodec) {
+        this.jsonCodec = jsonCodec;
+        this.binaryCodec = binaryCodec;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) return null;
+        return BinaryWire.isBinary(data) ? binaryCodec.decode(data) : jsonCodec.decode(data);
+    }
+}
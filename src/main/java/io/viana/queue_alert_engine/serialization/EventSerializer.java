@@ -0,0 +1,24 @@
+package io.viana.queue_alert_engine.serialization;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Serializer Kafka que converte um evento de domínio direto em bytes
+ * usando o codec configurado (JSON ou binário).
+ *
+ * @param <T> O tipo do evento (ex: QueueAlert, QueueStateEvent).
+ */
+public class EventSerializer<T> implements Serializer<T> {
+
+    // Codec usado na escrita
+    private final EventCodec<T> codec;
+
+    public EventSerializer(EventCodec<T> codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        return data != null ? codec.encode(data) : null;
+    }
+}
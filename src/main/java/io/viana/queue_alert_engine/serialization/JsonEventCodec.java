@@ -0,0 +1,50 @@
+package io.viana.queue_alert_engine.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * Codec JSON de eventos.
+ *
+ * O ObjectWriter/ObjectReader são montados uma única vez para o tipo do evento,
+ * e o Jackson escreve o payload direto em byte[] reaproveitando seus buffers
+ * internos, sem passar por uma String intermediária nem recodificar em UTF-8.
+ *
+ * @param <T> O tipo do evento (ex: QueueAlert, QueueStateEvent).
+ */
+public class JsonEventCodec<T> implements EventCodec<T> {
+
+    // Writer e reader pré-configurados para o tipo do evento
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    // Nome do tipo (para mensagens de erro)
+    private final String typeName;
+
+    public JsonEventCodec(ObjectMapper objectMapper, Class<T> type) {
+        this.writer = objectMapper.writerFor(type);
+        this.reader = objectMapper.readerFor(type);
+        this.typeName = type.getSimpleName();
+    }
+
+    @Override
+    public byte[] encode(T event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new SerializationException("Erro ao serializar " + typeName, e);
+        }
+    }
+
+    @Override
+    public T decode(byte[] data) {
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("Erro ao desserializar " + typeName, e);
+        }
+    }
+}
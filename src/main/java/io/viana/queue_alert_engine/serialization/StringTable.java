@@ -0,0 +1,69 @@
+package io.viana.queue_alert_engine.serialization;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Cache de strings do formato binário (nomes de tópicos e grupos).
+ *
+ * Na codificação guarda os bytes UTF-8 já convertidos de cada nome; na
+ * decodificação devolve sempre a mesma instância de String para os mesmos
+ * bytes, sem criar uma nova String por mensagem.
+ *
+ * É um cache de mapeamento direto com tamanho fixo (memória limitada): colisões
+ * apenas substituem a entrada anterior. As entradas são imutáveis, então
+ * leituras e escritas concorrentes não precisam de lock.
+ */
+final class StringTable {
+
+    // Entrada imutável: a String e seus bytes UTF-8
+    private record Entry(String value, byte[] utf8) {}
+
+    private final Entry[] encodeEntries;
+    private final Entry[] decodeEntries;
+    private final int mask;
+
+    StringTable(int sizePowerOfTwo) {
+        int size = Integer.highestOneBit(Math.max(16, sizePowerOfTwo));
+        this.encodeEntries = new Entry[size];
+        this.decodeEntries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Bytes UTF-8 de uma string (reaproveitados entre mensagens).
+     */
+    byte[] utf8(String value) {
+        int index = spread(value.hashCode()) & mask;
+        Entry entry = encodeEntries[index];
+        if (entry != null && entry.value.equals(value)) return entry.utf8;
+
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        encodeEntries[index] = new Entry(value, utf8);
+        return utf8;
+    }
+
+    /**
+     * String correspondente a um trecho de bytes UTF-8 (instância internada).
+     */
+    String intern(byte[] buffer, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) hash = 31 * hash + buffer[i];
+        int index = spread(hash) & mask;
+
+        Entry entry = decodeEntries[index];
+        if (entry != null && Arrays.equals(entry.utf8, 0, entry.utf8.length, buffer, offset, offset + length)) {
+            return entry.value;
+        }
+
+        byte[] utf8 = Arrays.copyOfRange(buffer, offset, offset + length);
+        String value = new String(utf8, StandardCharsets.UTF_8);
+        decodeEntries[index] = new Entry(value, utf8);
+        return value;
+    }
+
+    // Espalha os bits do hash para reduzir colisões nos bits baixos
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,11 @@
+package io.viana.queue_alert_engine.serialization;
+
+/**
+ * Formatos de codificação disponíveis para os tópicos de estado e de alertas.
+ */
+public enum WireEncoding {
+    // JSON legível (padrão), com os nomes dos campos em cada mensagem
+    JSON,
+    // Formato binário compacto (varints, strings internadas e cabeçalho de versão)
+    BINARY
+}
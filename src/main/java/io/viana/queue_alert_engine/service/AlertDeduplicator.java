@@ -0,0 +1,138 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Máquina de estados de alertas por (grupo, tópico, partição).
+ *
+ * Decide se um alerta deve realmente ser enviado: apenas na mudança de status,
+ * na repetição após 'alerts.repeat-alert-minutes' e na recuperação para OK
+ * (quando 'alerts.recovery-alerts-enabled' estiver ativo).
+ *
+ * O estado de cada slot cabe em um único long (status nos 2 bits baixos e o
+ * instante do último envio nos demais) dentro de um AtomicLongArray do
+ * {@link GroupSlots}, atualizado por CAS: sem locks e sem objetos por partição.
+ * O estado é reservado antes do envio (dois ciclos não liberam o mesmo alerta)
+ * e desfeito com {@link #revert} se o envio ao Kafka falhar, para que a transição
+ * seja liberada de novo no próximo ciclo.
+ */
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class AlertDeduplicator {
+
+    // Bits reservados para o status dentro do long empacotado
+    private static final int STATUS_BITS = 2;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+
+    // Configurações de repetição e recuperação de alertas
+    private final AlertsProperties alertsProperties;
+
+    // Contadores de decisões (para diagnóstico)
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Resultado da avaliação de um slot.
+     */
+    public enum Decision {
+        // Nada a enviar (status repetido dentro do intervalo ou OK estável)
+        SUPPRESS,
+        // Mudança para WARNING/CRITICAL (ou entre eles)
+        ALERT,
+        // Mesmo status de alerta após o intervalo de repetição
+        REPEAT,
+        // Voltou para OK depois de um alerta
+        RECOVERY
+    }
+
+    /**
+     * Registra o status atual de um slot e decide se um alerta deve ser enviado.
+     *
+     * @param slots O bloco de slots do grupo.
+     * @param slot O slot da partição.
+     * @param status O status calculado neste ciclo.
+     * @param nowMillis O instante atual (epoch em ms).
+     * @return A decisão para este ciclo.
+     */
+    public Decision evaluate(GroupSlots slots, int slot, QueueStatus status, long nowMillis) {
+        AtomicLongArray state = slots.alertState();
+        long repeatMillis = TimeUnit.MINUTES.toMillis(alertsProperties.getRepeatAlertMinutes());
+
+        while (true) {
+            long current = state.get(slot);
+            QueueStatus previous = QueueStatus.values()[(int) (current & STATUS_MASK)];
+            long lastSent = current >>> STATUS_BITS;
+
+            Decision decision;
+            long next;
+            if (status == QueueStatus.OK) {
+                // Recuperação: só faz sentido se o último status emitido era de alerta
+                decision = previous != QueueStatus.OK && alertsProperties.isRecoveryAlertsEnabled()
+                        ? Decision.RECOVERY : Decision.SUPPRESS;
+                next = pack(QueueStatus.OK, decision == Decision.RECOVERY ? nowMillis : lastSent);
+            } else if (status != previous) {
+                decision = Decision.ALERT;
+                next = pack(status, nowMillis);
+            } else if (repeatMillis > 0 && nowMillis - lastSent >= repeatMillis) {
+                decision = Decision.REPEAT;
+                next = pack(status, nowMillis);
+            } else {
+                decision = Decision.SUPPRESS;
+                next = current;
+            }
+
+            if (next == current || state.compareAndSet(slot, current, next)) {
+                if (decision != Decision.SUPPRESS) {
+                    emitted.increment();
+                } else if (status != QueueStatus.OK) {
+                    suppressed.increment(); // OK estável não conta como supressão
+                }
+                return decision;
+            }
+            // Outro thread alterou o slot ao mesmo tempo: reavalia com o valor novo
+        }
+    }
+
+    /**
+     * Desfaz a decisão de um alerta cujo envio falhou, voltando o slot ao estado
+     * anterior. Não faz nada se o slot já mudou depois (um ciclo mais novo vence).
+     *
+     * @param slots O bloco de slots do grupo.
+     * @param slot O slot da partição.
+     * @param status O status enviado (OK na recuperação).
+     * @param nowMillis O instante usado em {@link #evaluate}.
+     * @param previous O estado empacotado do slot antes de {@link #evaluate}.
+     */
+    public void revert(GroupSlots slots, int slot, QueueStatus status, long nowMillis, long previous) {
+        if (slots.alertState().compareAndSet(slot, pack(status, nowMillis), previous)) {
+            emitted.decrement();
+        }
+    }
+
+    // Empacota status e instante em um único long
+    private static long pack(QueueStatus status, long millis) {
+        return (millis << STATUS_BITS) | status.ordinal();
+    }
+
+    /**
+     * Quantidade de alertas liberados para envio desde o início da aplicação.
+     */
+    public long getEmittedCount() {
+        return emitted.sum();
+    }
+
+    /**
+     * Quantidade de alertas suprimidos (repetidos) desde o início da aplicação.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
@@ -1,11 +1,12 @@
 package io.viana.queue_alert_engine.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.viana.queue_alert_engine.config.KafkaProperties;
-import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueAlert;
 import io.viana.queue_alert_engine.domain.QueueStateEvent;
 import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.LagSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,36 +22,52 @@ public class AlertDispatcher {
 
     // Produtor genérico para enviar mensagens ao Kafka
     private final KafkaMessageProducer kafkaProducer;
-    // Ferramenta para converter objetos Java em texto JSON
-    private final ObjectMapper objectMapper;
     // Configurações do Kafka (incluindo nomes dos tópicos de alerta e estado)
     private final KafkaProperties kafkaProperties;
+    // Máquina de estados que decide quando um alerta realmente deve ser enviado
+    private final AlertDeduplicator alertDeduplicator;
+    // Contador de alertas que não chegaram ao tópico
+    private final MonitorMetrics monitorMetrics;
 
     /**
-     * Envia um alerta se o status for WARNING ou CRITICAL para um tópico específico.
+     * Envia um alerta para o tópico de alertas quando a máquina de estados permitir:
+     * mudança para WARNING/CRITICAL, repetição após o intervalo configurado ou
+     * recuperação para OK. Ciclos redundantes são descartados antes de qualquer
+     * serialização ou envio ao Kafka. Se o envio falhar, a decisão é desfeita e
+     * o alerta volta a ser liberado no próximo ciclo.
      *
-     * @param groupId O ID do grupo de consumidores.
-     * @param rule A regra de alerta que foi violada.
-     * @param lag O atraso (lag) atual.
-     * @param status O status atual da fila (OK, WARNING, CRITICAL).
+     * @param group O resultado da avaliação do grupo de consumidores (lag e status por slot).
+     * @param slot O slot da partição avaliada.
      */
-    public void dispatchAlert(String groupId, AlertRule rule, long lag, QueueStatus status) {
-        // Verifica se o status exige a emissão de um alerta
-        if (status == QueueStatus.WARNING || status == QueueStatus.CRITICAL) {
-            // Cria a mensagem do alerta no formato JSON
-            String json = String.format("""
-                {
-                  "groupId": "%s",
-                  "topic": "%s",
-                  "partition": %d,
-                  "lag": %d,
-                  "level": "%s"
-                }
-                """, groupId, rule.topic(), rule.partition(), lag, status.name());
+    public void dispatchAlert(LagSnapshot.GroupLag group, int slot) {
+        QueueStatus status = group.status(slot);
 
-            // Envia o JSON para o tópico de alerta configurado
-            kafkaProducer.send(kafkaProperties.getProducer().getAlertTopic(), rule.topic(), json);
+        // Consulta a máquina de estados antes de montar qualquer payload
+        // (o estado anterior é guardado para desfazer a decisão se o envio falhar)
+        GroupSlots slots = group.slots();
+        long previous = slots.alertState().get(slot);
+        long evaluatedAt = group.evaluatedAt();
+        AlertDeduplicator.Decision decision = alertDeduplicator.evaluate(slots, slot, status, evaluatedAt);
+        if (decision == AlertDeduplicator.Decision.SUPPRESS) {
+            return;
         }
+
+        String groupId = group.groupId();
+        String topic = group.topic(slot);
+        int partition = group.partition(slot);
+
+        // Cria o alerta (na recuperação o nível é OK); a serialização acontece no produtor
+        QueueAlert alert = new QueueAlert(groupId, topic, partition, group.lag(slot), status.name());
+
+        log.info("🔔 Alerta {} para {}-{} [group={}] → {}", decision, topic, partition, groupId, status);
+
+        // Envia o alerta para o tópico de alerta configurado
+        kafkaProducer.sendEvent(kafkaProperties.getProducer().getAlertTopic(), topic, alert)
+                .whenComplete((result, ex) -> {
+                    if (ex == null) return;
+                    monitorMetrics.alertFailed();
+                    alertDeduplicator.revert(slots, slot, status, evaluatedAt, previous);
+                });
     }
 
     /**
@@ -59,16 +76,8 @@ public class AlertDispatcher {
      * @param stateEvent O objeto contendo o estado atual da fila (lag, offsets, status, etc.).
      */
     public void dispatchState(QueueStateEvent stateEvent) {
-        try {
-            // Transforma o objeto de estado em uma string JSON (o payload)
-            String payload = objectMapper.writeValueAsString(stateEvent);
-            // Envia o payload para o tópico de estado
-            kafkaProducer.send(kafkaProperties.getProducer().getStateTopic(), stateEvent.getTopic(), payload);
-            // Registra o sucesso do envio
-            log.info("📤 Estado publicado no tópico '{}': {}", kafkaProperties.getProducer().getStateTopic(), payload);
-        } catch (JsonProcessingException e) {
-            // Se falhar ao converter o objeto para JSON, registra um erro
-            log.error("❌ Erro ao serializar QueueStateEvent", e);
-        }
+        // Envia o evento para o tópico de estado (serializado direto em bytes pelo produtor)
+        kafkaProducer.sendEvent(kafkaProperties.getProducer().getStateTopic(), stateEvent.getTopic(), stateEvent);
+        log.debug("📤 Estado publicado no tópico '{}': {}", kafkaProperties.getProducer().getStateTopic(), stateEvent);
     }
-}
\ No newline at end of file
+}
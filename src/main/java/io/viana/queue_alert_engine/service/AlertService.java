@@ -1,26 +1,36 @@
 package io.viana.queue_alert_engine.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.viana.queue_alert_engine.domain.QueueAlert;
 import io.viana.queue_alert_engine.notifier.TelegramNotifier;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * Serviço responsável por receber e processar mensagens de alerta
  * (geralmente vindas de um tópico Kafka) e encaminhá-las para notificação.
  */
 @Slf4j // Para registrar mensagens (logs)
 @Service // Marca a classe como um serviço Spring
-@RequiredArgsConstructor // Cria o construtor para injeção de dependência
 public class AlertService {
 
-    // Ferramenta para converter texto JSON em objetos Java
-    private final ObjectMapper objectMapper;
+    // Leitor JSON pré-configurado para QueueAlert (reaproveitado entre mensagens)
+    private final ObjectReader alertReader;
     // Serviço para enviar a notificação final via Telegram
     private final TelegramNotifier telegramNotifier;
 
+    public AlertService(ObjectMapper objectMapper, TelegramNotifier telegramNotifier) {
+        this.alertReader = objectMapper.readerFor(QueueAlert.class);
+        this.telegramNotifier = telegramNotifier;
+    }
+
     /**
      * Processa uma mensagem crua (JSON) vinda do Kafka, transforma em um objeto
      * de alerta estruturado e o envia para notificação no Telegram.
@@ -28,20 +38,76 @@ public class AlertService {
      * @param rawMessage A string JSON recebida do Kafka.
      */
     public void handleAlert(String rawMessage) {
-        try {
-            log.debug("🔄 Convertendo mensagem recebida: {}", rawMessage);
+        handleAlerts(List.of(rawMessage));
+    }
 
-            // Converte a string JSON para o objeto QueueAlert
-            QueueAlert alert = objectMapper.readValue(rawMessage, QueueAlert.class);
+    /**
+     * Processa um lote de mensagens (JSON) vindas do Kafka.
+     *
+     * Todo o lote é convertido primeiro; mensagens inválidas são registradas e
+     * descartadas sem interromper as demais. Alertas repetidos da mesma partição
+     * e com o mesmo nível em sequência dentro do lote são reduzidos ao mais
+     * recente antes da notificação, o que evita mensagens redundantes ao
+     * reprocessar o tópico após uma parada.
+     *
+     * @param rawMessages As strings JSON recebidas do Kafka, na ordem do tópico.
+     */
+    public void handleAlerts(List<String> rawMessages) {
+        // 1. Converte o lote; mensagens inválidas são descartadas
+        List<QueueAlert> alerts = new ArrayList<>(rawMessages.size());
+        for (String rawMessage : rawMessages) {
+            try {
+                log.debug("🔄 Convertendo mensagem recebida: {}", rawMessage);
 
-            log.info("📦 Alerta convertido com sucesso: {}", alert);
+                // Converte a string JSON para o objeto QueueAlert
+                alerts.add(alertReader.readValue(rawMessage));
 
-            // Envia o alerta formatado usando o notificador do Telegram
-            telegramNotifier.sendAlert(alert);
+            } catch (Exception e) {
+                // Captura qualquer erro (ex: falha na conversão do JSON) e registra
+                log.error("❌ Erro ao processar alerta recebido do Kafka. Payload: {}", rawMessage, e);
+            }
+        }
 
-        } catch (Exception e) {
-            // Captura qualquer erro (ex: falha na conversão do JSON) e registra
-            log.error("❌ Erro ao processar alerta recebido do Kafka. Payload: {}", rawMessage, e);
+        notifyAlerts(alerts);
+    }
+
+    /**
+     * Processa um lote de alertas já desserializados (JSON ou binário) pelo consumidor Kafka.
+     *
+     * Alertas seguidos da mesma partição com o mesmo nível são reduzidos ao mais
+     * recente antes da notificação. Mudanças de nível são todas mantidas: um
+     * WARNING/CRITICAL seguido da recuperação (OK) no mesmo lote gera as duas
+     * mensagens, e o incidente não some do chat.
+     *
+     * @param alerts Os alertas recebidos, na ordem do tópico.
+     */
+    public void notifyAlerts(List<QueueAlert> alerts) {
+        // 1. Em cada sequência de alertas da mesma partição com o mesmo nível, mantém o mais recente
+        List<QueueAlert> kept = new ArrayList<>(alerts.size());
+        // Posição em 'kept' do último alerta mantido de cada grupo/tópico/partição
+        Map<String, Integer> lastKept = new HashMap<>(alerts.size() * 2);
+        int collapsed = 0;
+        for (QueueAlert alert : alerts) {
+            String key = alert.getGroupId() + "|" + alert.getTopic() + "|" + alert.getPartition();
+            Integer previous = lastKept.get(key);
+            if (previous != null && Objects.equals(kept.get(previous).getLevel(), alert.getLevel())) {
+                // Mesmo nível: o anterior é substituído (o novo vai para o fim, na ordem do mais recente)
+                kept.set(previous, null);
+                collapsed++;
+            }
+            lastKept.put(key, kept.size());
+            kept.add(alert);
+        }
+
+        if (collapsed > 0) {
+            log.info("🧹 Lote com {} mensagens reduzido a {} alertas", alerts.size(), alerts.size() - collapsed);
+        }
+
+        // 2. Envia os alertas usando o notificador do Telegram
+        for (QueueAlert alert : kept) {
+            if (alert == null) continue;
+            log.info("📦 Alerta convertido com sucesso: {}", alert);
+            telegramNotifier.sendAlert(alert);
         }
     }
-}
\ No newline at end of file
+}
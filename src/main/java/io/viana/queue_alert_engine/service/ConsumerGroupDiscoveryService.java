@@ -0,0 +1,151 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.config.DiscoveryProperties;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.notifier.TelegramDeliveryPipeline;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListConsumerGroupsOptions;
+import org.apache.kafka.common.ConsumerGroupState;
+import org.apache.kafka.common.KafkaFuture;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Descoberta automática de consumer groups ('discovery.enabled').
+ *
+ * Periodicamente lista os grupos do cluster (listConsumerGroups), aplica os
+ * filtros de inclusão/exclusão e entrega os grupos ao {@link RuleRegistry} com
+ * uma regra de grupo inteiro usando os limites padrão. As partições de cada
+ * grupo são buscadas pelo {@link TopicMetadataRefresher} em páginas com taxa
+ * limitada; grupos novos entram no próximo ciclo sem reiniciar a aplicação.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Service // Marca a classe como um serviço Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class ConsumerGroupDiscoveryService {
+
+    // Cliente administrativo do Kafka (listConsumerGroups)
+    private final AdminClient adminClient;
+    // Configurações da descoberta (filtros, limites padrão)
+    private final DiscoveryProperties discoveryProperties;
+    // Grupos da própria aplicação (nunca monitorados pela descoberta)
+    private final KafkaProperties kafkaProperties;
+    // Configurações do ciclo (timeout das chamadas)
+    private final MonitorProperties monitorProperties;
+    // Grupos do modo cluster (coordenação) e instâncias em standby
+    private final ClusterProperties clusterProperties;
+    private final ShardAssignment shardAssignment;
+    // Registro de regras que recebe os grupos descobertos
+    private final RuleRegistry ruleRegistry;
+    // Atualização dos metadados (partições dos grupos) e reexpansão das regras
+    private final TopicMetadataRefresher topicMetadataRefresher;
+    // Timers das chamadas ao AdminClient
+    private final MonitorMetrics monitorMetrics;
+
+    /**
+     * Descoberta periódica.
+     */
+    @Scheduled(fixedDelayString = "${discovery.interval-ms:300000}",
+            initialDelayString = "${discovery.interval-ms:300000}")
+    public void scheduledDiscovery() {
+        if (!discoveryProperties.isEnabled()) return;
+        discover().whenComplete((changed, ex) -> {
+            if (ex != null) log.warn("⚠ Falha na descoberta de consumer groups: {}", ex.getMessage());
+        });
+    }
+
+    /**
+     * Lista os grupos do cluster e atualiza os grupos descobertos.
+     *
+     * @return Um future com true se o conjunto de grupos descobertos mudou.
+     */
+    public CompletableFuture<Boolean> discover() {
+        // Em standby (modo líder) o cluster não é consultado: a líder descobre ao assumir
+        if (shardAssignment.isStandby()) return CompletableFuture.completedFuture(false);
+
+        List<Pattern> include = compile(discoveryProperties.getInclude());
+        List<Pattern> exclude = compile(discoveryProperties.getExclude());
+
+        int timeoutMs = (int) Math.min(Integer.MAX_VALUE, monitorProperties.getGroupTimeoutMs());
+        KafkaFuture<Collection<ConsumerGroupListing>> listed = adminClient
+                .listConsumerGroups(new ListConsumerGroupsOptions().timeoutMs(timeoutMs)).all();
+        monitorMetrics.timeAdmin("listConsumerGroups", listed);
+        return KafkaFutures.withTimeout(listed, timeoutMs)
+                .thenCompose(listings -> {
+                    TreeSet<String> groupIds = new TreeSet<>();
+                    for (ConsumerGroupListing listing : listings) {
+                        String groupId = listing.groupId();
+                        // Grupos mortos não têm offsets a monitorar
+                        Optional<ConsumerGroupState> state = listing.state();
+                        if (state.isPresent() && state.get() == ConsumerGroupState.DEAD) continue;
+                        if (isOwnGroup(groupId) || !accepts(groupId, include, exclude)) continue;
+                        groupIds.add(groupId);
+                    }
+
+                    if (!ruleRegistry.setDiscoveredGroups(toGroups(groupIds))) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    log.info("🔎 {} consumer groups descobertos", groupIds.size());
+                    // Busca as partições dos grupos e reexpande as regras
+                    return topicMetadataRefresher.refresh().thenApply(reloaded -> true);
+                });
+    }
+
+    // Monta os grupos descobertos com uma regra de grupo inteiro e os limites padrão
+    private List<AlertGroup> toGroups(TreeSet<String> groupIds) {
+        AlertRule defaults = new AlertRule(null, null,
+                discoveryProperties.getDefaultLagWarning(), discoveryProperties.getDefaultLagCritical(),
+                discoveryProperties.getDefaultDrainWarningSeconds(), discoveryProperties.getDefaultDrainCriticalSeconds(),
+                null);
+        List<AlertGroup> groups = new ArrayList<>(groupIds.size());
+        for (String groupId : groupIds) {
+            AlertGroup group = new AlertGroup();
+            group.setGroupId(groupId);
+            group.setRules(List.of(defaults));
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    // Grupos usados por esta instância (listeners de estado e de alertas, coordenação do cluster).
+    // Comparação exata: um prefixo esconderia grupos de usuários com nomes parecidos
+    private boolean isOwnGroup(String groupId) {
+        String stateGroup = kafkaProperties.getConsumer().getGroupId();
+        return (stateGroup != null && (groupId.equals(stateGroup)
+                        || groupId.equals(clusterProperties.stateViewGroupId(stateGroup))))
+                || groupId.equals(TelegramDeliveryPipeline.ALERT_LISTENER_ID)
+                || groupId.equals(clusterProperties.getGroupId());
+    }
+
+    private static boolean accepts(String groupId, List<Pattern> include, List<Pattern> exclude) {
+        for (Pattern pattern : exclude) {
+            if (pattern.matcher(groupId).matches()) return false;
+        }
+        if (include.isEmpty()) return true;
+        for (Pattern pattern : include) {
+            if (pattern.matcher(groupId).matches()) return true;
+        }
+        return false;
+    }
+
+    private static List<Pattern> compile(List<String> regexes) {
+        return regexes == null ? List.of() : regexes.stream().map(Pattern::compile).toList();
+    }
+}
@@ -0,0 +1,43 @@
+package io.viana.queue_alert_engine.service;
+
+import org.apache.kafka.common.KafkaFuture;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão dos futuros do AdminClient em CompletableFuture.
+ *
+ * O 'toCompletionStage().toCompletableFuture()' do KafkaFuture devolve um
+ * futuro que não aceita ser concluído por fora (completeExceptionally lança
+ * UnsupportedOperationException), e os estágios encadeados nele herdam essa
+ * restrição: um 'orTimeout' aplicado ali nunca dispara. Por isso o resultado é
+ * repassado a um CompletableFuture comum antes de qualquer timeout.
+ */
+final class KafkaFutures {
+
+    private KafkaFutures() {
+    }
+
+    /**
+     * Repassa o resultado do KafkaFuture para um CompletableFuture novo.
+     */
+    static <T> CompletableFuture<T> toCompletable(KafkaFuture<T> future) {
+        CompletableFuture<T> completable = new CompletableFuture<>();
+        future.whenComplete((value, ex) -> {
+            if (ex != null) {
+                completable.completeExceptionally(ex);
+            } else {
+                completable.complete(value);
+            }
+        });
+        return completable;
+    }
+
+    /**
+     * Como {@link #toCompletable(KafkaFuture)}, falhando com TimeoutException após o limite.
+     */
+    static <T> CompletableFuture<T> withTimeout(KafkaFuture<T> future, long timeoutMs) {
+        return toCompletable(future).orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
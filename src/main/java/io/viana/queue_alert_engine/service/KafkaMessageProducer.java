@@ -1,10 +1,14 @@
 package io.viana.queue_alert_engine.service;
 
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Serviço responsável por enviar mensagens genéricas para o Apache Kafka.
  */
@@ -15,6 +19,10 @@ public class KafkaMessageProducer {
 
     // Ferramenta do Spring para enviar mensagens ao Kafka
     private final KafkaTemplate<String, String> kafkaTemplate;
+    // Template para eventos de domínio (serializados direto em bytes)
+    private final KafkaTemplate<String, Object> eventKafkaTemplate;
+    // Latência dos envios (por tópico)
+    private final MonitorMetrics monitorMetrics;
 
     /**
      * Envia uma mensagem genérica para o Kafka
@@ -24,10 +32,12 @@ public class KafkaMessageProducer {
      * @param message payload da mensagem (o conteúdo real)
      */
     public void send(String topic, String key, String message) {
+        long start = System.nanoTime();
         // Envia a mensagem para o Kafka de forma assíncrona
         kafkaTemplate.send(topic, key, message)
                 // Define uma ação para ser executada quando o envio for concluído
                 .whenComplete((result, ex) -> {
+                    monitorMetrics.recordKafkaSend(topic, System.nanoTime() - start, ex == null);
                     if (ex != null) {
                         // Se falhou, registra um erro
                         log.error("❌ Falha ao enviar mensagem para {}: {}", topic, ex.getMessage(), ex);
@@ -37,4 +47,28 @@ public class KafkaMessageProducer {
                     }
                 });
     }
-}
\ No newline at end of file
+
+    /**
+     * Envia um evento de domínio (ex: QueueAlert) para o Kafka.
+     * O objeto é serializado direto em bytes pelo produtor, sem String intermediária.
+     *
+     * @param topic tópico de envio (onde a mensagem será publicada)
+     * @param key chave da mensagem (usada para garantir a ordem em uma partição, pode ser null)
+     * @param event o evento a ser publicado
+     * @return o futuro do envio (concluído com erro se o Kafka não confirmar)
+     */
+    public CompletableFuture<SendResult<String, Object>> sendEvent(String topic, String key, Object event) {
+        long start = System.nanoTime();
+        return eventKafkaTemplate.send(topic, key, event)
+                .whenComplete((result, ex) -> {
+                    monitorMetrics.recordKafkaSend(topic, System.nanoTime() - start, ex == null);
+                    if (ex != null) {
+                        // Se falhou, registra um erro
+                        log.error("❌ Falha ao enviar evento para {}: {}", topic, ex.getMessage(), ex);
+                    } else {
+                        // Se deu certo, registra o sucesso
+                        log.debug("📢 Evento enviado para {}: {}", topic, event);
+                    }
+                });
+    }
+}
@@ -1,23 +1,45 @@
 package io.viana.queue_alert_engine.service;
 
+import io.viana.queue_alert_engine.config.MonitorProperties;
 import io.viana.queue_alert_engine.domain.AlertRule;
 import io.viana.queue_alert_engine.domain.QueueStateEvent;
 import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.store.LagSnapshotStore;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.history.LagHistoryStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsOptions;
 import org.apache.kafka.clients.admin.ListOffsetsResult;
 import org.apache.kafka.clients.admin.OffsetSpec;
 import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Serviço principal que calcula o "lag" (atraso) de um consumidor no Kafka
  * e decide se deve gerar alertas ou eventos de estado.
+ *
+ * Cada grupo é avaliado com um único instante e o resultado vira um
+ * {@link LagSnapshot.GroupLag} imutável, de onde saem os alertas e os estados
+ * publicados. Ao fim de cada ciclo (ou lote) os grupos avaliados são
+ * publicados juntos em uma nova versão do {@link LagSnapshot}.
  */
 @Slf4j // Para registrar mensagens (logs)
 @Service // Marca a classe como um serviço Spring
@@ -28,83 +50,348 @@ public class LagCheckerService {
     private final AdminClient adminClient;
     // Serviço para rastrear a posição onde o consumidor parou
     private final QueueOffsetTracker offsetTracker;
+    // Índice com os slots monitorados e a tabela de offsets produzidos
+    private final OffsetIndex offsetIndex;
+    // Versão publicada do resultado das avaliações (lida pelo REST e pelas métricas)
+    private final LagSnapshotStore lagSnapshotStore;
     // Serviço para enviar o estado da fila (status) para o Kafka
     private final StateDispatcher stateProducer;
+    // Filtro que só libera a publicação quando o estado mudou de forma relevante
+    private final StateChangeFilter stateChangeFilter;
+    // Histórico de lag por partição (pontos brutos e agregados)
+    private final LagHistoryStore lagHistoryStore;
+    // Taxas de produção/consumo e tempo estimado para zerar o lag
+    private final LagRateEstimator lagRateEstimator;
     // Serviço para enviar alertas (e-mail, Slack, etc.)
     private final AlertDispatcher alertDispatcher;
+    // Configurações do ciclo de monitoramento (timeout por grupo)
+    private final MonitorProperties monitorProperties;
+    // Timers das chamadas ao AdminClient e da duração dos ciclos
+    private final MonitorMetrics monitorMetrics;
+    // Pool limitado onde a avaliação de cada grupo é executada
+    @Qualifier("lagEvaluationExecutor")
+    private final Executor evaluationExecutor;
+
+    // Ciclo em andamento (null quando nenhum ciclo está rodando)
+    private final AtomicReference<CompletableFuture<Void>> inFlightCycle = new AtomicReference<>();
+
+    /**
+     * Calcula o lag de todos os grupos em um único ciclo.
+     *
+     * Todas as partições monitoradas (de todos os grupos) são resolvidas em uma
+     * única chamada listOffsets; o próprio AdminClient agrupa a requisição por
+     * líder de partição. Assim o tempo do ciclo depende da latência do broker e
+     * não da quantidade de regras.
+     *
+     * Os grupos são avaliados em paralelo: cada um aguarda (sem bloquear threads)
+     * a própria resposta de offsets consumidos, com timeout individual, e é
+     * processado no executor de avaliação assim que ela chega. Um grupo lento
+     * não atrasa os demais e o ciclo dura aproximadamente o tempo do grupo mais lento.
+     *
+     * Se um ciclo anterior ainda estiver em andamento, nenhum novo ciclo é iniciado:
+     * o chamador recebe o futuro do ciclo em execução (ticks são coalescidos).
+     *
+     * @return Um futuro concluído quando todos os grupos do ciclo forem avaliados.
+     */
+    public CompletableFuture<Void> checkAllGroups() {
+        // O layout lido aqui vale para o ciclo inteiro
+        OffsetIndex.Layout layout = offsetIndex.current();
+        if (layout.groups().isEmpty()) {
+            log.warn("⚠ Nenhum consumer group monitorado para checagem de lag");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Proteção contra sobreposição: só um ciclo por vez
+        CompletableFuture<Void> cycle = new CompletableFuture<>();
+        CompletableFuture<Void> running = inFlightCycle.compareAndExchange(null, cycle);
+        if (running != null) {
+            log.warn("⏭ Ciclo anterior ainda em execução; novo ciclo coalescido com o atual");
+            return running;
+        }
+
+        try {
+            // 1. Busca os offsets de produção de todas as partições de uma vez (requisição pré-montada)
+            CompletableFuture<Void> producedOffsets = fetchLatestOffsets(layout, layout.latestOffsetsRequest());
+
+            // 2. Atualiza os offsets consumidos de todos os grupos em uma única requisição multi-grupo
+            Map<String, CompletableFuture<Void>> consumedOffsets =
+                    offsetTracker.updateConsumedOffsetsAsync(layout.groups());
+
+            // 3. Avalia os slots de cada grupo em paralelo a partir do snapshot
+            List<CompletableFuture<LagSnapshot.GroupLag>> evaluations = layout.groups().stream()
+                    .map(slots -> evaluateGroup(layout, slots,
+                            consumedOffsets.get(slots.getGroupId()), producedOffsets))
+                    .toList();
+
+            // 4. Publica o resultado do ciclo em uma nova versão do snapshot
+            publishWhenDone(evaluations).whenComplete((ignored, ex) -> finishCycle(cycle));
+        } catch (RuntimeException e) {
+            log.error("❌ Erro ao iniciar ciclo de monitoramento: {}", e.getMessage(), e);
+            finishCycle(cycle);
+        }
+        monitorMetrics.timeCycle("full", cycle);
+        return cycle;
+    }
+
+    /**
+     * Calcula o lag de um subconjunto de grupos em um único lote (usado pelo
+     * agendador adaptativo com os grupos vencidos a cada tick).
+     *
+     * Os offsets de produção das partições dos grupos selecionados e os offsets
+     * consumidos de todos eles são resolvidos em uma requisição cada, como no
+     * ciclo completo. Lotes de grupos diferentes podem rodar em paralelo.
+     *
+     * @param groupIds Os grupos a verificar (grupos fora do layout são ignorados).
+     * @return Um futuro concluído quando todos os grupos do lote forem avaliados.
+     */
+    public CompletableFuture<Void> checkGroups(Collection<String> groupIds) {
+        OffsetIndex.Layout layout = offsetIndex.current();
+        List<GroupSlots> selected = new ArrayList<>(groupIds.size());
+        for (String groupId : groupIds) {
+            GroupSlots slots = layout.group(groupId);
+            if (slots != null && slots.size() > 0) selected.add(slots);
+        }
+        if (selected.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        try {
+            // Offsets de produção só das partições dos grupos do lote
+            List<TopicPartition> partitions = layout.partitionsOf(selected);
+            Map<TopicPartition, OffsetSpec> request = new HashMap<>(partitions.size() * 2);
+            OffsetSpec latest = OffsetSpec.latest();
+            for (TopicPartition tp : partitions) request.put(tp, latest);
+            CompletableFuture<Void> producedOffsets = fetchLatestOffsets(layout, request);
+
+            Map<String, CompletableFuture<Void>> consumedOffsets = offsetTracker.updateConsumedOffsetsAsync(selected);
+
+            List<CompletableFuture<LagSnapshot.GroupLag>> evaluations = selected.stream()
+                    .map(slots -> evaluateGroup(layout, slots,
+                            consumedOffsets.get(slots.getGroupId()), producedOffsets))
+                    .toList();
+            CompletableFuture<Void> batch = publishWhenDone(evaluations);
+            monitorMetrics.timeCycle("batch", batch);
+            return batch;
+        } catch (RuntimeException e) {
+            log.error("❌ Erro ao iniciar verificação de {} grupos: {}", selected.size(), e.getMessage(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
     /**
      * Função principal: Calcula o lag e dispara alertas/estados para um grupo.
+     *
+     * @return Um futuro concluído quando o grupo for avaliado.
      */
-    public void checkLag(String groupId, List<AlertRule> rules) {
-        if (rules == null || rules.isEmpty()) {
+    public CompletableFuture<Void> checkLag(String groupId) {
+        OffsetIndex.Layout layout = offsetIndex.current();
+        GroupSlots slots = layout.group(groupId);
+        if (slots == null || slots.size() == 0) {
             log.warn("⚠ Nenhuma regra configurada para o consumer group {}", groupId);
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
+        // Resolve os offsets de produção das partições do grupo em uma única requisição
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>(slots.size() * 2);
+        slots.partitions().forEach(tp -> request.put(tp, OffsetSpec.latest()));
+
+        CompletableFuture<Void> evaluation = publishWhenDone(List.of(evaluateGroup(layout, slots,
+                offsetTracker.updateConsumedOffsetsAsync(groupId), fetchLatestOffsets(layout, request))));
+        monitorMetrics.timeCycle("group", evaluation);
+        return evaluation;
+    }
+
+    // Publica uma versão do snapshot com os grupos avaliados com sucesso, quando todos terminarem
+    private CompletableFuture<Void> publishWhenDone(List<CompletableFuture<LagSnapshot.GroupLag>> evaluations) {
+        return CompletableFuture.allOf(evaluations.toArray(CompletableFuture[]::new))
+                .thenRun(() -> {
+                    List<LagSnapshot.GroupLag> evaluated = new ArrayList<>(evaluations.size());
+                    for (CompletableFuture<LagSnapshot.GroupLag> evaluation : evaluations) {
+                        LagSnapshot.GroupLag group = evaluation.join();
+                        if (group != null) evaluated.add(group);
+                    }
+                    if (!evaluated.isEmpty()) lagSnapshotStore.publish(evaluated);
+                });
+    }
+
+    // Libera a trava de sobreposição e conclui o futuro do ciclo
+    private void finishCycle(CompletableFuture<Void> cycle) {
+        inFlightCycle.set(null);
+        cycle.complete(null);
+    }
+
+    // Aguarda os offsets consumidos do grupo e avalia cada slot a partir do snapshot de produção
+    // (o futuro traz o resultado do grupo, ou null se a avaliação falhou)
+    private CompletableFuture<LagSnapshot.GroupLag> evaluateGroup(OffsetIndex.Layout layout, GroupSlots slots,
+                                                  CompletableFuture<Void> consumedOffsets,
+                                                  CompletableFuture<Void> producedOffsets) {
+        String groupId = slots.getGroupId();
         log.info("📌 Calculando lag para consumer group: {}", groupId);
 
-        // Primeiro, atualiza a posição (offset) consumida do grupo
-        offsetTracker.updateConsumedOffsets(groupId);
+        // Primeiro, espera a atualização da posição (offset) consumida do grupo (com timeout por grupo)
+        CompletableFuture<Void> consumed = consumedOffsets
+                .orTimeout(monitorProperties.getGroupTimeoutMs(), TimeUnit.MILLISECONDS);
+
+        // Quando as duas respostas chegarem, processa o grupo no executor de avaliação
+        return consumed
+                .thenCombineAsync(producedOffsets, (ignored, ignoredToo) -> processGroup(layout, slots),
+                        evaluationExecutor)
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        log.error("⏱ Timeout ao avaliar consumer group {} (limite de {} ms)",
+                                groupId, monitorProperties.getGroupTimeoutMs());
+                    } else {
+                        log.error("❌ Erro ao avaliar consumer group {}: {}", groupId, cause.getMessage(), cause);
+                    }
+                    return null;
+                });
+    }
+
+    // Avalia todos os slots do grupo com um único instante, monta o resultado e publica a partir dele
+    private LagSnapshot.GroupLag processGroup(OffsetIndex.Layout layout, GroupSlots slots) {
+        long now = System.currentTimeMillis();
+        LagSnapshot.GroupLag.Builder builder = LagSnapshot.GroupLag.builder(slots, now);
+        for (int slot = 0; slot < slots.size(); slot++) {
+            evaluateSlot(layout, slots, slot, builder, now);
+        }
 
-        // Processa cada regra de alerta definida
-        rules.forEach(rule -> processRule(groupId, rule));
+        LagSnapshot.GroupLag result = builder.build();
+        for (int slot = 0; slot < result.size(); slot++) {
+            if (result.evaluated(slot)) publishSlot(result, slot);
+        }
+        return result;
     }
 
-    // Processa uma única regra de alerta para um tópico/partição
-    private void processRule(String groupId, AlertRule rule) {
-        String topic = rule.topic();
-        int partition = rule.partition();
+    // Calcula lag, taxas e status de um único slot (tópico/partição do grupo)
+    private void evaluateSlot(OffsetIndex.Layout layout, GroupSlots slots, int slot,
+                              LagSnapshot.GroupLag.Builder builder, long now) {
+        AlertRule rule = slots.rule(slot);
 
         // 1. Pega a última posição consumida pelo grupo
-        long lastConsumed = offsetTracker.getLastConsumedOffset(groupId, topic, partition);
-        // 2. Pega a última posição produzida no tópico/partição
-        long lastProduced = getLastProducedOffset(topic, partition);
+        long lastConsumed = slots.consumed(slot);
+        // 2. Pega a última posição produzida no tópico/partição (já resolvida no snapshot do ciclo)
+        long lastProduced = layout.latestOffset(slots, slot);
 
         if (lastProduced < 0) {
-            log.warn("⚠ Não foi possível obter offset de produção para {}-{}. Pulando...", topic, partition);
+            log.warn("⚠ Não foi possível obter offset de produção para {}-{}. Pulando...",
+                    slots.topic(slot), slots.partition(slot));
+            builder.unknown(slot, lastConsumed);
             return;
         }
 
         // Calcula o Lag (atraso): Mensagens produzidas - Mensagens consumidas
         long lag = Math.max(0, lastProduced - lastConsumed);
+        slots.produced(slot, lastProduced);
+        slots.lag(slot, lag);
+
+        // 3. Atualiza as taxas (EWMA) e estima o tempo para zerar o lag
+        lagRateEstimator.update(slots, slot, lastProduced, lastConsumed, now);
+        long timeToDrain = lagRateEstimator.timeToDrainSeconds(slots, slot, lag);
+
+        // Determina o status (OK, WARNING ou CRITICAL) com base no Lag e no tempo para zerá-lo
+        QueueStatus status = worst(determineStatus(lag, rule.lagWarning(), rule.lagCritical()),
+                lagRateEstimator.drainStatus(slots, slot, lag, timeToDrain, rule));
+
+        builder.evaluated(slot, lastProduced, lastConsumed, lag, status)
+                .rates(slot, slots.produceRate(slot), slots.consumeRate(slot), timeToDrain);
+    }
+
+    // Alerta, histórico e estado de um slot avaliado, lidos do resultado imutável do grupo
+    private void publishSlot(LagSnapshot.GroupLag group, int slot) {
+        String groupId = group.groupId();
+        String topic = group.topic(slot);
+        int partition = group.partition(slot);
+        long lag = group.lag(slot);
+        QueueStatus status = group.status(slot);
+        long now = group.evaluatedAt();
+
+        // 4. Dispara o alerta (Telegram) na mudança de status, na repetição ou na recuperação
+        alertDispatcher.dispatchAlert(group, slot);
 
-        // 3. Determina o status (OK, WARNING ou CRITICAL) com base no Lag
-        QueueStatus status = determineStatus(lag, rule.lagWarning(), rule.lagCritical());
+        // 5. Registra o ponto no histórico (todo ciclo, mesmo sem mudança)
+        lagHistoryStore.record(groupId, topic, partition, now, group.produced(slot), group.consumed(slot), lag);
 
-        // 4. Cria o objeto de Evento de Estado da Fila
+        // 6. Publica o estado apenas se mudou (status, delta de lag ou heartbeat)
+        if (!stateChangeFilter.shouldPublish(group.slots(), slot, lag, status, now)) {
+            log.debug("⏸ Estado sem mudança para {}-{} [group={}] (lag={}, status={})",
+                    topic, partition, groupId, lag, status);
+            return;
+        }
+
+        // Cria o objeto de Evento de Estado da Fila
         QueueStateEvent event = QueueStateEvent.builder()
                 .topic(topic)
                 .partition(partition)
                 .consumerGroup(groupId)
-                .lastProducedOffset(lastProduced)
-                .lastConsumedOffset(lastConsumed)
+                .lastProducedOffset(group.produced(slot))
+                .lastConsumedOffset(group.consumed(slot))
                 .lag(lag)
+                .produceRate(orZero(group.produceRate(slot)))
+                .consumeRate(orZero(group.consumeRate(slot)))
+                .timeToDrainSeconds(group.timeToDrainSeconds(slot))
                 .status(status)
-                .timestamp(Instant.now().toEpochMilli())
+                .timestamp(now)
                 .build();
 
-        // 5. Publica o status (estado) no tópico Kafka
-        stateProducer.sendQueueState(event);
-
-        // 6. Dispara o alerta (e-mail/slack) se o status não for OK
-        alertDispatcher.dispatchAlert(groupId, rule, lag, status);
+        // Publica o status (estado) no tópico Kafka; só conta como publicado após a confirmação
+        GroupSlots slots = group.slots();
+        stateProducer.sendQueueState(event).whenComplete((result, ex) -> {
+            if (ex == null) stateChangeFilter.markPublished(slots, slot, lag, status, now);
+        });
 
         log.info("📊 Estado publicado para {}-{} [group={}] → {}", topic, partition, groupId, event);
     }
 
-    // Busca no AdminClient qual é o último offset (a última mensagem) em uma partição
-    private long getLastProducedOffset(String topic, int partition) {
-        try {
-            TopicPartition tp = new TopicPartition(topic, partition);
-            // Pede o offset "latest" (último)
-            ListOffsetsResult result = adminClient.listOffsets(Map.of(tp, OffsetSpec.latest()));
-            // Retorna o valor do offset
-            return result.partitionResult(tp).get().offset();
-        } catch (Exception e) {
-            log.error("❌ Erro ao buscar offset de produção (topic={}, partition={}): {}", topic, partition, e.getMessage(), e);
-            return -1; // Sinaliza erro
+    /**
+     * Busca no AdminClient o último offset (a última mensagem) de várias partições
+     * em uma única requisição listOffsets, sem bloquear a thread chamadora.
+     * Os valores são gravados direto na tabela de offsets produzidos do layout.
+     *
+     * Partições que falharem individualmente (ou não responderem dentro do
+     * timeout) ficam marcadas com -1 e são puladas na avaliação; as demais
+     * continuam sendo avaliadas normalmente. O valor anterior só é trocado quando
+     * a resposta chega, então lotes paralelos que dividem uma partição não
+     * invalidam o valor que o outro lote está usando.
+     */
+    private CompletableFuture<Void> fetchLatestOffsets(OffsetIndex.Layout layout,
+                                                       Map<TopicPartition, OffsetSpec> request) {
+        if (request.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        // Pede o offset "latest" (último) de todas as partições; o AdminClient desiste no mesmo limite
+        ListOffsetsResult result = adminClient.listOffsets(request,
+                new ListOffsetsOptions().timeoutMs((int) monitorProperties.getGroupTimeoutMs()));
+        monitorMetrics.timeAdmin("listOffsets", result.all());
+
+        CompletableFuture<?>[] futures = new CompletableFuture[request.size()];
+        int[] partitionSlots = new int[request.size()];
+        int i = 0;
+        for (TopicPartition tp : request.keySet()) {
+            int partitionSlot = layout.partitionSlotOf(tp);
+            partitionSlots[i] = partitionSlot;
+            futures[i++] = KafkaFutures.toCompletable(result.partitionResult(tp))
+                    .handle((info, ex) -> {
+                        if (ex != null) {
+                            log.error("❌ Erro ao buscar offset de produção (topic={}, partition={}): {}",
+                                    tp.topic(), tp.partition(), ex.getMessage(), ex);
+                            layout.latestOffset(partitionSlot, -1);
+                        } else {
+                            layout.latestOffset(partitionSlot, info.offset());
+                        }
+                        return null;
+                    });
         }
+
+        return CompletableFuture.allOf(futures)
+                .orTimeout(monitorProperties.getGroupTimeoutMs(), TimeUnit.MILLISECONDS)
+                .handle((ignored, ex) -> {
+                    if (ex != null) {
+                        log.error("⏱ Timeout ao buscar offsets de produção de {} partições", request.size());
+                        // Partições sem resposta não são avaliadas com o valor antigo
+                        for (int p = 0; p < futures.length; p++) {
+                            if (!futures[p].isDone()) layout.latestOffset(partitionSlots[p], -1);
+                        }
+                    }
+                    return null;
+                });
     }
 
     // Compara o lag com os limites de WARNING e CRITICAL
@@ -113,4 +400,14 @@ public class LagCheckerService {
         if (lag >= warn) return QueueStatus.WARNING; // Se for maior que o limite de aviso
         return QueueStatus.OK; // Caso contrário, está OK
     }
-}
\ No newline at end of file
+
+    // O mais grave entre dois status (a ordem do enum vai de OK a CRITICAL)
+    private static QueueStatus worst(QueueStatus a, QueueStatus b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+
+    // Taxa ainda não calculada (NaN) é publicada como zero
+    private static double orZero(double rate) {
+        return Double.isNaN(rate) ? 0 : rate;
+    }
+}
@@ -0,0 +1,102 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estima as taxas de produção e consumo de cada partição e o tempo para zerar o lag.
+ *
+ * A cada ciclo compara os offsets com os da amostra anterior e atualiza uma
+ * média móvel exponencial (EWMA) com peso proporcional ao tempo decorrido
+ * (alpha = 1 - e^(-dt/janela)), então ciclos mais curtos ou mais longos pesam
+ * de forma coerente. O estado fica nos arrays do {@link GroupSlots}: O(1) por
+ * partição e sem alocação.
+ */
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class LagRateEstimator {
+
+    // Valor do tempo para zerar quando o lag não está diminuindo
+    public static final long NEVER = -1;
+    // Valor do tempo para zerar enquanto ainda não há taxas (menos de dois ciclos observados)
+    public static final long UNKNOWN = -2;
+
+    // Configurações do ciclo (janela de suavização)
+    private final MonitorProperties monitorProperties;
+
+    /**
+     * Atualiza as taxas do slot com os offsets deste ciclo.
+     *
+     * @param slots O bloco de slots do grupo.
+     * @param slot O slot da partição.
+     * @param produced O último offset produzido.
+     * @param consumed O último offset consumido pelo grupo.
+     * @param nowMillis O instante atual (epoch em ms).
+     */
+    public void update(GroupSlots slots, int slot, long produced, long consumed, long nowMillis) {
+        long previousAt = slots.rateSampledAt(slot);
+        long elapsed = nowMillis - previousAt;
+        if (previousAt == 0 || elapsed <= 0) {
+            // Primeira amostra (ou relógio voltou): só guarda a referência
+            slots.rates(slot, slots.produceRate(slot), slots.consumeRate(slot), produced, consumed, nowMillis);
+            return;
+        }
+
+        double seconds = elapsed / 1000.0;
+        // Deltas negativos (reset de offsets, recriação do tópico) contam como zero
+        double produceSample = Math.max(0, produced - slots.rateProduced(slot)) / seconds;
+        double consumeSample = Math.max(0, consumed - slots.rateConsumed(slot)) / seconds;
+
+        double alpha = 1 - Math.exp(-elapsed / (double) Math.max(1, monitorProperties.getRateWindowMs()));
+        slots.rates(slot,
+                ewma(slots.produceRate(slot), produceSample, alpha),
+                ewma(slots.consumeRate(slot), consumeSample, alpha),
+                produced, consumed, nowMillis);
+    }
+
+    /**
+     * Tempo estimado (em segundos) para o lag zerar, pelas taxas atuais.
+     *
+     * @return 0 sem lag, {@link #UNKNOWN} se ainda não há taxas, {@link #NEVER}
+     *         se o lag não está diminuindo, ou o tempo estimado em segundos.
+     */
+    public long timeToDrainSeconds(GroupSlots slots, int slot, long lag) {
+        if (lag <= 0) return 0;
+        double net = slots.consumeRate(slot) - slots.produceRate(slot);
+        if (Double.isNaN(net)) return UNKNOWN;
+        if (net <= 0) return NEVER;
+        return (long) Math.ceil(lag / net);
+    }
+
+    /**
+     * Compara o tempo estimado para zerar o lag com os limites da regra.
+     *
+     * Sem taxas ({@link #UNKNOWN}) não há alerta. Um lag que não está diminuindo
+     * ({@link #NEVER}) só excede os limites se estiver crescendo (produção acima
+     * do consumo) ou se estiver parado em pelo menos 'monitor.drain-min-lag'
+     * mensagens: partições ociosas com um lag residual pequeno ficam OK.
+     */
+    public QueueStatus drainStatus(GroupSlots slots, int slot, long lag, long timeToDrain, AlertRule rule) {
+        if (timeToDrain == UNKNOWN) return QueueStatus.OK;
+        boolean stalled = timeToDrain == NEVER
+                && (slots.produceRate(slot) > slots.consumeRate(slot) || lag >= monitorProperties.getDrainMinLag());
+        if (exceeds(timeToDrain, stalled, rule.drainCriticalSeconds())) return QueueStatus.CRITICAL;
+        if (exceeds(timeToDrain, stalled, rule.drainWarningSeconds())) return QueueStatus.WARNING;
+        return QueueStatus.OK;
+    }
+
+    // Limite 0 = regra desligada
+    private static boolean exceeds(long timeToDrain, boolean stalled, long limitSeconds) {
+        if (limitSeconds <= 0) return false;
+        return timeToDrain == NEVER ? stalled : timeToDrain >= limitSeconds;
+    }
+
+    // Média móvel exponencial; a primeira amostra vira o valor inicial
+    private static double ewma(double current, double sample, double alpha) {
+        return Double.isNaN(current) ? sample : current + alpha * (sample - current);
+    }
+}
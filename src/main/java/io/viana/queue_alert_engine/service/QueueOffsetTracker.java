@@ -1,38 +1,53 @@
 package io.viana.queue_alert_engine.service;
 
-import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.DiscoveryProperties;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.OffsetIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Serviço responsável por rastrear e manter o último offset (posição)
  * consumido por cada grupo de consumidores Kafka.
+ *
+ * Os offsets ficam no {@link OffsetIndex}, em arrays primitivos por slot.
  */
 @Slf4j // Para logging
 @Service // Marca a classe como um serviço Spring
 @RequiredArgsConstructor // Cria o construtor necessário para injeção de dependência
 public class QueueOffsetTracker {
 
-    // Configurações dos alertas, incluindo quais grupos e partições monitorar
-    private final AlertsProperties alertsProperties;
     // Cliente administrativo do Kafka, usado para buscar informações como offsets
     private final AdminClient adminClient;
-
-    // Mapa para armazenar as partições que precisam ser monitoradas para cada grupo
-    // Chave: GroupId | Valor: Lista de TopicPartition (tópico e partição)
-    private final Map<String, List<TopicPartition>> monitoredPartitions = new ConcurrentHashMap<>();
-    // Mapa para armazenar o último offset consumido.
-    // Chave Externa: GroupId | Chave Interna: TopicPartition | Valor Interno: Offset (posição)
-    private final Map<String, Map<TopicPartition, Long>> consumedOffsets = new ConcurrentHashMap<>();
+    // Índice com os slots (grupo, tópico, partição) e seus offsets
+    private final OffsetIndex offsetIndex;
+    // Leitura do tópico de estado compactado (aquecimento após um restart)
+    private final StateBootstrapService stateBootstrapService;
+    // Expansão das regras (curingas, todas as partições, grupo inteiro)
+    private final RuleRegistry ruleRegistry;
+    // Cache de metadados do cluster usado na expansão das regras
+    private final TopicMetadataRefresher topicMetadataRefresher;
+    // Regras em tempo de execução (arquivo externo observado)
+    private final RuleConfigService ruleConfigService;
+    // Descoberta automática de consumer groups (opcional)
+    private final ConsumerGroupDiscoveryService consumerGroupDiscoveryService;
+    // Configurações da descoberta automática
+    private final DiscoveryProperties discoveryProperties;
+    // Divisão dos shards entre instâncias (modo cluster)
+    private final ShardCoordinator shardCoordinator;
+    // Timers das chamadas ao AdminClient
+    private final MonitorMetrics monitorMetrics;
 
     /**
      * Inicializa o serviço após a construção do objeto.
@@ -40,28 +55,45 @@ public class QueueOffsetTracker {
      */
     @PostConstruct
     public void init() {
-        // Percorre todos os grupos configurados
-        alertsProperties.getGroups().forEach(group -> {
-
-            String groupId = group.getGroupId();
+        // Carrega o arquivo externo de regras (se houver) e passa a observá-lo
+        ruleConfigService.start();
+
+        // Descobre os grupos do cluster (a descoberta já busca os metadados quando encontra grupos)
+        boolean refreshed = false;
+        if (discoveryProperties.isEnabled()) {
+            try {
+                refreshed = consumerGroupDiscoveryService.discover().join();
+            } catch (Exception e) {
+                log.warn("⚠ Descoberta de consumer groups indisponível na inicialização: {}", e.getMessage());
+            }
+        }
 
-            // Mapeia as regras de alerta para objetos TopicPartition
-            List<TopicPartition> partitions = group.getRules().stream()
-                    .map(r -> new TopicPartition(r.topic(), r.partition()))
-                    .collect(Collectors.toList());
+        // Carrega os metadados do cluster se alguma regra usar curingas ou grupo inteiro
+        if (!refreshed && ruleRegistry.needsMetadata()) {
+            try {
+                topicMetadataRefresher.refresh().join();
+            } catch (Exception e) {
+                log.warn("⚠ Metadados indisponíveis na inicialização; regras com padrão serão expandidas depois: {}",
+                        e.getMessage());
+            }
+        }
 
-            // Armazena as partições que serão monitoradas para este grupo
-            monitoredPartitions.put(groupId, partitions);
-            // Inicializa o mapa de offsets consumidos para este grupo
-            consumedOffsets.put(groupId, new ConcurrentHashMap<>());
+        // Expande as regras e interna todos os grupos/partições no índice de offsets
+        ruleRegistry.rebuild();
 
-            log.info("📝 Grupo monitorado: {}", groupId);
-            log.info("📝 Partições monitoradas: {}", partitions);
+        offsetIndex.groups().forEach(slots -> {
+            log.info("📝 Grupo monitorado: {}", slots.getGroupId());
+            log.info("📝 Partições monitoradas: {}", slots.partitions());
         });
 
-        // Chama a atualização inicial de offsets para todos os grupos
-        alertsProperties.getGroups()
-                .forEach(g -> updateConsumedOffsets(g.getGroupId()));
+        // Restaura o último estado publicado (evita republicar estados e repetir alertas)
+        stateBootstrapService.restore();
+
+        // Chama a atualização inicial de offsets para todos os grupos (uma única requisição)
+        updateAllConsumedOffsets();
+
+        // No modo cluster, entra no grupo de coordenação (os shards chegam no rebalance)
+        shardCoordinator.start();
     }
 
     /**
@@ -71,34 +103,83 @@ public class QueueOffsetTracker {
      */
     public void updateConsumedOffsets(String groupId) {
         try {
-            // Solicita ao AdminClient os offsets consumidos pelo grupo
-            ListConsumerGroupOffsetsResult result = adminClient.listConsumerGroupOffsets(groupId);
-
-            // Processa o resultado e cria um mapa simplificado (TopicPartition -> Offset)
-            Map<TopicPartition, Long> offsets = result.partitionsToOffsetAndMetadata().get()
-                    .entrySet()
-                    .stream()
-                    .collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            e -> e.getValue().offset() // Extrai apenas o valor do offset
-                    ));
+            // Reaproveita a versão assíncrona e espera pelo resultado
+            updateConsumedOffsetsAsync(groupId).join();
+        } catch (Exception e) {
+            log.error("❌ Erro ao atualizar offsets consumidos para group {}: {}", groupId, e.getMessage(), e);
+        }
+    }
 
-            // Pega o mapa de offsets que pertence a este grupo
-            Map<TopicPartition, Long> groupOffsets = consumedOffsets.get(groupId);
+    /**
+     * Atualiza os offsets consumidos de todos os grupos monitorados em uma única
+     * requisição ao AdminClient, esperando pelo resultado.
+     */
+    public void updateAllConsumedOffsets() {
+        updateConsumedOffsetsAsync(offsetIndex.groups()).forEach((groupId, future) -> {
+            try {
+                future.join();
+            } catch (Exception e) {
+                log.error("❌ Erro ao atualizar offsets consumidos para group {}: {}", groupId, e.getMessage(), e);
+            }
+        });
+    }
 
-            // Itera sobre as partições monitoradas e armazena o offset encontrado
-            monitoredPartitions.getOrDefault(groupId, List.of())
-                    .forEach(tp -> groupOffsets.put(tp, offsets.getOrDefault(tp, 0L))); // Se não encontrar, usa 0
+    /**
+     * Versão não bloqueante de {@link #updateConsumedOffsets(String)}.
+     * A resposta do AdminClient é processada quando chega, sem ocupar uma thread esperando.
+     *
+     * @param groupId O ID do grupo de consumidores a ser verificado.
+     * @return Um futuro concluído quando os offsets do grupo forem atualizados.
+     */
+    public CompletableFuture<Void> updateConsumedOffsetsAsync(String groupId) {
+        GroupSlots slots = offsetIndex.group(groupId);
+        if (slots == null) return CompletableFuture.completedFuture(null); // Grupo não monitorado
+        return updateConsumedOffsetsAsync(List.of(slots)).get(groupId);
+    }
 
-            log.debug("🔎 Offsets atualizados para group {} → {}", groupId, groupOffsets);
+    /**
+     * Atualiza os offsets consumidos de vários grupos com uma única chamada
+     * listConsumerGroupOffsets (API multi-grupo).
+     *
+     * Cada grupo envia apenas as partições monitoradas, então o broker devolve
+     * somente o que interessa em vez de todas as partições já commitadas pelo grupo.
+     *
+     * @param groups Os blocos de slots dos grupos a serem atualizados.
+     * @return Um futuro por grupo, concluído quando os offsets daquele grupo forem atualizados.
+     */
+    public Map<String, CompletableFuture<Void>> updateConsumedOffsetsAsync(Collection<GroupSlots> groups) {
+        Map<String, CompletableFuture<Void>> futures = new HashMap<>(groups.size() * 2);
+        if (groups.isEmpty()) return futures;
+
+        // Usa a especificação pré-montada de cada grupo (restrita às partições monitoradas)
+        Map<String, ListConsumerGroupOffsetsSpec> specs = new HashMap<>(groups.size() * 2);
+        groups.forEach(slots -> specs.put(slots.getGroupId(), slots.offsetsSpec()));
+
+        // Solicita ao AdminClient os offsets consumidos por todos os grupos de uma vez
+        ListConsumerGroupOffsetsResult result = adminClient.listConsumerGroupOffsets(specs);
+        monitorMetrics.timeAdmin("listConsumerGroupOffsets", result.all());
+
+        // Futuros comuns (e não os do KafkaFuture), para que o timeout do chamador funcione
+        groups.forEach(slots -> futures.put(slots.getGroupId(),
+                KafkaFutures.toCompletable(result.partitionsToOffsetAndMetadata(slots.getGroupId()))
+                        .thenAccept(committed -> storeConsumedOffsets(slots, committed))));
+        return futures;
+    }
 
-        } catch (Exception e) {
-            log.error("❌ Erro ao atualizar offsets consumidos para group {}: {}", groupId, e.getMessage(), e);
+    // Armazena os offsets recebidos nos slots do grupo
+    private void storeConsumedOffsets(GroupSlots slots, Map<TopicPartition, OffsetAndMetadata> committed) {
+        for (int slot = 0; slot < slots.size(); slot++) {
+            OffsetAndMetadata metadata = committed.get(slots.topicPartition(slot));
+            // Partições sem commit voltam como null: nesse caso usa 0
+            slots.consumed(slot, metadata != null ? metadata.offset() : 0L);
         }
+
+        log.debug("🔎 Offsets atualizados para group {} ({} partições)", slots.getGroupId(), slots.size());
     }
 
     /**
      * Retorna o último offset consumido conhecido para uma dada partição e grupo.
+     * A busca é feita direto no índice, sem alocar objetos.
      *
      * @param groupId O ID do grupo de consumidores.
      * @param topic O nome do tópico.
@@ -106,19 +187,11 @@ public class QueueOffsetTracker {
      * @return O último offset consumido, ou 0 se não for encontrado.
      */
     public long getLastConsumedOffset(String groupId, String topic, int partition) {
-        Map<TopicPartition, Long> groupOffsets = consumedOffsets.get(groupId);
-        if (groupOffsets == null) return 0; // Grupo não monitorado
+        GroupSlots slots = offsetIndex.group(groupId);
+        if (slots == null) return 0; // Grupo não monitorado
 
         // Retorna o offset da partição específica, ou 0 se não houver
-        return groupOffsets.getOrDefault(new TopicPartition(topic, partition), 0L);
-    }
-
-    /**
-     * Getter necessário para o MonitorController.
-     *
-     * @return O mapa completo de offsets consumidos por todos os grupos.
-     */
-    public Map<String, Map<TopicPartition, Long>> getConsumedOffsets() {
-        return consumedOffsets;
+        int slot = slots.slotOf(topic, partition);
+        return slot >= 0 ? slots.consumed(slot) : 0;
     }
-}
\ No newline at end of file
+}
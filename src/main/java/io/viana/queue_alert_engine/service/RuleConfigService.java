@@ -0,0 +1,216 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Gerencia as regras em tempo de execução, sem restart.
+ *
+ * As regras podem vir de um arquivo externo ('alerts.rules-file', observado com
+ * um WatchService) ou da API REST ({@link io.viana.queue_alert_engine.controller.GroupsController}).
+ * Cada alteração troca atomicamente o conjunto de regras do {@link RuleRegistry}
+ * e reexpande o índice: ciclos em andamento terminam com o layout antigo e só os
+ * grupos alterados ganham slots novos. Uma alteração do arquivo substitui o que
+ * tiver sido feito pela API.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Service // Marca a classe como um serviço Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class RuleConfigService {
+
+    // Espera após um evento do arquivo para juntar gravações em sequência (editores gravam em etapas)
+    private static final long DEBOUNCE_MS = 200;
+
+    // Configurações dos alertas (caminho do arquivo de regras)
+    private final AlertsProperties alertsProperties;
+    // Registro de regras que recebe o novo conjunto
+    private final RuleRegistry ruleRegistry;
+    // Busca de metadados para regras com padrão recém-adicionadas
+    private final TopicMetadataRefresher topicMetadataRefresher;
+
+    // Observador do diretório do arquivo de regras (null quando desligado)
+    private volatile WatchService watchService;
+
+    /**
+     * Carrega o arquivo de regras (se configurado) e passa a observá-lo.
+     * Chamado na inicialização, antes da primeira expansão das regras.
+     */
+    public void start() {
+        Path file = rulesFile();
+        if (file == null) return;
+
+        if (Files.exists(file)) {
+            try {
+                ruleRegistry.replaceGroups(read(file));
+                log.info("📄 Regras carregadas de {}", file);
+            } catch (Exception e) {
+                log.error("❌ Arquivo de regras {} inválido; usando alerts.groups: {}", file, e.getMessage());
+            }
+        } else {
+            log.warn("⚠ Arquivo de regras {} não encontrado; aguardando sua criação", file);
+        }
+        watch(file);
+    }
+
+    /**
+     * Substitui todos os grupos configurados.
+     *
+     * @return true se algo mudou.
+     * @throws IllegalArgumentException se algum grupo ou regra for inválido.
+     */
+    public boolean replaceAll(List<AlertGroup> groups) {
+        return apply(ruleRegistry.replaceGroups(groups));
+    }
+
+    /**
+     * Cria ou substitui as regras de um grupo.
+     *
+     * @return true se algo mudou.
+     * @throws IllegalArgumentException se o grupo ou alguma regra for inválido.
+     */
+    public boolean put(AlertGroup group) {
+        return apply(ruleRegistry.putGroup(group));
+    }
+
+    /**
+     * Remove um grupo configurado.
+     *
+     * @return true se o grupo existia.
+     */
+    public boolean remove(String groupId) {
+        return apply(ruleRegistry.removeGroup(groupId));
+    }
+
+    /**
+     * Recarrega o arquivo de regras; em caso de erro mantém as regras atuais.
+     */
+    public void reloadFile() {
+        Path file = rulesFile();
+        if (file == null || !Files.exists(file)) return;
+        try {
+            long start = System.nanoTime();
+            boolean changed = replaceAll(read(file));
+            log.info("🔄 Arquivo de regras {} recarregado em {} ms{}", file,
+                    (System.nanoTime() - start) / 1_000_000, changed ? "" : " (sem alterações)");
+        } catch (Exception e) {
+            log.error("❌ Arquivo de regras {} inválido; mantendo as regras atuais: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        WatchService current = watchService;
+        watchService = null;
+        if (current == null) return;
+        try {
+            current.close();
+        } catch (IOException e) {
+            log.debug("Falha ao fechar o observador de regras: {}", e.getMessage());
+        }
+    }
+
+    // Reexpande as regras após uma troca e, se preciso, busca os metadados das regras com padrão
+    private boolean apply(boolean changed) {
+        if (!changed) return false;
+        // Expande já com o cache atual (regras concretas valem imediatamente)
+        ruleRegistry.rebuild();
+        if (ruleRegistry.needsMetadata()) {
+            topicMetadataRefresher.refresh().whenComplete((reloaded, ex) -> {
+                if (ex != null) log.warn("⚠ Falha ao atualizar metadados após a troca de regras: {}", ex.getMessage());
+            });
+        }
+        return true;
+    }
+
+    // Lê 'alerts.groups' do arquivo com o mesmo binder da configuração da aplicação (nomes relaxados).
+    // Um arquivo sem grupos (vazio, truncado no meio da gravação) é inválido: não apaga todas as regras
+    private static List<AlertGroup> read(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        PropertySourceLoader loader = name.endsWith(".properties")
+                ? new PropertiesPropertySourceLoader()
+                : new YamlPropertySourceLoader();
+        List<PropertySource<?>> sources = loader.load(name, new FileSystemResource(file));
+        List<AlertGroup> groups = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("alerts.groups", Bindable.listOf(AlertGroup.class))
+                .orElse(List.of());
+        if (groups.isEmpty()) {
+            throw new IllegalArgumentException("O arquivo não define nenhum grupo em alerts.groups");
+        }
+        return groups;
+    }
+
+    // Observa o diretório do arquivo em uma thread própria (o WatchService não observa arquivos isolados)
+    private void watch(Path file) {
+        Path directory = file.getParent();
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchService = service;
+        } catch (IOException e) {
+            log.error("❌ Não foi possível observar {}: {}", directory, e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(() -> watchLoop(file), "rules-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("👀 Observando alterações em {}", file);
+    }
+
+    private void watchLoop(Path file) {
+        Path fileName = file.getFileName();
+        while (true) {
+            WatchService service = watchService;
+            if (service == null) return;
+            try {
+                WatchKey key = service.take();
+                boolean touched = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) touched = true;
+                }
+                key.reset();
+                if (!touched) continue;
+
+                // Junta os eventos de uma mesma gravação antes de recarregar
+                Thread.sleep(DEBOUNCE_MS);
+                WatchKey pending = service.poll();
+                if (pending != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reloadFile();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Path rulesFile() {
+        String path = alertsProperties.getRulesFile();
+        return path == null || path.isBlank() ? null : Path.of(path).toAbsolutePath();
+    }
+}
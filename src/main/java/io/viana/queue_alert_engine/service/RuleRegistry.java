@@ -0,0 +1,366 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
+
+/**
+ * Expande as regras configuradas em regras concretas (um tópico, uma partição)
+ * e carrega o resultado no {@link OffsetIndex}.
+ *
+ * Regras com curingas, expressão regular, "todas as partições" ou "grupo
+ * inteiro" são resolvidas contra o cache de metadados ({@link TopicMetadataIndex}).
+ * A expansão só roda quando a configuração ou os metadados mudam, nunca no
+ * caminho quente da avaliação. Quando mais de uma regra cobre a mesma partição,
+ * vence a mais específica: tópico e partição explícitos, depois tópico explícito,
+ * depois padrão de tópico e, por último, a regra de grupo inteiro.
+ *
+ * Os grupos encontrados pela descoberta automática ({@link ConsumerGroupDiscoveryService})
+ * entram junto com os configurados; um grupo configurado sempre usa as próprias regras.
+ *
+ * Os grupos configurados começam com 'alerts.groups' e podem ser trocados em
+ * tempo de execução ({@link RuleConfigService}): o conjunto é imutável e trocado
+ * por referência, e a leitura nunca espera por uma expansão em andamento.
+ *
+ * No modo cluster só as partições dos shards desta instância ({@link ShardAssignment})
+ * são carregadas no índice.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Service // Marca a classe como um serviço Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class RuleRegistry {
+
+    // Configurações dos grupos e regras
+    private final AlertsProperties alertsProperties;
+    // Índice de slots onde as regras concretas são carregadas
+    private final OffsetIndex offsetIndex;
+    // Cache de metadados do cluster (partições por tópico, partições por grupo)
+    private final TopicMetadataIndex topicMetadataIndex;
+    // Shards desta instância no modo cluster (só as partições deles são carregadas)
+    private final ShardAssignment shardAssignment;
+
+    // Última expansão carregada (grupo → regras concretas)
+    private volatile Map<String, List<AlertRule>> loaded = Map.of();
+    // Grupos configurados (grupo → regras); null até a primeira leitura de 'alerts.groups'
+    private volatile Map<String, List<AlertRule>> configured;
+    // Intervalo base de verificação dos grupos configurados que definem 'interval-ms'
+    private volatile Map<String, Long> intervals = Map.of();
+    // Grupos encontrados pela descoberta automática (grupo → regras padrão)
+    private volatile Map<String, List<AlertRule>> discovered = Map.of();
+
+    /**
+     * Indica se alguma regra precisa dos metadados do cluster para ser expandida.
+     */
+    public boolean needsMetadata() {
+        return configuredRules().anyMatch(rule -> !rule.concrete());
+    }
+
+    /**
+     * Filtros de nome de tópico das regras com padrão (usados para limitar o describeTopics).
+     */
+    public List<Pattern> topicMatchers() {
+        return configuredRules()
+                .filter(rule -> !rule.concrete() && !rule.wholeGroup())
+                .map(AlertRule::topicMatcher)
+                .toList();
+    }
+
+    /**
+     * Grupos com regras de grupo inteiro (precisam das partições com offsets do grupo).
+     */
+    public Set<String> wholeGroupIds() {
+        Set<String> ids = new TreeSet<>();
+        for (AlertGroup group : configuredGroups()) {
+            if (group.getRules() != null && group.getRules().stream().anyMatch(AlertRule::wholeGroup)) {
+                ids.add(group.getGroupId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Expande as regras com os metadados atuais e recarrega o índice se o resultado mudou.
+     *
+     * @return true se o índice foi recarregado.
+     */
+    public synchronized boolean rebuild() {
+        Map<String, List<AlertRule>> expanded = expand(configuredGroups(), topicMetadataIndex.current());
+        if (shardAssignment.isEnabled()) expanded = owned(expanded);
+        if (expanded.equals(loaded)) return false;
+
+        List<AlertGroup> groups = new ArrayList<>(expanded.size());
+        expanded.forEach((groupId, rules) -> groups.add(toGroup(groupId, rules)));
+        offsetIndex.load(groups);
+        loaded = expanded;
+        return true;
+    }
+
+    /**
+     * Grupos configurados atualmente (sem os descobertos), na ordem de configuração.
+     */
+    public List<AlertGroup> groups() {
+        List<AlertGroup> groups = new ArrayList<>();
+        configured().forEach((groupId, rules) -> {
+            AlertGroup group = toGroup(groupId, rules);
+            group.setIntervalMs(intervals.get(groupId));
+            groups.add(group);
+        });
+        return groups;
+    }
+
+    /**
+     * Intervalo base de verificação de um grupo ('interval-ms' do grupo ou o padrão informado).
+     */
+    public long intervalMs(String groupId, long defaultMs) {
+        configured();
+        Long interval = intervals.get(groupId);
+        return interval != null ? interval : defaultMs;
+    }
+
+    /**
+     * Substitui todos os grupos configurados. A expansão só acontece no próximo
+     * {@link #rebuild()}.
+     *
+     * @return true se o conjunto de grupos configurados mudou.
+     * @throws IllegalArgumentException se algum grupo ou regra for inválido.
+     */
+    public synchronized boolean replaceGroups(List<AlertGroup> groups) {
+        Map<String, List<AlertRule>> next = new LinkedHashMap<>();
+        Map<String, Long> nextIntervals = new HashMap<>();
+        for (AlertGroup group : groups) {
+            validate(group);
+            if (next.put(group.getGroupId(), List.copyOf(group.getRules())) != null) {
+                throw new IllegalArgumentException("Grupo duplicado: " + group.getGroupId());
+            }
+            if (group.getIntervalMs() != null) nextIntervals.put(group.getGroupId(), group.getIntervalMs());
+        }
+        return swap(next, nextIntervals);
+    }
+
+    /**
+     * Cria ou substitui as regras de um grupo configurado.
+     *
+     * @return true se as regras do grupo mudaram.
+     * @throws IllegalArgumentException se o grupo ou alguma regra for inválido.
+     */
+    public synchronized boolean putGroup(AlertGroup group) {
+        validate(group);
+        Map<String, List<AlertRule>> next = new LinkedHashMap<>(configured());
+        next.put(group.getGroupId(), List.copyOf(group.getRules()));
+        Map<String, Long> nextIntervals = new HashMap<>(intervals);
+        if (group.getIntervalMs() != null) nextIntervals.put(group.getGroupId(), group.getIntervalMs());
+        else nextIntervals.remove(group.getGroupId());
+        return swap(next, nextIntervals);
+    }
+
+    /**
+     * Remove um grupo configurado.
+     *
+     * @return true se o grupo existia.
+     */
+    public synchronized boolean removeGroup(String groupId) {
+        Map<String, List<AlertRule>> next = new LinkedHashMap<>(configured());
+        if (next.remove(groupId) == null) return false;
+        Map<String, Long> nextIntervals = new HashMap<>(intervals);
+        nextIntervals.remove(groupId);
+        return swap(next, nextIntervals);
+    }
+
+    /**
+     * Substitui os grupos encontrados pela descoberta automática. A expansão só
+     * acontece no próximo {@link #rebuild()} (após buscar as partições dos grupos).
+     *
+     * @return true se o conjunto de grupos descobertos mudou.
+     */
+    public boolean setDiscoveredGroups(List<AlertGroup> groups) {
+        Map<String, List<AlertRule>> next = new LinkedHashMap<>();
+        for (AlertGroup group : groups) next.put(group.getGroupId(), List.copyOf(group.getRules()));
+        if (next.equals(discovered)) return false;
+        discovered = next;
+        return true;
+    }
+
+    /**
+     * IDs dos grupos monitorados por esta instância após a expansão (configurados e descobertos).
+     */
+    public List<String> groupIds() {
+        return List.copyOf(loaded.keySet());
+    }
+
+    /**
+     * Regras concretas carregadas de um grupo (após a expansão).
+     */
+    public List<AlertRule> expandedRules(String groupId) {
+        return loaded.getOrDefault(groupId, List.of());
+    }
+
+    // Expande todos os grupos (ordem de configuração preservada)
+    static Map<String, List<AlertRule>> expand(List<AlertGroup> groups, TopicMetadataIndex.Snapshot metadata) {
+        Map<String, List<AlertRule>> result = new LinkedHashMap<>();
+        for (AlertGroup group : groups) {
+            if (group.getRules() == null || group.getRules().isEmpty()) continue;
+
+            // Partição → (especificidade, regra); a regra mais específica vence
+            Map<TopicPartition, AlertRule> rules = new LinkedHashMap<>();
+            Map<TopicPartition, Integer> specificity = new HashMap<>();
+            for (AlertRule rule : group.getRules()) {
+                int rank = specificityOf(rule);
+                for (TopicPartition tp : partitionsOf(group.getGroupId(), rule, metadata)) {
+                    Integer current = specificity.get(tp);
+                    if (current != null && current > rank) continue;
+                    if (current != null && current == 3 && rank == 3) {
+                        log.warn("⚠ Regra duplicada para {} no grupo {}; usando a última", tp, group.getGroupId());
+                    }
+                    rules.put(tp, rule.forPartition(tp.topic(), tp.partition()));
+                    specificity.put(tp, rank);
+                }
+            }
+            if (!rules.isEmpty()) result.put(group.getGroupId(), List.copyOf(rules.values()));
+        }
+        return result;
+    }
+
+    // Mantém só as regras dos shards desta instância
+    private Map<String, List<AlertRule>> owned(Map<String, List<AlertRule>> expanded) {
+        Map<String, List<AlertRule>> result = new LinkedHashMap<>();
+        expanded.forEach((groupId, rules) -> {
+            List<AlertRule> mine = rules.stream()
+                    .filter(rule -> shardAssignment.owns(groupId, rule.topic(), rule.partition()))
+                    .toList();
+            if (!mine.isEmpty()) result.put(groupId, mine);
+        });
+        return result;
+    }
+
+    // Partições cobertas por uma regra
+    private static List<TopicPartition> partitionsOf(String groupId, AlertRule rule, TopicMetadataIndex.Snapshot metadata) {
+        if (rule.concrete()) {
+            return List.of(new TopicPartition(rule.topic(), rule.partition()));
+        }
+        if (rule.wholeGroup()) {
+            return List.copyOf(metadata.groupPartitions().getOrDefault(groupId, Set.of()));
+        }
+
+        List<TopicPartition> result = new ArrayList<>();
+        String literal = rule.literalTopic();
+        Pattern matcher = literal == null ? rule.topicMatcher() : null;
+        for (Map.Entry<String, Integer> topic : metadata.partitionCounts().entrySet()) {
+            boolean matches = literal != null ? literal.equals(topic.getKey()) : matcher.matcher(topic.getKey()).matches();
+            if (!matches) continue;
+            if (rule.allPartitions()) {
+                for (int p = 0; p < topic.getValue(); p++) result.add(new TopicPartition(topic.getKey(), p));
+            } else if (rule.partition() < topic.getValue()) {
+                result.add(new TopicPartition(topic.getKey(), rule.partition()));
+            }
+        }
+        return result;
+    }
+
+    // Especificidade da regra (maior = mais específica)
+    private static int specificityOf(AlertRule rule) {
+        if (rule.concrete()) return 3;
+        if (rule.literalTopic() != null) return 2;
+        if (!rule.wholeGroup()) return 1;
+        return 0;
+    }
+
+    // Grupos configurados seguidos dos descobertos que não estão na configuração
+    private List<AlertGroup> configuredGroups() {
+        Map<String, List<AlertRule>> own = configured();
+        Map<String, List<AlertRule>> found = discovered;
+
+        List<AlertGroup> groups = new ArrayList<>(own.size() + found.size());
+        own.forEach((groupId, rules) -> groups.add(toGroup(groupId, rules)));
+        found.forEach((groupId, rules) -> {
+            if (!own.containsKey(groupId)) groups.add(toGroup(groupId, rules));
+        });
+        return groups;
+    }
+
+    // Conjunto configurado atual (lê 'alerts.groups' na primeira vez)
+    private Map<String, List<AlertRule>> configured() {
+        Map<String, List<AlertRule>> current = configured;
+        if (current != null) return current;
+        synchronized (this) {
+            if (configured == null) {
+                Map<String, List<AlertRule>> initial = new LinkedHashMap<>();
+                Map<String, Long> initialIntervals = new HashMap<>();
+                for (AlertGroup group : alertsProperties.getGroups() != null ? alertsProperties.getGroups() : List.<AlertGroup>of()) {
+                    initial.put(group.getGroupId(), group.getRules() != null ? List.copyOf(group.getRules()) : List.of());
+                    if (group.getIntervalMs() != null) initialIntervals.put(group.getGroupId(), group.getIntervalMs());
+                }
+                intervals = Map.copyOf(initialIntervals);
+                configured = Collections.unmodifiableMap(initial);
+            }
+            return configured;
+        }
+    }
+
+    // Troca o conjunto configurado (chamado com o monitor do registro)
+    private boolean swap(Map<String, List<AlertRule>> next, Map<String, Long> nextIntervals) {
+        if (next.equals(configured()) && nextIntervals.equals(intervals)) return false;
+        intervals = Map.copyOf(nextIntervals);
+        configured = Collections.unmodifiableMap(next);
+        return true;
+    }
+
+    // Valida um grupo recebido em tempo de execução (arquivo ou REST)
+    private static void validate(AlertGroup group) {
+        if (group == null || group.getGroupId() == null || group.getGroupId().isBlank()) {
+            throw new IllegalArgumentException("groupId é obrigatório");
+        }
+        if (group.getRules() == null || group.getRules().isEmpty()) {
+            throw new IllegalArgumentException("O grupo " + group.getGroupId() + " não tem regras");
+        }
+        if (group.getIntervalMs() != null && group.getIntervalMs() <= 0) {
+            throw new IllegalArgumentException("interval-ms inválido no grupo " + group.getGroupId());
+        }
+        for (AlertRule rule : group.getRules()) {
+            if (rule == null) throw new IllegalArgumentException("Regra vazia no grupo " + group.getGroupId());
+            if (rule.partition() != null && rule.partition() < AlertRule.ALL_PARTITIONS) {
+                throw new IllegalArgumentException("Partição inválida no grupo " + group.getGroupId() + ": " + rule.partition());
+            }
+            if (rule.lagWarning() < 0 || rule.lagCritical() < 0) {
+                throw new IllegalArgumentException("Limites de lag negativos no grupo " + group.getGroupId());
+            }
+            try {
+                // Compila o padrão agora para não falhar na expansão
+                if (!rule.wholeGroup()) rule.topicMatcher();
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Padrão de tópico inválido no grupo " + group.getGroupId() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static AlertGroup toGroup(String groupId, List<AlertRule> rules) {
+        AlertGroup group = new AlertGroup();
+        group.setGroupId(groupId);
+        group.setRules(rules);
+        return group;
+    }
+
+    private Stream<AlertRule> configuredRules() {
+        return configuredGroups().stream()
+                .filter(group -> group.getRules() != null)
+                .flatMap(group -> group.getRules().stream());
+    }
+}
@@ -0,0 +1,225 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.config.DiscoveryProperties;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Distribui os shards entre as instâncias no modo cluster ('cluster.enabled').
+ *
+ * Cada instância entra no consumer group de coordenação assinando o tópico de
+ * coordenação, que tem uma partição por shard; as partições atribuídas a ela
+ * são os seus shards. Nenhuma mensagem é gravada ou lida: o consumer existe só
+ * para participar do rebalance. O assignor cooperativo move apenas os shards
+ * necessários quando uma instância entra ou sai, e uma instância que para de
+ * enviar heartbeats perde seus shards para as demais.
+ *
+ * A cada mudança as regras são reexpandidas só com as partições dos shards
+ * próprios e os slots assumidos são semeados com o último estado conhecido.
+ *
+ * No modo líder ('cluster.mode: leader') o tópico tem uma única partição: a
+ * instância que a recebe é a líder. Ao assumir, ela descobre os grupos e busca
+ * os metadados (o standby não consulta o cluster) e semeia os slots com a visão
+ * de estado que o standby manteve aquecida.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Service // Marca a classe como um serviço Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class ShardCoordinator {
+
+    // Configurações do modo cluster
+    private final ClusterProperties clusterProperties;
+    // Endereço do cluster Kafka
+    private final KafkaProperties kafkaProperties;
+    // Shards desta instância
+    private final ShardAssignment shardAssignment;
+    // Reexpansão das regras com o novo conjunto de shards
+    private final RuleRegistry ruleRegistry;
+    // Índice de slots a semear nos shards assumidos
+    private final OffsetIndex offsetIndex;
+    // Último estado conhecido de cada partição (lido do tópico de estado)
+    private final QueueStateStore queueStateStore;
+    // Descoberta de grupos e metadados (executadas pela líder ao assumir)
+    private final ConsumerGroupDiscoveryService consumerGroupDiscoveryService;
+    private final DiscoveryProperties discoveryProperties;
+    private final TopicMetadataRefresher topicMetadataRefresher;
+
+    // Consumer de coordenação (null quando parado)
+    private volatile KafkaConsumer<byte[], byte[]> consumer;
+    // Thread que mantém a participação no grupo (poll/heartbeat)
+    private Thread thread;
+
+    /**
+     * Entra no grupo de coordenação. Até o primeiro rebalance a instância não tem shards.
+     *
+     * @throws IllegalStateException se o tópico de coordenação não tiver uma
+     *         partição por shard (shards sem partição nunca teriam dono).
+     */
+    public synchronized void start() {
+        if (!clusterProperties.isEnabled() || consumer != null) return;
+
+        KafkaConsumer<byte[], byte[]> created = new KafkaConsumer<>(consumerConfigs());
+        try {
+            checkCoordinationTopic(created);
+        } catch (RuntimeException e) {
+            created.close();
+            throw e;
+        }
+        consumer = created;
+        thread = new Thread(this::run, "shard-coordinator");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("🧩 Modo cluster ({}): instância {} entrando no grupo {}", clusterProperties.getMode(),
+                clusterProperties.getInstanceId(), clusterProperties.getGroupId());
+    }
+
+    /**
+     * Sai do grupo (os shards desta instância são redistribuídos imediatamente).
+     */
+    @PreDestroy
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            if (consumer == null) return;
+            consumer.wakeup();
+            current = thread;
+        }
+        try {
+            current.join(clusterProperties.getSessionTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Confere as partições do tópico de coordenação: uma por shard (modo sharded) ou ao menos uma (modo líder).
+    // O tópico pode ter sido criado antes com outra quantidade; o inicializador não altera tópicos existentes
+    private void checkCoordinationTopic(KafkaConsumer<byte[], byte[]> candidate) {
+        String topic = clusterProperties.getCoordinationTopic();
+        List<PartitionInfo> partitions = candidate.partitionsFor(topic,
+                Duration.ofMillis(clusterProperties.getSessionTimeoutMs()));
+        int found = partitions != null ? partitions.size() : 0;
+        boolean leader = clusterProperties.getMode() == ClusterProperties.Mode.LEADER;
+        if (leader ? found >= 1 : found == clusterProperties.getShards()) return;
+
+        String message = leader
+                ? String.format("O tópico de coordenação '%s' não existe ou não tem partições", topic)
+                : String.format("O tópico de coordenação '%s' tem %d partições, mas cluster.shards = %d; "
+                        + "recrie o tópico ou ajuste cluster.shards", topic, found, clusterProperties.getShards());
+        log.error("❌ {}", message);
+        throw new IllegalStateException(message);
+    }
+
+    // Laço de participação no grupo: o poll envia os heartbeats e dispara os callbacks de rebalance
+    private void run() {
+        KafkaConsumer<byte[], byte[]> current = consumer;
+        try (current) {
+            current.subscribe(List.of(clusterProperties.getCoordinationTopic()), new Rebalance());
+            while (true) {
+                current.poll(Duration.ofSeconds(1));
+            }
+        } catch (WakeupException e) {
+            log.info("🧩 Saindo do grupo de coordenação");
+        } catch (Exception e) {
+            log.error("❌ Coordenação de shards interrompida: {}", e.getMessage(), e);
+        } finally {
+            if (shardAssignment.remove(allShards())) apply();
+            consumer = null;
+        }
+    }
+
+    // Reexpande as regras e semeia os slots assumidos (só os que ainda não têm estado)
+    private void apply() {
+        ruleRegistry.rebuild();
+        int restored = offsetIndex.restore(queueStateStore.all());
+        if (clusterProperties.getMode() == ClusterProperties.Mode.LEADER) {
+            log.info(shardAssignment.isStandby()
+                    ? "💤 Instância {} em standby"
+                    : "👑 Instância {} assumiu a liderança ({} slots semeados)", clusterProperties.getInstanceId(), restored);
+        } else {
+            log.info("🧩 Shards desta instância: {} de {} ({} slots semeados)",
+                    shardAssignment.ownedCount(), clusterProperties.getShards(), restored);
+        }
+    }
+
+    // A nova líder descobre os grupos e busca os metadados que o standby não consultou
+    private void takeOver() {
+        CompletableFuture<Boolean> ready = discoveryProperties.isEnabled()
+                ? consumerGroupDiscoveryService.discover()
+                : CompletableFuture.completedFuture(false);
+        ready.thenCompose(discovered -> !discovered && ruleRegistry.needsMetadata()
+                        ? topicMetadataRefresher.refresh()
+                        : CompletableFuture.completedFuture(discovered))
+                .whenComplete((ignored, ex) -> {
+                    if (ex != null) log.warn("⚠ Falha ao carregar metadados ao assumir a liderança: {}", ex.getMessage());
+                    // Semeia os slots que entraram com os metadados
+                    if (!shardAssignment.isStandby()) offsetIndex.restore(queueStateStore.all());
+                });
+    }
+
+    private Map<String, Object> consumerConfigs() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, clusterProperties.getGroupId());
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, clusterProperties.getSessionTimeoutMs());
+        props.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, Math.max(1000, clusterProperties.getSessionTimeoutMs() / 3));
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        return props;
+    }
+
+    private List<Integer> allShards() {
+        return IntStream.range(0, clusterProperties.getShards()).boxed().toList();
+    }
+
+    private static List<Integer> shardsOf(Collection<TopicPartition> partitions) {
+        return partitions.stream().map(TopicPartition::partition).toList();
+    }
+
+    // Callbacks de rebalance (rodam na thread do poll)
+    private final class Rebalance implements ConsumerRebalanceListener {
+
+        @Override
+        public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+            boolean wasStandby = shardAssignment.isStandby();
+            if (!shardAssignment.add(shardsOf(partitions))) return;
+            apply();
+            if (wasStandby && !shardAssignment.isStandby()) takeOver();
+        }
+
+        @Override
+        public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+            if (shardAssignment.remove(shardsOf(partitions))) apply();
+        }
+
+        @Override
+        public void onPartitionsLost(Collection<TopicPartition> partitions) {
+            log.warn("⚠ Shards perdidos sem revogação (sessão expirada): {}", shardsOf(partitions));
+            onPartitionsRevoked(partitions);
+        }
+    }
+}
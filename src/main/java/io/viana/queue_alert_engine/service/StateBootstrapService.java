@@ -0,0 +1,129 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.KafkaConsumerConfig;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.serialization.EventCodecs;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordDeserializationException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconstrói o último estado de cada (grupo, tópico, partição) a partir do
+ * tópico de estado compactado na inicialização.
+ *
+ * Um consumidor avulso (sem group id e sem commit) lê todas as partições do
+ * início até os offsets finais do momento da leitura, preenche o
+ * {@link QueueStateStore} e semeia os slots do {@link OffsetIndex}. Como o
+ * tópico é compactado, isso custa uma entrada por chave e não o histórico inteiro.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Service // Marca a classe como um serviço Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class StateBootstrapService {
+
+    // Configurações do Kafka (tópico de estado e timeout da leitura)
+    private final KafkaProperties kafkaProperties;
+    // Configurações base do consumidor (bootstrap servers, max.poll.records...)
+    private final KafkaConsumerConfig kafkaConsumerConfig;
+    // Codecs dos eventos (o deserializer aceita JSON e binário)
+    private final EventCodecs eventCodecs;
+    // Tabela com o último estado de cada chave
+    private final QueueStateStore queueStateStore;
+    // Índice de slots a ser semeado com os estados lidos
+    private final OffsetIndex offsetIndex;
+
+    /**
+     * Lê o tópico de estado até o fim e restaura o estado em memória.
+     * Falhas não impedem a inicialização: o primeiro ciclo de monitoramento
+     * recompõe o estado normalmente, apenas mais devagar.
+     */
+    public void restore() {
+        String topic = kafkaProperties.getProducer().getStateTopic();
+        long timeoutMs = kafkaProperties.getProducer().getStateBootstrapTimeoutMs();
+        if (topic == null || timeoutMs <= 0) return;
+
+        long start = System.nanoTime();
+        try (KafkaConsumer<String, QueueStateEvent> consumer = new KafkaConsumer<>(
+                bootstrapConfigs(), new StringDeserializer(), eventCodecs.stateDeserializer())) {
+
+            int records = readToEnd(consumer, topic, start + Duration.ofMillis(timeoutMs).toNanos());
+            int restored = offsetIndex.restore(queueStateStore.all());
+            log.info("♻️ Estado restaurado do tópico '{}': {} registros, {} chaves, {} slots semeados em {} ms",
+                    topic, records, queueStateStore.size(), restored, (System.nanoTime() - start) / 1_000_000);
+
+        } catch (Exception e) {
+            log.warn("⚠ Não foi possível restaurar o estado do tópico '{}': {}", topic, e.getMessage());
+        }
+    }
+
+    // Lê todas as partições do início até os offsets finais (ou até o prazo)
+    private int readToEnd(KafkaConsumer<String, QueueStateEvent> consumer, String topic, long deadlineNanos) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : consumer.partitionsFor(topic, remaining(deadlineNanos))) {
+            partitions.add(new TopicPartition(topic, info.partition()));
+        }
+        if (partitions.isEmpty()) return 0;
+
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        Map<TopicPartition, Long> endOffsets = new HashMap<>(consumer.endOffsets(partitions, remaining(deadlineNanos)));
+
+        int records = 0;
+        while (!reachedEnd(consumer, endOffsets)) {
+            if (System.nanoTime() >= deadlineNanos) {
+                log.warn("⏱ Leitura do tópico de estado interrompida pelo timeout; estado parcial");
+                break;
+            }
+            try {
+                for (ConsumerRecord<String, QueueStateEvent> record : consumer.poll(Duration.ofMillis(200))) {
+                    if (record.value() == null) {
+                        queueStateStore.remove(record.key()); // Tombstone: chave removida
+                    } else {
+                        queueStateStore.put(record.value());
+                    }
+                    records++;
+                }
+            } catch (RecordDeserializationException e) {
+                // Registro ilegível: pula e continua a leitura
+                log.warn("⚠ Estado inválido ignorado em {} offset {}", e.topicPartition(), e.offset());
+                consumer.seek(e.topicPartition(), e.offset() + 1);
+            }
+        }
+        return records;
+    }
+
+    // Verifica se todas as partições chegaram ao offset final capturado no início
+    private static boolean reachedEnd(KafkaConsumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+        endOffsets.entrySet().removeIf(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+        return endOffsets.isEmpty();
+    }
+
+    private static Duration remaining(long deadlineNanos) {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    // Consumidor avulso: sem grupo, sem commit, sempre do início
+    private Map<String, Object> bootstrapConfigs() {
+        Map<String, Object> props = new HashMap<>(kafkaConsumerConfig.consumerConfigs());
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return props;
+    }
+}
@@ -0,0 +1,111 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro de mudanças aplicado antes da publicação no tópico de estado.
+ *
+ * Guarda o último estado publicado de cada (grupo, tópico, partição) nos arrays
+ * do {@link GroupSlots} e só libera um novo evento quando o status muda, quando
+ * o lag varia além do delta configurado em 'monitor.state-publish' ou quando o
+ * heartbeat expira. Assim o volume publicado acompanha as mudanças reais, e não
+ * o número de partições monitoradas.
+ *
+ * O estado só passa a contar como publicado quando o envio é confirmado
+ * ({@link #markPublished}); um envio que falhou é repetido no próximo ciclo.
+ */
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class StateChangeFilter {
+
+    // Bits reservados para o status dentro do long empacotado (mesmo formato do AlertDeduplicator)
+    private static final int STATUS_BITS = 2;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+
+    // Configurações do filtro (deltas e heartbeat)
+    private final MonitorProperties monitorProperties;
+
+    // Contadores de decisões (para diagnóstico)
+    private final LongAdder published = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Decide se o estado atual de um slot deve ser publicado (sem registrá-lo).
+     *
+     * @param slots O bloco de slots do grupo.
+     * @param slot O slot da partição.
+     * @param lag O lag calculado neste ciclo.
+     * @param status O status calculado neste ciclo.
+     * @param nowMillis O instante atual (epoch em ms).
+     * @return true se o estado deve ser publicado.
+     */
+    public boolean shouldPublish(GroupSlots slots, int slot, long lag, QueueStatus status, long nowMillis) {
+        MonitorProperties.StatePublish config = monitorProperties.getStatePublish();
+        long previousState = slots.publishedState(slot);
+
+        boolean publish = !config.isChangesOnly()
+                || previousState == 0 // Nunca publicado
+                || (int) (previousState & STATUS_MASK) != status.ordinal() // Mudança de status
+                || lagMoved(slots.publishedLag(slot), lag, config) // Variação relevante do lag
+                || heartbeatExpired(previousState >>> STATUS_BITS, nowMillis, config);
+
+        if (!publish) {
+            suppressed.increment();
+        }
+        return publish;
+    }
+
+    /**
+     * Registra o estado como o último publicado do slot, após a confirmação do envio.
+     * Uma confirmação atrasada não sobrescreve um estado mais recente já registrado.
+     *
+     * @param slots O bloco de slots do grupo.
+     * @param slot O slot da partição.
+     * @param lag O lag publicado.
+     * @param status O status publicado.
+     * @param evaluatedAt O instante da avaliação publicada (epoch em ms).
+     */
+    public void markPublished(GroupSlots slots, int slot, long lag, QueueStatus status, long evaluatedAt) {
+        published.increment();
+        if ((slots.publishedState(slot) >>> STATUS_BITS) > evaluatedAt) return;
+        slots.published(slot, lag, (evaluatedAt << STATUS_BITS) | status.ordinal());
+    }
+
+    // Verifica se o lag se moveu além do delta absoluto ou relativo
+    private static boolean lagMoved(long previousLag, long lag, MonitorProperties.StatePublish config) {
+        long delta = Math.abs(lag - previousLag);
+        if (config.getLagDeltaAbsolute() <= 0 && config.getLagDeltaRelative() <= 0) {
+            return delta > 0; // Sem deltas configurados: qualquer variação conta
+        }
+        if (config.getLagDeltaAbsolute() > 0 && delta >= config.getLagDeltaAbsolute()) {
+            return true;
+        }
+        return config.getLagDeltaRelative() > 0
+                && delta >= config.getLagDeltaRelative() * Math.max(1, previousLag);
+    }
+
+    // Verifica se o intervalo de heartbeat expirou desde a última publicação
+    private static boolean heartbeatExpired(long lastPublished, long nowMillis, MonitorProperties.StatePublish config) {
+        return config.getHeartbeatMs() > 0 && nowMillis - lastPublished >= config.getHeartbeatMs();
+    }
+
+    /**
+     * Quantidade de estados publicados desde o início da aplicação.
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * Quantidade de estados suprimidos (sem mudança relevante) desde o início da aplicação.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+}
@@ -1,53 +1,62 @@
 package io.viana.queue_alert_engine.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.viana.queue_alert_engine.config.KafkaProperties;
 import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.QueueStateStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 // Classe que envia o estado da fila para o Kafka
 @Slf4j // Para registrar mensagens (logs)
 @Component // É um componente gerenciado pelo Spring
 @RequiredArgsConstructor // Cria um construtor para injeção de dependência
 public class StateDispatcher {
 
-    // Ferramenta para enviar dados ao Kafka
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    // Ferramenta para converter objetos em texto JSON
-    private final ObjectMapper objectMapper;
+    // Ferramenta para enviar eventos ao Kafka (o evento é serializado direto em bytes pelo produtor)
+    private final KafkaTemplate<String, Object> eventKafkaTemplate;
     // Configurações do Kafka (como nome do tópico)
     private final KafkaProperties kafkaProperties;
+    // Tabela local com o último estado de cada grupo/tópico/partição
+    private final QueueStateStore queueStateStore;
+    // Latência dos envios ao tópico de estado
+    private final MonitorMetrics monitorMetrics;
 
     /**
      * Envia o estado da fila (QueueStateEvent) para o tópico Kafka.
+     *
+     * A chave é 'grupo|tópico|partição': o tópico de estado é compactado, então
+     * guarda o último estado de cada chave, e as partições de um mesmo tópico
+     * monitorado se distribuem entre as partições do tópico de estado.
+     *
+     * A tabela local só é atualizada quando o broker confirma o envio, para não
+     * mostrar um estado que nunca chegou ao tópico.
+     *
+     * @return O futuro do envio (concluído com erro se o broker não confirmar).
      */
-    public void sendQueueState(QueueStateEvent stateEvent) {
-        try {
-            // Pega o nome do tópico para onde vamos enviar
-            String topic = kafkaProperties.getProducer().getStateTopic();
-            // Transforma o objeto 'stateEvent' em texto (JSON)
-            String payload = objectMapper.writeValueAsString(stateEvent);
-
-            // Envia a mensagem para o Kafka
-            kafkaTemplate.send(topic, stateEvent.getTopic(), payload)
-                    // O que fazer depois que o envio terminar
-                    .whenComplete((result, ex) -> {
-                        if (ex != null) {
-                            // Se falhou, registra um erro
-                            log.error("❌ Falha ao enviar estado para {}: {}", topic, ex.getMessage(), ex);
-                        } else {
-                            // Se deu certo, registra o sucesso
-                            log.info("📊 Estado publicado no tópico '{}': {}", topic, payload);
-                        }
-                    });
+    public CompletableFuture<SendResult<String, Object>> sendQueueState(QueueStateEvent stateEvent) {
+        // Pega o nome do tópico para onde vamos enviar
+        String topic = kafkaProperties.getProducer().getStateTopic();
 
-        } catch (JsonProcessingException e) {
-            // Se falhou ao converter para JSON, registra um erro
-            log.error("❌ Erro ao serializar QueueStateEvent", e);
-        }
+        // Envia o evento para o Kafka (sem JSON intermediário em String)
+        long start = System.nanoTime();
+        return eventKafkaTemplate.send(topic, QueueStateStore.keyOf(stateEvent), stateEvent)
+                // O que fazer depois que o envio terminar
+                .whenComplete((result, ex) -> {
+                    monitorMetrics.recordKafkaSend(topic, System.nanoTime() - start, ex == null);
+                    if (ex != null) {
+                        // Se falhou, registra um erro
+                        log.error("❌ Falha ao enviar estado para {}: {}", topic, ex.getMessage(), ex);
+                    } else {
+                        // Se deu certo, atualiza a tabela local e registra o sucesso
+                        queueStateStore.put(stateEvent);
+                        log.debug("📊 Estado publicado no tópico '{}': {}", topic, stateEvent);
+                    }
+                });
     }
-}
\ No newline at end of file
+}
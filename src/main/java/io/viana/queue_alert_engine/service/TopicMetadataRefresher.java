@@ -0,0 +1,225 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.DiscoveryProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.notifier.TokenBucket;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeTopicsOptions;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsOptions;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Atualiza o cache de metadados do cluster ({@link TopicMetadataIndex}) em um
+ * agendamento próprio ('monitor.metadata-refresh-ms'), mais lento que o ciclo
+ * de monitoramento, e reexpande as regras quando algo muda.
+ *
+ * Só descreve os tópicos que casam com alguma regra de padrão e só busca as
+ * partições dos grupos monitorados por inteiro, em páginas de 'discovery.page-size'
+ * grupos limitadas a 'discovery.pages-per-second' (a descoberta automática pode
+ * trazer centenas de grupos). As chamadas ao AdminClient são assíncronas: a
+ * thread do scheduler não fica bloqueada, e a reexpansão das regras roda no
+ * executor de avaliação, fora da thread de rede do AdminClient.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Service // Marca a classe como um serviço Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class TopicMetadataRefresher {
+
+    // Cliente administrativo do Kafka (listTopics, describeTopics, listConsumerGroupOffsets)
+    private final AdminClient adminClient;
+    // Cache de metadados a ser atualizado
+    private final TopicMetadataIndex topicMetadataIndex;
+    // Regras a expandir (e quais tópicos/grupos elas precisam)
+    private final RuleRegistry ruleRegistry;
+    // Configurações do ciclo (timeout das chamadas)
+    private final MonitorProperties monitorProperties;
+    // Tamanho e taxa das páginas de grupos
+    private final DiscoveryProperties discoveryProperties;
+    // Instâncias em standby (modo líder) não consultam o cluster
+    private final ShardAssignment shardAssignment;
+    // Timers das chamadas ao AdminClient
+    private final MonitorMetrics monitorMetrics;
+    // Executor da reexpansão das regras (não ocupa a thread de rede do AdminClient)
+    @Qualifier("lagEvaluationExecutor")
+    private final Executor evaluationExecutor;
+
+    // Atualização em andamento (evita sobreposição)
+    private final AtomicReference<Refresh> inFlight = new AtomicReference<>();
+
+    // Uma atualização e os grupos completos que ela busca
+    private record Refresh(CompletableFuture<Boolean> future, Set<String> wholeGroups) {
+    }
+
+    /**
+     * Atualização periódica dos metadados.
+     */
+    @Scheduled(fixedDelayString = "${monitor.metadata-refresh-ms:300000}",
+            initialDelayString = "${monitor.metadata-refresh-ms:300000}")
+    public void scheduledRefresh() {
+        if (!ruleRegistry.needsMetadata()) return;
+        refresh().whenComplete((changed, ex) -> {
+            if (ex != null) log.warn("⚠ Falha ao atualizar metadados do cluster: {}", ex.getMessage());
+        });
+    }
+
+    /**
+     * Atualiza os metadados e reexpande as regras (o índice só é recarregado se a expansão mudar).
+     * Chamadas concorrentes reaproveitam a atualização em andamento; se ela
+     * começou com outro conjunto de grupos completos (ex: grupos recém-descobertos),
+     * uma nova atualização é encadeada ao fim dela. Em standby nada é feito.
+     *
+     * @return Um future com true se o índice de regras foi recarregado.
+     */
+    public CompletableFuture<Boolean> refresh() {
+        // Em standby (modo líder) o cluster não é consultado: a líder busca ao assumir
+        if (shardAssignment.isStandby()) return CompletableFuture.completedFuture(false);
+
+        Set<String> wholeGroups = ruleRegistry.wholeGroupIds();
+        CompletableFuture<Boolean> next = new CompletableFuture<>();
+        Refresh running = inFlight.compareAndExchange(null, new Refresh(next, wholeGroups));
+        if (running != null) {
+            if (running.wholeGroups().equals(wholeGroups)) return running.future();
+            // A atualização em andamento não busca as partições dos grupos novos: repete ao fim dela
+            return running.future().handle((changed, ex) -> null).thenCompose(ignored -> refresh());
+        }
+
+        fetch(wholeGroups)
+                .thenApplyAsync(snapshot -> {
+                    topicMetadataIndex.update(snapshot);
+                    // Reexpande mesmo sem mudança nos metadados: os grupos descobertos podem ter mudado
+                    return ruleRegistry.rebuild();
+                }, evaluationExecutor)
+                .whenComplete((changed, ex) -> {
+                    inFlight.set(null);
+                    if (ex != null) next.completeExceptionally(ex);
+                    else next.complete(changed);
+                });
+        return next;
+    }
+
+    // Busca os tópicos que casam com as regras e as partições dos grupos completos
+    private CompletableFuture<TopicMetadataIndex.Snapshot> fetch(Set<String> wholeGroups) {
+        List<Pattern> matchers = ruleRegistry.topicMatchers();
+
+        CompletableFuture<Map<String, Integer>> topics = matchers.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : KafkaFutures.withTimeout(timed("listTopics", adminClient.listTopics(new ListTopicsOptions()
+                                .listInternal(false).timeoutMs(timeoutMs())).names()), timeoutMs())
+                        .thenCompose(names -> describe(names.stream()
+                                .filter(name -> matchers.stream().anyMatch(m -> m.matcher(name).matches()))
+                                .toList()));
+
+        CompletableFuture<Map<String, Set<TopicPartition>>> groups = wholeGroups.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : groupPartitions(wholeGroups);
+
+        return topics.thenCombine(groups, TopicMetadataIndex.Snapshot::new);
+    }
+
+    // Número de partições de cada tópico
+    private CompletableFuture<Map<String, Integer>> describe(List<String> names) {
+        if (names.isEmpty()) return CompletableFuture.completedFuture(Map.of());
+        return KafkaFutures.withTimeout(timed("describeTopics", adminClient.describeTopics(names,
+                        new DescribeTopicsOptions().timeoutMs(timeoutMs())).allTopicNames()), timeoutMs())
+                .thenApply(descriptions -> {
+                    Map<String, Integer> counts = new TreeMap<>();
+                    for (TopicDescription description : descriptions.values()) {
+                        counts.put(description.name(), description.partitions().size());
+                    }
+                    return Map.copyOf(counts);
+                });
+    }
+
+    // Partições com offsets de cada grupo, em páginas com taxa limitada
+    private CompletableFuture<Map<String, Set<TopicPartition>>> groupPartitions(Set<String> groupIds) {
+        List<String> ids = new ArrayList<>(groupIds);
+        int pageSize = Math.max(1, discoveryProperties.getPageSize());
+        // Balde novo a cada atualização: as atualizações não se sobrepõem (inFlight)
+        TokenBucket pages = new TokenBucket(discoveryProperties.getPagesPerSecond(), 1);
+
+        Map<String, Set<TopicPartition>> partitions = new TreeMap<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += pageSize) {
+            List<String> page = ids.subList(from, Math.min(ids.size(), from + pageSize));
+            long waitNanos = pages.reserve();
+            Executor executor = waitNanos > 0
+                    ? CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+                    : Runnable::run;
+            futures.add(CompletableFuture.runAsync(() -> { }, executor)
+                    .thenCompose(ignored -> groupPartitionsPage(page, partitions)));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+            synchronized (partitions) {
+                return Map.copyOf(partitions);
+            }
+        });
+    }
+
+    // Uma página de grupos (uma única requisição para todos os grupos da página)
+    private CompletableFuture<Void> groupPartitionsPage(List<String> groupIds, Map<String, Set<TopicPartition>> partitions) {
+        Map<String, ListConsumerGroupOffsetsSpec> specs = new HashMap<>();
+        for (String groupId : groupIds) specs.put(groupId, new ListConsumerGroupOffsetsSpec());
+
+        ListConsumerGroupOffsetsResult result = adminClient.listConsumerGroupOffsets(specs,
+                new ListConsumerGroupOffsetsOptions().timeoutMs(timeoutMs()));
+        monitorMetrics.timeAdmin("listConsumerGroupOffsets", result.all());
+        CompletableFuture<?>[] futures = groupIds.stream()
+                .map(groupId -> KafkaFutures.withTimeout(result.partitionsToOffsetAndMetadata(groupId), timeoutMs())
+                        .thenAccept(offsets -> {
+                            synchronized (partitions) {
+                                partitions.put(groupId, Set.copyOf(offsets.keySet()));
+                            }
+                        })
+                        .exceptionally(ex -> {
+                            // Mantém as partições conhecidas: o grupo não some do índice por uma falha pontual
+                            log.warn("⚠ Não foi possível listar as partições do grupo {}: {}", groupId, ex.getMessage());
+                            Set<TopicPartition> known = topicMetadataIndex.current().groupPartitions().get(groupId);
+                            if (known != null) {
+                                synchronized (partitions) {
+                                    partitions.put(groupId, known);
+                                }
+                            }
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(futures);
+    }
+
+    // Timeout das chamadas ao AdminClient (o mesmo da avaliação de um grupo)
+    private int timeoutMs() {
+        return (int) Math.min(Integer.MAX_VALUE, monitorProperties.getGroupTimeoutMs());
+    }
+
+    // Registra o tempo da chamada ao AdminClient e devolve o próprio futuro
+    private <T> KafkaFuture<T> timed(String operation, KafkaFuture<T> future) {
+        monitorMetrics.timeAdmin(operation, future);
+        return future;
+    }
+}
@@ -0,0 +1,212 @@
+package io.viana.queue_alert_engine.store;
+
+import io.viana.queue_alert_engine.domain.AlertRule;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloco de slots de um consumer group dentro do {@link OffsetIndex}.
+ *
+ * Cada par (tópico, partição) monitorado pelo grupo recebe um slot inteiro no
+ * carregamento da configuração. Os valores de offset e lag ficam em arrays
+ * primitivos indexados por esse slot, de modo que leituras e escritas no
+ * caminho quente não alocam objetos (sem boxing e sem criar TopicPartition).
+ */
+public final class GroupSlots {
+
+    // O ID do grupo de consumidores dono deste bloco
+    private final String groupId;
+
+    // --- Layout imutável (definido no carregamento da configuração) ---
+    private final AlertRule[] rules; // Regra de cada slot
+    private final TopicPartition[] topicPartitions; // TopicPartition pré-construído de cada slot
+    private final int[] partitionSlots; // Slot do par tópico/partição na tabela global de offsets produzidos
+    private final Map<String, int[]> slotsByTopic; // Tópico → (partição → slot), -1 quando não monitorado
+    private final List<TopicPartition> partitionList; // Visão imutável das partições (para o AdminClient)
+    private final ListConsumerGroupOffsetsSpec offsetsSpec; // Especificação pronta para listConsumerGroupOffsets
+
+    // --- Valores mutáveis (atualizados a cada ciclo) ---
+    final long[] consumed; // Último offset consumido pelo grupo
+    final long[] produced; // Último offset produzido na partição
+    final long[] lag; // Lag calculado no último ciclo
+    final AtomicLongArray alertState; // Estado de alerta empacotado (último status + instante do último envio)
+    final AtomicLongArray publishedLag; // Lag do último estado publicado no tópico de estado
+    final AtomicLongArray publishedState; // Último estado publicado, empacotado (status + instante); 0 = nunca publicado
+    final double[] produceRate; // Taxa de produção suavizada (EWMA, mensagens/s); NaN = ainda sem amostra
+    final double[] consumeRate; // Taxa de consumo suavizada (EWMA, mensagens/s); NaN = ainda sem amostra
+    final long[] rateProduced; // Offset produzido na última amostra de taxa
+    final long[] rateConsumed; // Offset consumido na última amostra de taxa
+    final long[] rateSampledAt; // Instante da última amostra de taxa (epoch em ms); 0 = nenhuma
+
+    GroupSlots(String groupId, AlertRule[] rules, TopicPartition[] topicPartitions, int[] partitionSlots) {
+        this.groupId = groupId;
+        this.rules = rules;
+        this.topicPartitions = topicPartitions;
+        this.partitionSlots = partitionSlots;
+        this.partitionList = List.of(topicPartitions);
+        this.offsetsSpec = new ListConsumerGroupOffsetsSpec().topicPartitions(partitionList);
+
+        // Indexa os slots por tópico: um array por tópico, posicionado pelo número da partição
+        Map<String, int[]> byTopic = new HashMap<>();
+        for (int slot = 0; slot < topicPartitions.length; slot++) {
+            TopicPartition tp = topicPartitions[slot];
+            int[] slots = byTopic.get(tp.topic());
+            if (slots == null || slots.length <= tp.partition()) {
+                int[] grown = new int[tp.partition() + 1];
+                Arrays.fill(grown, -1);
+                if (slots != null) System.arraycopy(slots, 0, grown, 0, slots.length);
+                slots = grown;
+                byTopic.put(tp.topic(), slots);
+            }
+            slots[tp.partition()] = slot;
+        }
+        this.slotsByTopic = byTopic;
+
+        this.consumed = new long[topicPartitions.length];
+        this.produced = new long[topicPartitions.length];
+        this.lag = new long[topicPartitions.length];
+        this.alertState = new AtomicLongArray(topicPartitions.length);
+        this.publishedLag = new AtomicLongArray(topicPartitions.length);
+        this.publishedState = new AtomicLongArray(topicPartitions.length);
+        this.produceRate = new double[topicPartitions.length];
+        this.consumeRate = new double[topicPartitions.length];
+        this.rateProduced = new long[topicPartitions.length];
+        this.rateConsumed = new long[topicPartitions.length];
+        this.rateSampledAt = new long[topicPartitions.length];
+        Arrays.fill(produceRate, Double.NaN);
+        Arrays.fill(consumeRate, Double.NaN);
+        Arrays.fill(produced, -1); // -1 = ainda não obtido
+    }
+
+    // Mesmo bloco com outros slots globais: compartilha regras, índices e valores
+    private GroupSlots(GroupSlots source, int[] partitionSlots) {
+        this.groupId = source.groupId;
+        this.rules = source.rules;
+        this.topicPartitions = source.topicPartitions;
+        this.partitionSlots = partitionSlots;
+        this.partitionList = source.partitionList;
+        this.offsetsSpec = source.offsetsSpec;
+        this.slotsByTopic = source.slotsByTopic;
+        this.consumed = source.consumed;
+        this.produced = source.produced;
+        this.lag = source.lag;
+        this.alertState = source.alertState;
+        this.publishedLag = source.publishedLag;
+        this.publishedState = source.publishedState;
+        this.produceRate = source.produceRate;
+        this.consumeRate = source.consumeRate;
+        this.rateProduced = source.rateProduced;
+        this.rateConsumed = source.rateConsumed;
+        this.rateSampledAt = source.rateSampledAt;
+    }
+
+    /**
+     * Reaproveita o bloco em um novo layout cujas regras do grupo não mudaram.
+     * Se os slots globais forem os mesmos, o próprio bloco é devolvido; senão,
+     * um bloco que compartilha os mesmos arrays de valores (sem cópia).
+     */
+    GroupSlots rebind(int[] partitionSlots) {
+        return Arrays.equals(this.partitionSlots, partitionSlots) ? this : new GroupSlots(this, partitionSlots);
+    }
+
+    /**
+     * Indica se o bloco foi montado com exatamente estas regras (mesma ordem).
+     */
+    boolean hasRules(AlertRule[] other) {
+        return Arrays.equals(rules, other);
+    }
+
+    /**
+     * Retorna o slot do par tópico/partição neste grupo, sem alocar objetos.
+     *
+     * @return O slot, ou -1 se a partição não for monitorada pelo grupo.
+     */
+    public int slotOf(String topic, int partition) {
+        int[] slots = slotsByTopic.get(topic);
+        if (slots == null || partition < 0 || partition >= slots.length) return -1;
+        return slots[partition];
+    }
+
+    // --- Layout ---
+
+    public String getGroupId() { return groupId; }
+
+    public int size() { return topicPartitions.length; }
+
+    public AlertRule rule(int slot) { return rules[slot]; }
+
+    public TopicPartition topicPartition(int slot) { return topicPartitions[slot]; }
+
+    public String topic(int slot) { return topicPartitions[slot].topic(); }
+
+    public int partition(int slot) { return topicPartitions[slot].partition(); }
+
+    int partitionSlot(int slot) { return partitionSlots[slot]; }
+
+    public List<TopicPartition> partitions() { return partitionList; }
+
+    public ListConsumerGroupOffsetsSpec offsetsSpec() { return offsetsSpec; }
+
+    // --- Valores ---
+
+    public long consumed(int slot) { return consumed[slot]; }
+
+    public void consumed(int slot, long value) { consumed[slot] = value; }
+
+    public long produced(int slot) { return produced[slot]; }
+
+    public void produced(int slot, long value) { produced[slot] = value; }
+
+    public long lag(int slot) { return lag[slot]; }
+
+    public void lag(int slot, long value) { lag[slot] = value; }
+
+    /**
+     * Estado de alerta dos slots, usado pelo deduplicador de alertas.
+     * Cada posição guarda o último status emitido e o instante do último envio.
+     */
+    public AtomicLongArray alertState() { return alertState; }
+
+    /**
+     * Último estado publicado de um slot, usado pelo filtro de mudanças da publicação.
+     *
+     * É gravado na thread de I/O do produtor (ao confirmar o envio) e lido nas
+     * threads de avaliação. O lag é gravado antes do estado, e o estado é lido
+     * antes do lag: quem vê o estado novo também vê o lag correspondente.
+     */
+    public long publishedLag(int slot) { return publishedLag.get(slot); }
+
+    public long publishedState(int slot) { return publishedState.get(slot); }
+
+    public void published(int slot, long lag, long packedState) {
+        publishedLag.set(slot, lag);
+        publishedState.set(slot, packedState);
+    }
+
+    /**
+     * Taxas de produção e consumo do slot, mantidas pelo LagRateEstimator.
+     */
+    public double produceRate(int slot) { return produceRate[slot]; }
+
+    public double consumeRate(int slot) { return consumeRate[slot]; }
+
+    public long rateSampledAt(int slot) { return rateSampledAt[slot]; }
+
+    public long rateProduced(int slot) { return rateProduced[slot]; }
+
+    public long rateConsumed(int slot) { return rateConsumed[slot]; }
+
+    public void rates(int slot, double produce, double consume, long produced, long consumed, long sampledAt) {
+        produceRate[slot] = produce;
+        consumeRate[slot] = consume;
+        rateProduced[slot] = produced;
+        rateConsumed[slot] = consumed;
+        rateSampledAt[slot] = sampledAt;
+    }
+}
@@ -0,0 +1,272 @@
+package io.viana.queue_alert_engine.store;
+
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Visão imutável e versionada do resultado das avaliações de lag.
+ *
+ * Cada ciclo (ou lote) de avaliação publica uma nova versão pelo
+ * {@link LagSnapshotStore}; os grupos avaliados recebem um {@link GroupLag}
+ * novo e os demais são reaproveitados da versão anterior. Os valores de cada
+ * grupo ficam em colunas (arrays primitivos indexados pelo slot do
+ * {@link GroupSlots}), com um único instante de avaliação por grupo.
+ *
+ * Leitores (despacho, REST, métricas) pegam a versão atual uma vez e leem dela
+ * sem locks: nada nela muda depois de publicada.
+ */
+public final class LagSnapshot {
+
+    // Status de um slot que não pôde ser avaliado (offset de produção desconhecido)
+    private static final byte UNKNOWN = -1;
+
+    static final LagSnapshot EMPTY = new LagSnapshot(0, 0, Map.of());
+
+    // Versão (incrementada a cada publicação; 0 = nenhum ciclo concluído)
+    private final long version;
+    // Instante da publicação (epoch em ms)
+    private final long publishedAt;
+    // Resultado de cada grupo (ordem de publicação)
+    private final Map<String, GroupLag> groups;
+    // Agregados calculados na publicação
+    private final int partitions;
+    private final long totalLag;
+    private final int[] statusCounts;
+
+    private LagSnapshot(long version, long publishedAt, Map<String, GroupLag> groups) {
+        this.version = version;
+        this.publishedAt = publishedAt;
+        this.groups = Collections.unmodifiableMap(groups);
+
+        int count = 0;
+        long lag = 0;
+        int[] counts = new int[QueueStatus.values().length];
+        for (GroupLag group : groups.values()) {
+            count += group.size();
+            lag += group.totalLag;
+            for (int i = 0; i < counts.length; i++) counts[i] += group.statusCounts[i];
+        }
+        this.partitions = count;
+        this.totalLag = lag;
+        this.statusCounts = counts;
+    }
+
+    /**
+     * Próxima versão: troca os grupos avaliados e descarta os que saíram do layout.
+     */
+    LagSnapshot with(Collection<GroupLag> updated, OffsetIndex.Layout layout, long now) {
+        Map<String, GroupLag> next = new LinkedHashMap<>(groups.size() + updated.size() * 2);
+        for (GroupLag group : groups.values()) {
+            if (layout.group(group.groupId()) != null) next.put(group.groupId(), group);
+        }
+        for (GroupLag group : updated) {
+            if (layout.group(group.groupId()) != null) next.put(group.groupId(), group);
+        }
+        return new LagSnapshot(version + 1, now, next);
+    }
+
+    public long version() { return version; }
+
+    public long publishedAt() { return publishedAt; }
+
+    public Collection<GroupLag> groups() { return groups.values(); }
+
+    /**
+     * Resultado de um grupo, ou null se ele ainda não foi avaliado.
+     */
+    public GroupLag group(String groupId) { return groups.get(groupId); }
+
+    /**
+     * Slots (grupo/tópico/partição) presentes nesta versão.
+     */
+    public int partitions() { return partitions; }
+
+    public long totalLag() { return totalLag; }
+
+    /**
+     * Quantidade de slots avaliados com o status informado.
+     */
+    public int count(QueueStatus status) { return statusCounts[status.ordinal()]; }
+
+    /**
+     * Resultado da última avaliação de um consumer group, em colunas por slot.
+     */
+    public static final class GroupLag {
+
+        // Bloco do grupo no índice (apenas o layout é lido: tópicos, partições e regras)
+        private final GroupSlots slots;
+        // Instante da avaliação (o mesmo para todos os slots do grupo)
+        private final long evaluatedAt;
+        private final long[] produced; // -1 = não obtido
+        private final long[] consumed;
+        private final long[] lag;
+        private final byte[] status; // Ordinal do QueueStatus; -1 = não avaliado
+        private final double[] produceRate; // NaN = ainda sem amostra
+        private final double[] consumeRate; // NaN = ainda sem amostra
+        private final long[] timeToDrain; // Segundos; LagRateEstimator.NEVER = não está diminuindo, UNKNOWN = sem taxas
+        // Agregados do grupo
+        private final long totalLag;
+        private final int[] statusCounts;
+        private final QueueStatus worstStatus;
+
+        private GroupLag(Builder builder) {
+            this.slots = builder.slots;
+            this.evaluatedAt = builder.evaluatedAt;
+            this.produced = builder.produced;
+            this.consumed = builder.consumed;
+            this.lag = builder.lag;
+            this.status = builder.status;
+            this.produceRate = builder.produceRate;
+            this.consumeRate = builder.consumeRate;
+            this.timeToDrain = builder.timeToDrain;
+
+            long total = 0;
+            int[] counts = new int[QueueStatus.values().length];
+            int worst = 0;
+            for (int slot = 0; slot < lag.length; slot++) {
+                if (status[slot] == UNKNOWN) continue;
+                total += lag[slot];
+                counts[status[slot]]++;
+                worst = Math.max(worst, status[slot]);
+            }
+            this.totalLag = total;
+            this.statusCounts = counts;
+            this.worstStatus = QueueStatus.values()[worst];
+        }
+
+        /**
+         * Inicia o resultado de um grupo avaliado no instante informado.
+         */
+        public static Builder builder(GroupSlots slots, long evaluatedAt) {
+            return new Builder(slots, evaluatedAt);
+        }
+
+        public String groupId() { return slots.getGroupId(); }
+
+        public GroupSlots slots() { return slots; }
+
+        /**
+         * Indica se o resultado foi montado com o mesmo layout de slots do bloco
+         * informado (os índices dos slots valem para os dois).
+         */
+        public boolean sameLayout(GroupSlots other) { return other.partitions() == slots.partitions(); }
+
+        public long evaluatedAt() { return evaluatedAt; }
+
+        public int size() { return lag.length; }
+
+        public int slotOf(String topic, int partition) { return slots.slotOf(topic, partition); }
+
+        public TopicPartition topicPartition(int slot) { return slots.topicPartition(slot); }
+
+        public String topic(int slot) { return slots.topic(slot); }
+
+        public int partition(int slot) { return slots.partition(slot); }
+
+        public long produced(int slot) { return produced[slot]; }
+
+        public long consumed(int slot) { return consumed[slot]; }
+
+        public long lag(int slot) { return lag[slot]; }
+
+        /**
+         * Indica se o slot foi avaliado neste ciclo (offset de produção conhecido).
+         */
+        public boolean evaluated(int slot) { return status[slot] != UNKNOWN; }
+
+        /**
+         * Status do slot, ou null se ele não foi avaliado.
+         */
+        public QueueStatus status(int slot) {
+            return status[slot] == UNKNOWN ? null : QueueStatus.values()[status[slot]];
+        }
+
+        public double produceRate(int slot) { return produceRate[slot]; }
+
+        public double consumeRate(int slot) { return consumeRate[slot]; }
+
+        public long timeToDrainSeconds(int slot) { return timeToDrain[slot]; }
+
+        public long totalLag() { return totalLag; }
+
+        public int count(QueueStatus status) { return statusCounts[status.ordinal()]; }
+
+        /**
+         * Status mais grave entre os slots avaliados (OK se nenhum foi avaliado).
+         */
+        public QueueStatus worstStatus() { return worstStatus; }
+
+        /**
+         * Preenche as colunas de um grupo durante a avaliação (por uma única thread).
+         * Depois de {@link #build()} os arrays passam a pertencer ao resultado.
+         */
+        public static final class Builder {
+
+            private final GroupSlots slots;
+            private final long evaluatedAt;
+            private final long[] produced;
+            private final long[] consumed;
+            private final long[] lag;
+            private final byte[] status;
+            private final double[] produceRate;
+            private final double[] consumeRate;
+            private final long[] timeToDrain;
+
+            private Builder(GroupSlots slots, long evaluatedAt) {
+                int size = slots.size();
+                this.slots = slots;
+                this.evaluatedAt = evaluatedAt;
+                this.produced = new long[size];
+                this.consumed = new long[size];
+                this.lag = new long[size];
+                this.status = new byte[size];
+                this.produceRate = new double[size];
+                this.consumeRate = new double[size];
+                this.timeToDrain = new long[size];
+                Arrays.fill(produced, -1);
+                Arrays.fill(status, UNKNOWN);
+                Arrays.fill(produceRate, Double.NaN);
+                Arrays.fill(consumeRate, Double.NaN);
+            }
+
+            /**
+             * Registra um slot avaliado.
+             */
+            public Builder evaluated(int slot, long produced, long consumed, long lag, QueueStatus status) {
+                this.produced[slot] = produced;
+                this.consumed[slot] = consumed;
+                this.lag[slot] = lag;
+                this.status[slot] = (byte) status.ordinal();
+                return this;
+            }
+
+            /**
+             * Registra as taxas e o tempo estimado para zerar o lag de um slot.
+             */
+            public Builder rates(int slot, double produceRate, double consumeRate, long timeToDrainSeconds) {
+                this.produceRate[slot] = produceRate;
+                this.consumeRate[slot] = consumeRate;
+                this.timeToDrain[slot] = timeToDrainSeconds;
+                return this;
+            }
+
+            /**
+             * Registra um slot sem offset de produção (não avaliado neste ciclo).
+             */
+            public Builder unknown(int slot, long consumed) {
+                this.consumed[slot] = consumed;
+                return this;
+            }
+
+            public GroupLag build() {
+                return new GroupLag(this);
+            }
+        }
+    }
+}
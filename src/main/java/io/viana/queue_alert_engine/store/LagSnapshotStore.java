@@ -0,0 +1,45 @@
+package io.viana.queue_alert_engine.store;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Guarda a versão atual do {@link LagSnapshot}.
+ *
+ * O LagCheckerService publica uma versão ao fim de cada ciclo/lote; lotes
+ * paralelos publicam por CAS, cada um trocando só os próprios grupos. Os
+ * leitores chamam {@link #current()} uma vez e usam a versão obtida do começo
+ * ao fim, sem disputar com quem está avaliando.
+ */
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class LagSnapshotStore {
+
+    // Layout atual (grupos que saíram da configuração são descartados na publicação)
+    private final OffsetIndex offsetIndex;
+
+    // Versão publicada
+    private final AtomicReference<LagSnapshot> snapshot = new AtomicReference<>(LagSnapshot.EMPTY);
+
+    /**
+     * Retorna a versão atual (nunca null; versão 0 antes do primeiro ciclo).
+     */
+    public LagSnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Publica uma nova versão com o resultado dos grupos avaliados.
+     *
+     * @param groups Os grupos avaliados no ciclo (os demais mantêm o resultado anterior).
+     * @return A versão publicada.
+     */
+    public LagSnapshot publish(Collection<LagSnapshot.GroupLag> groups) {
+        OffsetIndex.Layout layout = offsetIndex.current();
+        long now = System.currentTimeMillis();
+        return snapshot.updateAndGet(current -> current.with(groups, layout, now));
+    }
+}
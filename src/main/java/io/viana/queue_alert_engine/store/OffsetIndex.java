@@ -0,0 +1,279 @@
+package io.viana.queue_alert_engine.store;
+
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índice de offsets de todas as partições monitoradas.
+ *
+ * No carregamento da configuração cada (grupo, tópico, partição) é internado em
+ * um slot inteiro de um {@link GroupSlots}, e cada par (tópico, partição) distinto
+ * recebe um slot na tabela global de offsets produzidos. Os valores ficam em
+ * arrays primitivos: o caminho quente lê e escreve sem alocar.
+ *
+ * O layout é imutável e publicado por referência volátil; quem está no meio de
+ * um ciclo continua usando o layout que leu no início.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+public class OffsetIndex {
+
+    // Layout atual (grupos, partições e tabela de offsets produzidos)
+    private volatile Layout layout = Layout.EMPTY;
+
+    /**
+     * Interna os grupos e regras configurados, montando um novo layout.
+     *
+     * Só os grupos cujas regras mudaram ganham slots novos; os demais reaproveitam
+     * o bloco atual (valores e índices), de modo que recarregar milhares de regras
+     * com poucas alterações custa quase só a montagem dos mapas. Os slots globais
+     * das partições que continuam monitoradas mantêm a ordem do layout anterior.
+     *
+     * @param groups Os grupos configurados, cada um com suas regras.
+     */
+    public void load(List<AlertGroup> groups) {
+        Layout previous = layout;
+
+        // 1. Regras por partição de cada grupo (a última regra duplicada vence)
+        Map<String, Map<TopicPartition, AlertRule>> rulesByGroup = new LinkedHashMap<>();
+        Set<TopicPartition> needed = new HashSet<>();
+        for (AlertGroup group : groups != null ? groups : List.<AlertGroup>of()) {
+            if (group.getRules() == null || group.getRules().isEmpty()) continue;
+
+            Map<TopicPartition, AlertRule> rulesByPartition = new LinkedHashMap<>();
+            for (AlertRule rule : group.getRules()) {
+                TopicPartition tp = new TopicPartition(rule.topic(), rule.partition());
+                if (rulesByPartition.put(tp, rule) != null) {
+                    log.warn("⚠ Regra duplicada para {} no grupo {}; usando a última", tp, group.getGroupId());
+                }
+            }
+            rulesByGroup.put(group.getGroupId(), rulesByPartition);
+            needed.addAll(rulesByPartition.keySet());
+        }
+
+        // 2. Slots globais: primeiro as partições que já existiam (mesma ordem), depois as novas
+        Map<TopicPartition, Integer> partitionIndex = new LinkedHashMap<>();
+        for (TopicPartition tp : previous.partitions) {
+            if (needed.contains(tp)) partitionIndex.put(tp, partitionIndex.size());
+        }
+
+        // 3. Blocos por grupo: reaproveita os inalterados, monta (e semeia) os alterados
+        Map<String, GroupSlots> slotsByGroup = new LinkedHashMap<>();
+        int rebuilt = 0;
+        for (Map.Entry<String, Map<TopicPartition, AlertRule>> group : rulesByGroup.entrySet()) {
+            Map<TopicPartition, AlertRule> rulesByPartition = group.getValue();
+            int size = rulesByPartition.size();
+            AlertRule[] rules = new AlertRule[size];
+            TopicPartition[] tps = new TopicPartition[size];
+            int[] partitionSlots = new int[size];
+            int slot = 0;
+            for (Map.Entry<TopicPartition, AlertRule> entry : rulesByPartition.entrySet()) {
+                Integer partitionSlot = partitionIndex.get(entry.getKey());
+                if (partitionSlot == null) {
+                    partitionSlot = partitionIndex.size();
+                    partitionIndex.put(entry.getKey(), partitionSlot);
+                }
+                tps[slot] = entry.getKey();
+                rules[slot] = entry.getValue();
+                partitionSlots[slot] = partitionSlot;
+                slot++;
+            }
+
+            GroupSlots current = previous.groups.get(group.getKey());
+            if (current != null && current.hasRules(rules)) {
+                slotsByGroup.put(group.getKey(), current.rebind(partitionSlots));
+            } else {
+                GroupSlots next = new GroupSlots(group.getKey(), rules, tps, partitionSlots);
+                if (current != null) carryOver(current, next);
+                slotsByGroup.put(group.getKey(), next);
+                rebuilt++;
+            }
+        }
+
+        Layout next = new Layout(slotsByGroup, partitionIndex);
+        layout = next;
+        log.info("🗂 Índice de offsets carregado: {} grupos ({} remontados), {} slots, {} partições distintas",
+                slotsByGroup.size(), rebuilt, next.totalSlots, partitionIndex.size());
+    }
+
+    // Copia os valores já conhecidos do bloco anterior para os slots que continuam existindo
+    private static void carryOver(GroupSlots source, GroupSlots target) {
+        for (int slot = 0; slot < target.size(); slot++) {
+            int old = source.slotOf(target.topic(slot), target.partition(slot));
+            if (old < 0) continue;
+            target.consumed[slot] = source.consumed[old];
+            target.produced[slot] = source.produced[old];
+            target.lag[slot] = source.lag[old];
+            target.alertState.set(slot, source.alertState.get(old));
+            target.published(slot, source.publishedLag(old), source.publishedState(old));
+            target.produceRate[slot] = source.produceRate[old];
+            target.consumeRate[slot] = source.consumeRate[old];
+            target.rateProduced[slot] = source.rateProduced[old];
+            target.rateConsumed[slot] = source.rateConsumed[old];
+            target.rateSampledAt[slot] = source.rateSampledAt[old];
+        }
+    }
+
+    /**
+     * Semeia os slots monitorados com estados já publicados (ex: lidos do tópico de
+     * estado compactado na inicialização): offsets, lag, taxas, o último estado
+     * publicado e o último status de alerta. Assim o primeiro ciclo após um
+     * restart não republica estados nem repete alertas que já tinham sido emitidos.
+     *
+     * Só semeia slots que ainda não publicaram nenhum estado: no modo cluster,
+     * ao assumir os shards de outra instância, os slots que já eram desta
+     * instância mantêm os próprios valores.
+     *
+     * @param states Os estados conhecidos (um por grupo/tópico/partição).
+     * @return Quantos slots foram semeados.
+     */
+    public int restore(Collection<QueueStateEvent> states) {
+        Layout current = layout;
+        int restored = 0;
+        for (QueueStateEvent state : states) {
+            GroupSlots slots = current.groups.get(state.getConsumerGroup());
+            if (slots == null || state.getStatus() == null) continue;
+            int slot = slots.slotOf(state.getTopic(), state.getPartition());
+            if (slot < 0 || slots.publishedState(slot) != 0) continue;
+
+            // Mesmo formato empacotado do AlertDeduplicator e do StateChangeFilter (status + instante)
+            long packed = (state.getTimestamp() << 2) | state.getStatus().ordinal();
+            slots.consumed[slot] = state.getLastConsumedOffset();
+            slots.produced[slot] = state.getLastProducedOffset();
+            slots.lag[slot] = state.getLag();
+            slots.published(slot, state.getLag(), packed);
+            slots.alertState.set(slot, packed);
+            // Taxas publicadas (taxas zeradas = estado antigo sem taxas; o estimador recomeça)
+            if (state.getProduceRate() > 0 || state.getConsumeRate() > 0) {
+                slots.rates(slot, state.getProduceRate(), state.getConsumeRate(),
+                        state.getLastProducedOffset(), state.getLastConsumedOffset(), state.getTimestamp());
+            }
+            restored++;
+        }
+        return restored;
+    }
+
+    /**
+     * Retorna o layout atual. O objeto retornado não muda: use o mesmo layout
+     * durante todo um ciclo para ter uma visão consistente dos slots.
+     */
+    public Layout current() {
+        return layout;
+    }
+
+    /**
+     * Retorna o bloco de slots de um grupo, ou null se o grupo não for monitorado.
+     */
+    public GroupSlots group(String groupId) {
+        return layout.groups.get(groupId);
+    }
+
+    /**
+     * Retorna todos os blocos de grupos do layout atual.
+     */
+    public Collection<GroupSlots> groups() {
+        return layout.groups.values();
+    }
+
+    /**
+     * Layout imutável do índice: blocos por grupo e a tabela global de offsets produzidos.
+     */
+    public static final class Layout {
+
+        static final Layout EMPTY = new Layout(Map.of(), Map.of());
+
+        // Blocos de slots por groupId (ordem de configuração)
+        private final Map<String, GroupSlots> groups;
+        // Slot global de cada par tópico/partição distinto
+        private final Map<TopicPartition, Integer> partitionIndex;
+        // Partições distintas, na ordem dos slots globais
+        private final TopicPartition[] partitions;
+        // Último offset produzido de cada partição distinta (-1 = não obtido)
+        private final long[] latestOffsets;
+        // Requisição pronta de listOffsets (latest) para todas as partições
+        private final Map<TopicPartition, OffsetSpec> latestOffsetsRequest;
+        // Total de slots somando todos os grupos
+        private final int totalSlots;
+
+        private Layout(Map<String, GroupSlots> groups, Map<TopicPartition, Integer> partitionIndex) {
+            this.groups = Collections.unmodifiableMap(groups);
+            this.partitionIndex = Collections.unmodifiableMap(partitionIndex);
+            this.partitions = partitionIndex.keySet().toArray(new TopicPartition[0]);
+            this.latestOffsets = new long[partitions.length];
+            Arrays.fill(latestOffsets, -1);
+
+            Map<TopicPartition, OffsetSpec> request = new HashMap<>(partitions.length * 2);
+            OffsetSpec latest = OffsetSpec.latest();
+            for (TopicPartition tp : partitions) request.put(tp, latest);
+            this.latestOffsetsRequest = Collections.unmodifiableMap(request);
+
+            this.totalSlots = groups.values().stream().mapToInt(GroupSlots::size).sum();
+        }
+
+        public Collection<GroupSlots> groups() { return groups.values(); }
+
+        public GroupSlots group(String groupId) { return groups.get(groupId); }
+
+        public int totalSlots() { return totalSlots; }
+
+        public int partitionCount() { return partitions.length; }
+
+        public TopicPartition partition(int partitionSlot) { return partitions[partitionSlot]; }
+
+        /**
+         * Retorna o slot global de uma partição, ou -1 se ela não for monitorada.
+         */
+        public int partitionSlotOf(TopicPartition tp) {
+            Integer slot = partitionIndex.get(tp);
+            return slot != null ? slot : -1;
+        }
+
+        /**
+         * Requisição listOffsets(latest) pré-montada para todas as partições do layout.
+         */
+        public Map<TopicPartition, OffsetSpec> latestOffsetsRequest() { return latestOffsetsRequest; }
+
+        public long latestOffset(int partitionSlot) { return latestOffsets[partitionSlot]; }
+
+        public void latestOffset(int partitionSlot, long offset) { latestOffsets[partitionSlot] = offset; }
+
+        /**
+         * Último offset produzido da partição de um slot do grupo.
+         */
+        public long latestOffset(GroupSlots slots, int slot) { return latestOffsets[slots.partitionSlot(slot)]; }
+
+        /**
+         * Partições distintas de um conjunto de grupos (para buscas parciais).
+         */
+        public List<TopicPartition> partitionsOf(Collection<GroupSlots> selected) {
+            List<TopicPartition> result = new ArrayList<>();
+            boolean[] seen = new boolean[partitions.length];
+            for (GroupSlots slots : selected) {
+                for (int slot = 0; slot < slots.size(); slot++) {
+                    int partitionSlot = slots.partitionSlot(slot);
+                    if (!seen[partitionSlot]) {
+                        seen[partitionSlot] = true;
+                        result.add(partitions[partitionSlot]);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package io.viana.queue_alert_engine.store;
+
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Visão materializada com o último estado conhecido de cada (grupo, tópico, partição).
+ *
+ * É a mesma visão do tópico de estado compactado: uma entrada por chave
+ * 'grupo|tópico|partição', reconstruída na inicialização e atualizada a cada
+ * estado publicado ou consumido.
+ *
+ * Além da tabela principal, mantém índices secundários atualizados de forma
+ * incremental: chaves por status, chaves por grupo e um conjunto ordenado por
+ * lag. Consultas como "todas as partições CRITICAL" ou "top-N lag" custam O(k)
+ * no tamanho da resposta, sem varrer a tabela. Escritas são serializadas entre
+ * si; leituras não usam lock e devolvem cópias (o chamador pode alterá-las à vontade).
+ */
+@Component // Marca a classe como um componente Spring
+public class QueueStateStore {
+
+    // Entrada do índice ordenado por lag (maior primeiro; empate pela chave)
+    private record LagEntry(long lag, String key) {}
+
+    private static final Comparator<LagEntry> BY_LAG_DESC =
+            Comparator.comparingLong(LagEntry::lag).reversed().thenComparing(LagEntry::key);
+
+    // Último estado por chave (grupo|tópico|partição)
+    private final Map<String, QueueStateEvent> latest = new ConcurrentHashMap<>();
+    // Índice: status → chaves
+    private final Map<QueueStatus, Set<String>> byStatus = new EnumMap<>(QueueStatus.class);
+    // Índice: grupo → chaves
+    private final Map<String, Set<String>> byGroup = new ConcurrentHashMap<>();
+    // Índice: chaves ordenadas por lag
+    private final ConcurrentSkipListSet<LagEntry> byLag = new ConcurrentSkipListSet<>(BY_LAG_DESC);
+
+    public QueueStateStore() {
+        for (QueueStatus status : QueueStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Monta a chave do estado: a mesma usada nos registros do tópico de estado.
+     */
+    public static String keyOf(String consumerGroup, String topic, int partition) {
+        return consumerGroup + "|" + topic + "|" + partition;
+    }
+
+    /**
+     * Chave de um evento de estado.
+     */
+    public static String keyOf(QueueStateEvent event) {
+        return keyOf(event.getConsumerGroup(), event.getTopic(), event.getPartition());
+    }
+
+    /**
+     * Registra um estado, mantendo sempre o mais recente de cada chave.
+     * Eventos mais antigos que o atual (ex: reentrega do Kafka) são ignorados.
+     */
+    public synchronized void put(QueueStateEvent event) {
+        String key = keyOf(event);
+        QueueStateEvent previous = latest.get(key);
+        if (previous != null && previous.getTimestamp() > event.getTimestamp()) return;
+
+        // Guarda uma cópia: o chamador continua dono do objeto recebido
+        QueueStateEvent stored = copy(event);
+        latest.put(key, stored);
+        unindex(key, previous);
+        index(key, stored);
+    }
+
+    /**
+     * Remove uma chave (registro tombstone no tópico de estado).
+     */
+    public synchronized void remove(String key) {
+        unindex(key, latest.remove(key));
+    }
+
+    // Adiciona a chave aos índices secundários
+    private void index(String key, QueueStateEvent state) {
+        if (state.getStatus() != null) byStatus.get(state.getStatus()).add(key);
+        byGroup.computeIfAbsent(state.getConsumerGroup(), g -> ConcurrentHashMap.newKeySet()).add(key);
+        byLag.add(new LagEntry(state.getLag(), key));
+    }
+
+    // Remove a chave dos índices secundários (estado anterior)
+    private void unindex(String key, QueueStateEvent previous) {
+        if (previous == null) return;
+        if (previous.getStatus() != null) byStatus.get(previous.getStatus()).remove(key);
+        byLag.remove(new LagEntry(previous.getLag(), key));
+        Set<String> groupKeys = byGroup.get(previous.getConsumerGroup());
+        if (groupKeys != null) {
+            groupKeys.remove(key);
+            if (groupKeys.isEmpty()) byGroup.remove(previous.getConsumerGroup());
+        }
+    }
+
+    // --------------------- Consultas (cópias) ---------------------
+
+    public QueueStateEvent get(String consumerGroup, String topic, int partition) {
+        QueueStateEvent state = latest.get(keyOf(consumerGroup, topic, partition));
+        return state != null ? copy(state) : null;
+    }
+
+    /**
+     * Cópia de todos os estados conhecidos.
+     */
+    public List<QueueStateEvent> snapshot() {
+        return copyAll(latest.keySet());
+    }
+
+    /**
+     * Estados com um determinado status (ex: todas as partições CRITICAL).
+     */
+    public List<QueueStateEvent> byStatus(QueueStatus status) {
+        return copyAll(byStatus.get(status));
+    }
+
+    /**
+     * Estados de um consumer group.
+     */
+    public List<QueueStateEvent> byGroup(String consumerGroup) {
+        return copyAll(byGroup.getOrDefault(consumerGroup, Set.of()));
+    }
+
+    /**
+     * Os N estados com maior lag entre todos os grupos.
+     */
+    public List<QueueStateEvent> topLag(int limit) {
+        List<QueueStateEvent> result = new ArrayList<>(Math.max(0, limit));
+        Iterator<LagEntry> it = byLag.iterator();
+        while (result.size() < limit && it.hasNext()) {
+            QueueStateEvent state = latest.get(it.next().key());
+            if (state != null) result.add(copy(state));
+        }
+        return result;
+    }
+
+    /**
+     * Quantidade de estados por status.
+     */
+    public Map<QueueStatus, Integer> countByStatus() {
+        Map<QueueStatus, Integer> counts = new EnumMap<>(QueueStatus.class);
+        byStatus.forEach((status, keys) -> counts.put(status, keys.size()));
+        return counts;
+    }
+
+    /**
+     * Visão somente leitura dos estados (sem cópia), para uso interno na inicialização.
+     */
+    public Collection<QueueStateEvent> all() {
+        return Collections.unmodifiableCollection(latest.values());
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    private List<QueueStateEvent> copyAll(Collection<String> keys) {
+        List<QueueStateEvent> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            QueueStateEvent state = latest.get(key);
+            if (state != null) result.add(copy(state));
+        }
+        return result;
+    }
+
+    private static QueueStateEvent copy(QueueStateEvent state) {
+        return new QueueStateEvent(state.getTopic(), state.getPartition(), state.getLastProducedOffset(),
+                state.getLastConsumedOffset(), state.getLag(), state.getConsumerGroup(),
+                state.getProduceRate(), state.getConsumeRate(), state.getTimeToDrainSeconds(),
+                state.getStatus(), state.getTimestamp());
+    }
+}
@@ -0,0 +1,95 @@
+package io.viana.queue_alert_engine.store;
+
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Shards atribuídos a esta instância no modo cluster.
+ *
+ * Cada (grupo, tópico, partição) pertence a um shard fixo, calculado com o
+ * mesmo hash do particionador do Kafka sobre a chave do tópico de estado
+ * ("grupo|tópico|partição"). Com o modo cluster desligado a instância é dona de tudo.
+ * No modo líder tudo pertence ao shard 0, e quem o recebe é a líder.
+ */
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class ShardAssignment {
+
+    // Configurações do modo cluster (ligado/desligado, quantidade de shards)
+    private final ClusterProperties clusterProperties;
+
+    // Shards desta instância (trocado por referência a cada rebalance)
+    private volatile BitSet owned = new BitSet();
+
+    /**
+     * Indica se o trabalho é dividido entre instâncias.
+     */
+    public boolean isEnabled() {
+        return clusterProperties.isEnabled();
+    }
+
+    /**
+     * Shard de um (grupo, tópico, partição).
+     */
+    public int shardOf(String groupId, String topic, int partition) {
+        if (clusterProperties.getMode() == ClusterProperties.Mode.LEADER) return 0;
+        byte[] key = QueueStateStore.keyOf(groupId, topic, partition).getBytes(StandardCharsets.UTF_8);
+        return Utils.toPositive(Utils.murmur2(key)) % Math.max(1, clusterProperties.getShards());
+    }
+
+    /**
+     * Indica se esta instância deve avaliar o (grupo, tópico, partição).
+     */
+    public boolean owns(String groupId, String topic, int partition) {
+        return !isEnabled() || owned.get(shardOf(groupId, topic, partition));
+    }
+
+    /**
+     * Indica se esta instância está em standby (modo líder, sem a liderança):
+     * não consulta o Kafka nem emite alertas, só mantém a visão de estado.
+     */
+    public boolean isStandby() {
+        return isEnabled() && clusterProperties.getMode() == ClusterProperties.Mode.LEADER && !owned.get(0);
+    }
+
+    /**
+     * Acrescenta shards recebidos em um rebalance.
+     *
+     * @return true se o conjunto mudou.
+     */
+    public synchronized boolean add(Collection<Integer> shards) {
+        BitSet next = (BitSet) owned.clone();
+        shards.forEach(next::set);
+        return swap(next);
+    }
+
+    /**
+     * Remove shards revogados (ou perdidos) em um rebalance.
+     *
+     * @return true se o conjunto mudou.
+     */
+    public synchronized boolean remove(Collection<Integer> shards) {
+        BitSet next = (BitSet) owned.clone();
+        shards.forEach(next::clear);
+        return swap(next);
+    }
+
+    /**
+     * Quantidade de shards desta instância.
+     */
+    public int ownedCount() {
+        return owned.cardinality();
+    }
+
+    private boolean swap(BitSet next) {
+        if (next.equals(owned)) return false;
+        owned = next;
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package io.viana.queue_alert_engine.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache dos metadados do cluster usados para expandir regras com curingas:
+ * o número de partições de cada tópico e as partições com offsets de cada grupo
+ * monitorado por inteiro.
+ *
+ * É atualizado pelo TopicMetadataRefresher em um agendamento próprio, mais lento
+ * que o ciclo de monitoramento; o snapshot é imutável e publicado por referência volátil.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+public class TopicMetadataIndex {
+
+    /**
+     * Snapshot imutável dos metadados.
+     *
+     * @param partitionCounts Tópico → número de partições.
+     * @param groupPartitions Grupo → partições com offsets (apenas grupos monitorados por inteiro).
+     */
+    public record Snapshot(Map<String, Integer> partitionCounts, Map<String, Set<TopicPartition>> groupPartitions) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    // Indica se já houve ao menos uma atualização bem-sucedida
+    private volatile boolean loaded;
+
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Substitui o snapshot, registrando as diferenças em relação ao anterior.
+     *
+     * @return true se algo mudou (tópicos, partições ou partições dos grupos).
+     */
+    public boolean update(Snapshot next) {
+        Snapshot previous = snapshot;
+        snapshot = next;
+        loaded = true;
+        if (previous.equals(next)) return false;
+
+        Set<String> added = new HashSet<>(next.partitionCounts().keySet());
+        added.removeAll(previous.partitionCounts().keySet());
+        Set<String> removed = new HashSet<>(previous.partitionCounts().keySet());
+        removed.removeAll(next.partitionCounts().keySet());
+        long resized = next.partitionCounts().entrySet().stream()
+                .filter(e -> previous.partitionCounts().containsKey(e.getKey()))
+                .filter(e -> !previous.partitionCounts().get(e.getKey()).equals(e.getValue()))
+                .count();
+        log.info("🗺 Metadados atualizados: {} tópicos (+{} -{}, {} com novas partições), {} grupos completos",
+                next.partitionCounts().size(), added.size(), removed.size(), resized, next.groupPartitions().size());
+        return true;
+    }
+}
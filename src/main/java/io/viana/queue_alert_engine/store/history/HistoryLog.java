@@ -0,0 +1,189 @@
+package io.viana.queue_alert_engine.store.history;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Arquivo append-only de uma resolução do histórico, dividido em segmentos
+ * mapeados em memória (mmap).
+ *
+ * Cada segmento tem tamanho fixo e se chama '&lt;resolução&gt;-&lt;início em ms&gt;.seg'.
+ * Os registros são de dois tipos: definição de chave (id → grupo|tópico|partição)
+ * e ponto (id, timestamp, produzido, consumido, lag). As chaves são redefinidas em
+ * cada segmento, então um segmento pode ser apagado inteiro quando todos os seus
+ * pontos passam da retenção, sem afetar os demais.
+ */
+@Slf4j // Para registrar mensagens (logs)
+final class HistoryLog implements Closeable {
+
+    // Tipos de registro (0 marca o fim dos dados do segmento)
+    private static final byte RECORD_KEY = 1;
+    private static final byte RECORD_POINT = 2;
+    // Tamanho de um registro de ponto: tipo + id + 4 longs
+    private static final int POINT_BYTES = 1 + 4 + 4 * Long.BYTES;
+    private static final String SUFFIX = ".seg";
+
+    /**
+     * Recebe os pontos lidos na reconstrução.
+     */
+    interface PointSink {
+        void accept(String key, long timestamp, long produced, long consumed, long lag);
+    }
+
+    private final Path directory;
+    private final HistoryTier tier;
+    private final long retentionMs;
+    private final int segmentBytes;
+
+    // Segmento atual de escrita
+    private MappedByteBuffer segment;
+    private Path segmentPath;
+    // Ids de séries já definidos no segmento atual
+    private final BitSet definedKeys = new BitSet();
+
+    HistoryLog(Path directory, HistoryTier tier, long retentionMs, int segmentBytes) {
+        this.directory = directory;
+        this.tier = tier;
+        this.retentionMs = retentionMs;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Lê todos os segmentos existentes, do mais antigo ao mais novo, ignorando
+     * pontos fora da retenção. Deve ser chamado antes da primeira escrita.
+     */
+    void replay(long nowMillis, PointSink sink) {
+        long oldest = nowMillis - retentionMs;
+        for (Path path : segments()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Map<Integer, String> keys = new HashMap<>();
+                while (buffer.hasRemaining()) {
+                    byte type = buffer.get();
+                    if (type == RECORD_KEY) {
+                        int id = buffer.getInt();
+                        byte[] utf8 = new byte[buffer.getShort()];
+                        buffer.get(utf8);
+                        keys.put(id, new String(utf8, StandardCharsets.UTF_8));
+                    } else if (type == RECORD_POINT) {
+                        String key = keys.get(buffer.getInt());
+                        long timestamp = buffer.getLong();
+                        long produced = buffer.getLong();
+                        long consumed = buffer.getLong();
+                        long lag = buffer.getLong();
+                        if (key != null && timestamp >= oldest) sink.accept(key, timestamp, produced, consumed, lag);
+                    } else {
+                        break; // Fim dos dados gravados
+                    }
+                }
+            } catch (IOException | BufferUnderflowException e) {
+                // Segmento truncado (ex: queda no meio de uma escrita): aproveita o que foi lido
+                log.warn("⚠ Segmento de histórico incompleto {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Acrescenta um ponto, definindo a chave no segmento atual se ainda não foi definida.
+     */
+    synchronized void append(int id, String key, long timestamp, long produced, long consumed, long lag) {
+        try {
+            byte[] utf8 = definedKeys.get(id) ? null : key.getBytes(StandardCharsets.UTF_8);
+            int needed = POINT_BYTES + (utf8 != null ? 1 + 4 + 2 + utf8.length : 0);
+
+            if (segment == null || segment.remaining() < needed + 1) {
+                roll(timestamp);
+                utf8 = key.getBytes(StandardCharsets.UTF_8);
+            }
+            if (utf8 != null) {
+                segment.put(RECORD_KEY).putInt(id).putShort((short) utf8.length).put(utf8);
+                definedKeys.set(id);
+            }
+            segment.put(RECORD_POINT).putInt(id)
+                    .putLong(timestamp).putLong(produced).putLong(consumed).putLong(lag);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar histórico " + tier.label(), e);
+        }
+    }
+
+    // Fecha o segmento atual, abre um novo e apaga os segmentos vencidos
+    private void roll(long timestamp) throws IOException {
+        if (segment != null) segment.force();
+        Files.createDirectories(directory);
+
+        // Nome único mesmo com dois segmentos no mesmo milissegundo
+        long start = timestamp;
+        Path path;
+        while (Files.exists(path = directory.resolve(tier.label() + "-" + start + SUFFIX))) start++;
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segmentPath = path;
+        definedKeys.clear();
+        deleteExpired(timestamp);
+    }
+
+    /**
+     * Apaga os segmentos cujos pontos já passaram todos da retenção: um segmento
+     * vence quando o segmento seguinte começou antes do limite da retenção.
+     */
+    private void deleteExpired(long nowMillis) throws IOException {
+        List<Path> segments = segments();
+        long oldest = nowMillis - retentionMs;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            Path current = segments.get(i);
+            if (current.equals(segmentPath) || startOf(segments.get(i + 1)) >= oldest) break;
+            Files.deleteIfExists(current);
+            log.debug("🧹 Segmento de histórico removido: {}", current.getFileName());
+        }
+    }
+
+    // Segmentos desta resolução, do mais antigo ao mais novo
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) return List.of();
+        String prefix = tier.label() + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> result = new ArrayList<>(files
+                    .filter(p -> p.getFileName().toString().startsWith(prefix))
+                    .filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                    .toList());
+            result.sort((a, b) -> Long.compare(startOf(a), startOf(b)));
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Extrai o início (em ms) do nome do segmento
+    private long startOf(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(tier.label().length() + 1, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE; // Arquivo estranho: nunca é considerado vencido
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) segment.force();
+    }
+}
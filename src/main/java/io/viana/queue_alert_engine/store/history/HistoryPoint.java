@@ -0,0 +1,9 @@
+package io.viana.queue_alert_engine.store.history;
+
+/**
+ * Um ponto do histórico de lag de uma partição.
+ *
+ * Nas resoluções agregadas o timestamp é o início do bucket, os offsets são os
+ * últimos observados no bucket e o lag é o maior lag observado.
+ */
+public record HistoryPoint(long timestamp, long produced, long consumed, long lag) {}
@@ -0,0 +1,73 @@
+package io.viana.queue_alert_engine.store.history;
+
+import java.util.List;
+
+/**
+ * Buffer circular de pontos do histórico em arrays primitivos (um array por coluna).
+ *
+ * A capacidade é fixa: ao encher, o ponto mais antigo é sobrescrito. Os pontos
+ * entram em ordem de timestamp, o que permite busca binária nas consultas por intervalo.
+ * Não é thread-safe: o acesso é sincronizado pela {@link LagSeries} dona do buffer.
+ */
+final class HistoryRing {
+
+    private final long[] timestamps;
+    private final long[] produced;
+    private final long[] consumed;
+    private final long[] lag;
+    // Próxima posição de escrita
+    private int head;
+    // Quantidade de pontos válidos
+    private int size;
+
+    HistoryRing(int capacity) {
+        this.timestamps = new long[capacity];
+        this.produced = new long[capacity];
+        this.consumed = new long[capacity];
+        this.lag = new long[capacity];
+    }
+
+    void append(long timestamp, long producedOffset, long consumedOffset, long lagValue) {
+        // Pontos fora de ordem (ex: relógio voltou) são descartados para manter a ordenação
+        if (size > 0 && timestamp < timestamps[physical(size - 1)]) return;
+
+        timestamps[head] = timestamp;
+        produced[head] = producedOffset;
+        consumed[head] = consumedOffset;
+        lag[head] = lagValue;
+        head = (head + 1) % timestamps.length;
+        if (size < timestamps.length) size++;
+    }
+
+    /**
+     * Adiciona à lista os pontos com timestamp em [from, to], do mais antigo ao mais novo.
+     */
+    void query(long from, long to, List<HistoryPoint> out) {
+        for (int i = firstAtOrAfter(from); i < size; i++) {
+            int index = physical(i);
+            if (timestamps[index] > to) break;
+            out.add(new HistoryPoint(timestamps[index], produced[index], consumed[index], lag[index]));
+        }
+    }
+
+    int size() { return size; }
+
+    int capacity() { return timestamps.length; }
+
+    // Busca binária do primeiro ponto lógico com timestamp >= from
+    private int firstAtOrAfter(long from) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[physical(mid)] < from) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Converte o índice lógico (0 = mais antigo) na posição do array
+    private int physical(int logical) {
+        return (head - size + logical + timestamps.length) % timestamps.length;
+    }
+}
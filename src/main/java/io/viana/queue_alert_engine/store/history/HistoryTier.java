@@ -0,0 +1,39 @@
+package io.viana.queue_alert_engine.store.history;
+
+/**
+ * Resoluções do histórico de lag.
+ */
+public enum HistoryTier {
+    // Um ponto por ciclo de monitoramento
+    RAW("raw", 0),
+    // Buckets de 1 minuto (último offset e maior lag do minuto)
+    MINUTE("1m", 60_000L),
+    // Buckets de 10 minutos (último offset e maior lag do intervalo)
+    TEN_MINUTES("10m", 600_000L);
+
+    // Nome usado na API REST e nos arquivos
+    private final String label;
+    // Largura do bucket (0 = sem agregação)
+    private final long bucketMs;
+
+    HistoryTier(String label, long bucketMs) {
+        this.label = label;
+        this.bucketMs = bucketMs;
+    }
+
+    public String label() { return label; }
+
+    public long bucketMs() { return bucketMs; }
+
+    /**
+     * Converte o nome usado na API REST (raw, 1m, 10m).
+     *
+     * @return A resolução, ou null se o nome não for reconhecido.
+     */
+    public static HistoryTier fromLabel(String label) {
+        for (HistoryTier tier : values()) {
+            if (tier.label.equalsIgnoreCase(label) || tier.name().equalsIgnoreCase(label)) return tier;
+        }
+        return null;
+    }
+}
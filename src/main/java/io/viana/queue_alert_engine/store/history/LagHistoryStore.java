@@ -0,0 +1,242 @@
+package io.viana.queue_alert_engine.store.history;
+
+import io.viana.queue_alert_engine.config.HistoryProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Histórico de lag embarcado, uma série por (grupo, tópico, partição).
+ *
+ * Cada série guarda três resoluções em buffers circulares de arrays primitivos:
+ * pontos brutos, buckets de 1 minuto e buckets de 10 minutos. As capacidades
+ * são calculadas a partir das retenções configuradas e o número de séries é
+ * limitado por 'history.max-series', então a memória usada é fixa e conhecida
+ * na inicialização, independente de quantas partições o cluster tiver.
+ * As séries acompanham o layout do {@link OffsetIndex}: a cada 'history.sync-ms'
+ * as de partições que deixaram de ser monitoradas (grupo descoberto que sumiu,
+ * regra removida) são descartadas, liberando espaço para as novas.
+ *
+ * Com 'history.directory' configurado, cada resolução também é gravada em um
+ * arquivo append-only mapeado em memória e relida no restart.
+ */
+@Slf4j // Para registrar mensagens (logs)
+@Component // Marca a classe como um componente Spring
+@RequiredArgsConstructor // Cria o construtor para injeção de dependência
+public class LagHistoryStore {
+
+    // Bytes por ponto (timestamp, produzido, consumido, lag)
+    private static final int POINT_BYTES = 4 * Long.BYTES;
+
+    // Configurações do histórico (retenções, limite de séries, diretório)
+    private final HistoryProperties historyProperties;
+    // Configurações do ciclo (intervalos, usados para dimensionar o buffer bruto)
+    private final MonitorProperties monitorProperties;
+    // Índice com os slots monitorados (define quais séries continuam válidas)
+    private final OffsetIndex offsetIndex;
+
+    // Séries por chave (grupo|tópico|partição)
+    private final Map<String, LagSeries> series = new ConcurrentHashMap<>();
+    // Gerador de ids das séries (usados nos arquivos)
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    // Capacidade de cada resolução (índice = HistoryTier.ordinal())
+    private int[] capacities;
+    // Arquivos por resolução (null = apenas em memória)
+    private HistoryLog[] logs;
+    // Evita repetir o aviso de limite de séries a cada ciclo
+    private volatile boolean limitWarned;
+    // Layout usado na última sincronização
+    private OffsetIndex.Layout syncedLayout;
+
+    /**
+     * Dimensiona os buffers e, se houver diretório configurado, relê os arquivos.
+     */
+    @PostConstruct
+    public void init() {
+        if (!historyProperties.isEnabled()) {
+            log.info("📉 Histórico de lag desligado");
+            return;
+        }
+
+        capacities = new int[HistoryTier.values().length];
+        capacities[HistoryTier.RAW.ordinal()] = capacity(historyProperties.getRawRetentionMs(), shortestIntervalMs());
+        capacities[HistoryTier.MINUTE.ordinal()] = capacity(historyProperties.getMinuteRetentionMs(),
+                HistoryTier.MINUTE.bucketMs());
+        capacities[HistoryTier.TEN_MINUTES.ordinal()] = capacity(historyProperties.getTenMinuteRetentionMs(),
+                HistoryTier.TEN_MINUTES.bucketMs());
+
+        long perSeries = 0;
+        for (int capacity : capacities) perSeries += (long) capacity * POINT_BYTES;
+        log.info("📈 Histórico de lag: {} pontos por série, até {} séries (~{} MB no máximo)",
+                Arrays.toString(capacities), historyProperties.getMaxSeries(),
+                perSeries * historyProperties.getMaxSeries() / (1024 * 1024));
+
+        String directory = historyProperties.getDirectory();
+        if (directory != null && !directory.isBlank()) {
+            openLogs(Path.of(directory));
+        }
+    }
+
+    // Abre os arquivos de cada resolução e recarrega os pontos ainda dentro da retenção
+    private void openLogs(Path directory) {
+        logs = new HistoryLog[HistoryTier.values().length];
+        for (HistoryTier tier : HistoryTier.values()) {
+            logs[tier.ordinal()] = new HistoryLog(directory, tier, retentionOf(tier), historyProperties.getSegmentBytes());
+        }
+
+        // A releitura vai direto para os buffers (restore não grava de volta nos arquivos)
+        long now = System.currentTimeMillis();
+        long restored = 0;
+        for (HistoryTier tier : HistoryTier.values()) {
+            long[] count = new long[1];
+            logs[tier.ordinal()].replay(now, (key, timestamp, produced, consumed, lag) -> {
+                LagSeries target = seriesFor(key);
+                if (target != null) {
+                    target.restore(tier, timestamp, produced, consumed, lag);
+                    count[0]++;
+                }
+            });
+            restored += count[0];
+        }
+        log.info("💾 Histórico persistido em {}: {} pontos relidos de {} séries", directory, restored, series.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (logs == null) return;
+        for (HistoryLog historyLog : logs) historyLog.close();
+    }
+
+    /**
+     * Registra o ponto de um ciclo para uma partição.
+     */
+    public void record(String consumerGroup, String topic, int partition,
+                       long timestamp, long produced, long consumed, long lag) {
+        if (capacities == null) return;
+        LagSeries target = seriesFor(QueueStateStore.keyOf(consumerGroup, topic, partition));
+        if (target != null) target.record(timestamp, produced, consumed, lag);
+    }
+
+    /**
+     * Acompanha o layout atual: descarta as séries das partições que saíram dele.
+     *
+     * Enquanto o layout estiver vazio (regras ainda não carregadas) nada é
+     * descartado, para não perder as séries relidas dos arquivos no restart.
+     * Os pontos já gravados das séries descartadas saem dos arquivos pela retenção.
+     */
+    @Scheduled(fixedDelayString = "${history.sync-ms:10000}")
+    public synchronized void sync() {
+        if (capacities == null) return;
+        OffsetIndex.Layout layout = offsetIndex.current();
+        if (layout == syncedLayout || layout.groups().isEmpty()) return;
+        syncedLayout = layout;
+
+        Set<String> monitored = new HashSet<>(layout.totalSlots() * 2);
+        for (GroupSlots slots : layout.groups()) {
+            for (int slot = 0; slot < slots.size(); slot++) {
+                monitored.add(QueueStateStore.keyOf(slots.getGroupId(), slots.topic(slot), slots.partition(slot)));
+            }
+        }
+
+        int before = series.size();
+        series.keySet().retainAll(monitored);
+        int evicted = before - series.size();
+        if (evicted > 0) {
+            limitWarned = false;
+            log.info("🧹 {} séries de histórico descartadas (partições fora da monitoração)", evicted);
+        }
+    }
+
+    /**
+     * Pontos de uma partição no intervalo [from, to].
+     *
+     * @param tier A resolução desejada, ou null para escolher a mais fina cuja
+     *             retenção ainda cobre o início do intervalo.
+     * @return Os pontos em ordem de tempo, ou null se a série não existir.
+     */
+    public List<HistoryPoint> query(String consumerGroup, String topic, int partition,
+                                    long from, long to, HistoryTier tier) {
+        LagSeries target = series.get(QueueStateStore.keyOf(consumerGroup, topic, partition));
+        if (target == null) return null;
+        return target.query(tier != null ? tier : tierFor(from), from, to);
+    }
+
+    /**
+     * Chaves (grupo|tópico|partição) com histórico.
+     */
+    public Set<String> keys() {
+        return new TreeSet<>(series.keySet());
+    }
+
+    /**
+     * Resolução mais fina cuja retenção cobre o instante informado.
+     */
+    public HistoryTier tierFor(long from) {
+        long age = System.currentTimeMillis() - from;
+        if (age <= historyProperties.getRawRetentionMs()) return HistoryTier.RAW;
+        if (age <= historyProperties.getMinuteRetentionMs()) return HistoryTier.MINUTE;
+        return HistoryTier.TEN_MINUTES;
+    }
+
+    // Busca ou cria a série, respeitando o limite de séries
+    private LagSeries seriesFor(String key) {
+        LagSeries existing = series.get(key);
+        if (existing != null) return existing;
+        if (series.size() >= historyProperties.getMaxSeries()) {
+            if (!limitWarned) {
+                limitWarned = true;
+                log.warn("⚠ Limite de {} séries de histórico atingido; novas partições ficam sem histórico",
+                        historyProperties.getMaxSeries());
+            }
+            return null;
+        }
+        return series.computeIfAbsent(key, k -> new LagSeries(k, nextId.getAndIncrement(), capacities, logs));
+    }
+
+    private long retentionOf(HistoryTier tier) {
+        return switch (tier) {
+            case RAW -> historyProperties.getRawRetentionMs();
+            case MINUTE -> historyProperties.getMinuteRetentionMs();
+            case TEN_MINUTES -> historyProperties.getTenMinuteRetentionMs();
+        };
+    }
+
+    /**
+     * Menor distância esperada entre dois pontos brutos de uma partição.
+     *
+     * Com o agendamento adaptativo, um grupo em WARNING/CRITICAL é verificado
+     * com intervalos menores, até 'monitor.scheduler.min-interval-ms', e o
+     * jitter ainda pode adiantar a verificação. Dimensionar o buffer pelo
+     * intervalo base faria a retenção bruta cobrir só uma fração da janela
+     * justamente durante os incidentes.
+     */
+    long shortestIntervalMs() {
+        MonitorProperties.Scheduler scheduler = monitorProperties.getScheduler();
+        long interval = monitorProperties.getIntervalMs();
+        if (scheduler.isAdaptive()) interval = Math.min(interval, scheduler.getMinIntervalMs());
+        double jitter = Math.min(Math.max(scheduler.getJitter(), 0), 0.9);
+        return Math.max(1, (long) (interval * (1 - jitter)));
+    }
+
+    private static int capacity(long retentionMs, long stepMs) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (retentionMs + stepMs - 1) / stepMs));
+    }
+}
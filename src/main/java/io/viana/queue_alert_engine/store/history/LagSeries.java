@@ -0,0 +1,100 @@
+package io.viana.queue_alert_engine.store.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Histórico de lag de uma partição de um consumer group.
+ *
+ * Cada ponto bruto entra no buffer RAW e alimenta os buckets em andamento das
+ * resoluções agregadas; quando um bucket fecha ele é gravado no buffer da sua
+ * resolução (e no arquivo, quando a persistência estiver ligada).
+ */
+public final class LagSeries {
+
+    // Chave da série (grupo|tópico|partição) e seu identificador interno
+    private final String key;
+    private final int id;
+    // Um buffer por resolução (índice = HistoryTier.ordinal())
+    private final HistoryRing[] rings;
+    // Arquivo de persistência por resolução (null = apenas em memória)
+    private final HistoryLog[] logs;
+
+    // Bucket em andamento de cada resolução agregada
+    private final long[] bucketStart;
+    private final long[] bucketProduced;
+    private final long[] bucketConsumed;
+    private final long[] bucketMaxLag;
+    private final boolean[] bucketOpen;
+
+    LagSeries(String key, int id, int[] capacities, HistoryLog[] logs) {
+        this.key = key;
+        this.id = id;
+        this.logs = logs;
+        int tiers = HistoryTier.values().length;
+        this.rings = new HistoryRing[tiers];
+        for (int t = 0; t < tiers; t++) rings[t] = new HistoryRing(capacities[t]);
+        this.bucketStart = new long[tiers];
+        this.bucketProduced = new long[tiers];
+        this.bucketConsumed = new long[tiers];
+        this.bucketMaxLag = new long[tiers];
+        this.bucketOpen = new boolean[tiers];
+    }
+
+    public String key() { return key; }
+
+    /**
+     * Registra um ponto bruto e atualiza os buckets das resoluções agregadas.
+     */
+    synchronized void record(long timestamp, long produced, long consumed, long lag) {
+        rings[HistoryTier.RAW.ordinal()].append(timestamp, produced, consumed, lag);
+        log(HistoryTier.RAW, timestamp, produced, consumed, lag);
+
+        for (HistoryTier tier : HistoryTier.values()) {
+            if (tier.bucketMs() == 0) continue;
+            int t = tier.ordinal();
+            long start = timestamp - Math.floorMod(timestamp, tier.bucketMs());
+
+            if (bucketOpen[t] && start != bucketStart[t]) {
+                // Fecha o bucket anterior
+                rings[t].append(bucketStart[t], bucketProduced[t], bucketConsumed[t], bucketMaxLag[t]);
+                log(tier, bucketStart[t], bucketProduced[t], bucketConsumed[t], bucketMaxLag[t]);
+                bucketOpen[t] = false;
+            }
+            if (!bucketOpen[t]) {
+                bucketOpen[t] = true;
+                bucketStart[t] = start;
+                bucketMaxLag[t] = lag;
+            } else {
+                bucketMaxLag[t] = Math.max(bucketMaxLag[t], lag);
+            }
+            bucketProduced[t] = produced;
+            bucketConsumed[t] = consumed;
+        }
+    }
+
+    /**
+     * Recoloca um ponto lido do arquivo direto no buffer da resolução (sem reagregar).
+     */
+    synchronized void restore(HistoryTier tier, long timestamp, long produced, long consumed, long lag) {
+        rings[tier.ordinal()].append(timestamp, produced, consumed, lag);
+    }
+
+    /**
+     * Pontos da resolução no intervalo [from, to], incluindo o bucket ainda em andamento.
+     */
+    synchronized List<HistoryPoint> query(HistoryTier tier, long from, long to) {
+        int t = tier.ordinal();
+        List<HistoryPoint> points = new ArrayList<>();
+        rings[t].query(from, to, points);
+        if (bucketOpen[t] && bucketStart[t] >= from && bucketStart[t] <= to) {
+            points.add(new HistoryPoint(bucketStart[t], bucketProduced[t], bucketConsumed[t], bucketMaxLag[t]));
+        }
+        return points;
+    }
+
+    // Grava o ponto no arquivo da resolução, se a persistência estiver ligada
+    private void log(HistoryTier tier, long timestamp, long produced, long consumed, long lag) {
+        if (logs != null) logs[tier.ordinal()].append(id, key, timestamp, produced, consumed, lag);
+    }
+}
@@ -0,0 +1,323 @@
+package io.viana.queue_alert_engine.load;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.config.TelegramProperties;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.notifier.TelegramDeliveryPipeline;
+import io.viana.queue_alert_engine.notifier.TelegramDigestBuffer;
+import io.viana.queue_alert_engine.notifier.TelegramMessageRenderer;
+import io.viana.queue_alert_engine.notifier.TelegramNotifier;
+import io.viana.queue_alert_engine.scheduler.QueueMonitorScheduler;
+import io.viana.queue_alert_engine.serialization.WireEncoding;
+import io.viana.queue_alert_engine.service.AlertService;
+import io.viana.queue_alert_engine.service.RuleRegistry;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import io.viana.queue_alert_engine.support.EvaluationFixture;
+import io.viana.queue_alert_engine.support.InMemoryAdmin;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga de ponta a ponta, sem broker e sem Telegram: agendador →
+ * avaliação → despacho → consumidor de alertas → notificador, contra um
+ * {@link SimulatedCluster} e um stub HTTP local no lugar de api.telegram.org.
+ *
+ * Não é um teste (não roda no 'mvn test'); execute a classe main pela IDE ou com
+ * 'mvn test-compile exec:java -Dexec.classpathScope=test
+ *  -Dexec.mainClass=io.viana.queue_alert_engine.load.LoadHarness'.
+ *
+ * Cada etapa monta o pipeline do zero para uma quantidade de partições
+ * ('load.partitions', padrão 100 a 100 mil) e o executa por 'load.duration-ms'.
+ * O produtor é um MockProducer (os eventos são serializados de verdade) e o
+ * tópico de alertas é uma fila em memória lida por uma thread consumidora, que
+ * desserializa os alertas e os entrega ao AlertService em lotes, como o listener.
+ *
+ * Reporta, por etapa: percentis da duração dos lotes de avaliação
+ * (queue.monitor.cycle{type=batch}), partições avaliadas por segundo,
+ * alertas/estados publicados, mensagens entregues ao stub, alertas ainda na
+ * fila do tópico ao fim da etapa (backpressure do Telegram), heap retido
+ * (após GC, por partição) e pico de heap, e o tempo de GC.
+ *
+ * Propriedades (-D): load.partitions, load.duration-ms, load.warmup-ms,
+ * load.topics-per-group, load.partitions-per-topic, load.drifting,
+ * load.period-ms, load.interval-ms, load.tick-ms, load.admin-latency-ms,
+ * load.encoding, load.telegram-mode, load.telegram-rate.
+ */
+public class LoadHarness {
+
+    private static final int CONSUMER_BATCH = 500;
+    private static final String CHAT_ID = "load-test";
+
+    private final long durationMs = Long.getLong("load.duration-ms", 30_000);
+    private final int topicsPerGroup = Integer.getInteger("load.topics-per-group", 5);
+    private final int partitionsPerTopic = Integer.getInteger("load.partitions-per-topic", 10);
+    private final double drifting = Double.parseDouble(System.getProperty("load.drifting", "0.05"));
+    private final long periodMs = Long.getLong("load.period-ms", 60_000);
+    private final long intervalMs = Long.getLong("load.interval-ms", 5_000);
+    private final long tickMs = Long.getLong("load.tick-ms", 100);
+    private final long adminLatencyMs = Long.getLong("load.admin-latency-ms", 2);
+    private final WireEncoding encoding = WireEncoding.valueOf(System.getProperty("load.encoding", "BINARY"));
+    private final TelegramProperties.Mode telegramMode =
+            TelegramProperties.Mode.valueOf(System.getProperty("load.telegram-mode", "PER_ALERT"));
+    private final double telegramRate = Double.parseDouble(System.getProperty("load.telegram-rate", "1000"));
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        // Os logs por ciclo/alerta (e os avisos de backpressure) dominariam a medição
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.ERROR);
+
+        int[] steps = Arrays.stream(System.getProperty("load.partitions", "100,1000,10000,100000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        LoadHarness harness = new LoadHarness();
+
+        // Aquecimento (JIT) com a primeira etapa; o resultado é descartado
+        long warmupMs = Long.getLong("load.warmup-ms", 10_000);
+        if (warmupMs > 0) harness.run(steps[0], warmupMs);
+
+        System.out.printf("%9s %6s %7s %8s %8s %8s %8s %11s %8s %8s %9s %8s %11s %9s %8s%n",
+                "partições", "grupos", "lotes", "p50 ms", "p90 ms", "p99 ms", "max ms", "partições/s",
+                "alertas", "estados", "telegram", "backlog", "heap B/part", "heap pico", "GC ms");
+        for (int partitions : steps) {
+            Result result = harness.run(partitions, harness.durationMs);
+            System.out.printf("%9d %6d %7d %8.1f %8.1f %8.1f %8.1f %11.0f %8d %8d %9d %8d %11.0f %7dMB %8d%n",
+                    result.partitions, result.groups, result.batches, result.p50, result.p90, result.p99,
+                    result.max, result.partitionsPerSecond, result.alerts, result.states, result.delivered,
+                    result.backlog, result.retainedBytesPerPartition, result.peakHeapBytes >> 20, result.gcMillis);
+        }
+    }
+
+    // Executa uma etapa: monta o pipeline, roda pelo tempo pedido e mede
+    private Result run(int partitions, long runMs) throws IOException, InterruptedException {
+        int perGroup = topicsPerGroup * partitionsPerTopic;
+        int groupCount = Math.max(1, partitions / perGroup);
+        long heapBefore = usedAfterGc();
+        long gcBefore = gcMillis();
+
+        SimulatedCluster cluster = new SimulatedCluster(groupCount, topicsPerGroup, partitionsPerTopic,
+                drifting, periodMs);
+        InMemoryAdmin admin = new InMemoryAdmin(adminLatencyMs, cluster);
+
+        MonitorProperties monitorProperties = new MonitorProperties();
+        monitorProperties.setIntervalMs(intervalMs);
+        monitorProperties.getScheduler().setTickMs(tickMs);
+        monitorProperties.getScheduler().setMinIntervalMs(Math.min(intervalMs, Math.max(tickMs, intervalMs / 4)));
+
+        // Tópico de alertas: fila em memória entre o produtor e a thread consumidora
+        BlockingQueue<QueueAlert> alertTopic = new LinkedBlockingQueue<>();
+        LongAdder alertsSent = new LongAdder();
+        LongAdder statesSent = new LongAdder();
+        EvaluationFixture fixture = new EvaluationFixture(cluster.groups(), admin, monitorProperties, encoding,
+                registryWithPercentiles(), record -> {
+                    if (record.value() instanceof QueueAlert alert) {
+                        alertsSent.increment();
+                        alertTopic.add(alert);
+                    } else {
+                        statesSent.increment();
+                    }
+                });
+
+        // Stub HTTP no lugar da API do Telegram
+        LongAdder telegramRequests = new LongAdder();
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/sendMessage", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            telegramRequests.increment();
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        ExecutorService stubExecutor = Executors.newFixedThreadPool(4);
+        stub.setExecutor(stubExecutor);
+        stub.start();
+
+        TelegramProperties telegramProperties = new TelegramProperties();
+        telegramProperties.setApiUrl("http://localhost:" + stub.getAddress().getPort() + "/sendMessage");
+        telegramProperties.setChatId(CHAT_ID);
+        telegramProperties.setMode(telegramMode);
+        telegramProperties.getDelivery().setMessagesPerSecondPerChat(telegramRate);
+        telegramProperties.getDelivery().setBurstPerChat((int) Math.max(1, telegramRate));
+        // O que ficou na fila ao fim da etapa entra no backlog; não espera a entrega
+        telegramProperties.getDelivery().setShutdownTimeoutMs(0);
+        TelegramDeliveryPipeline pipeline = new TelegramDeliveryPipeline(telegramProperties, WebClient.create(),
+                new StaticListableBeanFactory().getBeanProvider(KafkaListenerEndpointRegistry.class),
+                new MonitorMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+        pipeline.start();
+        TelegramMessageRenderer renderer = new TelegramMessageRenderer();
+        TelegramDigestBuffer digestBuffer = new TelegramDigestBuffer(telegramProperties, renderer, pipeline);
+        AlertService alertService = new AlertService(new ObjectMapper(),
+                new TelegramNotifier(telegramProperties, pipeline, renderer, digestBuffer));
+
+        // Consumidor do tópico de alertas: lotes desserializados, como o listener em lote
+        Serializer<QueueAlert> serializer = fixture.codecs().alertSerializer();
+        Deserializer<QueueAlert> deserializer = fixture.codecs().alertDeserializer();
+        Thread consumer = new Thread(() -> {
+            List<QueueAlert> batch = new ArrayList<>(CONSUMER_BATCH);
+            List<QueueAlert> decoded = new ArrayList<>(CONSUMER_BATCH);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batch.add(alertTopic.take());
+                    alertTopic.drainTo(batch, CONSUMER_BATCH - 1);
+                    for (QueueAlert alert : batch) {
+                        decoded.add(deserializer.deserialize("alerts", serializer.serialize("alerts", alert)));
+                    }
+                    alertService.notifyAlerts(decoded);
+                    batch.clear();
+                    decoded.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "load-alert-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+
+        ShardAssignment shardAssignment = new ShardAssignment(new ClusterProperties());
+        QueueMonitorScheduler scheduler = new QueueMonitorScheduler(fixture.lagChecker(),
+                new RuleRegistry(new AlertsProperties(), fixture.offsetIndex(), new TopicMetadataIndex(), shardAssignment),
+                fixture.offsetIndex(), shardAssignment, monitorProperties);
+
+        long heapLoaded = usedAfterGc();
+        long requestedBefore = admin.requestedPartitions();
+        AtomicLong peakHeap = new AtomicLong(heapLoaded);
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+        long digestWindowMs = telegramProperties.getDigest().getWindowMs();
+        if (telegramMode == TelegramProperties.Mode.DIGEST) {
+            ticker.scheduleWithFixedDelay(digestBuffer::flush, digestWindowMs, digestWindowMs, TimeUnit.MILLISECONDS);
+        }
+        ticker.scheduleWithFixedDelay(() -> {
+            scheduler.monitorQueues();
+            // Descarta o histórico do MockProducer (os registros já foram observados)
+            fixture.drainSent();
+            peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        }, 0, tickMs, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        Thread.sleep(runMs);
+        ticker.shutdown();
+        ticker.awaitTermination(10, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Result result = new Result();
+        result.partitions = cluster.partitionCount();
+        result.groups = groupCount;
+        Timer batches = fixture.registry().find("queue.monitor.cycle")
+                .tag("type", "batch").tag("outcome", "success").timer();
+        if (batches != null) {
+            HistogramSnapshot snapshot = batches.takeSnapshot();
+            result.batches = snapshot.count();
+            result.max = snapshot.max(TimeUnit.MILLISECONDS);
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                double value = percentile.value(TimeUnit.MILLISECONDS);
+                if (percentile.percentile() == 0.5) result.p50 = value;
+                if (percentile.percentile() == 0.9) result.p90 = value;
+                if (percentile.percentile() == 0.99) result.p99 = value;
+            }
+        }
+        result.partitionsPerSecond = (admin.requestedPartitions() - requestedBefore) / seconds;
+        result.alerts = alertsSent.sum();
+        result.states = statesSent.sum();
+        result.delivered = telegramRequests.sum();
+        result.backlog = alertTopic.size();
+        result.retainedBytesPerPartition = (double) (heapLoaded - heapBefore) / result.partitions;
+        result.peakHeapBytes = peakHeap.get();
+        result.gcMillis = gcMillis() - gcBefore;
+
+        consumer.interrupt();
+        pipeline.stop();
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+        fixture.close();
+        return result;
+    }
+
+    // Percentis exatos do lote de avaliação durante toda a etapa (sem decaimento)
+    private static SimpleMeterRegistry registryWithPercentiles() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().equals("queue.monitor.cycle")) return config;
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.9, 0.99)
+                        .expiry(Duration.ofHours(1))
+                        .bufferLength(1)
+                        .build()
+                        .merge(config);
+            }
+        });
+        return registry;
+    }
+
+    private long usedAfterGc() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    // Medições de uma etapa
+    private static final class Result {
+        int partitions;
+        int groups;
+        long batches;
+        double p50;
+        double p90;
+        double p99;
+        double max;
+        double partitionsPerSecond;
+        long alerts;
+        long states;
+        long delivered;
+        long backlog;
+        double retainedBytesPerPartition;
+        long peakHeapBytes;
+        long gcMillis;
+    }
+}
@@ -0,0 +1,135 @@
+package io.viana.queue_alert_engine.load;
+
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.support.EvaluationFixture;
+import io.viana.queue_alert_engine.support.InMemoryAdmin;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster Kafka simulado: N grupos × M tópicos × P partições, com offsets
+ * calculados no instante de cada consulta (nada é gravado por ciclo).
+ *
+ * Cada partição é produzida a uma taxa fixa (1.000 a 5.000 msgs/s). A maioria
+ * dos consumidores acompanha a produção com um lag pequeno e estável; uma
+ * fração 'drifting' atrasa em ondas triangulares: o lag sobe até passar do
+ * limite CRITICAL e depois volta a zero, a cada 'periodMs', com fases
+ * diferentes por partição. Assim o pipeline vê transições OK → WARNING →
+ * CRITICAL → OK contínuas, como em um incidente que vai e volta.
+ *
+ * Os grupos se chamam 'load-g' e leem os tópicos 'load-g-t' (um tópico por
+ * grupo, sem compartilhamento), com os limites do {@link EvaluationFixture}.
+ */
+public final class SimulatedCluster implements InMemoryAdmin.OffsetSource {
+
+    // Lag máximo das partições instáveis (acima do limite CRITICAL)
+    private static final long DRIFT_PEAK = EvaluationFixture.LAG_CRITICAL * 2;
+
+    private final List<AlertGroup> groups = new ArrayList<>();
+    // Partição → índice nos arrays abaixo
+    private final Map<TopicPartition, Integer> index;
+    // Mensagens produzidas por ms em cada partição
+    private final double[] ratePerMs;
+    // Lag fixo das partições estáveis; -1 = partição instável
+    private final long[] steadyLag;
+    // Fase da onda de lag das partições instáveis (em ms)
+    private final long[] phaseMs;
+    private final long periodMs;
+    private final long startMillis = System.currentTimeMillis();
+
+    /**
+     * @param groupCount Quantidade de consumer groups.
+     * @param topicsPerGroup Tópicos lidos por grupo.
+     * @param partitionsPerTopic Partições de cada tópico.
+     * @param drifting Fração (0 a 1) das partições com lag em onda.
+     * @param periodMs Duração de uma onda de lag (subida e recuperação).
+     */
+    public SimulatedCluster(int groupCount, int topicsPerGroup, int partitionsPerTopic,
+                            double drifting, long periodMs) {
+        int total = groupCount * topicsPerGroup * partitionsPerTopic;
+        this.index = new HashMap<>(total * 2);
+        this.ratePerMs = new double[total];
+        this.steadyLag = new long[total];
+        this.phaseMs = new long[total];
+        this.periodMs = Math.max(1, periodMs);
+
+        int driftingPerMille = (int) Math.round(drifting * 1000);
+        int i = 0;
+        for (int g = 0; g < groupCount; g++) {
+            List<AlertRule> rules = new ArrayList<>(topicsPerGroup * partitionsPerTopic);
+            for (int t = 0; t < topicsPerGroup; t++) {
+                String topic = "load-" + g + "-" + t;
+                for (int p = 0; p < partitionsPerTopic; p++, i++) {
+                    index.put(new TopicPartition(topic, p), i);
+                    rules.add(new AlertRule(topic, p, EvaluationFixture.LAG_WARNING,
+                            EvaluationFixture.LAG_CRITICAL, 0, 0, null));
+
+                    // Valores determinísticos por partição (mesma carga a cada execução)
+                    int hash = mix(i);
+                    ratePerMs[i] = (1_000 + Math.floorMod(hash, 4_000)) / 1000.0;
+                    boolean drifts = Math.floorMod(hash >>> 12, 1000) < driftingPerMille;
+                    steadyLag[i] = drifts ? -1 : Math.floorMod(hash >>> 4, 200);
+                    phaseMs[i] = Math.floorMod(hash >>> 8, (int) Math.min(Integer.MAX_VALUE, this.periodMs));
+                }
+            }
+            AlertGroup group = new AlertGroup();
+            group.setGroupId("load-" + g);
+            group.setRules(rules);
+            groups.add(group);
+        }
+    }
+
+    /**
+     * Os grupos (com as regras) a serem monitorados.
+     */
+    public List<AlertGroup> groups() {
+        return groups;
+    }
+
+    public int partitionCount() {
+        return ratePerMs.length;
+    }
+
+    @Override
+    public long endOffset(TopicPartition tp, long nowMillis) {
+        Integer i = index.get(tp);
+        if (i == null) return -1;
+        return produced(i, nowMillis);
+    }
+
+    @Override
+    public long committed(String groupId, TopicPartition tp, long nowMillis) {
+        Integer i = index.get(tp);
+        if (i == null) return -1;
+        return Math.max(0, produced(i, nowMillis) - lag(i, nowMillis));
+    }
+
+    private long produced(int i, long nowMillis) {
+        return DRIFT_PEAK + (long) (ratePerMs[i] * (nowMillis - startMillis));
+    }
+
+    // Lag estável ou onda triangular de 0 até DRIFT_PEAK e de volta a 0
+    private long lag(int i, long nowMillis) {
+        if (steadyLag[i] >= 0) return steadyLag[i];
+        long position = Math.floorMod(nowMillis - startMillis + phaseMs[i], periodMs);
+        long half = periodMs / 2;
+        double fraction = position < half
+                ? (double) position / half
+                : (double) (periodMs - position) / (periodMs - half);
+        return (long) (DRIFT_PEAK * fraction);
+    }
+
+    // Espalha os bits do índice (hash de inteiros, estilo murmur)
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & Integer.MAX_VALUE;
+    }
+}
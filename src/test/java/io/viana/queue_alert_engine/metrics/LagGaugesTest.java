@@ -0,0 +1,82 @@
+package io.viana.queue_alert_engine.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.store.LagSnapshotStore;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa os gauges de lag: leitura do snapshot publicado, uma série por
+ * partição, acompanhamento do layout e agregação quando o limite de séries
+ * é ultrapassado.
+ */
+class LagGaugesTest {
+
+    private static AlertGroup group(String id, String topic, int partitions) {
+        AlertGroup group = new AlertGroup();
+        group.setGroupId(id);
+        group.setRules(java.util.stream.IntStream.range(0, partitions)
+                .mapToObj(p -> new AlertRule(topic, p, 10, 100, 0, 0, null))
+                .toList());
+        return group;
+    }
+
+    // Publica um ciclo em que todos os slots do grupo têm o mesmo lag
+    private static void publish(LagSnapshotStore store, GroupSlots slots, long lag) {
+        LagSnapshot.GroupLag.Builder builder = LagSnapshot.GroupLag.builder(slots, System.currentTimeMillis());
+        for (int slot = 0; slot < slots.size(); slot++) {
+            builder.evaluated(slot, 1000 + lag, 1000, lag, QueueStatus.OK);
+        }
+        store.publish(List.of(builder.build()));
+    }
+
+    @Test
+    void readsLagFromThePublishedSnapshotAndFollowsTheLayout() {
+        OffsetIndex index = new OffsetIndex();
+        index.load(List.of(group("g1", "orders", 2)));
+        LagSnapshotStore store = new LagSnapshotStore(index);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LagGauges gauges = new LagGauges(index, store, registry, new MetricsProperties());
+        gauges.start();
+
+        // Antes do primeiro ciclo não há valores
+        assertThat(registry.get("queue.monitor.offset.produced").tags("partition", "1").gauge().value()).isNaN();
+
+        publish(store, index.group("g1"), 42);
+        assertThat(registry.get("queue.monitor.lag").tags("group", "g1", "topic", "orders", "partition", "1")
+                .gauge().value()).isEqualTo(42);
+
+        index.load(List.of(group("g1", "orders", 1)));
+        gauges.sync();
+        assertThat(gauges.seriesCount()).isEqualTo(1);
+        assertThat(registry.find("queue.monitor.lag").tag("partition", "1").gauge()).isNull();
+    }
+
+    @Test
+    void aggregatesWhenThePartitionLevelExceedsTheLimit() {
+        OffsetIndex index = new OffsetIndex();
+        index.load(List.of(group("g1", "orders", 3), group("g2", "payments", 2)));
+        MetricsProperties properties = new MetricsProperties();
+        properties.setMaxSeries(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LagSnapshotStore store = new LagSnapshotStore(index);
+        LagGauges gauges = new LagGauges(index, store, registry, properties);
+        gauges.start();
+
+        publish(store, index.group("g1"), 10);
+
+        assertThat(gauges.seriesCount()).isEqualTo(2);
+        assertThat(registry.get("queue.monitor.lag").tags("group", "g1").gauge().value()).isEqualTo(30);
+        assertThat(registry.find("queue.monitor.lag").tagKeys("partition").gauge()).isNull();
+    }
+}
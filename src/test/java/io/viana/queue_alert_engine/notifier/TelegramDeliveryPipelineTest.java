@@ -0,0 +1,155 @@
+package io.viana.queue_alert_engine.notifier;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.config.TelegramProperties;
+import io.viana.queue_alert_engine.domain.TelegramMessage;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa o pipeline de entrega do Telegram contra um stub HTTP local
+ * no lugar de api.telegram.org.
+ */
+class TelegramDeliveryPipelineTest {
+
+    private HttpServer stub;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final List<Long> receivedAt = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresToReturn = new AtomicInteger();
+    private volatile int failureStatus = 500;
+    private volatile String failureBody = "{\"ok\":false}";
+    private TelegramDeliveryPipeline pipeline;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/sendMessage", exchange -> {
+            received.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            receivedAt.add(System.nanoTime());
+            boolean fail = failuresToReturn.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+            byte[] body = (fail ? failureBody : "{\"ok\":true}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(fail ? failureStatus : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        if (pipeline != null) pipeline.stop();
+        stub.stop(0);
+    }
+
+    private void startPipeline(Consumer<TelegramProperties.Delivery> customizer) {
+        TelegramProperties properties = new TelegramProperties();
+        properties.setApiUrl("http://localhost:" + stub.getAddress().getPort() + "/sendMessage");
+        properties.getDelivery().setMessagesPerSecondPerChat(1000);
+        properties.getDelivery().setRetryBackoffMs(10);
+        properties.getDelivery().setShutdownTimeoutMs(5000);
+        customizer.accept(properties.getDelivery());
+
+        pipeline = new TelegramDeliveryPipeline(properties, WebClient.create(),
+                new StaticListableBeanFactory().getBeanProvider(KafkaListenerEndpointRegistry.class),
+                new MonitorMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+        pipeline.start();
+    }
+
+    @Test
+    void deliversQueuedMessagesToTheStub() throws InterruptedException {
+        startPipeline(delivery -> { });
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(new TelegramMessage("chat-1", "alerta " + i));
+        }
+
+        awaitDelivered(3);
+        assertThat(received).hasSize(3);
+        assertThat(received.get(0)).contains("\"chat_id\":\"chat-1\"");
+    }
+
+    @Test
+    void retriesServerErrors() throws InterruptedException {
+        startPipeline(delivery -> { });
+        failuresToReturn.set(1);
+
+        pipeline.submit(new TelegramMessage("chat-1", "alerta"));
+
+        awaitDelivered(1);
+        assertThat(received).hasSize(2);
+        assertThat(pipeline.getFailedCount()).isZero();
+    }
+
+    @Test
+    void waitsForRetryAfterOnTooManyRequests() throws InterruptedException {
+        startPipeline(delivery -> { });
+        failureStatus = 429;
+        failureBody = "{\"ok\":false,\"error_code\":429,\"parameters\":{\"retry_after\":1}}";
+        failuresToReturn.set(1);
+
+        pipeline.submit(new TelegramMessage("chat-1", "alerta"));
+
+        awaitDelivered(1);
+        assertThat(receivedAt).hasSize(2);
+        assertThat(receivedAt.get(1) - receivedAt.get(0)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void throttledChatDoesNotHoldOtherChats() throws InterruptedException {
+        // Um token a cada 10 s: só a primeira mensagem do chat-a sai logo
+        startPipeline(delivery -> {
+            delivery.setMessagesPerSecondPerChat(0.1);
+            delivery.setBurstPerChat(1);
+            delivery.setShutdownTimeoutMs(0);
+        });
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(new TelegramMessage("chat-a", "alerta " + i));
+        }
+        pipeline.submit(new TelegramMessage("chat-b", "alerta"));
+
+        awaitDelivered(2);
+        assertThat(received).anyMatch(body -> body.contains("\"chat_id\":\"chat-b\""));
+        assertThat(pipeline.getQueueSize()).isEqualTo(2);
+    }
+
+    @Test
+    void deliversPendingMessagesOnStop() {
+        startPipeline(delivery -> {
+            delivery.setMessagesPerSecondPerChat(20);
+            delivery.setBurstPerChat(1);
+        });
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(new TelegramMessage("chat-1", "alerta " + i));
+        }
+
+        pipeline.stop();
+
+        assertThat(pipeline.getDeliveredCount()).isEqualTo(5);
+        assertThat(pipeline.getFailedCount()).isZero();
+    }
+
+    private void awaitDelivered(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pipeline.getDeliveredCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(pipeline.getDeliveredCount()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,103 @@
+package io.viana.queue_alert_engine.notifier;
+
+import io.viana.queue_alert_engine.config.TelegramProperties;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.TelegramMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa o acúmulo dos alertas no modo resumo e o envio por janela e por tamanho.
+ */
+class TelegramDigestBufferTest {
+
+    private final TelegramProperties properties = new TelegramProperties();
+    private final TelegramDeliveryPipeline pipeline = mock(TelegramDeliveryPipeline.class);
+    private final TelegramDigestBuffer buffer = new TelegramDigestBuffer(properties, new TelegramMessageRenderer(), pipeline);
+
+    {
+        properties.setChatId("chat-1");
+        properties.getDigest().setMaxAlerts(3);
+    }
+
+    private static QueueAlert alert(int partition, long lag) {
+        return new QueueAlert("group-1", "orders", partition, lag, "CRITICAL");
+    }
+
+    @Test
+    void reachingTheAlertLimitSendsTheDigestRightAway() {
+        buffer.add(alert(0, 100));
+        buffer.add(alert(1, 200));
+        verify(pipeline, never()).submit(any());
+
+        buffer.add(alert(2, 300));
+
+        ArgumentCaptor<TelegramMessage> sent = ArgumentCaptor.forClass(TelegramMessage.class);
+        verify(pipeline).submit(sent.capture());
+        assertThat(sent.getValue().getChatId()).isEqualTo("chat-1");
+        assertThat(sent.getValue().getText()).contains("3 alertas", "orders-0", "orders-1", "orders-2");
+
+        // O buffer recomeça vazio depois do envio
+        buffer.flush();
+        verify(pipeline, never()).trySubmit(any());
+    }
+
+    @Test
+    void flushSendsTheWindowWithoutWaitingForTheQueue() {
+        when(pipeline.trySubmit(any())).thenReturn(true);
+        buffer.flush();
+        verify(pipeline, never()).trySubmit(any());
+
+        buffer.add(alert(0, 100));
+        buffer.flush();
+
+        ArgumentCaptor<TelegramMessage> sent = ArgumentCaptor.forClass(TelegramMessage.class);
+        verify(pipeline).trySubmit(sent.capture());
+        verify(pipeline, never()).submit(any());
+        assertThat(sent.getValue().getText()).contains("1 alertas", "orders-0 → lag 100");
+    }
+
+    @Test
+    void samePartitionKeepsOnlyTheLatestAlert() {
+        when(pipeline.trySubmit(any())).thenReturn(true);
+        buffer.add(alert(0, 100));
+        buffer.add(alert(0, 500));
+        buffer.add(alert(0, 900));
+        // Três alertas da mesma partição não atingem o limite de 3
+        verify(pipeline, never()).submit(any());
+
+        buffer.flush();
+
+        ArgumentCaptor<TelegramMessage> sent = ArgumentCaptor.forClass(TelegramMessage.class);
+        verify(pipeline).trySubmit(sent.capture());
+        assertThat(sent.getValue().getText())
+                .contains("1 alertas", "orders-0 → lag 900")
+                .doesNotContain("lag 100", "lag 500");
+    }
+
+    @Test
+    void fullQueueKeepsTheAlertsForTheNextWindow() {
+        when(pipeline.trySubmit(any())).thenReturn(false, true);
+        buffer.add(alert(0, 100));
+        buffer.flush();
+
+        // Chega um alerta mais novo da mesma partição e um de outra partição
+        buffer.add(alert(0, 400));
+        buffer.add(alert(1, 200));
+        buffer.flush();
+
+        ArgumentCaptor<TelegramMessage> sent = ArgumentCaptor.forClass(TelegramMessage.class);
+        verify(pipeline, times(2)).trySubmit(sent.capture());
+        assertThat(sent.getValue().getText())
+                .contains("2 alertas", "orders-0 → lag 400", "orders-1 → lag 200")
+                .doesNotContain("lag 100");
+    }
+}
@@ -0,0 +1,66 @@
+package io.viana.queue_alert_engine.notifier;
+
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa o texto do alerta e do resumo: limite de tamanho do Telegram,
+ * ordem das seções e escape do Markdown.
+ */
+class TelegramMessageRendererTest {
+
+    private final TelegramMessageRenderer renderer = new TelegramMessageRenderer();
+
+    @Test
+    void digestStaysWithinTheTelegramLimitAndSaysItWasTruncated() {
+        List<QueueAlert> alerts = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            alerts.add(new QueueAlert("consumer-group-" + (i % 200), "topic-" + (i % 7), i, i, "CRITICAL"));
+        }
+
+        String text = renderer.renderDigest(alerts, 50);
+
+        assertThat(text.length()).isLessThanOrEqualTo(TelegramMessageRenderer.TELEGRAM_MAX_LENGTH);
+        assertThat(text).startsWith("📋 *RESUMO DE ALERTAS DE LAG*\n5000 alertas\n");
+        assertThat(text).endsWith("… (resumo truncado)");
+        // Só linhas inteiras: o texto antes do aviso termina em uma quebra de linha
+        assertThat(text.substring(0, text.length() - "… (resumo truncado)".length())).endsWith("\n\n");
+    }
+
+    @Test
+    void digestListsTheWorstLevelFirstAndTheTopNLargestLags() {
+        List<QueueAlert> alerts = List.of(
+                new QueueAlert("group-a", "orders", 0, 150, "WARNING"),
+                new QueueAlert("group-a", "orders", 1, 900, "CRITICAL"),
+                new QueueAlert("group-a", "orders", 2, 500, "WARNING"),
+                new QueueAlert("group-a", "orders", 3, 300, "WARNING"));
+
+        String text = renderer.renderDigest(new ArrayList<>(alerts), 2);
+
+        assertThat(text.indexOf("*CRITICAL*")).isLessThan(text.indexOf("*WARNING*"));
+        assertThat(text).contains("*WARNING* — group-a (3 partições)\n"
+                + "  • orders-2 → lag 500\n"
+                + "  • orders-3 → lag 300\n"
+                + "  … e mais 1\n");
+        assertThat(text).doesNotContain("→ lag 150");
+        assertThat(text).doesNotContain("resumo truncado");
+    }
+
+    @Test
+    void escapesMarkdownInGroupAndTopicNames() {
+        QueueAlert alert = new QueueAlert("billing_v2*", "orders_[eu]", 0, 10, "WARNING");
+
+        assertThat(renderer.render(alert))
+                .contains("*Group:* billing\\_v2\\*\n")
+                .contains("*Topic:* orders\\_\\[eu]\n");
+        assertThat(renderer.renderDigest(new ArrayList<>(List.of(alert)), 10))
+                .contains("— billing\\_v2\\* (1 partições)")
+                .contains("  • orders\\_\\[eu]-0 → lag 10");
+        assertThat(TelegramMessageRenderer.escape("plain-name")).isEqualTo("plain-name");
+    }
+}
@@ -0,0 +1,37 @@
+package io.viana.queue_alert_engine.scheduler;
+
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa o cálculo do intervalo adaptativo de cada grupo.
+ */
+class QueueMonitorSchedulerTest {
+
+    private final MonitorProperties properties = new MonitorProperties();
+    private final QueueMonitorScheduler scheduler = new QueueMonitorScheduler(null, null, null, null, properties);
+
+    @Test
+    void tightensOnProblemsAndRelaxesWhenHealthy() {
+        // Problemas: fração do intervalo base, respeitando o mínimo
+        assertThat(scheduler.nextInterval(60000, 60000, QueueStatus.CRITICAL, false)).isEqualTo(15000);
+        assertThat(scheduler.nextInterval(60000, 60000, QueueStatus.WARNING, false)).isEqualTo(30000);
+        assertThat(scheduler.nextInterval(60000, 90000, QueueStatus.OK, true)).isEqualTo(30000);
+        assertThat(scheduler.nextInterval(10000, 10000, QueueStatus.CRITICAL, true)).isEqualTo(5000);
+
+        // Saudável, sem máximo configurado: volta ao base e não relaxa além dele
+        assertThat(scheduler.nextInterval(60000, 15000, QueueStatus.OK, false)).isEqualTo(60000);
+        assertThat(scheduler.nextInterval(60000, 60000, QueueStatus.OK, false)).isEqualTo(60000);
+
+        // Com máximo configurado: cresce gradualmente até ele
+        properties.getScheduler().setMaxIntervalMs(300000);
+        assertThat(scheduler.nextInterval(60000, 15000, QueueStatus.OK, false)).isEqualTo(90000);
+        assertThat(scheduler.nextInterval(60000, 250000, QueueStatus.OK, false)).isEqualTo(300000);
+
+        properties.getScheduler().setAdaptive(false);
+        assertThat(scheduler.nextInterval(60000, 15000, QueueStatus.CRITICAL, true)).isEqualTo(60000);
+    }
+}
@@ -0,0 +1,120 @@
+package io.viana.queue_alert_engine.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testa os codecs JSON e binário dos eventos e a detecção de formato dos deserializers.
+ */
+class EventCodecsTest {
+
+    private static EventCodecs codecs(WireEncoding encoding) {
+        KafkaProperties properties = new KafkaProperties();
+        properties.getProducer().setEncoding(encoding);
+        return new EventCodecs(properties, new ObjectMapper());
+    }
+
+    private static QueueStateEvent stateEvent() {
+        return QueueStateEvent.builder()
+                .consumerGroup("payments-consumer")
+                .topic("payments")
+                .partition(3)
+                .lastProducedOffset(1_250_000L)
+                .lastConsumedOffset(1_249_100L)
+                .lag(900L)
+                .produceRate(120.5)
+                .consumeRate(98.25)
+                .timeToDrainSeconds(-1L)
+                .status(QueueStatus.WARNING)
+                .timestamp(1_760_000_000_000L)
+                .build();
+    }
+
+    @Test
+    void binaryStateEventRoundTripsAndIsSmallerThanJson() {
+        EventCodecs binary = codecs(WireEncoding.BINARY);
+        EventCodecs json = codecs(WireEncoding.JSON);
+
+        byte[] binaryBytes = binary.stateSerializer().serialize("states", stateEvent());
+        byte[] jsonBytes = json.stateSerializer().serialize("states", stateEvent());
+
+        assertThat(binaryBytes[0]).isEqualTo(BinaryWire.MAGIC);
+        assertThat(binaryBytes.length).isLessThan(jsonBytes.length / 2);
+
+        // O mesmo deserializer lê os dois formatos
+        assertThat(binary.stateDeserializer().deserialize("states", binaryBytes)).isEqualTo(stateEvent());
+        assertThat(binary.stateDeserializer().deserialize("states", jsonBytes)).isEqualTo(stateEvent());
+    }
+
+    @Test
+    void binaryAlertRoundTripsWithInternedStrings() {
+        EventCodecs binary = codecs(WireEncoding.BINARY);
+        QueueAlert alert = new QueueAlert("payments-consumer", "payments", 0, 15_000L, "CRITICAL");
+
+        byte[] bytes = binary.alertSerializer().serialize("alerts", alert);
+        QueueAlert first = binary.alertDeserializer().deserialize("alerts", bytes);
+        QueueAlert second = binary.alertDeserializer().deserialize("alerts", bytes);
+
+        assertThat(first).isEqualTo(alert);
+        // Nomes repetidos reaproveitam a mesma instância de String
+        assertThat(second.getTopic()).isSameAs(first.getTopic());
+        assertThat(second.getGroupId()).isSameAs(first.getGroupId());
+    }
+
+    @Test
+    void eachEventTypeCarriesItsOwnVersion() {
+        EventCodecs binary = codecs(WireEncoding.BINARY);
+
+        byte[] state = binary.stateSerializer().serialize("states", stateEvent());
+        byte[] alert = binary.alertSerializer().serialize("alerts",
+                new QueueAlert("g", "t", 0, 1L, "OK"));
+
+        // Só o layout dos estados mudou; alertas continuam na versão 1 (legíveis por leitores antigos)
+        assertThat(state[1]).isEqualTo((byte) 2);
+        assertThat(alert[1]).isEqualTo((byte) 1);
+    }
+
+    @Test
+    void binaryStatusUsesFixedCodes() {
+        EventCodecs binary = codecs(WireEncoding.BINARY);
+        QueueStateEvent event = stateEvent();
+        byte[][] encoded = new byte[3][];
+        QueueStatus[] statuses = {QueueStatus.OK, QueueStatus.WARNING, QueueStatus.CRITICAL};
+        for (int i = 0; i < statuses.length; i++) {
+            event.setStatus(statuses[i]);
+            encoded[i] = binary.stateSerializer().serialize("states", event);
+        }
+
+        // Só o byte do status muda entre as três mensagens: 0 = OK, 1 = WARNING, 2 = CRITICAL
+        int statusAt = Arrays.mismatch(encoded[0], encoded[2]);
+        assertThat(encoded[0][statusAt]).isEqualTo((byte) 0);
+        assertThat(encoded[1][statusAt]).isEqualTo((byte) 1);
+        assertThat(encoded[2][statusAt]).isEqualTo((byte) 2);
+    }
+
+    @Test
+    void corruptedStringLengthIsASerializationException() {
+        EventCodecs binary = codecs(WireEncoding.BINARY);
+        byte[] valid = binary.alertSerializer().serialize("alerts",
+                new QueueAlert("g", "t", 0, 1L, "OK"));
+
+        // Tamanho do primeiro nome trocado por um varint de 10 bytes com valor negativo
+        byte[] negative = new byte[3 + 10];
+        System.arraycopy(valid, 0, negative, 0, 3);
+        Arrays.fill(negative, 3, 12, (byte) 0xFF);
+        negative[12] = 0x01;
+
+        assertThatThrownBy(() -> binary.alertDeserializer().deserialize("alerts", negative))
+                .isInstanceOf(SerializationException.class);
+    }
+}
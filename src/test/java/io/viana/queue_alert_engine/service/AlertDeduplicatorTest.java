@@ -0,0 +1,119 @@
+package io.viana.queue_alert_engine.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static io.viana.queue_alert_engine.service.AlertDeduplicator.Decision.ALERT;
+import static io.viana.queue_alert_engine.service.AlertDeduplicator.Decision.RECOVERY;
+import static io.viana.queue_alert_engine.service.AlertDeduplicator.Decision.REPEAT;
+import static io.viana.queue_alert_engine.service.AlertDeduplicator.Decision.SUPPRESS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa a máquina de estados dos alertas e o desfazer da decisão quando o envio falha.
+ */
+class AlertDeduplicatorTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AlertsProperties properties = new AlertsProperties();
+    private final AlertDeduplicator deduplicator = new AlertDeduplicator(properties);
+
+    private static GroupSlots slots() {
+        AlertGroup group = new AlertGroup();
+        group.setGroupId("group-1");
+        group.setRules(List.of(new AlertRule("orders", 0, 100, 1_000, 0, 0, null)));
+        OffsetIndex index = new OffsetIndex();
+        index.load(List.of(group));
+        return index.group("group-1");
+    }
+
+    @Test
+    void alertsOnChangeRepeatsAfterTheIntervalAndRecovers() {
+        properties.setRepeatAlertMinutes(5);
+        GroupSlots slots = slots();
+
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.OK, 0)).isEqualTo(SUPPRESS);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.WARNING, MINUTE)).isEqualTo(ALERT);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.WARNING, 2 * MINUTE)).isEqualTo(SUPPRESS);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 3 * MINUTE)).isEqualTo(ALERT);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 7 * MINUTE)).isEqualTo(SUPPRESS);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 8 * MINUTE)).isEqualTo(REPEAT);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.OK, 9 * MINUTE)).isEqualTo(RECOVERY);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.OK, 10 * MINUTE)).isEqualTo(SUPPRESS);
+
+        assertThat(deduplicator.getEmittedCount()).isEqualTo(4);
+        assertThat(deduplicator.getSuppressedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void zeroRepeatIntervalNeverRepeats() {
+        properties.setRepeatAlertMinutes(0);
+        GroupSlots slots = slots();
+
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, MINUTE)).isEqualTo(ALERT);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 600 * MINUTE)).isEqualTo(SUPPRESS);
+    }
+
+    @Test
+    void recoveryAlertsCanBeTurnedOff() {
+        properties.setRecoveryAlertsEnabled(false);
+        GroupSlots slots = slots();
+
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.WARNING, MINUTE)).isEqualTo(ALERT);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.OK, 2 * MINUTE)).isEqualTo(SUPPRESS);
+        // A recuperação silenciosa ainda zera o status: um novo problema volta a alertar
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.WARNING, 3 * MINUTE)).isEqualTo(ALERT);
+    }
+
+    @Test
+    void failedSendIsReleasedAgainOnTheNextCycle() {
+        properties.setRepeatAlertMinutes(0);
+        KafkaMessageProducer producer = mock(KafkaMessageProducer.class);
+        when(producer.sendEvent(any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker indisponível")));
+        AlertDispatcher dispatcher = new AlertDispatcher(producer, new KafkaProperties(), deduplicator,
+                new MonitorMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+        GroupSlots slots = slots();
+
+        // CRITICAL e depois a recuperação: os dois envios falham
+        dispatcher.dispatchAlert(evaluated(slots, QueueStatus.CRITICAL, MINUTE), 0);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 2 * MINUTE)).isEqualTo(ALERT);
+
+        dispatcher.dispatchAlert(evaluated(slots, QueueStatus.OK, 3 * MINUTE), 0);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.OK, 4 * MINUTE)).isEqualTo(RECOVERY);
+    }
+
+    @Test
+    void lateFailureDoesNotUndoANewerTransition() {
+        GroupSlots slots = slots();
+        long before = slots.alertState().get(0);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.WARNING, MINUTE)).isEqualTo(ALERT);
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 2 * MINUTE)).isEqualTo(ALERT);
+
+        // Falha do envio do WARNING chega depois do CRITICAL: nada é desfeito
+        deduplicator.revert(slots, 0, QueueStatus.WARNING, MINUTE, before);
+
+        assertThat(deduplicator.evaluate(slots, 0, QueueStatus.CRITICAL, 3 * MINUTE)).isEqualTo(SUPPRESS);
+    }
+
+    private static LagSnapshot.GroupLag evaluated(GroupSlots slots, QueueStatus status, long at) {
+        return LagSnapshot.GroupLag.builder(slots, at).evaluated(0, 2_000, 0, 2_000, status).build();
+    }
+}
@@ -0,0 +1,39 @@
+package io.viana.queue_alert_engine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.notifier.TelegramNotifier;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testa a redução dos alertas repetidos de um lote antes da notificação.
+ */
+class AlertServiceTest {
+
+    private final TelegramNotifier notifier = mock(TelegramNotifier.class);
+    private final AlertService alertService = new AlertService(new ObjectMapper(), notifier);
+
+    @Test
+    void collapsesRepeatsButKeepsEveryLevelChange() {
+        alertService.notifyAlerts(List.of(
+                new QueueAlert("group-1", "orders", 0, 1_000, "WARNING"),
+                new QueueAlert("group-1", "orders", 1, 50, "OK"),
+                new QueueAlert("group-1", "orders", 0, 1_500, "WARNING"),
+                new QueueAlert("group-1", "orders", 0, 9_000, "CRITICAL"),
+                new QueueAlert("group-1", "orders", 0, 10, "OK")));
+
+        ArgumentCaptor<QueueAlert> sent = ArgumentCaptor.forClass(QueueAlert.class);
+        verify(notifier, times(4)).sendAlert(sent.capture());
+        assertThat(sent.getAllValues())
+                .extracting(alert -> alert.getPartition() + ":" + alert.getLevel() + ":" + alert.getLag())
+                .containsExactly("1:OK:50", "0:WARNING:1500", "0:CRITICAL:9000", "0:OK:10");
+    }
+}
@@ -0,0 +1,44 @@
+package io.viana.queue_alert_engine.service;
+
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Testa que o timeout aplicado sobre um KafkaFuture realmente dispara.
+ */
+class KafkaFuturesTest {
+
+    @Test
+    void timesOutAKafkaFutureThatNeverCompletes() {
+        KafkaFutureImpl<String> pending = new KafkaFutureImpl<>();
+
+        CompletableFuture<String> bounded = KafkaFutures.withTimeout(pending, 50);
+
+        assertThatThrownBy(() -> bounded.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void passesValuesAndFailuresThrough() throws Exception {
+        KafkaFutureImpl<String> ok = new KafkaFutureImpl<>();
+        KafkaFutureImpl<String> failed = new KafkaFutureImpl<>();
+        CompletableFuture<String> okBridge = KafkaFutures.toCompletable(ok);
+        CompletableFuture<String> failedBridge = KafkaFutures.toCompletable(failed);
+
+        ok.complete("offsets");
+        failed.completeExceptionally(new IllegalStateException("broker"));
+
+        assertThat(okBridge.get(1, TimeUnit.SECONDS)).isEqualTo("offsets");
+        assertThatThrownBy(() -> failedBridge.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
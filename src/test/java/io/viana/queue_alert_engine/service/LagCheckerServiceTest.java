@@ -0,0 +1,54 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.serialization.WireEncoding;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.LagSnapshot;
+import io.viana.queue_alert_engine.support.EvaluationFixture;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa um ciclo completo de avaliação contra o AdminClient em memória
+ * e a versão do snapshot publicada ao fim do ciclo.
+ */
+class LagCheckerServiceTest {
+
+    @Test
+    void evaluatesEveryPartitionAndPublishesOnlyChanges() {
+        try (EvaluationFixture fixture = new EvaluationFixture(3, 10, 0, WireEncoding.BINARY)) {
+            fixture.cycle();
+
+            GroupSlots slots = fixture.offsetIndex().group("group-1");
+            TopicPartition tp = new TopicPartition("topic-1", 4);
+            long expected = fixture.admin().endOffset(tp) - fixture.admin().committed("group-1", tp);
+            assertThat(slots.lag(slots.slotOf("topic-1", 4))).isEqualTo(expected);
+            assertThat(fixture.admin().listOffsetsCalls()).isEqualTo(1);
+            assertThat(fixture.admin().groupOffsetsCalls()).isEqualTo(1);
+
+            // O ciclo publica uma versão do snapshot com os mesmos valores
+            LagSnapshot snapshot = fixture.lagSnapshotStore().current();
+            assertThat(snapshot.version()).isEqualTo(1);
+            assertThat(snapshot.partitions()).isEqualTo(30);
+            LagSnapshot.GroupLag group = snapshot.group("group-1");
+            assertThat(group.lag(group.slotOf("topic-1", 4))).isEqualTo(expected);
+            assertThat(group.count(QueueStatus.OK) + group.count(QueueStatus.WARNING)
+                    + group.count(QueueStatus.CRITICAL)).isEqualTo(10);
+
+            // Primeiro ciclo: um estado por partição, mais os alertas das partições fora do limite
+            int firstCycle = fixture.drainSent();
+            assertThat(firstCycle).isGreaterThan(30);
+
+            // Nada mudou: nenhum estado nem alerta novo
+            fixture.cycle();
+            assertThat(fixture.drainSent()).isZero();
+            // Nova versão com o grupo reavaliado; a versão anterior não muda
+            LagSnapshot next = fixture.lagSnapshotStore().current();
+            assertThat(next.version()).isEqualTo(2);
+            assertThat(next.group("group-1")).isNotSameAs(group);
+            assertThat(snapshot.group("group-1")).isSameAs(group);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Testa as taxas (EWMA), o tempo para zerar o lag e o status derivado dele.
+ */
+class LagRateEstimatorTest {
+
+    // Regra com WARNING acima de 10 min e CRITICAL acima de 30 min para zerar
+    private static final AlertRule RULE = new AlertRule("orders", 0, 1_000_000, 2_000_000, 600, 1_800, null);
+
+    private final MonitorProperties monitorProperties = new MonitorProperties();
+    private final LagRateEstimator estimator = new LagRateEstimator(monitorProperties);
+
+    private static GroupSlots slots() {
+        AlertGroup group = new AlertGroup();
+        group.setGroupId("group-1");
+        group.setRules(List.of(RULE));
+        OffsetIndex index = new OffsetIndex();
+        index.load(List.of(group));
+        return index.group("group-1");
+    }
+
+    @Test
+    void ewmaStartsAtTheFirstSampleAndMovesByTheElapsedTimeWeight() {
+        monitorProperties.setRateWindowMs(60_000);
+        GroupSlots slots = slots();
+
+        estimator.update(slots, 0, 0, 0, 1_000);
+        // Primeiro intervalo: 100 msg/s produzidas, 50 msg/s consumidas
+        estimator.update(slots, 0, 6_000, 3_000, 61_000);
+        assertThat(slots.produceRate(0)).isEqualTo(100.0);
+        assertThat(slots.consumeRate(0)).isEqualTo(50.0);
+
+        // Segundo intervalo de uma janela inteira a 200 msg/s: alpha = 1 - e^-1
+        estimator.update(slots, 0, 18_000, 6_000, 121_000);
+        double alpha = 1 - Math.exp(-1);
+        assertThat(slots.produceRate(0)).isCloseTo(100 + alpha * 100, within(1e-9));
+        assertThat(slots.consumeRate(0)).isEqualTo(50.0);
+    }
+
+    @Test
+    void noSamplesIsUnknownAndNeverAlerts() {
+        GroupSlots slots = slots();
+        estimator.update(slots, 0, 500_000, 0, 1_000);
+
+        long timeToDrain = estimator.timeToDrainSeconds(slots, 0, 500_000);
+
+        assertThat(timeToDrain).isEqualTo(LagRateEstimator.UNKNOWN);
+        assertThat(estimator.drainStatus(slots, 0, 500_000, timeToDrain, RULE)).isEqualTo(QueueStatus.OK);
+    }
+
+    @Test
+    void steadyLagOnlyAlertsAboveTheMinimumLag() {
+        monitorProperties.setDrainMinLag(1_000);
+        GroupSlots slots = slots();
+        // Partição ociosa: nada produzido nem consumido entre os ciclos
+        estimator.update(slots, 0, 1_200, 1_000, 1_000);
+        estimator.update(slots, 0, 1_200, 1_000, 61_000);
+
+        long residual = estimator.timeToDrainSeconds(slots, 0, 200);
+        assertThat(residual).isEqualTo(LagRateEstimator.NEVER);
+        assertThat(estimator.drainStatus(slots, 0, 200, residual, RULE)).isEqualTo(QueueStatus.OK);
+
+        // O mesmo consumidor parado com um lag grande excede os limites
+        assertThat(estimator.drainStatus(slots, 0, 5_000, LagRateEstimator.NEVER, RULE))
+                .isEqualTo(QueueStatus.CRITICAL);
+    }
+
+    @Test
+    void risingLagAlertsEvenBelowTheMinimumLag() {
+        monitorProperties.setDrainMinLag(1_000);
+        GroupSlots slots = slots();
+        estimator.update(slots, 0, 0, 0, 1_000);
+        estimator.update(slots, 0, 600, 500, 61_000);
+
+        long timeToDrain = estimator.timeToDrainSeconds(slots, 0, 100);
+
+        assertThat(timeToDrain).isEqualTo(LagRateEstimator.NEVER);
+        assertThat(estimator.drainStatus(slots, 0, 100, timeToDrain, RULE)).isEqualTo(QueueStatus.CRITICAL);
+    }
+
+    @Test
+    void drainingLagIsComparedWithTheLimits() {
+        GroupSlots slots = slots();
+        // Consome 10 msg/s a mais do que produz
+        estimator.update(slots, 0, 0, 0, 1_000);
+        estimator.update(slots, 0, 600, 1_200, 61_000);
+
+        assertThat(estimator.timeToDrainSeconds(slots, 0, 9_000)).isEqualTo(900);
+        assertThat(estimator.drainStatus(slots, 0, 9_000, 900, RULE)).isEqualTo(QueueStatus.WARNING);
+        assertThat(estimator.drainStatus(slots, 0, 3_000, 300, RULE)).isEqualTo(QueueStatus.OK);
+        assertThat(estimator.timeToDrainSeconds(slots, 0, 0)).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testa a carga e a recarga do arquivo externo de regras.
+ */
+class RuleConfigServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void loadsAndReloadsTheRulesFile() throws Exception {
+        Path file = directory.resolve("rules.yaml");
+        Files.writeString(file, """
+                alerts:
+                  groups:
+                    - group-id: g1
+                      rules:
+                        - topic: orders
+                          partition: 0
+                          lag-warning: 10
+                          lag-critical: 20
+                """);
+
+        AlertsProperties properties = new AlertsProperties();
+        properties.setRulesFile(file.toString());
+        OffsetIndex offsetIndex = new OffsetIndex();
+        RuleRegistry registry = new RuleRegistry(properties, offsetIndex, new TopicMetadataIndex(), new ShardAssignment(new ClusterProperties()));
+        RuleConfigService service = new RuleConfigService(properties, registry, mock(TopicMetadataRefresher.class));
+        try {
+            service.start();
+            registry.rebuild();
+            assertThat(offsetIndex.group("g1").rule(0).lagWarning()).isEqualTo(10);
+
+            // Arquivo inválido: as regras atuais são mantidas
+            Files.writeString(file, "alerts:\n  groups:\n    - group-id: g1\n      rules: []\n");
+            service.reloadFile();
+            assertThat(offsetIndex.group("g1").rule(0).lagWarning()).isEqualTo(10);
+
+            // Arquivo sem grupos (vazio ou sem alerts.groups): também inválido, nada é removido
+            Files.writeString(file, "");
+            service.reloadFile();
+            Files.writeString(file, "alerts:\n  groups: []\n");
+            service.reloadFile();
+            Files.writeString(file, "alerts:\n  rules-file: rules.yaml\n");
+            service.reloadFile();
+            assertThat(offsetIndex.group("g1").rule(0).lagWarning()).isEqualTo(10);
+
+            Files.writeString(file, """
+                    alerts:
+                      groups:
+                        - group-id: g1
+                          rules:
+                            - topic: orders
+                              partition: 0
+                              lag-warning: 50
+                              lag-critical: 90
+                    """);
+            service.reloadFile();
+            assertThat(offsetIndex.group("g1").rule(0).lagWarning()).isEqualTo(50);
+        } finally {
+            service.stop();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa a expansão de regras com curinga, todas as partições e grupo inteiro,
+ * e a mistura de grupos configurados com grupos descobertos.
+ */
+class RuleRegistryTest {
+
+    private static AlertRule rule(String topic, Integer partition, long warning, String pattern) {
+        return new AlertRule(topic, partition, warning, warning * 10, 0, 0, pattern);
+    }
+
+    private static AlertGroup group(String id, AlertRule... rules) {
+        AlertGroup group = new AlertGroup();
+        group.setGroupId(id);
+        group.setRules(List.of(rules));
+        return group;
+    }
+
+    @Test
+    void expandsPatternsAndKeepsTheMostSpecificRule() {
+        TopicMetadataIndex.Snapshot metadata = new TopicMetadataIndex.Snapshot(
+                Map.of("billing-a", 2, "billing-b", 1, "orders", 3), Map.of());
+
+        Map<String, List<AlertRule>> expanded = RuleRegistry.expand(List.of(group("g1",
+                rule("billing-*", null, 100, null), // todas as partições dos tópicos billing-*
+                rule("billing-a", 1, 5, null),       // mais específica para billing-a/1
+                rule(null, 0, 7, "ord.*"))), metadata);
+
+        assertThat(expanded.get("g1"))
+                .extracting(r -> r.topic() + "-" + r.partition() + ":" + r.lagWarning())
+                .containsExactlyInAnyOrder("billing-a-0:100", "billing-a-1:5", "billing-b-0:100", "orders-0:7");
+    }
+
+    @Test
+    void wholeGroupRulesUseTheGroupCommittedPartitions() {
+        TopicMetadataIndex.Snapshot metadata = new TopicMetadataIndex.Snapshot(Map.of(),
+                Map.of("g1", Set.of(new TopicPartition("x", 0), new TopicPartition("y", 2))));
+
+        Map<String, List<AlertRule>> expanded = RuleRegistry.expand(List.of(group("g1",
+                rule(null, null, 1000, null),
+                rule("y", 2, 1, null))), metadata);
+
+        assertThat(expanded.get("g1"))
+                .extracting(r -> r.topic() + "-" + r.partition() + ":" + r.lagWarning())
+                .containsExactlyInAnyOrder("x-0:1000", "y-2:1");
+    }
+
+    @Test
+    void configuredGroupsTakePrecedenceOverDiscoveredOnes() {
+        AlertsProperties properties = new AlertsProperties();
+        properties.setGroups(List.of(group("g1", rule("x", 0, 5, null))));
+        TopicMetadataIndex metadata = new TopicMetadataIndex();
+        metadata.update(new TopicMetadataIndex.Snapshot(Map.of(), Map.of(
+                "g1", Set.of(new TopicPartition("x", 0), new TopicPartition("x", 1)),
+                "g2", Set.of(new TopicPartition("z", 0)))));
+        RuleRegistry registry = new RuleRegistry(properties, new OffsetIndex(), metadata, new ShardAssignment(new ClusterProperties()));
+
+        assertThat(registry.setDiscoveredGroups(List.of(
+                group("g1", rule(null, null, 1000, null)),
+                group("g2", rule(null, null, 1000, null))))).isTrue();
+        assertThat(registry.rebuild()).isTrue();
+
+        assertThat(registry.groupIds()).containsExactly("g1", "g2");
+        assertThat(registry.expandedRules("g1"))
+                .extracting(r -> r.topic() + "-" + r.partition() + ":" + r.lagWarning())
+                .containsExactly("x-0:5");
+        assertThat(registry.expandedRules("g2"))
+                .extracting(r -> r.topic() + "-" + r.partition() + ":" + r.lagWarning())
+                .containsExactly("z-0:1000");
+
+        // Mesma descoberta: nada muda
+        assertThat(registry.setDiscoveredGroups(List.of(
+                group("g1", rule(null, null, 1000, null)),
+                group("g2", rule(null, null, 1000, null))))).isFalse();
+    }
+
+    @Test
+    void changingOneGroupKeepsTheSlotsOfTheOthers() {
+        AlertsProperties properties = new AlertsProperties();
+        properties.setGroups(List.of(group("g1", rule("x", 0, 5, null)), group("g2", rule("y", 0, 5, null))));
+        OffsetIndex offsetIndex = new OffsetIndex();
+        RuleRegistry registry = new RuleRegistry(properties, offsetIndex, new TopicMetadataIndex(), new ShardAssignment(new ClusterProperties()));
+        registry.rebuild();
+        offsetIndex.group("g1").lag(0, 42);
+        GroupSlots before = offsetIndex.group("g1");
+
+        assertThat(registry.putGroup(group("g2", rule("y", 0, 9, null), rule("y", 1, 9, null)))).isTrue();
+        assertThat(registry.rebuild()).isTrue();
+
+        // g1 não mudou: o mesmo bloco (e os mesmos valores) segue no novo layout
+        assertThat(offsetIndex.group("g1")).isSameAs(before);
+        assertThat(offsetIndex.group("g1").lag(0)).isEqualTo(42);
+        assertThat(offsetIndex.group("g2").size()).isEqualTo(2);
+    }
+
+    @Test
+    void clusterInstancesSplitThePartitionsWithoutOverlap() {
+        ClusterProperties cluster = new ClusterProperties();
+        cluster.setEnabled(true);
+        cluster.setShards(8);
+        AlertsProperties properties = new AlertsProperties();
+        properties.setGroups(List.of(group("g1", rule("orders", null, 5, null))));
+        TopicMetadataIndex metadata = new TopicMetadataIndex();
+        metadata.update(new TopicMetadataIndex.Snapshot(Map.of("orders", 32), Map.of()));
+
+        // Duas instâncias com metades complementares dos shards
+        ShardAssignment first = new ShardAssignment(cluster);
+        ShardAssignment second = new ShardAssignment(cluster);
+        first.add(List.of(0, 1, 2, 3));
+        second.add(List.of(4, 5, 6, 7));
+        RuleRegistry a = new RuleRegistry(properties, new OffsetIndex(), metadata, first);
+        RuleRegistry b = new RuleRegistry(properties, new OffsetIndex(), metadata, second);
+        a.rebuild();
+        b.rebuild();
+
+        List<Integer> partitionsA = a.expandedRules("g1").stream().map(AlertRule::partition).toList();
+        List<Integer> partitionsB = b.expandedRules("g1").stream().map(AlertRule::partition).toList();
+        assertThat(partitionsA).isNotEmpty().doesNotContainAnyElementsOf(partitionsB);
+        assertThat(partitionsA.size() + partitionsB.size()).isEqualTo(32);
+
+        // A primeira instância assume os shards da segunda
+        first.add(List.of(4, 5, 6, 7));
+        assertThat(a.rebuild()).isTrue();
+        assertThat(a.expandedRules("g1")).hasSize(32);
+    }
+
+    @Test
+    void leaderModeLoadsEverythingOnTheLeaderAndNothingOnTheStandby() {
+        ClusterProperties cluster = new ClusterProperties();
+        cluster.setEnabled(true);
+        cluster.setMode(ClusterProperties.Mode.LEADER);
+        AlertsProperties properties = new AlertsProperties();
+        properties.setGroups(List.of(group("g1", rule("x", 0, 5, null), rule("y", 3, 5, null))));
+        ShardAssignment assignment = new ShardAssignment(cluster);
+        RuleRegistry registry = new RuleRegistry(properties, new OffsetIndex(), new TopicMetadataIndex(), assignment);
+
+        registry.rebuild();
+        assertThat(assignment.isStandby()).isTrue();
+        assertThat(registry.groupIds()).isEmpty();
+
+        // Recebe a única partição do tópico de coordenação: vira a líder
+        assignment.add(List.of(0));
+        assertThat(assignment.isStandby()).isFalse();
+        assertThat(registry.rebuild()).isTrue();
+        assertThat(registry.expandedRules("g1")).hasSize(2);
+    }
+}
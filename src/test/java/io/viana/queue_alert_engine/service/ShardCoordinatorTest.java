@@ -0,0 +1,100 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.config.DiscoveryProperties;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.kafka.KafkaContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Testa a divisão dos shards entre duas instâncias com um broker local
+ * (Testcontainers; ignorado quando não há Docker).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ShardCoordinatorTest {
+
+    private static final int SHARDS = 8;
+
+    @Container
+    static final KafkaContainer KAFKA = new KafkaContainer("apache/kafka:3.8.0");
+
+    @Test
+    void instancesSplitTheShardsAndTakeOverAFailedPeer() throws Exception {
+        ClusterProperties cluster = new ClusterProperties();
+        cluster.setEnabled(true);
+        cluster.setShards(SHARDS);
+        cluster.setCoordinationTopic("coordination-test");
+        cluster.setSessionTimeoutMs(6000);
+        try (AdminClient admin = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers()))) {
+            admin.createTopics(List.of(new NewTopic(cluster.getCoordinationTopic(), SHARDS, (short) 1))).all().get();
+        }
+
+        ShardAssignment first = new ShardAssignment(cluster);
+        ShardAssignment second = new ShardAssignment(cluster);
+        ShardCoordinator a = coordinator(cluster, first);
+        ShardCoordinator b = coordinator(cluster, second);
+        try {
+            a.start();
+            await().atMost(Duration.ofSeconds(30)).until(() -> first.ownedCount() == SHARDS);
+
+            // Uma segunda instância recebe parte dos shards, sem sobreposição
+            b.start();
+            await().atMost(Duration.ofSeconds(30)).until(() ->
+                    second.ownedCount() > 0 && first.ownedCount() + second.ownedCount() == SHARDS);
+
+            // Quando a primeira sai, a segunda assume todos os shards
+            a.stop();
+            await().atMost(Duration.ofSeconds(30)).until(() -> second.ownedCount() == SHARDS);
+            assertThat(first.ownedCount()).isZero();
+        } finally {
+            a.stop();
+            b.stop();
+        }
+    }
+
+    @Test
+    void refusesToStartWhenTheCoordinationTopicDoesNotHaveOnePartitionPerShard() throws Exception {
+        ClusterProperties cluster = new ClusterProperties();
+        cluster.setEnabled(true);
+        cluster.setShards(SHARDS);
+        cluster.setCoordinationTopic("coordination-too-small");
+        try (AdminClient admin = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers()))) {
+            admin.createTopics(List.of(new NewTopic(cluster.getCoordinationTopic(), SHARDS / 2, (short) 1))).all().get();
+        }
+
+        ShardAssignment assignment = new ShardAssignment(cluster);
+        assertThatThrownBy(() -> coordinator(cluster, assignment).start())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cluster.shards = " + SHARDS);
+        assertThat(assignment.ownedCount()).isZero();
+    }
+
+    private static ShardCoordinator coordinator(ClusterProperties cluster, ShardAssignment assignment) {
+        KafkaProperties kafka = new KafkaProperties();
+        kafka.setBootstrapServers(KAFKA.getBootstrapServers());
+        OffsetIndex offsetIndex = new OffsetIndex();
+        RuleRegistry registry = new RuleRegistry(new AlertsProperties(), offsetIndex, new TopicMetadataIndex(), assignment);
+        return new ShardCoordinator(cluster, kafka, assignment, registry, offsetIndex, new QueueStateStore(),
+                null, new DiscoveryProperties(), null);
+    }
+}
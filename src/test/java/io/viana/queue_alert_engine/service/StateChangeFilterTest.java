@@ -0,0 +1,54 @@
+package io.viana.queue_alert_engine.service;
+
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.store.GroupSlots;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa que o estado só conta como publicado depois da confirmação do envio.
+ */
+class StateChangeFilterTest {
+
+    private final StateChangeFilter filter = new StateChangeFilter(new MonitorProperties());
+
+    private static GroupSlots slots() {
+        AlertGroup group = new AlertGroup();
+        group.setGroupId("group-1");
+        group.setRules(List.of(new AlertRule("orders", 0, 100, 1_000, 0, 0, null)));
+        OffsetIndex index = new OffsetIndex();
+        index.load(List.of(group));
+        return index.group("group-1");
+    }
+
+    @Test
+    void unconfirmedStateIsOfferedAgainOnTheNextCycle() {
+        GroupSlots slots = slots();
+
+        // Primeiro envio falhou (sem markPublished): o mesmo estado volta a ser liberado
+        assertThat(filter.shouldPublish(slots, 0, 500, QueueStatus.WARNING, 1_000)).isTrue();
+        assertThat(filter.shouldPublish(slots, 0, 500, QueueStatus.WARNING, 2_000)).isTrue();
+
+        // Confirmado: sem mudança, nada é publicado
+        filter.markPublished(slots, 0, 500, QueueStatus.WARNING, 2_000);
+        assertThat(filter.shouldPublish(slots, 0, 500, QueueStatus.WARNING, 3_000)).isFalse();
+        assertThat(filter.getPublishedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lateConfirmationDoesNotOverwriteANewerState() {
+        GroupSlots slots = slots();
+
+        filter.markPublished(slots, 0, 2_000, QueueStatus.CRITICAL, 2_000);
+        filter.markPublished(slots, 0, 500, QueueStatus.WARNING, 1_000);
+
+        assertThat(filter.shouldPublish(slots, 0, 2_000, QueueStatus.CRITICAL, 3_000)).isFalse();
+    }
+}
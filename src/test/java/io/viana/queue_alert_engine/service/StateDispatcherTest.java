@@ -0,0 +1,64 @@
+package io.viana.queue_alert_engine.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testa que a tabela local de estados só reflete envios confirmados pelo broker.
+ */
+class StateDispatcherTest {
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> template = mock(KafkaTemplate.class);
+    private final KafkaProperties kafkaProperties = new KafkaProperties();
+    private final QueueStateStore store = new QueueStateStore();
+    private final StateDispatcher dispatcher = new StateDispatcher(template, kafkaProperties, store,
+            new MonitorMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+
+    {
+        kafkaProperties.getProducer().setStateTopic("queue-monitor-states");
+    }
+
+    private static QueueStateEvent state(long lag, long at) {
+        return QueueStateEvent.builder()
+                .consumerGroup("group-1").topic("orders").partition(0)
+                .lag(lag).status(QueueStatus.WARNING).timestamp(at)
+                .build();
+    }
+
+    @Test
+    void failedSendDoesNotChangeTheLocalView() {
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(template.send(any(), any(), any())).thenReturn(pending);
+
+        dispatcher.sendQueueState(state(500, 1_000));
+        assertThat(store.get("group-1", "orders", 0)).isNull();
+
+        pending.completeExceptionally(new IllegalStateException("broker indisponível"));
+        assertThat(store.get("group-1", "orders", 0)).isNull();
+    }
+
+    @Test
+    void confirmedSendUpdatesTheLocalView() {
+        when(template.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        dispatcher.sendQueueState(state(500, 1_000));
+
+        assertThat(store.get("group-1", "orders", 0).getLag()).isEqualTo(500);
+    }
+}
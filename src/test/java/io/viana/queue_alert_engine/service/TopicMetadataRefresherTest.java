@@ -0,0 +1,75 @@
+package io.viana.queue_alert_engine.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.ClusterProperties;
+import io.viana.queue_alert_engine.config.DiscoveryProperties;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.ShardAssignment;
+import io.viana.queue_alert_engine.store.TopicMetadataIndex;
+import io.viana.queue_alert_engine.support.InMemoryAdmin;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa a atualização dos metadados com grupos descobertos durante uma atualização em andamento.
+ */
+class TopicMetadataRefresherTest {
+
+    private static List<AlertGroup> discovered(String... groupIds) {
+        List<AlertGroup> groups = new ArrayList<>();
+        for (String groupId : groupIds) {
+            AlertGroup group = new AlertGroup();
+            group.setGroupId(groupId);
+            group.setRules(List.of(new AlertRule(null, null, 1_000, 10_000, 0, 0, null)));
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    @Test
+    void groupsDiscoveredDuringARefreshGetTheirPartitionsFromAChainedRefresh() throws Exception {
+        InMemoryAdmin admin = new InMemoryAdmin(200);
+        admin.committed("g1", new TopicPartition("orders", 0), 10);
+        admin.committed("g2", new TopicPartition("payments", 0), 10);
+
+        TopicMetadataIndex metadata = new TopicMetadataIndex();
+        ShardAssignment shards = new ShardAssignment(new ClusterProperties());
+        RuleRegistry registry = new RuleRegistry(new AlertsProperties(), new OffsetIndex(), metadata, shards);
+        TopicMetadataRefresher refresher = new TopicMetadataRefresher(admin.client(), metadata, registry,
+                new MonitorProperties(), new DiscoveryProperties(), shards,
+                new MonitorMetrics(new SimpleMeterRegistry(), new MetricsProperties()), Runnable::run);
+        try {
+            registry.setDiscoveredGroups(discovered("g1"));
+            CompletableFuture<Boolean> first = refresher.refresh();
+            // Mesmos grupos: reaproveita a atualização em andamento
+            assertThat(refresher.refresh()).isSameAs(first);
+
+            // g2 chega enquanto a primeira atualização ainda espera o cluster
+            registry.setDiscoveredGroups(discovered("g1", "g2"));
+            CompletableFuture<Boolean> second = refresher.refresh();
+            assertThat(second).isNotSameAs(first);
+
+            second.get(5, TimeUnit.SECONDS);
+            assertThat(first).isDone();
+            assertThat(metadata.current().groupPartitions()).containsOnlyKeys("g1", "g2");
+            assertThat(registry.expandedRules("g2"))
+                    .extracting(rule -> rule.topic() + "-" + rule.partition())
+                    .containsExactly("payments-0");
+        } finally {
+            admin.close();
+        }
+    }
+}
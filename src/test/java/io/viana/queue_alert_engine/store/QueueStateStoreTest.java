@@ -0,0 +1,48 @@
+package io.viana.queue_alert_engine.store;
+
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.domain.QueueStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa a visão materializada de estados e seus índices secundários.
+ */
+class QueueStateStoreTest {
+
+    private static QueueStateEvent state(String group, int partition, long lag, QueueStatus status, long timestamp) {
+        return QueueStateEvent.builder()
+                .consumerGroup(group).topic("orders").partition(partition)
+                .lastProducedOffset(1000).lastConsumedOffset(1000 - lag).lag(lag)
+                .status(status).timestamp(timestamp).build();
+    }
+
+    @Test
+    void indexesFollowTheLatestStateOfEachKey() {
+        QueueStateStore store = new QueueStateStore();
+        store.put(state("g1", 0, 500, QueueStatus.CRITICAL, 1));
+        store.put(state("g1", 1, 200, QueueStatus.WARNING, 1));
+        store.put(state("g2", 0, 10, QueueStatus.OK, 1));
+
+        // A partição 0 de g1 se recupera; um estado antigo reentregue é ignorado
+        store.put(state("g1", 0, 0, QueueStatus.OK, 2));
+        store.put(state("g1", 0, 900, QueueStatus.CRITICAL, 1));
+
+        assertThat(store.byStatus(QueueStatus.CRITICAL)).isEmpty();
+        assertThat(store.byStatus(QueueStatus.OK)).hasSize(2);
+        assertThat(store.topLag(2)).extracting(QueueStateEvent::getLag).containsExactly(200L, 10L);
+        assertThat(store.byGroup("g1")).hasSize(2);
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    void readsReturnCopies() {
+        QueueStateStore store = new QueueStateStore();
+        store.put(state("g1", 0, 500, QueueStatus.CRITICAL, 1));
+
+        store.snapshot().get(0).setLag(0);
+
+        assertThat(store.get("g1", "orders", 0).getLag()).isEqualTo(500);
+    }
+}
@@ -0,0 +1,118 @@
+package io.viana.queue_alert_engine.store.history;
+
+import io.viana.queue_alert_engine.config.HistoryProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Testa a agregação por resolução, a releitura dos arquivos e o descarte
+ * das séries que saíram da monitoração.
+ */
+class LagHistoryStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final OffsetIndex offsetIndex = new OffsetIndex();
+
+    private LagHistoryStore store(String dir) {
+        HistoryProperties history = new HistoryProperties();
+        history.setDirectory(dir);
+        history.setSegmentBytes(4096);
+        MonitorProperties monitor = new MonitorProperties();
+        monitor.setIntervalMs(10_000);
+        LagHistoryStore store = new LagHistoryStore(history, monitor, offsetIndex);
+        store.init();
+        return store;
+    }
+
+    @Test
+    void downsamplesIntoMinuteBucketsKeepingTheMaxLag() {
+        LagHistoryStore store = store("");
+        long base = System.currentTimeMillis() / 60_000 * 60_000 - 600_000;
+        for (int i = 0; i < 12; i++) {
+            // Dois minutos com um ponto a cada 10 s; pico de 500 no primeiro minuto
+            store.record("g1", "orders", 0, base + i * 10_000L, 1000 + i, 900, i == 2 ? 500 : i);
+        }
+
+        List<HistoryPoint> minutes = store.query("g1", "orders", 0, base, base + 120_000, HistoryTier.MINUTE);
+
+        assertThat(minutes).extracting(HistoryPoint::timestamp).containsExactly(base, base + 60_000);
+        assertThat(minutes.get(0).lag()).isEqualTo(500);
+        assertThat(minutes.get(1).lag()).isEqualTo(11);
+        assertThat(store.query("g1", "orders", 0, base, base + 120_000, HistoryTier.RAW)).hasSize(12);
+    }
+
+    @Test
+    void rawTierCoversTheWholeRetentionAtTheShortestAdaptiveInterval() {
+        // Intervalo base de 10 s, mas o grupo em CRITICAL cai para 5 s (min-interval-ms) menos 10% de jitter
+        LagHistoryStore store = store("");
+        long now = System.currentTimeMillis();
+        for (long at = now - 3_600_000; at <= now; at += 4_500) {
+            store.record("g1", "orders", 0, at, at, 0, 1_000);
+        }
+
+        long from = now - 3_599_000;
+        List<HistoryPoint> hour = store.query("g1", "orders", 0, from, now, null);
+
+        assertThat(store.tierFor(from)).isEqualTo(HistoryTier.RAW);
+        assertThat(hour).hasSize(800);
+        assertThat(hour.get(0).timestamp()).isEqualTo(now - 3_595_500);
+        assertThat(hour.get(799).timestamp()).isEqualTo(now);
+    }
+
+    @Test
+    void replaysPersistedPointsAfterRestart() {
+        LagHistoryStore first = store(directory.toString());
+        long now = System.currentTimeMillis();
+        // Suficiente para ocupar mais de um segmento de 4 KB
+        for (int i = 0; i < 200; i++) {
+            first.record("g1", "orders", 0, now - 200_000 + i * 1000L, i, 0, i);
+        }
+        first.close();
+
+        LagHistoryStore second = store(directory.toString());
+        List<HistoryPoint> raw = second.query("g1", "orders", 0, 0, Long.MAX_VALUE, HistoryTier.RAW);
+
+        assertThat(raw).hasSize(200);
+        assertThat(raw.get(199).lag()).isEqualTo(199);
+    }
+
+    @Test
+    void evictsSeriesOfPartitionsThatLeftTheLayoutAndFreesTheirSlots() {
+        HistoryProperties history = new HistoryProperties();
+        history.setMaxSeries(2);
+        LagHistoryStore store = new LagHistoryStore(history, new MonitorProperties(), offsetIndex);
+        store.init();
+        long now = System.currentTimeMillis();
+
+        // Sem regras carregadas nada é descartado
+        store.record("g1", "orders", 0, now, 10, 0, 10);
+        store.record("g2", "orders", 0, now, 10, 0, 10);
+        store.sync();
+        assertThat(store.keys()).hasSize(2);
+
+        // O grupo g2 sai da monitoração: sua série é descartada e o espaço volta a ser usado
+        AlertGroup g1 = new AlertGroup();
+        g1.setGroupId("g1");
+        g1.setRules(List.of(
+                new AlertRule("orders", 0, 100, 1_000, 0, 0, null),
+                new AlertRule("orders", 1, 100, 1_000, 0, 0, null)));
+        offsetIndex.load(List.of(g1));
+        store.sync();
+        store.record("g1", "orders", 1, now, 10, 0, 10);
+
+        assertThat(store.keys()).containsExactly(
+                QueueStateStore.keyOf("g1", "orders", 0), QueueStateStore.keyOf("g1", "orders", 1));
+    }
+}
@@ -0,0 +1,247 @@
+package io.viana.queue_alert_engine.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.viana.queue_alert_engine.config.AlertsProperties;
+import io.viana.queue_alert_engine.config.HistoryProperties;
+import io.viana.queue_alert_engine.config.KafkaProperties;
+import io.viana.queue_alert_engine.config.MetricsProperties;
+import io.viana.queue_alert_engine.config.MonitorProperties;
+import io.viana.queue_alert_engine.domain.AlertGroup;
+import io.viana.queue_alert_engine.domain.AlertRule;
+import io.viana.queue_alert_engine.domain.QueueAlert;
+import io.viana.queue_alert_engine.domain.QueueStateEvent;
+import io.viana.queue_alert_engine.metrics.MonitorMetrics;
+import io.viana.queue_alert_engine.serialization.EventCodecs;
+import io.viana.queue_alert_engine.serialization.WireEncoding;
+import io.viana.queue_alert_engine.service.AlertDeduplicator;
+import io.viana.queue_alert_engine.service.AlertDispatcher;
+import io.viana.queue_alert_engine.service.KafkaMessageProducer;
+import io.viana.queue_alert_engine.service.LagCheckerService;
+import io.viana.queue_alert_engine.service.LagRateEstimator;
+import io.viana.queue_alert_engine.service.QueueOffsetTracker;
+import io.viana.queue_alert_engine.service.StateChangeFilter;
+import io.viana.queue_alert_engine.service.StateDispatcher;
+import io.viana.queue_alert_engine.store.LagSnapshotStore;
+import io.viana.queue_alert_engine.store.OffsetIndex;
+import io.viana.queue_alert_engine.store.QueueStateStore;
+import io.viana.queue_alert_engine.store.history.LagHistoryStore;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Monta o caminho de avaliação real (LagCheckerService, deduplicador, filtro de
+ * estados, histórico, despacho e serialização) sem Spring e sem broker: o
+ * AdminClient é o {@link InMemoryAdmin} e o produtor é um MockProducer que
+ * serializa os eventos de verdade.
+ *
+ * No construtor simples, cada grupo lê um tópico próprio com 'partitions'
+ * partições, com limites de {@value #LAG_WARNING}/{@value #LAG_CRITICAL}. Cerca
+ * de 8% das partições começam em WARNING e 2% em CRITICAL. O construtor completo
+ * recebe os grupos e o AdminClient prontos (ex: um cluster simulado) e pode
+ * observar cada registro enviado ao produtor.
+ */
+public final class EvaluationFixture implements AutoCloseable {
+
+    public static final long LAG_WARNING = 1_000;
+    public static final long LAG_CRITICAL = 10_000;
+
+    private final InMemoryAdmin admin;
+    private final MockProducer<String, Object> producer;
+    private final OffsetIndex offsetIndex = new OffsetIndex();
+    private final LagSnapshotStore lagSnapshotStore = new LagSnapshotStore(offsetIndex);
+    private final SimpleMeterRegistry registry;
+    private final QueueStateStore queueStateStore = new QueueStateStore();
+    private final List<AlertGroup> groups;
+    private final EventCodecs codecs;
+    private final AlertDeduplicator alertDeduplicator;
+    private final StateChangeFilter stateChangeFilter;
+    private final ExecutorService evaluationExecutor;
+    private final QueueOffsetTracker offsetTracker;
+    private final LagCheckerService lagChecker;
+
+    public EvaluationFixture(int groupCount, int partitions, long adminLatencyMs, WireEncoding encoding) {
+        this(new InMemoryAdmin(adminLatencyMs), groupCount, partitions, encoding);
+    }
+
+    private EvaluationFixture(InMemoryAdmin admin, int groupCount, int partitions, WireEncoding encoding) {
+        this(seed(admin, groupCount, partitions), admin, new MonitorProperties(), encoding,
+                new SimpleMeterRegistry(), null);
+    }
+
+    /**
+     * @param groups Os grupos monitorados (regras concretas).
+     * @param admin O AdminClient em memória que responde os offsets dos grupos.
+     * @param monitorProperties Configuração da avaliação e do agendamento.
+     * @param encoding Formato dos eventos publicados.
+     * @param registry Registry das métricas do caminho de avaliação.
+     * @param onSend Chamado a cada registro enviado ao produtor (alertas e estados); pode ser null.
+     */
+    public EvaluationFixture(List<AlertGroup> groups, InMemoryAdmin admin, MonitorProperties monitorProperties,
+                             WireEncoding encoding, SimpleMeterRegistry registry,
+                             Consumer<ProducerRecord<String, Object>> onSend) {
+        this.admin = admin;
+        this.groups = groups;
+        this.registry = registry;
+
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.getProducer().setEncoding(encoding);
+        kafkaProperties.getProducer().setAlertTopic("queue-monitor-alerts");
+        kafkaProperties.getProducer().setStateTopic("queue-monitor-states");
+        AlertsProperties alertsProperties = new AlertsProperties();
+
+        // Produtor com os mesmos serializers da aplicação (KafkaProducerConfig)
+        this.codecs = new EventCodecs(kafkaProperties, new ObjectMapper());
+        Map<Class<?>, Serializer<?>> serializers = new LinkedHashMap<>();
+        serializers.put(String.class, new StringSerializer());
+        serializers.put(byte[].class, new ByteArraySerializer());
+        serializers.put(QueueAlert.class, codecs.alertSerializer());
+        serializers.put(QueueStateEvent.class, codecs.stateSerializer());
+        // O KafkaTemplate fecha o produtor da fábrica após cada envio; aqui ele é compartilhado
+        this.producer = new MockProducer<>(true, new StringSerializer(), new DelegatingByTypeSerializer(serializers)) {
+            @Override
+            public synchronized Future<RecordMetadata> send(ProducerRecord<String, Object> record, Callback callback) {
+                Future<RecordMetadata> result = super.send(record, callback);
+                if (onSend != null) onSend.accept(record);
+                return result;
+            }
+
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        KafkaTemplate<String, Object> eventTemplate = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        KafkaTemplate<String, String> textTemplate = new KafkaTemplate(new MockProducerFactory<>(() -> producer));
+
+        MonitorMetrics metrics = new MonitorMetrics(registry, new MetricsProperties());
+        HistoryProperties historyProperties = new HistoryProperties();
+        LagHistoryStore history = new LagHistoryStore(historyProperties, monitorProperties, offsetIndex);
+        history.init();
+
+        // Só a atualização de offsets consumidos é usada: as dependências da inicialização ficam nulas
+        this.offsetTracker = new QueueOffsetTracker(admin.client(), offsetIndex,
+                null, null, null, null, null, null, null, metrics);
+        this.evaluationExecutor = Executors.newFixedThreadPool(Math.max(1, monitorProperties.getEvaluationThreads()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "lag-eval-fixture");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.alertDeduplicator = new AlertDeduplicator(alertsProperties);
+        this.stateChangeFilter = new StateChangeFilter(monitorProperties);
+        this.lagChecker = new LagCheckerService(admin.client(), offsetTracker, offsetIndex, lagSnapshotStore,
+                new StateDispatcher(eventTemplate, kafkaProperties, queueStateStore, metrics),
+                stateChangeFilter,
+                history,
+                new LagRateEstimator(monitorProperties),
+                new AlertDispatcher(new KafkaMessageProducer(textTemplate, eventTemplate, metrics),
+                        kafkaProperties, alertDeduplicator, metrics),
+                monitorProperties, metrics, evaluationExecutor);
+
+        offsetIndex.load(groups);
+    }
+
+    // Grupos 'group-g' lendo 'topic-g', com os offsets iniciais gravados no admin
+    private static List<AlertGroup> seed(InMemoryAdmin admin, int groupCount, int partitions) {
+        List<AlertGroup> groups = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            String groupId = "group-" + g;
+            String topic = "topic-" + g;
+            List<AlertRule> rules = new ArrayList<>(partitions);
+            for (int p = 0; p < partitions; p++) {
+                rules.add(new AlertRule(topic, p, LAG_WARNING, LAG_CRITICAL, 0, 0, null));
+                TopicPartition tp = new TopicPartition(topic, p);
+                long produced = 1_000_000L + p;
+                admin.endOffset(tp, produced);
+                admin.committed(groupId, tp, produced - initialLag(g, p));
+            }
+            AlertGroup group = new AlertGroup();
+            group.setGroupId(groupId);
+            group.setRules(rules);
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    // Lag inicial determinístico: ~90% OK, ~8% WARNING, ~2% CRITICAL
+    private static long initialLag(int group, int partition) {
+        int bucket = Math.floorMod(group * 31 + partition * 17, 100);
+        if (bucket < 2) return LAG_CRITICAL + bucket * 100;
+        if (bucket < 10) return LAG_WARNING + bucket * 10;
+        return bucket;
+    }
+
+    /**
+     * Executa um ciclo completo de avaliação e espera o fim.
+     */
+    public void cycle() {
+        lagChecker.checkAllGroups().join();
+    }
+
+    /**
+     * Descarta os registros guardados pelo MockProducer (evita crescer a memória entre iterações).
+     *
+     * @return Quantos registros tinham sido enviados.
+     */
+    public int drainSent() {
+        int sent = producer.history().size();
+        producer.clear();
+        return sent;
+    }
+
+    public InMemoryAdmin admin() { return admin; }
+
+    public OffsetIndex offsetIndex() { return offsetIndex; }
+
+    public LagSnapshotStore lagSnapshotStore() { return lagSnapshotStore; }
+
+    public QueueOffsetTracker offsetTracker() { return offsetTracker; }
+
+    public LagCheckerService lagChecker() { return lagChecker; }
+
+    public SimpleMeterRegistry registry() { return registry; }
+
+    public List<AlertGroup> groups() { return groups; }
+
+    public EventCodecs codecs() { return codecs; }
+
+    public AlertDeduplicator alertDeduplicator() { return alertDeduplicator; }
+
+    public StateChangeFilter stateChangeFilter() { return stateChangeFilter; }
+
+    /**
+     * Espera as avaliações em andamento (até 10 s) e libera as threads.
+     */
+    @Override
+    public void close() {
+        evaluationExecutor.shutdown();
+        try {
+            evaluationExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        evaluationExecutor.shutdownNow();
+        admin.close();
+    }
+}
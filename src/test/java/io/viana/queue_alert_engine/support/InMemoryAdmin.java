@@ -0,0 +1,220 @@
+package io.viana.queue_alert_engine.support;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.internals.CoordinatorKey;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+
+import java.lang.reflect.Constructor;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * AdminClient em memória para benchmarks e testes de carga, sem broker.
+ *
+ * Responde listOffsets e listConsumerGroupOffsets (as duas chamadas do ciclo de
+ * avaliação) a partir de mapas mantidos pelo próprio teste ou de uma
+ * {@link OffsetSource} que sintetiza os offsets no instante da chamada; as
+ * demais chamadas devolvem null. Com 'latencyMs' maior que zero, as respostas
+ * chegam depois desse atraso, como uma ida e volta ao broker.
+ */
+public final class InMemoryAdmin {
+
+    /**
+     * Origem dos offsets respondidos (ex: um cluster simulado com dinâmica de lag).
+     */
+    public interface OffsetSource {
+
+        /**
+         * Último offset produzido da partição no instante dado; -1 = partição desconhecida.
+         */
+        long endOffset(TopicPartition tp, long nowMillis);
+
+        /**
+         * Offset commitado pelo grupo no instante dado; -1 = sem commit.
+         */
+        long committed(String groupId, TopicPartition tp, long nowMillis);
+    }
+
+    // Construtor interno do resultado multi-grupo (não há construtor público)
+    private static final Constructor<ListConsumerGroupOffsetsResult> GROUP_OFFSETS_RESULT;
+
+    static {
+        try {
+            GROUP_OFFSETS_RESULT = ListConsumerGroupOffsetsResult.class.getDeclaredConstructor(Map.class);
+            GROUP_OFFSETS_RESULT.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Último offset produzido de cada partição
+    private final Map<TopicPartition, Long> endOffsets = new ConcurrentHashMap<>();
+    // Offsets commitados de cada grupo
+    private final Map<String, Map<TopicPartition, Long>> committed = new ConcurrentHashMap<>();
+    // Offsets respondidos (por padrão, os mapas acima)
+    private final OffsetSource source;
+    // Atraso simulado de cada resposta (0 = imediata)
+    private final long latencyMs;
+    // Conclui as respostas atrasadas
+    private final ScheduledExecutorService responder;
+    // Chamadas recebidas (para os relatórios)
+    private final LongAdder listOffsetsCalls = new LongAdder();
+    private final LongAdder groupOffsetsCalls = new LongAdder();
+    private final LongAdder requestedPartitions = new LongAdder();
+
+    private final AdminClient client;
+
+    public InMemoryAdmin() {
+        this(0);
+    }
+
+    public InMemoryAdmin(long latencyMs) {
+        this(latencyMs, null);
+    }
+
+    public InMemoryAdmin(long latencyMs, OffsetSource source) {
+        this.latencyMs = latencyMs;
+        this.source = source != null ? source : new OffsetSource() {
+            @Override
+            public long endOffset(TopicPartition tp, long nowMillis) {
+                return endOffsets.getOrDefault(tp, -1L);
+            }
+
+            @Override
+            public long committed(String groupId, TopicPartition tp, long nowMillis) {
+                Map<TopicPartition, Long> offsets = committed.get(groupId);
+                Long offset = offsets != null ? offsets.get(tp) : null;
+                return offset != null ? offset : -1L;
+            }
+        };
+        this.responder = latencyMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "in-memory-admin");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+
+        AdminClient admin = mock(AdminClient.class, withSettings().stubOnly());
+        when(admin.listOffsets(anyMap())).thenAnswer(call -> listOffsets(call.getArgument(0)));
+        when(admin.listOffsets(anyMap(), any())).thenAnswer(call -> listOffsets(call.getArgument(0)));
+        when(admin.listConsumerGroupOffsets(anyMap())).thenAnswer(call -> groupOffsets(call.getArgument(0)));
+        when(admin.listConsumerGroupOffsets(anyMap(), any())).thenAnswer(call -> groupOffsets(call.getArgument(0)));
+        this.client = admin;
+    }
+
+    /**
+     * O AdminClient a ser injetado nos serviços.
+     */
+    public AdminClient client() {
+        return client;
+    }
+
+    public void endOffset(TopicPartition tp, long offset) {
+        endOffsets.put(tp, offset);
+    }
+
+    public long endOffset(TopicPartition tp) {
+        return endOffsets.getOrDefault(tp, 0L);
+    }
+
+    public void committed(String groupId, TopicPartition tp, long offset) {
+        committed.computeIfAbsent(groupId, ignored -> new ConcurrentHashMap<>()).put(tp, offset);
+    }
+
+    public long committed(String groupId, TopicPartition tp) {
+        Map<TopicPartition, Long> offsets = committed.get(groupId);
+        Long offset = offsets != null ? offsets.get(tp) : null;
+        return offset != null ? offset : 0L;
+    }
+
+    public long listOffsetsCalls() {
+        return listOffsetsCalls.sum();
+    }
+
+    public long groupOffsetsCalls() {
+        return groupOffsetsCalls.sum();
+    }
+
+    /**
+     * Total de partições pedidas em listOffsets (partições avaliadas).
+     */
+    public long requestedPartitions() {
+        return requestedPartitions.sum();
+    }
+
+    public void close() {
+        if (responder != null) responder.shutdownNow();
+    }
+
+    private ListOffsetsResult listOffsets(Map<TopicPartition, OffsetSpec> request) {
+        listOffsetsCalls.increment();
+        requestedPartitions.add(request.size());
+        Map<TopicPartition, KafkaFutureImpl<ListOffsetsResult.ListOffsetsResultInfo>> futures = new HashMap<>();
+        request.keySet().forEach(tp -> futures.put(tp, new KafkaFutureImpl<>()));
+        respond(() -> futures.forEach((tp, future) -> {
+            long offset = source.endOffset(tp, System.currentTimeMillis());
+            if (offset < 0) {
+                future.completeExceptionally(new UnknownTopicOrPartitionException(tp.toString()));
+            } else {
+                future.complete(new ListOffsetsResult.ListOffsetsResultInfo(offset, -1, Optional.empty()));
+            }
+        }));
+        return new ListOffsetsResult(new HashMap<>(futures));
+    }
+
+    private ListConsumerGroupOffsetsResult groupOffsets(Map<String, ListConsumerGroupOffsetsSpec> specs) {
+        groupOffsetsCalls.increment();
+        Map<CoordinatorKey, KafkaFutureImpl<Map<TopicPartition, OffsetAndMetadata>>> futures = new HashMap<>();
+        specs.keySet().forEach(groupId -> futures.put(CoordinatorKey.byGroupId(groupId), new KafkaFutureImpl<>()));
+        respond(() -> futures.forEach((key, future) -> {
+            long now = System.currentTimeMillis();
+            ListConsumerGroupOffsetsSpec spec = specs.get(key.idValue);
+            // Sem partições na especificação: todas as commitadas (só para os mapas)
+            Collection<TopicPartition> partitions = spec.topicPartitions() != null
+                    ? spec.topicPartitions()
+                    : committed.getOrDefault(key.idValue, Map.of()).keySet();
+            Map<TopicPartition, OffsetAndMetadata> result = new HashMap<>(partitions.size() * 2);
+            for (TopicPartition tp : partitions) {
+                long offset = source.committed(key.idValue, tp, now);
+                if (offset >= 0) result.put(tp, new OffsetAndMetadata(offset));
+            }
+            future.complete(result);
+        }));
+        try {
+            return GROUP_OFFSETS_RESULT.newInstance(new HashMap<CoordinatorKey, KafkaFuture<?>>(futures));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Responde na hora ou depois do atraso configurado
+    private void respond(Runnable response) {
+        if (responder == null) {
+            response.run();
+        } else {
+            responder.schedule(response, latencyMs, TimeUnit.MILLISECONDS);
+        }
+    }
+}